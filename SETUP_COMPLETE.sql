@@ -345,6 +345,45 @@ BEGIN
 END;
 /
 
+-- =====================================================
+-- BƯỚC 14B: HIGH-WATERMARK CHO AUDIT VIEWER
+-- =====================================================
+-- Vị trí đã đọc tới của từng nguồn audit (UNIFIED, FGA).
+-- Ứng dụng chỉ đọc các record mới hơn vị trí này ở mỗi lần poll.
+CREATE TABLE AUDIT_WATERMARK (
+    SOURCE VARCHAR2(30) PRIMARY KEY,
+    LAST_EVENT_TS TIMESTAMP(6) NOT NULL,   -- UTC
+    LAST_SESSION_ID NUMBER NOT NULL,
+    LAST_ENTRY_ID NUMBER NOT NULL,
+    UPDATED_AT TIMESTAMP DEFAULT SYSTIMESTAMP
+);
+
+-- =====================================================
+-- BƯỚC 14C: AUDIT LOG CỦA ỨNG DỤNG
+-- =====================================================
+-- Login và mọi thao tác thay đổi trên giao diện (grant, lock, drop...).
+-- Ứng dụng ghi theo batch từ thread nền.
+CREATE TABLE APP_AUDIT_LOG (
+    ID NUMBER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    EVENT_TIME TIMESTAMP(6) NOT NULL,
+    ACTOR VARCHAR2(128),
+    ACTION VARCHAR2(128) NOT NULL,
+    TARGET VARCHAR2(1000),
+    OUTCOME VARCHAR2(10) NOT NULL,         -- SUCCESS / FAILURE
+    DETAIL VARCHAR2(1000),
+    DURATION_US NUMBER,
+    CLIENT_IP VARCHAR2(64)
+);
+
+CREATE INDEX IDX_APP_AUDIT_LOG_TIME ON APP_AUDIT_LOG(EVENT_TIME);
+CREATE INDEX IDX_APP_AUDIT_LOG_ACTOR ON APP_AUDIT_LOG(ACTOR, EVENT_TIME);
+
+CONNECT / AS SYSDBA
+ALTER SESSION SET CONTAINER = orclpdb;
+
+-- SEC_ADMIN đọc UNIFIED_AUDIT_TRAIL (DBA_FGA_AUDIT_TRAIL đã đọc được nhờ SELECT ANY DICTIONARY)
+GRANT AUDIT_VIEWER TO SEC_ADMIN;
+
 -- =====================================================
 -- BƯỚC 15: VERIFICATION - KIỂM TRA SETUP
 -- =====================================================
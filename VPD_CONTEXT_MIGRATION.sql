@@ -0,0 +1,206 @@
+-- =====================================================
+-- MIGRATION: VPD DÙNG APPLICATION CONTEXT (CONTEXT_SENSITIVE)
+-- =====================================================
+-- Thay PL_VPD_USER_PROFILE (dynamic policy, FN_VPD_USER_PROFILE chạy lại ở mỗi câu lệnh
+-- và ghép username vào predicate) bằng:
+-- - Secure application context APP_USER_CTX, chỉ package PKG_APP_USER_CTX được set
+-- - Context được set một lần khi login (logon trigger) hoặc khi ứng dụng giao connection cho một user
+-- - Policy CONTEXT_SENSITIVE: Oracle chỉ gọi lại policy function khi APP_USER_CTX.USERNAME thay đổi,
+--   predicate không chứa literal nên mọi user dùng chung một cursor
+--
+-- Chạy bằng SYS AS SYSDBA, SAU SETUP_COMPLETE.sql (Oracle 12.2+).
+-- Sau khi chạy, bật app.vpd.context.enabled=true trong application.properties.
+-- Quay lại policy cũ: xem BƯỚC 6 ở cuối file.
+-- =====================================================
+
+CONNECT / AS SYSDBA
+ALTER SESSION SET CONTAINER = orclpdb;
+
+-- =====================================================
+-- BƯỚC 1: QUYỀN CHO APP_OWNER
+-- =====================================================
+-- Package của context đọc quyền của user để tính IS_ADMIN
+GRANT CREATE ANY CONTEXT TO APP_OWNER;
+GRANT SELECT ON SYS.DBA_SYS_PRIVS TO APP_OWNER;
+GRANT SELECT ON SYS.DBA_ROLE_PRIVS TO APP_OWNER;
+
+-- =====================================================
+-- BƯỚC 2: PACKAGE SET CONTEXT
+-- =====================================================
+CONNECT APP_OWNER/app123@localhost:1521/orclpdb.lan
+
+CREATE OR REPLACE CONTEXT APP_USER_CTX USING APP_OWNER.PKG_APP_USER_CTX;
+
+CREATE OR REPLACE PACKAGE PKG_APP_USER_CTX AS
+    -- Gọi từ logon trigger: context = user của session (kể cả proxy session, SESSION_USER là user thật)
+    PROCEDURE INIT_SESSION;
+
+    -- Gọi từ ứng dụng khi giao connection của pool cho một user đã đăng nhập
+    PROCEDURE SET_USER(p_username VARCHAR2);
+
+    -- Trả connection về trạng thái của chính pool user (job nền, không có request)
+    PROCEDURE CLEAR_USER;
+END PKG_APP_USER_CTX;
+/
+
+CREATE OR REPLACE PACKAGE BODY PKG_APP_USER_CTX AS
+
+    FUNCTION IS_ADMIN(p_username VARCHAR2) RETURN VARCHAR2 IS
+        v_count NUMBER;
+    BEGIN
+        -- SEC_ADMIN và APP_OWNER xem toàn bộ như FN_VPD_USER_PROFILE
+        IF p_username IN ('SEC_ADMIN', 'APP_OWNER') THEN
+            RETURN 'Y';
+        END IF;
+
+        -- User có CREATE USER (trực tiếp hoặc qua role, vd R_ADMIN) cũng xem toàn bộ
+        SELECT COUNT(*) INTO v_count
+        FROM DUAL
+        WHERE EXISTS (
+            SELECT 1 FROM DBA_SYS_PRIVS
+            WHERE PRIVILEGE = 'CREATE USER'
+              AND GRANTEE IN (
+                  SELECT p_username FROM DUAL
+                  UNION ALL
+                  SELECT GRANTED_ROLE FROM DBA_ROLE_PRIVS
+                  START WITH GRANTEE = p_username
+                  CONNECT BY PRIOR GRANTED_ROLE = GRANTEE
+              )
+        );
+        RETURN CASE WHEN v_count > 0 THEN 'Y' ELSE 'N' END;
+    END IS_ADMIN;
+
+    PROCEDURE APPLY(p_username VARCHAR2) IS
+    BEGIN
+        DBMS_SESSION.SET_CONTEXT('APP_USER_CTX', 'USERNAME', p_username);
+        DBMS_SESSION.SET_CONTEXT('APP_USER_CTX', 'IS_ADMIN', IS_ADMIN(p_username));
+    END APPLY;
+
+    PROCEDURE INIT_SESSION IS
+    BEGIN
+        APPLY(SYS_CONTEXT('USERENV', 'SESSION_USER'));
+    END INIT_SESSION;
+
+    PROCEDURE SET_USER(p_username VARCHAR2) IS
+    BEGIN
+        -- Chỉ tài khoản pool của ứng dụng được đổi user trong context
+        IF SYS_CONTEXT('USERENV', 'SESSION_USER') NOT IN ('APP_OWNER', 'SEC_ADMIN') THEN
+            RAISE_APPLICATION_ERROR(-20001, 'SET_USER is only allowed for application pool accounts');
+        END IF;
+        APPLY(UPPER(TRIM(p_username)));
+    END SET_USER;
+
+    PROCEDURE CLEAR_USER IS
+    BEGIN
+        INIT_SESSION;
+    END CLEAR_USER;
+END PKG_APP_USER_CTX;
+/
+
+GRANT EXECUTE ON PKG_APP_USER_CTX TO SEC_ADMIN;
+
+-- =====================================================
+-- BƯỚC 3: POLICY FUNCTION ĐỌC CONTEXT
+-- =====================================================
+-- Predicate cố định, không ghép username: mọi user non-admin dùng chung một cursor
+CREATE OR REPLACE FUNCTION FN_VPD_USER_PROFILE_CTX (
+    p_schema VARCHAR2,
+    p_object VARCHAR2
+) RETURN VARCHAR2 IS
+BEGIN
+    IF SYS_CONTEXT('APP_USER_CTX', 'IS_ADMIN') = 'Y' THEN
+        RETURN NULL;
+    END IF;
+
+    RETURN 'USERNAME = SYS_CONTEXT(''APP_USER_CTX'', ''USERNAME'')';
+END;
+/
+
+-- =====================================================
+-- BƯỚC 4: LOGON TRIGGER VÀ POLICY (SYS)
+-- =====================================================
+CONNECT / AS SYSDBA
+ALTER SESSION SET CONTAINER = orclpdb;
+
+-- Set context một lần cho mỗi session (SQL*Plus, proxy session, connection của pool)
+CREATE OR REPLACE TRIGGER TRG_APP_USER_CTX_LOGON
+AFTER LOGON ON DATABASE
+BEGIN
+    APP_OWNER.PKG_APP_USER_CTX.INIT_SESSION;
+EXCEPTION
+    -- Không chặn login nếu package lỗi; policy sẽ không trả dòng nào cho user non-admin
+    WHEN OTHERS THEN NULL;
+END;
+/
+
+BEGIN
+    BEGIN
+        DBMS_RLS.DROP_POLICY(
+            object_schema   => 'APP_OWNER',
+            object_name     => 'APP_USER_PROFILE',
+            policy_name     => 'PL_VPD_USER_PROFILE'
+        );
+    EXCEPTION
+        WHEN OTHERS THEN NULL;
+    END;
+
+    BEGIN
+        DBMS_RLS.DROP_POLICY(
+            object_schema   => 'APP_OWNER',
+            object_name     => 'APP_USER_PROFILE',
+            policy_name     => 'PL_VPD_USER_PROFILE_CTX'
+        );
+    EXCEPTION
+        WHEN OTHERS THEN NULL;
+    END;
+
+    -- Chỉ đánh giá lại khi APP_USER_CTX.USERNAME đổi (IS_ADMIN luôn đổi cùng USERNAME)
+    DBMS_RLS.ADD_POLICY(
+        object_schema   => 'APP_OWNER',
+        object_name     => 'APP_USER_PROFILE',
+        policy_name     => 'PL_VPD_USER_PROFILE_CTX',
+        function_schema => 'APP_OWNER',
+        policy_function => 'FN_VPD_USER_PROFILE_CTX',
+        statement_types => 'SELECT, UPDATE, DELETE',
+        update_check    => TRUE,
+        policy_type     => DBMS_RLS.CONTEXT_SENSITIVE,
+        namespace       => 'APP_USER_CTX',
+        attribute       => 'USERNAME'
+    );
+END;
+/
+
+-- =====================================================
+-- BƯỚC 5: KIỂM TRA
+-- =====================================================
+SELECT 'VPD POLICIES' as CHECK_TYPE, OBJECT_NAME, POLICY_NAME, FUNCTION, POLICY_TYPE
+FROM DBA_POLICIES
+WHERE OBJECT_OWNER = 'APP_OWNER'
+ORDER BY OBJECT_NAME;
+
+CONNECT SEC_ADMIN/admin123@localhost:1521/orclpdb.lan
+PROMPT Test 1: SEC_ADMIN query (should see ALL rows)
+SELECT SYS_CONTEXT('APP_USER_CTX', 'USERNAME') AS CTX_USER, SYS_CONTEXT('APP_USER_CTX', 'IS_ADMIN') AS CTX_ADMIN FROM DUAL;
+SELECT USERNAME, FULL_NAME, EMAIL FROM APP_OWNER.APP_USER_PROFILE;
+
+CONNECT U_USER01/user123@localhost:1521/orclpdb.lan
+PROMPT Test 2: U_USER01 query (should see ONLY U_USER01 row)
+SELECT USERNAME, FULL_NAME, EMAIL FROM APP_OWNER.APP_USER_PROFILE;
+
+PROMPT Test 3: U_USER01 cannot change the context (should FAIL)
+-- EXEC DBMS_SESSION.SET_CONTEXT('APP_USER_CTX', 'USERNAME', 'SEC_ADMIN');
+-- Expected: ORA-01031: insufficient privileges
+
+-- =====================================================
+-- BƯỚC 6: ROLLBACK VỀ DYNAMIC POLICY (NẾU CẦN)
+-- =====================================================
+-- CONNECT / AS SYSDBA
+-- ALTER SESSION SET CONTAINER = orclpdb;
+-- EXEC DBMS_RLS.DROP_POLICY('APP_OWNER', 'APP_USER_PROFILE', 'PL_VPD_USER_PROFILE_CTX');
+-- EXEC DBMS_RLS.ADD_POLICY('APP_OWNER', 'APP_USER_PROFILE', 'PL_VPD_USER_PROFILE', 'APP_OWNER', 'FN_VPD_USER_PROFILE', 'SELECT, UPDATE, DELETE', TRUE);
+-- DROP TRIGGER TRG_APP_USER_CTX_LOGON;
+-- và đặt lại app.vpd.context.enabled=false
+
+PROMPT ========================================
+PROMPT VPD CONTEXT MIGRATION COMPLETE
+PROMPT ========================================
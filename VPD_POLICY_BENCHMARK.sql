@@ -0,0 +1,108 @@
+-- =====================================================
+-- BENCHMARK: DYNAMIC VPD POLICY vs CONTEXT_SENSITIVE POLICY
+-- =====================================================
+-- So sánh chi phí đánh giá predicate của
+-- - PL_VPD_USER_PROFILE     (DYNAMIC, FN_VPD_USER_PROFILE chạy lại ở mỗi lần execute)
+-- - PL_VPD_USER_PROFILE_CTX (CONTEXT_SENSITIVE, chỉ chạy lại khi APP_USER_CTX.USERNAME đổi)
+-- cùng một workload của U_USER01: &iterations lần SELECT trên APP_OWNER.APP_USER_PROFILE.
+--
+-- Chạy bằng SYS AS SYSDBA sau VPD_CONTEXT_MIGRATION.sql.
+-- Để đo dưới tải: chạy BƯỚC 2 / BƯỚC 4 đồng thời trong nhiều session SQL*Plus (U_USER01)
+-- và so sánh elapsed / CPU của từng session.
+-- =====================================================
+
+DEFINE iterations = 100000
+
+SET SERVEROUTPUT ON
+SET VERIFY OFF
+
+-- =====================================================
+-- BƯỚC 1: CHỈ BẬT DYNAMIC POLICY
+-- =====================================================
+CONNECT / AS SYSDBA
+ALTER SESSION SET CONTAINER = orclpdb;
+
+BEGIN
+    BEGIN
+        DBMS_RLS.ADD_POLICY(
+            object_schema   => 'APP_OWNER',
+            object_name     => 'APP_USER_PROFILE',
+            policy_name     => 'PL_VPD_USER_PROFILE',
+            function_schema => 'APP_OWNER',
+            policy_function => 'FN_VPD_USER_PROFILE',
+            statement_types => 'SELECT, UPDATE, DELETE',
+            update_check    => TRUE
+        );
+    EXCEPTION
+        -- Policy đã tồn tại
+        WHEN OTHERS THEN NULL;
+    END;
+
+    DBMS_RLS.ENABLE_POLICY('APP_OWNER', 'APP_USER_PROFILE', 'PL_VPD_USER_PROFILE', TRUE);
+    DBMS_RLS.ENABLE_POLICY('APP_OWNER', 'APP_USER_PROFILE', 'PL_VPD_USER_PROFILE_CTX', FALSE);
+END;
+/
+
+-- =====================================================
+-- BƯỚC 2: WORKLOAD VỚI DYNAMIC POLICY
+-- =====================================================
+CONNECT U_USER01/user123@localhost:1521/orclpdb.lan
+SET SERVEROUTPUT ON
+
+DECLARE
+    v_count NUMBER;
+    v_start NUMBER := DBMS_UTILITY.GET_TIME;
+    v_cpu   NUMBER := DBMS_UTILITY.GET_CPU_TIME;
+BEGIN
+    FOR i IN 1 .. &iterations LOOP
+        SELECT COUNT(*) INTO v_count FROM APP_OWNER.APP_USER_PROFILE;
+    END LOOP;
+    DBMS_OUTPUT.PUT_LINE('DYNAMIC           : elapsed ' || (DBMS_UTILITY.GET_TIME - v_start) * 10
+        || ' ms, cpu ' || (DBMS_UTILITY.GET_CPU_TIME - v_cpu) * 10 || ' ms, rows ' || v_count);
+END;
+/
+
+-- =====================================================
+-- BƯỚC 3: CHỈ BẬT CONTEXT_SENSITIVE POLICY
+-- =====================================================
+CONNECT / AS SYSDBA
+ALTER SESSION SET CONTAINER = orclpdb;
+
+BEGIN
+    DBMS_RLS.ENABLE_POLICY('APP_OWNER', 'APP_USER_PROFILE', 'PL_VPD_USER_PROFILE', FALSE);
+    DBMS_RLS.ENABLE_POLICY('APP_OWNER', 'APP_USER_PROFILE', 'PL_VPD_USER_PROFILE_CTX', TRUE);
+END;
+/
+
+-- =====================================================
+-- BƯỚC 4: WORKLOAD VỚI CONTEXT_SENSITIVE POLICY
+-- =====================================================
+CONNECT U_USER01/user123@localhost:1521/orclpdb.lan
+SET SERVEROUTPUT ON
+
+DECLARE
+    v_count NUMBER;
+    v_start NUMBER := DBMS_UTILITY.GET_TIME;
+    v_cpu   NUMBER := DBMS_UTILITY.GET_CPU_TIME;
+BEGIN
+    FOR i IN 1 .. &iterations LOOP
+        SELECT COUNT(*) INTO v_count FROM APP_OWNER.APP_USER_PROFILE;
+    END LOOP;
+    DBMS_OUTPUT.PUT_LINE('CONTEXT_SENSITIVE : elapsed ' || (DBMS_UTILITY.GET_TIME - v_start) * 10
+        || ' ms, cpu ' || (DBMS_UTILITY.GET_CPU_TIME - v_cpu) * 10 || ' ms, rows ' || v_count);
+END;
+/
+
+-- =====================================================
+-- BƯỚC 5: TRẢ VỀ TRẠNG THÁI SAU MIGRATION
+-- =====================================================
+CONNECT / AS SYSDBA
+ALTER SESSION SET CONTAINER = orclpdb;
+
+EXEC DBMS_RLS.DROP_POLICY('APP_OWNER', 'APP_USER_PROFILE', 'PL_VPD_USER_PROFILE');
+
+-- Số lần parse / execute của câu SELECT trong hai lần chạy
+SELECT SQL_ID, PARSE_CALLS, EXECUTIONS, ROUND(CPU_TIME / 1000) AS CPU_MS, SQL_TEXT
+FROM V$SQL
+WHERE SQL_TEXT LIKE 'SELECT COUNT(*) FROM APP_OWNER.APP_USER_PROFILE%'
+ORDER BY LAST_ACTIVE_TIME DESC;
@@ -0,0 +1,52 @@
+package com.example.demo.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCryptPasswordEncoder.matches - phần chính của thời gian login (AuthenticationService.login).
+ * Cost 10 là mặc định của BCryptPasswordEncoder; mỗi +1 cost nhân đôi thời gian.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+    
+    @Param({"4", "8", "10", "12"})
+    public int cost;
+    
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+    
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+        hash = encoder.encode("user123");
+    }
+    
+    @Benchmark
+    public boolean matchesCorrectPassword() {
+        return encoder.matches("user123", hash);
+    }
+    
+    @Benchmark
+    public boolean matchesWrongPassword() {
+        return encoder.matches("wrong-password", hash);
+    }
+}
+
@@ -0,0 +1,58 @@
+package com.example.demo.bench;
+
+import com.example.demo.repository.PrivilegeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PrivilegeRepository.hasPrivilege - được gọi nhiều lần trong mỗi request (hasAdminCapabilities, nút trên giao diện).
+ * grantedVia = direct: quyền cấp trực tiếp (một query); role: qua role (query trực tiếp trả 0, rồi query qua role).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrivilegeCheckBenchmark {
+    
+    @Param({"direct", "role"})
+    public String grantedVia;
+    
+    private AnnotationConfigApplicationContext context;
+    private PrivilegeRepository privilegeRepository;
+    
+    @Setup
+    public void setUp() {
+        boolean direct = "direct".equals(grantedVia);
+        StubJdbcTemplate admin = new StubJdbcTemplate()
+            .on("WHERE GRANTEE IN (", new SyntheticResultSet("CNT").row(direct ? 0 : 1))
+            .on("FROM DBA_SYS_PRIVS", new SyntheticResultSet("CNT").row(direct ? 1 : 0));
+        context = StubbedContext.create(admin, new StubJdbcTemplate());
+        privilegeRepository = context.getBean(PrivilegeRepository.class);
+    }
+    
+    @Benchmark
+    public boolean hasPrivilege() {
+        return privilegeRepository.hasPrivilege("SEC_ADMIN", "CREATE USER");
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+}
+
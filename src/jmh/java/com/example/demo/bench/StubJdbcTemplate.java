@@ -0,0 +1,59 @@
+package com.example.demo.bench;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JdbcTemplate trả dữ liệu từ SyntheticResultSet thay vì Oracle: mỗi fixture gắn với một đoạn SQL
+ * (vd "FROM DBA_USERS"), query không khớp fixture nào trả về ResultSet rỗng.
+ * Mọi biến thể query / queryForList / queryForObject của JdbcTemplate đều đi qua hai hàm được override.
+ */
+public class StubJdbcTemplate extends JdbcTemplate {
+    
+    private static final SyntheticResultSet EMPTY = new SyntheticResultSet("EMPTY");
+    
+    private final Map<String, SyntheticResultSet> fixtures = new LinkedHashMap<>();
+    
+    public StubJdbcTemplate on(String sqlFragment, SyntheticResultSet rows) {
+        fixtures.put(sqlFragment, rows);
+        return this;
+    }
+    
+    @Override
+    public void afterPropertiesSet() {
+        // Không có DataSource
+    }
+    
+    @Override
+    public <T> T query(String sql, ResultSetExtractor<T> rse) throws DataAccessException {
+        return extract(sql, rse);
+    }
+    
+    @Override
+    public <T> T query(String sql, PreparedStatementSetter pss, ResultSetExtractor<T> rse) throws DataAccessException {
+        return extract(sql, rse);
+    }
+    
+    private <T> T extract(String sql, ResultSetExtractor<T> rse) {
+        SyntheticResultSet rows = EMPTY;
+        for (Map.Entry<String, SyntheticResultSet> fixture : fixtures.entrySet()) {
+            if (sql.contains(fixture.getKey())) {
+                rows = fixture.getValue();
+                break;
+            }
+        }
+        try {
+            return rse.extractData(rows.open());
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("StubJdbcTemplate", sql, e);
+        }
+    }
+}
+
@@ -0,0 +1,36 @@
+package com.example.demo.bench;
+
+import com.example.demo.metrics.MethodMetrics;
+import com.example.demo.repository.AppAuditLogRepository;
+import com.example.demo.repository.AppLoginUserRepository;
+import com.example.demo.repository.DictionaryQueryGuard;
+import com.example.demo.repository.PrivilegeRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.AppAuditLog;
+import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.UserService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Spring context nhỏ với repository / service thật và hai JdbcTemplate stub (adminJdbcTemplate, appJdbcTemplate),
+ * để benchmark đi qua đúng code path của ứng dụng (DictionaryQueryGuard, row mapper...) mà không cần Oracle.
+ * Log của repository / service vẫn được tạo nhưng không ghi ra console: xem src/jmh/resources/logback.xml.
+ */
+public final class StubbedContext {
+    
+    private StubbedContext() {
+    }
+    
+    public static AnnotationConfigApplicationContext create(StubJdbcTemplate admin, StubJdbcTemplate app) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean("adminJdbcTemplate", JdbcTemplate.class, () -> admin);
+        context.registerBean("appJdbcTemplate", JdbcTemplate.class, () -> app);
+        context.register(MethodMetrics.class, DictionaryQueryGuard.class, PrivilegeRepository.class,
+            UserRepository.class, AppLoginUserRepository.class, AppAuditLogRepository.class, AppAuditLog.class,
+            AuthenticationService.class, UserService.class);
+        context.refresh();
+        return context;
+    }
+}
+
@@ -0,0 +1,150 @@
+package com.example.demo.bench;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ResultSet trong bộ nhớ cho benchmark row mapper / repository, không cần Oracle.
+ * Chỉ hỗ trợ các getter mà repository dùng (getString, getInt, getLong, getTimestamp, getObject...).
+ *
+ * Đây là dynamic proxy nên mỗi lần gọi có thêm chi phí reflection cố định: dùng để so sánh giữa các build,
+ * không phải số tuyệt đối của driver Oracle.
+ */
+public final class SyntheticResultSet {
+    
+    private final String[] columns;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final List<Object[]> rows = new ArrayList<>();
+    
+    public SyntheticResultSet(String... columns) {
+        this.columns = columns;
+        for (int i = 0; i < columns.length; i++) {
+            indexes.put(columns[i].toUpperCase(Locale.ROOT), i);
+        }
+    }
+    
+    public SyntheticResultSet row(Object... values) {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " values, got " + values.length);
+        }
+        rows.add(values);
+        return this;
+    }
+    
+    public int size() {
+        return rows.size();
+    }
+    
+    /**
+     * ResultSet mới (cursor ở trước dòng đầu) mỗi lần gọi.
+     */
+    public ResultSet open() {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+            new Cursor());
+    }
+    
+    private final class Cursor implements InvocationHandler {
+        
+        private int position = -1;
+        private boolean lastWasNull;
+        private boolean closed;
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            switch (method.getName()) {
+                case "next":
+                    return ++position < rows.size();
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "wasNull":
+                    return lastWasNull;
+                case "getMetaData":
+                    return metaData();
+                case "findColumn":
+                    return index(args[0]) + 1;
+                case "getWarnings":
+                case "getStatement":
+                    return null;
+                case "clearWarnings":
+                    return null;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "SyntheticResultSet" + List.of(columns);
+                default:
+                    if (method.getName().startsWith("get") && args != null && args.length >= 1) {
+                        return get(method.getName(), method.getReturnType(), value(args[0]));
+                    }
+                    throw new SQLException("Not supported by SyntheticResultSet: " + method.getName());
+            }
+        }
+        
+        private Object value(Object column) throws SQLException {
+            if (position < 0 || position >= rows.size()) {
+                throw new SQLException("Cursor is not on a row");
+            }
+            Object value = rows.get(position)[index(column)];
+            lastWasNull = value == null;
+            return value;
+        }
+        
+        private int index(Object column) throws SQLException {
+            if (column instanceof Integer i) {
+                return i - 1;
+            }
+            Integer index = indexes.get(column.toString().toUpperCase(Locale.ROOT));
+            if (index == null) {
+                throw new SQLException("Invalid column name: " + column);
+            }
+            return index;
+        }
+        
+        private Object get(String getter, Class<?> type, Object value) {
+            switch (getter) {
+                case "getString":
+                    return value == null ? null : value.toString();
+                case "getInt":
+                    return value == null ? 0 : ((Number) value).intValue();
+                case "getLong":
+                    return value == null ? 0L : ((Number) value).longValue();
+                case "getDouble":
+                    return value == null ? 0d : ((Number) value).doubleValue();
+                case "getBoolean":
+                    return value != null && (value instanceof Boolean b ? b : ((Number) value).intValue() != 0);
+                case "getBigDecimal":
+                    return value == null ? null : new BigDecimal(value.toString());
+                case "getTimestamp":
+                    return (Timestamp) value;
+                default:
+                    return type.isPrimitive() ? null : value;
+            }
+        }
+    }
+    
+    private ResultSetMetaData metaData() {
+        return (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+            new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "getColumnCount" -> columns.length;
+                case "getColumnLabel", "getColumnName" -> columns[(Integer) args[0] - 1];
+                case "getColumnType" -> java.sql.Types.OTHER;
+                default -> throw new SQLException("Not supported by SyntheticResultSet metadata: " + method.getName());
+            });
+    }
+}
+
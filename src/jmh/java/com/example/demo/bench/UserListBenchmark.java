@@ -0,0 +1,82 @@
+package com.example.demo.bench;
+
+import com.example.demo.model.User;
+import com.example.demo.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserService.getAllUsers - trang /users: DBA_USERS rồi quota, roles, privileges, APP_USER_PROFILE cho từng user.
+ * Đo phần Java (guard, mapper, N+1 vòng lặp) với JdbcTemplate stub, không tính round-trip tới Oracle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserListBenchmark {
+    
+    @Param({"20", "200"})
+    public int users;
+    
+    private AnnotationConfigApplicationContext context;
+    private UserService userService;
+    
+    @Setup
+    public void setUp() {
+        Timestamp created = Timestamp.valueOf("2024-01-15 08:30:00");
+        SyntheticResultSet dbaUsers = new SyntheticResultSet("USERNAME", "ACCOUNT_STATUS", "LOCK_DATE", "CREATED",
+            "DEFAULT_TABLESPACE", "TEMPORARY_TABLESPACE", "PROFILE");
+        SyntheticResultSet usernames = new SyntheticResultSet("USERNAME");
+        for (int i = 0; i < users; i++) {
+            dbaUsers.row("U_USER" + i, "OPEN", null, created, "TS_APP_DATA", "TEMP", "P_STANDARD");
+            usernames.row("U_USER" + i);
+        }
+        
+        StubJdbcTemplate admin = new StubJdbcTemplate()
+            .on("ACCOUNT_STATUS,", dbaUsers)
+            .on("CNT\nFROM DBA_USERS", new SyntheticResultSet("CNT").row(users))
+            .on("CNT FROM DBA_USERS", new SyntheticResultSet("CNT").row(users))
+            .on("SELECT USERNAME FROM DBA_USERS", usernames)
+            .on("FROM DBA_TS_QUOTAS", new SyntheticResultSet("QUOTA").row("100M"))
+            .on("INNER JOIN DBA_ROLE_PRIVS", new SyntheticResultSet("PRIVILEGE", "ADMIN_OPTION", "GRANTED_ROLE")
+                .row("CREATE SESSION", "NO", "R_EMPLOYEE")
+                .row("SELECT ANY TABLE", "NO", "R_MANAGER"))
+            .on("FROM DBA_ROLE_PRIVS", new SyntheticResultSet("GRANTED_ROLE").row("R_EMPLOYEE").row("R_MANAGER"))
+            .on("FROM DBA_SYS_PRIVS", new SyntheticResultSet("PRIVILEGE", "GRANTEE", "ADMIN_OPTION")
+                .row("CREATE SESSION", "U_USER0", "NO"));
+        StubJdbcTemplate app = new StubJdbcTemplate()
+            .on("FROM APP_OWNER.APP_USER_PROFILE", new SyntheticResultSet("USERNAME", "FULL_NAME", "EMAIL", "PHONE", "ADDRESS")
+                .row("U_USER0", "Nguyen Van A", "nguyenvana@company.com", "0901234567", "Ha Noi"));
+        
+        context = StubbedContext.create(admin, app);
+        userService = context.getBean(UserService.class);
+    }
+    
+    @Benchmark
+    public List<User> getAllUsers() {
+        return userService.getAllUsers("SEC_ADMIN");
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+}
+
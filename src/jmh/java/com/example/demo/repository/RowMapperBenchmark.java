@@ -0,0 +1,87 @@
+package com.example.demo.repository;
+
+import com.example.demo.bench.SyntheticResultSet;
+import com.example.demo.model.PrivilegeTable;
+import com.example.demo.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserRowMapper và việc đọc privilege vào PrivilegeTable của PrivilegeRepository trên ResultSet tổng hợp
+ * (cùng package với repository để dùng được các mapper / helper package-private).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+    
+    @Param({"10", "1000"})
+    public int rows;
+    
+    private SyntheticResultSet users;
+    private SyntheticResultSet systemPrivileges;
+    private SyntheticResultSet objectPrivileges;
+    
+    @Setup
+    public void setUp() {
+        Timestamp created = Timestamp.valueOf("2024-01-15 08:30:00");
+        users = new SyntheticResultSet("USERNAME", "ACCOUNT_STATUS", "LOCK_DATE", "CREATED",
+            "DEFAULT_TABLESPACE", "TEMPORARY_TABLESPACE", "PROFILE");
+        systemPrivileges = new SyntheticResultSet("PRIVILEGE", "GRANTEE", "ADMIN_OPTION");
+        objectPrivileges = new SyntheticResultSet("PRIVILEGE", "GRANTEE", "GRANTOR", "OBJECT_NAME", "GRANTABLE");
+        
+        for (int i = 0; i < rows; i++) {
+            users.row("U_USER" + i, i % 10 == 0 ? "LOCKED" : "OPEN", i % 10 == 0 ? created : null, created,
+                "TS_APP_DATA", "TEMP", "P_STANDARD");
+            systemPrivileges.row(i % 2 == 0 ? "CREATE SESSION" : "CREATE USER", "U_USER" + i, i % 3 == 0 ? "YES" : "NO");
+            objectPrivileges.row("SELECT", "U_USER" + i, "APP_OWNER", "APP_USER_PROFILE", "NO");
+        }
+    }
+    
+    @Benchmark
+    public List<User> userRowMapper() throws SQLException {
+        return new RowMapperResultSetExtractor<>(new UserRepository.UserRowMapper()).extractData(users.open());
+    }
+    
+    @Benchmark
+    public PrivilegeTable systemPrivilegeTable() throws SQLException {
+        return buildTable(systemPrivileges.open(), false);
+    }
+    
+    @Benchmark
+    public PrivilegeTable objectPrivilegeTable() throws SQLException {
+        return buildTable(objectPrivileges.open(), true);
+    }
+    
+    // Giống RowCallbackHandler trong PrivilegeRepository.queryPrivileges
+    private static PrivilegeTable buildTable(ResultSet rs, boolean objectPrivileges) throws SQLException {
+        PrivilegeTable.Builder table = PrivilegeTable.builder();
+        while (rs.next()) {
+            if (objectPrivileges) {
+                PrivilegeRepository.addObjectPrivilege(table, rs);
+            } else {
+                PrivilegeRepository.addSystemPrivilege(table, rs);
+            }
+        }
+        return table.build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.metrics.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kết quả theo endpoint, ghi từ mọi virtual user.
+ *
+ * Response time tính từ thời điểm request lẽ ra được gửi theo lịch của virtual user (bù coordinated omission):
+ * khi server chậm, request sau bị gửi trễ và thời gian chờ đó được tính vào latency thay vì biến mất khỏi số liệu.
+ * Service time (từ lúc gửi thật) được in kèm để thấy phần chênh lệch.
+ */
+public class LoadStats {
+    
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+    private final Map<String, AtomicLong> errorReasons = new ConcurrentHashMap<>();
+    
+    public void record(String endpoint, long responseMicros, long serviceMicros, String error) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+        stats.responseTime.record(responseMicros);
+        stats.serviceTime.record(serviceMicros);
+        if (error != null) {
+            stats.errors.incrementAndGet();
+            errorReasons.computeIfAbsent(endpoint + ": " + error, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+    
+    public void print(PrintStream out, Duration measured, double intendedPerSecond) {
+        double seconds = measured.toMillis() / 1000.0;
+        String header = "%-26s %9s %7s %9s %9s %9s %9s %9s %12s";
+        String row = "%-26s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %12.1f";
+        
+        out.println();
+        out.printf(header + "%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms",
+            "svc p99 ms");
+        
+        Endpoint total = new Endpoint();
+        endpoints.forEach((name, stats) -> {
+            total.add(stats);
+            out.printf(row + "%n", name, stats.responseTime.getCount(), stats.errors.get(),
+                stats.responseTime.getCount() / seconds, ms(stats.responseTime.percentile(50)),
+                ms(stats.responseTime.percentile(99)), ms(stats.responseTime.percentile(99.9)),
+                ms(stats.responseTime.getMaxMicros()), ms(stats.serviceTime.percentile(99)));
+        });
+        out.printf(row + "%n", "TOTAL", total.responseTime.getCount(), total.errors.get(),
+            total.responseTime.getCount() / seconds, ms(total.responseTime.percentile(50)),
+            ms(total.responseTime.percentile(99)), ms(total.responseTime.percentile(99.9)),
+            ms(total.responseTime.getMaxMicros()), ms(total.serviceTime.percentile(99)));
+        
+        // Throughput thấp hơn nhiều so với lịch của các virtual user nghĩa là node đã bão hòa
+        out.printf("%nIntended %.1f req/s, achieved %.1f req/s over %.0f s%n",
+            intendedPerSecond, total.responseTime.getCount() / seconds, seconds);
+        if (!errorReasons.isEmpty()) {
+            out.println("Errors:");
+            errorReasons.forEach((reason, count) -> out.println("  " + count.get() + "x " + reason));
+        }
+    }
+    
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+    
+    private static final class Endpoint {
+        
+        private final LatencyHistogram responseTime = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+        
+        private void add(Endpoint other) {
+            responseTime.add(other.responseTime);
+            serviceTime.add(other.serviceTime);
+            errors.addAndGet(other.errors.get());
+        }
+    }
+}
+
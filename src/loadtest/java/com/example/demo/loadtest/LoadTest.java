@@ -0,0 +1,60 @@
+package com.example.demo.loadtest;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Load test closed-loop cho một node đang chạy (Oracle thật hoặc profile standin):
+ * --users virtual user đăng nhập rồi chạy các kịch bản login / browse / grant theo --mix với think time cố định.
+ *
+ * In throughput và p50 / p99 / p99.9 theo endpoint sau giai đoạn ramp-up và warm-up; so throughput đạt được
+ * với throughput theo lịch để biết node đã bão hòa ở bao nhiêu admin đồng thời.
+ *
+ * Chạy: ./gradlew loadTest -Ploadtest.args="--users=50 --duration-seconds=120 --think-time-ms=500"
+ */
+public class LoadTest {
+    
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        
+        System.out.println("Load test " + config.baseUrl() + ": " + config.users() + " users, think time "
+            + config.thinkTime().toMillis() + " ms, mix " + config.mix() + ", ramp-up " + config.rampUp().toSeconds()
+            + " s, warm-up " + config.warmup().toSeconds() + " s, measuring " + config.duration().toSeconds() + " s");
+        
+        LoadStats stats = new LoadStats();
+        long start = System.nanoTime();
+        long measureFrom = start + config.rampUp().toNanos() + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < config.users(); i++) {
+            // Ramp-up: user i bắt đầu lịch của mình sau i / users của thời gian ramp-up
+            long userStart = start + config.rampUp().toNanos() * i / config.users();
+            Thread thread = new Thread(new VirtualUser(i, client, config, stats, userStart, measureFrom, end),
+                "virtual-user-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        
+        // Request đang chạy lúc hết giờ được chờ thêm tối đa request timeout
+        long joinDeadline = end + config.requestTimeout().toNanos();
+        for (Thread thread : threads) {
+            long remaining = joinDeadline - System.nanoTime();
+            if (remaining > 0) {
+                thread.join(Math.max(1, remaining / 1_000_000));
+            }
+        }
+        
+        double intendedPerSecond = config.users() * 1000.0 / Math.max(1, config.thinkTime().toMillis());
+        stats.print(System.out, config.duration(), intendedPerSecond);
+    }
+}
+
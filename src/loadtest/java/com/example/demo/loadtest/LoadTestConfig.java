@@ -0,0 +1,93 @@
+package com.example.demo.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tham số của LoadTest, đọc từ các đối số dạng --key=value (./gradlew loadTest -Ploadtest.args="--users=50 ...").
+ */
+public record LoadTestConfig(
+    URI baseUrl,
+    int users,
+    Duration rampUp,
+    Duration warmup,
+    Duration duration,
+    Duration thinkTime,
+    Map<Scenario, Integer> mix,
+    String username,
+    String password,
+    String browseUser,
+    String grantType,
+    String grantPrivilege,
+    String grantee,
+    Duration requestTimeout
+) {
+    
+    private static final Set<String> KNOWN_OPTIONS = Set.of("base-url", "users", "ramp-up-seconds",
+        "warmup-seconds", "duration-seconds", "think-time-ms", "mix", "username", "password", "browse-user",
+        "grant-type", "grant-privilege", "grantee", "request-timeout-seconds");
+    
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        
+        LoadTestConfig config = new LoadTestConfig(
+            URI.create(trimSlash(options.getOrDefault("base-url", "http://localhost:8080"))),
+            Integer.parseInt(options.getOrDefault("users", "10")),
+            Duration.ofSeconds(Long.parseLong(options.getOrDefault("ramp-up-seconds", "10"))),
+            Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup-seconds", "10"))),
+            Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-seconds", "60"))),
+            Duration.ofMillis(Long.parseLong(options.getOrDefault("think-time-ms", "1000"))),
+            parseMix(options.getOrDefault("mix", "login:1,browse:8,grant:1")),
+            options.getOrDefault("username", "SEC_ADMIN"),
+            options.getOrDefault("password", "admin123"),
+            options.getOrDefault("browse-user", "U_USER01"),
+            options.getOrDefault("grant-type", "ROLE"),
+            options.getOrDefault("grant-privilege", "R_EMPLOYEE"),
+            options.getOrDefault("grantee", "U_USER01"),
+            Duration.ofSeconds(Long.parseLong(options.getOrDefault("request-timeout-seconds", "30")))
+        );
+        
+        options.keySet().removeAll(KNOWN_OPTIONS);
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + options.keySet());
+        }
+        if (config.users() < 1) {
+            throw new IllegalArgumentException("--users must be at least 1");
+        }
+        return config;
+    }
+    
+    // "login:1,browse:8,grant:1" - trọng số, không cần cộng lại thành 100
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected scenario:weight in --mix, got: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(Scenario.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--mix has no scenario with a positive weight");
+        }
+        return mix;
+    }
+    
+    private static String trimSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
+
@@ -0,0 +1,17 @@
+package com.example.demo.loadtest;
+
+/**
+ * Kịch bản một virtual user chạy trong mỗi vòng, chọn ngẫu nhiên theo trọng số --mix.
+ */
+public enum Scenario {
+    
+    // POST /login với session mới (đo BCrypt + APP_LOGIN_USER + audit log), rồi GET /dashboard
+    LOGIN,
+    
+    // Duyệt như một admin: /dashboard, /users, /users/{username}, /roles
+    BROWSE,
+    
+    // POST /privileges/grant (GRANT trên Oracle + kiểm tra quyền + audit log) rồi GET trang redirect để đọc flash
+    GRANT
+}
+
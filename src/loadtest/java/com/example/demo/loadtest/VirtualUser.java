@@ -0,0 +1,208 @@
+package com.example.demo.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Một admin giả lập (closed loop): chạy kịch bản theo --mix, mỗi request bắt đầu sau request trước think-time-ms
+ * theo lịch cố định. Nếu response về muộn hơn lịch, request kế tiếp gửi ngay và latency vẫn tính từ thời điểm
+ * lẽ ra đã gửi.
+ *
+ * Session giữ bằng cookie JSESSIONID của chính user này; HttpClient dùng chung, không follow redirect
+ * (redirect sau POST là kết quả cần kiểm tra).
+ */
+class VirtualUser implements Runnable {
+    
+    private final HttpClient client;
+    private final LoadTestConfig config;
+    private final LoadStats stats;
+    private final long startNanos;
+    private final long measureFromNanos;
+    private final long endNanos;
+    private final Random random;
+    private final int totalWeight;
+    
+    private String sessionCookie;
+    private long nextRequestNanos;
+    
+    VirtualUser(int id, HttpClient client, LoadTestConfig config, LoadStats stats,
+                long startNanos, long measureFromNanos, long endNanos) {
+        this.client = client;
+        this.config = config;
+        this.stats = stats;
+        this.startNanos = startNanos;
+        this.measureFromNanos = measureFromNanos;
+        this.endNanos = endNanos;
+        // Seed cố định theo id: cùng cấu hình cho cùng chuỗi kịch bản
+        this.random = new Random(id);
+        this.totalWeight = config.mix().values().stream().mapToInt(Integer::intValue).sum();
+    }
+    
+    @Override
+    public void run() {
+        nextRequestNanos = startNanos;
+        try {
+            login();
+            while (System.nanoTime() < endNanos) {
+                switch (pickScenario()) {
+                    case LOGIN -> {
+                        sessionCookie = null;
+                        login();
+                        get("/dashboard", "GET /dashboard");
+                    }
+                    case BROWSE -> {
+                        get("/dashboard", "GET /dashboard");
+                        get("/users", "GET /users");
+                        get("/users/" + encode(config.browseUser()), "GET /users/{username}");
+                        get("/roles", "GET /roles");
+                    }
+                    case GRANT -> grant();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private Scenario pickScenario() {
+        int pick = random.nextInt(totalWeight);
+        for (Map.Entry<Scenario, Integer> entry : config.mix().entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty scenario mix");
+    }
+    
+    private void login() throws InterruptedException {
+        HttpResponse<Void> response = send("POST /login", post("/login",
+            Map.of("username", config.username(), "password", config.password())), result -> {
+                String location = result.headers().firstValue("Location").orElse("");
+                return result.statusCode() == 302 && location.contains("/dashboard") ? null
+                    : "login failed (HTTP " + result.statusCode() + ")";
+            });
+        if (response == null) {
+            sessionCookie = null;
+        }
+    }
+    
+    private void get(String path, String endpoint) throws InterruptedException {
+        send(endpoint, request(path).GET(), result -> {
+            if (result.statusCode() == 302 && result.headers().firstValue("Location").orElse("").contains("/login")) {
+                // Session hết hạn / bị mất: login lại ở request sau
+                sessionCookie = null;
+                return "redirected to /login";
+            }
+            return result.statusCode() == 200 ? null : "HTTP " + result.statusCode();
+        });
+        if (sessionCookie == null) {
+            login();
+        }
+    }
+    
+    /**
+     * POST grant rồi GET trang redirect tới, như trình duyệt: controller báo lỗi GRANT bằng flash "error" và vẫn
+     * redirect về /privileges, nên chỉ nhìn status / Location thì grant lỗi cũng được tính là thành công.
+     * Latency của POST /privileges/grant gồm cả GET đó.
+     */
+    private void grant() throws InterruptedException {
+        send("POST /privileges/grant", post("/privileges/grant", Map.of("privilegeType", config.grantType(),
+            "privilege", config.grantPrivilege(), "grantee", config.grantee())), result -> {
+                String location = result.headers().firstValue("Location").orElse("");
+                // Lỗi validate redirect về form, thiếu quyền về ?error=
+                if (result.statusCode() != 302 || location.contains("/privileges/grant") || location.contains("error=")) {
+                    return "grant failed (HTTP " + result.statusCode() + " " + location + ")";
+                }
+                return flashError(location);
+            });
+    }
+    
+    /**
+     * Đọc flash message trên trang redirect tới (alert của layout.html): null nếu trang báo thành công.
+     */
+    private String flashError(String location) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(config.baseUrl().resolve(location))
+            .timeout(config.requestTimeout())
+            .GET();
+        if (sessionCookie != null) {
+            builder.header("Cookie", sessionCookie);
+        }
+        HttpResponse<String> page = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        if (page.statusCode() != 200) {
+            return "grant not confirmed (HTTP " + page.statusCode() + " on " + location + ")";
+        }
+        if (page.body().contains("alert-danger")) {
+            return "grant failed (flash error on " + location + ")";
+        }
+        return page.body().contains("alert-success") ? null : "grant not confirmed (no flash on " + location + ")";
+    }
+    
+    private HttpResponse<Void> send(String endpoint, HttpRequest.Builder builder, ResponseCheck check)
+            throws InterruptedException {
+        long intended = nextRequestNanos;
+        long wait = intended - System.nanoTime();
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        nextRequestNanos = intended + config.thinkTime().toNanos();
+        
+        long sent = System.nanoTime();
+        HttpResponse<Void> response = null;
+        String error;
+        try {
+            if (sessionCookie != null) {
+                builder.header("Cookie", sessionCookie);
+            }
+            response = client.send(builder.build(), HttpResponse.BodyHandlers.discarding());
+            response.headers().allValues("Set-Cookie").stream()
+                .filter(cookie -> cookie.startsWith("JSESSIONID="))
+                .findFirst()
+                .ifPresent(cookie -> sessionCookie = cookie.split(";", 2)[0]);
+            error = check.error(response);
+        } catch (IOException e) {
+            error = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+        }
+        long done = System.nanoTime();
+        
+        if (intended >= measureFromNanos && intended < endNanos) {
+            stats.record(endpoint, (done - intended) / 1000, (done - sent) / 1000, error);
+        }
+        return error == null ? response : null;
+    }
+    
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(config.baseUrl() + path)).timeout(config.requestTimeout());
+    }
+    
+    private HttpRequest.Builder post(String path, Map<String, String> form) {
+        StringJoiner body = new StringJoiner("&");
+        form.forEach((name, value) -> body.add(encode(name) + "=" + encode(value)));
+        return request(path)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+    }
+    
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+    
+    @FunctionalInterface
+    private interface ResponseCheck {
+        // null = thành công, ngược lại là lý do lỗi; được gửi thêm request (tính vào latency của request này)
+        String error(HttpResponse<Void> response) throws IOException, InterruptedException;
+    }
+}
+
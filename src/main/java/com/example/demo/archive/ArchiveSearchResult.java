@@ -0,0 +1,12 @@
+package com.example.demo.archive;
+
+import com.example.demo.model.AuditRecord;
+
+import java.util.List;
+
+/**
+ * Kết quả tìm trong archive, kèm số segment đã đọc / bỏ qua nhờ index để hiển thị trên trang.
+ */
+public record ArchiveSearchResult(List<AuditRecord> records, int segmentsScanned, int segmentsSkipped,
+                                  long rowsScanned, long elapsedMicros) {
+}
@@ -0,0 +1,493 @@
+package com.example.demo.archive;
+
+import com.example.demo.model.AuditCursor;
+import com.example.demo.model.AuditRecord;
+import com.example.demo.service.AuditRecordsEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Archive cục bộ cho audit trail: nhận AuditRecordsEvent từ AuditTailService và ghi thành các segment
+ * bất biến trên đĩa, chia theo source và ngày (UTC): {dir}/{source}/{yyyy-MM-dd}/*.seg.
+ *
+ * - Record được gom trong bộ nhớ tới segment-rows dòng hoặc tới lần flush định kỳ rồi mới ghi segment
+ * - Event được giao ít nhất một lần, nên record có cursor không mới hơn record cuối đã archive thì bị bỏ
+ * - Ngày đã qua được compact: các segment nhỏ của ngày đó gộp thành một segment
+ * - Tìm kiếm chỉ đọc các segment có khoảng thời gian giao với filter và có giá trị filter trong dictionary,
+ *   nên không cần query Oracle cho lịch sử cũ
+ *
+ * Không lazy kể cả với profile faststart, để listener và @Scheduled được đăng ký ngay.
+ */
+@Service
+@Lazy(false)
+public class AuditArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditArchive.class);
+
+    // Kết quả tra dictionary: ANY = không lọc cột này, MISSING = segment không có giá trị cần tìm.
+    // Cả hai khác mọi id lưu trong segment (kể cả id của ô null)
+    private static final int ANY = -2;
+    private static final int MISSING = Segment.NOT_FOUND;
+
+    // Manifest của một lần compact: dòng đầu là segment gộp, các dòng sau là segment nguồn (cùng thư mục)
+    private static final String MANIFEST_EXTENSION = ".compacting";
+
+    @Value("${app.audit.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.audit.archive.dir:./data/audit-archive}")
+    private String dir;
+
+    @Value("${app.audit.archive.segment-rows:65536}")
+    private int segmentRows;
+
+    private final Object writeLock = new Object();
+
+    // Snapshot bất biến, segment mới nhất trước; chỉ thay thế trong synchronized (writeLock)
+    private volatile List<Segment> segments = List.of();
+
+    // Record chưa ghi thành segment, theo source; truy cập trong synchronized (writeLock)
+    private final Map<String, List<AuditRecord>> pending = new HashMap<>();
+
+    // Record cuối đã nhận (kể cả còn trong pending), dùng để bỏ record giao lại
+    private final Map<String, AuditCursor> lastArchived = new ConcurrentHashMap<>();
+
+    // Record cuối đã nằm trong một segment trên đĩa
+    private final Map<String, AuditCursor> lastWritten = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void load() {
+        if (!enabled) {
+            return;
+        }
+
+        Path root = Paths.get(dir);
+        List<Segment> loaded = new ArrayList<>();
+        try {
+            Files.createDirectories(root);
+            List<Path> segmentFiles = new ArrayList<>();
+            List<Path> manifests = new ArrayList<>();
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path file : files.filter(Files::isRegularFile).toList()) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".tmp")) {
+                        // Segment / manifest ghi dở trước khi ứng dụng dừng
+                        Files.deleteIfExists(file);
+                    } else if (name.endsWith(MANIFEST_EXTENSION)) {
+                        manifests.add(file);
+                    } else if (name.endsWith(Segment.EXTENSION)) {
+                        segmentFiles.add(file);
+                    }
+                }
+            }
+
+            Set<Path> superseded = new HashSet<>();
+            for (Path manifest : manifests) {
+                superseded.addAll(recoverCompaction(manifest));
+            }
+            for (Path file : segmentFiles) {
+                if (superseded.contains(file)) {
+                    continue;
+                }
+                try {
+                    loaded.add(Segment.open(file));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Skipping unreadable audit segment {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Cannot open audit archive at {}: {}", root.toAbsolutePath(), e.getMessage());
+            enabled = false;
+            return;
+        }
+
+        for (Segment segment : loaded) {
+            lastArchived.merge(segment.source(), segment.lastCursor(), (a, b) -> a.isBefore(b) ? b : a);
+        }
+        lastWritten.putAll(lastArchived);
+        segments = sorted(loaded);
+        log.info("Audit archive: {} segments, {} records in {}", loaded.size(),
+            loaded.stream().mapToLong(Segment::rowCount).sum(), root.toAbsolutePath());
+    }
+
+    /**
+     * Hoàn tất hoặc bỏ một lần compact bị dừng giữa chừng. Segment gộp đã có trên đĩa (move nguyên tử) thì
+     * các segment nguồn là bản thừa và bị xóa; chưa có thì giữ nguyên segment nguồn.
+     *
+     * @return các segment nguồn không được load
+     */
+    private List<Path> recoverCompaction(Path manifest) throws IOException {
+        List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+        List<Path> inputs = new ArrayList<>();
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            inputs.add(manifest.resolveSibling(line));
+        }
+
+        if (!lines.isEmpty() && Files.isRegularFile(manifest.resolveSibling(lines.get(0)))) {
+            for (Path input : inputs) {
+                Files.deleteIfExists(input);
+            }
+            log.info("Audit archive: finished interrupted compaction {}, removed {} superseded segments",
+                lines.get(0), inputs.size());
+        } else {
+            inputs.clear();
+        }
+        Files.deleteIfExists(manifest);
+        return inputs;
+    }
+
+    @EventListener
+    public void onAuditRecords(AuditRecordsEvent event) {
+        if (!enabled || event.records().isEmpty()) {
+            return;
+        }
+
+        synchronized (writeLock) {
+            String source = event.source();
+            AuditCursor last = lastArchived.get(source);
+            AuditCursor written = lastWritten.get(source);
+            List<AuditRecord> buffer = pending.computeIfAbsent(source, s -> new ArrayList<>());
+            for (AuditRecord record : event.records()) {
+                AuditCursor cursor = cursorOf(record);
+                if (last == null || last.isBefore(cursor)) {
+                    buffer.add(record);
+                    last = cursor;
+                } else if (written == null || written.isBefore(cursor)) {
+                    // Record ghi trễ (queued audit) mà tail đọc lại trong cửa sổ overlap: chèn vào pending theo
+                    // thứ tự. Record trễ hơn lần flush cuối thì không chèn được vào segment đã ghi, bị bỏ qua.
+                    insertLate(buffer, record, cursor);
+                }
+            }
+            if (last != null) {
+                lastArchived.put(source, last);
+            }
+            if (buffer.size() >= segmentRows) {
+                flushSource(source);
+            }
+        }
+    }
+
+    private static void insertLate(List<AuditRecord> buffer, AuditRecord record, AuditCursor cursor) {
+        int index = buffer.size();
+        while (index > 0) {
+            AuditCursor previous = cursorOf(buffer.get(index - 1));
+            if (previous.equals(cursor)) {
+                return;
+            }
+            if (previous.isBefore(cursor)) {
+                break;
+            }
+            index--;
+        }
+        buffer.add(index, record);
+    }
+
+    private static AuditCursor cursorOf(AuditRecord record) {
+        return new AuditCursor(record.getEventTimeUtc(), record.getSessionId(), record.getEntryId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.audit.archive.flush-interval-ms:60000}",
+               initialDelayString = "${app.audit.archive.flush-interval-ms:60000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            for (String source : new ArrayList<>(pending.keySet())) {
+                flushSource(source);
+            }
+        }
+    }
+
+    private void flushSource(String source) {
+        List<AuditRecord> buffer = pending.get(source);
+        if (buffer == null || buffer.isEmpty()) {
+            return;
+        }
+
+        // Mỗi segment chỉ chứa record của một ngày UTC
+        Map<LocalDate, List<AuditRecord>> byDay = new TreeMap<>();
+        for (AuditRecord record : buffer) {
+            byDay.computeIfAbsent(record.getEventTimeUtc().toLocalDate(), d -> new ArrayList<>()).add(record);
+        }
+
+        List<Segment> written = new ArrayList<>();
+        Set<LocalDate> writtenDays = new HashSet<>();
+        try {
+            for (Map.Entry<LocalDate, List<AuditRecord>> day : byDay.entrySet()) {
+                List<AuditRecord> records = day.getValue();
+                Segment segment = Segment.write(segmentFile(source, day.getKey(), records), source, records);
+                written.add(segment);
+                writtenDays.add(day.getKey());
+                // Các ngày được ghi theo thứ tự, nên record cuối của segment vừa ghi là vị trí đã bền vững
+                lastWritten.put(source, segment.lastCursor());
+            }
+        } catch (IOException e) {
+            // Giữ lại phần chưa ghi được trong buffer, thử lại ở lần flush sau
+            log.warn("Audit archive flush failed for {}: {}", source, e.getMessage());
+        }
+        buffer.removeIf(record -> writtenDays.contains(record.getEventTimeUtc().toLocalDate()));
+
+        if (!written.isEmpty()) {
+            List<Segment> all = new ArrayList<>(segments);
+            all.addAll(written);
+            segments = sorted(all);
+        }
+    }
+
+    /**
+     * Vị trí audit trail mà AuditTailService được phép lưu làm watermark. Record sau lastWritten còn chỉ nằm
+     * trong pending (tới flush-interval), nên lưu watermark của tail thì dừng ứng dụng lúc đó sẽ mất chúng;
+     * lưu vị trí đã ghi thành segment thì lần chạy sau đọc lại và bỏ phần đã có.
+     *
+     * @return watermark của tail nếu không có record nào đang chờ, null nếu chưa có vị trí nào an toàn
+     */
+    public AuditCursor durableWatermark(String source, AuditCursor tailWatermark) {
+        if (!enabled) {
+            return tailWatermark;
+        }
+        synchronized (writeLock) {
+            List<AuditRecord> buffer = pending.get(source);
+            return buffer == null || buffer.isEmpty() ? tailWatermark : lastWritten.get(source);
+        }
+    }
+
+    /**
+     * Gộp các segment của những ngày đã qua (UTC) thành một segment mỗi ngày.
+     * Segment cũ vẫn được đọc bình thường cho tới khi segment gộp đã ghi xong.
+     */
+    @Scheduled(fixedDelayString = "${app.audit.archive.compaction-interval-ms:3600000}",
+               initialDelayString = "${app.audit.archive.compaction-initial-delay-ms:300000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        Map<String, List<Segment>> partitions = new LinkedHashMap<>();
+        for (Segment segment : segments) {
+            LocalDate day = Segment.toUtc(segment.minTs()).toLocalDate();
+            if (day.isBefore(today)) {
+                partitions.computeIfAbsent(segment.source() + "/" + day, k -> new ArrayList<>()).add(segment);
+            }
+        }
+
+        for (List<Segment> parts : partitions.values()) {
+            if (parts.size() > 1) {
+                compactPartition(parts);
+            }
+        }
+    }
+
+    private void compactPartition(List<Segment> parts) {
+        List<Segment> ordered = new ArrayList<>(parts);
+        ordered.sort(Comparator.comparingLong(Segment::minTs));
+
+        List<AuditRecord> records = new ArrayList<>();
+        for (Segment segment : ordered) {
+            records.addAll(segment.rows());
+        }
+        records.sort(Comparator.comparing(AuditRecord::getEventTimeUtc)
+            .thenComparingLong(AuditRecord::getSessionId)
+            .thenComparingLong(AuditRecord::getEntryId));
+
+        String source = ordered.get(0).source();
+        LocalDate day = records.get(0).getEventTimeUtc().toLocalDate();
+        Path target = segmentFile(source, day, records);
+        Path manifest = target.resolveSibling(target.getFileName() + MANIFEST_EXTENSION);
+        boolean installed = false;
+        try {
+            // Manifest có trước segment gộp: dừng ở bất kỳ bước nào, load() cũng biết segment nào đã bị thay thế
+            writeManifest(manifest, target, ordered);
+            Segment compacted = Segment.write(target, source, records);
+            synchronized (writeLock) {
+                List<Segment> all = new ArrayList<>(segments);
+                all.removeAll(ordered);
+                all.add(compacted);
+                segments = sorted(all);
+            }
+            installed = true;
+            for (Segment segment : ordered) {
+                Files.deleteIfExists(segment.file());
+            }
+            Files.deleteIfExists(manifest);
+            log.info("Audit archive: compacted {} segments of {} {} ({} records)", ordered.size(), source, day,
+                records.size());
+        } catch (IOException e) {
+            log.warn("Audit archive compaction failed for {} {}: {}", source, day, e.getMessage());
+            if (!installed && deleteQuietly(target)) {
+                // Segment nguồn vẫn là bản đang dùng. Chỉ bỏ manifest khi segment gộp đã bị xóa,
+                // để không bao giờ còn cả hai bản trên đĩa mà không có manifest
+                deleteQuietly(manifest);
+            }
+        }
+    }
+
+    private void writeManifest(Path manifest, Path target, List<Segment> inputs) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(target.getFileName().toString());
+        for (Segment segment : inputs) {
+            lines.add(segment.file().getFileName().toString());
+        }
+        Path tmp = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+            return true;
+        } catch (IOException e) {
+            log.warn("Cannot delete {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Tìm record mới nhất trước. Các filter null = không lọc; user/action/object so sánh chính xác (không phân biệt hoa thường),
+     * object có thể là "SCHEMA.OBJECT".
+     */
+    public ArchiveSearchResult search(String source, String user, String action, String object,
+                                      LocalDateTime fromUtc, LocalDateTime toUtc, int limit) {
+        long started = System.nanoTime();
+        long from = fromUtc == null ? Long.MIN_VALUE : Segment.toMicros(fromUtc);
+        long to = toUtc == null ? Long.MAX_VALUE : Segment.toMicros(toUtc);
+
+        String userValue = upper(user);
+        String actionValue = upper(action);
+        String schemaValue = null;
+        String objectValue = upper(object);
+        if (objectValue != null && objectValue.contains(".")) {
+            schemaValue = objectValue.substring(0, objectValue.indexOf('.'));
+            objectValue = objectValue.substring(objectValue.indexOf('.') + 1);
+        }
+
+        List<AuditRecord> result = new ArrayList<>();
+
+        // Record chưa flush mới hơn mọi segment
+        synchronized (writeLock) {
+            List<AuditRecord> buffer = pending.getOrDefault(source, List.of());
+            for (int i = buffer.size() - 1; i >= 0 && result.size() < limit; i--) {
+                AuditRecord record = buffer.get(i);
+                long ts = Segment.toMicros(record.getEventTimeUtc());
+                if (ts >= from && ts <= to
+                        && matches(userValue, record.getDbUser()) && matches(actionValue, record.getAction())
+                        && matches(schemaValue, record.getObjectSchema()) && matches(objectValue, record.getObjectName())) {
+                    result.add(record);
+                }
+            }
+        }
+
+        int scanned = 0;
+        int skipped = 0;
+        long rowsScanned = 0;
+        for (Segment segment : segments) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (!segment.source().equals(source) || !segment.overlaps(from, to)) {
+                skipped++;
+                continue;
+            }
+
+            int userId = id(segment, SegmentColumn.USER, userValue);
+            int actionId = id(segment, SegmentColumn.ACTION, actionValue);
+            int schemaId = id(segment, SegmentColumn.SCHEMA, schemaValue);
+            int objectId = id(segment, SegmentColumn.OBJECT, objectValue);
+            if (userId == MISSING || actionId == MISSING || schemaId == MISSING || objectId == MISSING) {
+                skipped++;
+                continue;
+            }
+
+            scanned++;
+            for (int row = segment.rowCount() - 1; row >= 0 && result.size() < limit; row--) {
+                long ts = segment.ts(row);
+                if (ts > to) {
+                    continue;
+                }
+                if (ts < from) {
+                    break;
+                }
+                rowsScanned++;
+                if ((userId == ANY || segment.id(SegmentColumn.USER, row) == userId)
+                        && (actionId == ANY || segment.id(SegmentColumn.ACTION, row) == actionId)
+                        && (schemaId == ANY || segment.id(SegmentColumn.SCHEMA, row) == schemaId)
+                        && (objectId == ANY || segment.id(SegmentColumn.OBJECT, row) == objectId)) {
+                    result.add(segment.row(row));
+                }
+            }
+        }
+
+        return new ArchiveSearchResult(result, scanned, skipped, rowsScanned, (System.nanoTime() - started) / 1_000);
+    }
+
+    private int id(Segment segment, SegmentColumn column, String value) {
+        return value == null ? ANY : segment.lookup(column, value);
+    }
+
+    private boolean matches(String filter, String value) {
+        return filter == null || filter.equalsIgnoreCase(value);
+    }
+
+    private String upper(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toUpperCase();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getRecordCount() {
+        return segments.stream().mapToLong(Segment::rowCount).sum();
+    }
+
+    private Path segmentFile(String source, LocalDate day, List<AuditRecord> records) {
+        long first = Segment.toMicros(records.get(0).getEventTimeUtc());
+        long last = Segment.toMicros(records.get(records.size() - 1).getEventTimeUtc());
+        return Paths.get(dir, source, day.toString(), first + "_" + last + "_" + records.size() + Segment.EXTENSION);
+    }
+
+    private List<Segment> sorted(List<Segment> list) {
+        List<Segment> copy = new ArrayList<>(list);
+        copy.sort(Comparator.comparingLong(Segment::maxTs).reversed());
+        return List.copyOf(copy);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.demo.archive;
+
+import com.example.demo.model.AuditCursor;
+import com.example.demo.model.AuditRecord;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Một segment bất biến của audit archive, đọc qua memory-mapped file.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * header : magic, version, rowCount, minTs, maxTs, lastSessionId, lastEntryId, source
+ * cột    : ts long[n] | sessionId long[n] | entryId long[n] | returnCode int[n]
+ *          | id int[n] cho từng SegmentColumn
+ * dict   : với từng SegmentColumn: size, rồi (length, UTF-8 bytes) theo thứ tự id
+ * </pre>
+ * Dòng được sắp tăng dần theo (ts, sessionId, entryId); ts là epoch micro giây UTC.
+ * minTs/maxTs và dictionary đóng vai trò index của segment: filter theo thời gian hoặc theo một giá trị
+ * không có trong dictionary thì bỏ qua cả segment mà không đọc cột nào.
+ */
+final class Segment {
+
+    static final String EXTENSION = ".seg";
+
+    private static final int MAGIC = 0x41554453; // "AUDS"
+    private static final int VERSION = 1;
+    private static final int NULL_RETURN_CODE = Integer.MIN_VALUE;
+    private static final int NULL_ID = -1;
+
+    // lookup: giá trị không có trong dictionary; khác NULL_ID (id của ô null lưu trong file)
+    static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    private final Path file;
+    private final String source;
+    private final int rowCount;
+    private final long minTs;
+    private final long maxTs;
+    private final AuditCursor lastCursor;
+
+    private final LongBuffer ts;
+    private final LongBuffer sessionIds;
+    private final LongBuffer entryIds;
+    private final IntBuffer returnCodes;
+    private final IntBuffer[] ids;
+    private final String[][] dictionaries;
+    private final Map<String, Integer>[] lookups;
+
+    @SuppressWarnings("unchecked")
+    private Segment(Path file, MappedByteBuffer buffer) {
+        this.file = file;
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalStateException("Not an audit segment: " + file);
+        }
+        this.rowCount = buffer.getInt();
+        this.minTs = buffer.getLong();
+        this.maxTs = buffer.getLong();
+        long lastSessionId = buffer.getLong();
+        long lastEntryId = buffer.getLong();
+        this.source = readString(buffer);
+        this.lastCursor = new AuditCursor(toUtc(maxTs), lastSessionId, lastEntryId);
+
+        int n = rowCount;
+        this.ts = slice(buffer, 8 * n).asLongBuffer();
+        this.sessionIds = slice(buffer, 8 * n).asLongBuffer();
+        this.entryIds = slice(buffer, 8 * n).asLongBuffer();
+        this.returnCodes = slice(buffer, 4 * n).asIntBuffer();
+
+        SegmentColumn[] columns = SegmentColumn.values();
+        this.ids = new IntBuffer[columns.length];
+        for (SegmentColumn column : columns) {
+            ids[column.ordinal()] = slice(buffer, 4 * n).asIntBuffer();
+        }
+
+        this.dictionaries = new String[columns.length][];
+        this.lookups = new Map[columns.length];
+        for (SegmentColumn column : columns) {
+            int size = buffer.getInt();
+            String[] values = new String[size];
+            Map<String, Integer> lookup = new HashMap<>(size * 2);
+            for (int id = 0; id < size; id++) {
+                values[id] = readString(buffer);
+                lookup.put(values[id], id);
+            }
+            dictionaries[column.ordinal()] = values;
+            lookups[column.ordinal()] = lookup;
+        }
+    }
+
+    /**
+     * Map file ở chế độ read-only. Mapping vẫn dùng được sau khi đóng channel
+     * và được giải phóng khi Segment không còn được tham chiếu.
+     */
+    static Segment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Segment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Ghi các record (đã sắp tăng dần theo cursor) thành một segment mới rồi mở nó.
+     * Ghi vào file tạm và move, nên không bao giờ có segment ghi dở trong thư mục archive.
+     */
+    static Segment write(Path file, String source, List<AuditRecord> records) throws IOException {
+        SegmentColumn[] columns = SegmentColumn.values();
+        int n = records.size();
+
+        List<Map<String, Integer>> encoders = new ArrayList<>();
+        int[][] encoded = new int[columns.length][n];
+        long dictionaryBytes = 0;
+        for (SegmentColumn column : columns) {
+            Map<String, Integer> encoder = new LinkedHashMap<>();
+            for (int i = 0; i < n; i++) {
+                String value = column.getter.apply(records.get(i));
+                if (value == null) {
+                    encoded[column.ordinal()][i] = NULL_ID;
+                    continue;
+                }
+                Integer id = encoder.get(value);
+                if (id == null) {
+                    id = encoder.size();
+                    encoder.put(value, id);
+                    dictionaryBytes += 4 + value.getBytes(StandardCharsets.UTF_8).length;
+                }
+                encoded[column.ordinal()][i] = id;
+            }
+            encoders.add(encoder);
+            dictionaryBytes += 4;
+        }
+
+        byte[] sourceBytes = source.getBytes(StandardCharsets.UTF_8);
+        long headerBytes = 4 + 4 + 4 + 8 * 4 + 4 + sourceBytes.length;
+        long size = headerBytes + (8L * 3 + 4 + 4L * columns.length) * n + dictionaryBytes;
+
+        AuditRecord last = records.get(n - 1);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC).putInt(VERSION).putInt(n);
+            out.putLong(toMicros(records.get(0).getEventTimeUtc())).putLong(toMicros(last.getEventTimeUtc()));
+            out.putLong(last.getSessionId()).putLong(last.getEntryId());
+            out.putInt(sourceBytes.length).put(sourceBytes);
+
+            for (AuditRecord record : records) {
+                out.putLong(toMicros(record.getEventTimeUtc()));
+            }
+            for (AuditRecord record : records) {
+                out.putLong(record.getSessionId());
+            }
+            for (AuditRecord record : records) {
+                out.putLong(record.getEntryId());
+            }
+            for (AuditRecord record : records) {
+                out.putInt(record.getReturnCode() == null ? NULL_RETURN_CODE : record.getReturnCode());
+            }
+            for (int[] column : encoded) {
+                for (int id : column) {
+                    out.putInt(id);
+                }
+            }
+            for (Map<String, Integer> encoder : encoders) {
+                out.putInt(encoder.size());
+                for (String value : encoder.keySet()) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    out.putInt(bytes.length).put(bytes);
+                }
+            }
+            out.force();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(file);
+    }
+
+    Path file() {
+        return file;
+    }
+
+    String source() {
+        return source;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    long minTs() {
+        return minTs;
+    }
+
+    long maxTs() {
+        return maxTs;
+    }
+
+    AuditCursor lastCursor() {
+        return lastCursor;
+    }
+
+    boolean overlaps(long fromTs, long toTs) {
+        return maxTs >= fromTs && minTs <= toTs;
+    }
+
+    /**
+     * Id của giá trị trong dictionary của cột, NOT_FOUND nếu segment không có giá trị đó.
+     */
+    int lookup(SegmentColumn column, String value) {
+        Integer id = lookups[column.ordinal()].get(value);
+        return id == null ? NOT_FOUND : id;
+    }
+
+    long ts(int row) {
+        return ts.get(row);
+    }
+
+    int id(SegmentColumn column, int row) {
+        return ids[column.ordinal()].get(row);
+    }
+
+    AuditRecord row(int row) {
+        AuditRecord record = new AuditRecord();
+        record.setSource(source);
+        LocalDateTime utc = toUtc(ts.get(row));
+        record.setEventTimeUtc(utc);
+        record.setEventTime(utc.atZone(ZoneOffset.UTC).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime());
+        record.setSessionId(sessionIds.get(row));
+        record.setEntryId(entryIds.get(row));
+
+        int returnCode = returnCodes.get(row);
+        record.setReturnCode(returnCode == NULL_RETURN_CODE ? null : returnCode);
+
+        for (SegmentColumn column : SegmentColumn.values()) {
+            int id = ids[column.ordinal()].get(row);
+            column.setter.accept(record, id == NULL_ID ? null : dictionaries[column.ordinal()][id]);
+        }
+        return record;
+    }
+
+    List<AuditRecord> rows() {
+        List<AuditRecord> records = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            records.add(row(i));
+        }
+        return records;
+    }
+
+    static long toMicros(LocalDateTime utc) {
+        return utc.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + utc.getNano() / 1_000;
+    }
+
+    static LocalDateTime toUtc(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+            (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int length) {
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
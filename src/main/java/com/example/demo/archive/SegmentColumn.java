@@ -0,0 +1,28 @@
+package com.example.demo.archive;
+
+import com.example.demo.model.AuditRecord;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Các cột dạng chuỗi của segment, được lưu bằng dictionary encoding (mỗi dòng là một int id).
+ * Thứ tự khai báo là thứ tự lưu trong file - không được đổi khi đã có segment trên đĩa.
+ */
+enum SegmentColumn {
+    USER(AuditRecord::getDbUser, AuditRecord::setDbUser),
+    ACTION(AuditRecord::getAction, AuditRecord::setAction),
+    SCHEMA(AuditRecord::getObjectSchema, AuditRecord::setObjectSchema),
+    OBJECT(AuditRecord::getObjectName, AuditRecord::setObjectName),
+    POLICY(AuditRecord::getPolicyName, AuditRecord::setPolicyName),
+    SQL(AuditRecord::getSqlText, AuditRecord::setSqlText);
+    
+    final Function<AuditRecord, String> getter;
+    final BiConsumer<AuditRecord, String> setter;
+    
+    SegmentColumn(Function<AuditRecord, String> getter, BiConsumer<AuditRecord, String> setter) {
+        this.getter = getter;
+        this.setter = setter;
+    }
+}
+
@@ -0,0 +1,51 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Bọc HikariDataSource để code chạy trong withAcquireTimeout chờ connection tối đa thời gian đã cho thay vì
+ * connection-timeout của cả pool. TargetDatabases.fanOut dùng để một target có pool cạn / host không trả lời
+ * không giữ thread lâu hơn phần còn lại của timeout và deadline request. Ngoài withAcquireTimeout không đổi gì.
+ */
+public class AcquireTimeoutDataSource extends DelegatingDataSource {
+    
+    private static final ThreadLocal<Long> ACQUIRE_TIMEOUT_MILLIS = new ThreadLocal<>();
+    
+    private final HikariDataSource hikari;
+    
+    public AcquireTimeoutDataSource(HikariDataSource hikari) {
+        super(hikari);
+        this.hikari = hikari;
+    }
+    
+    public static <T> T withAcquireTimeout(long millis, Supplier<T> action) {
+        Long previous = ACQUIRE_TIMEOUT_MILLIS.get();
+        ACQUIRE_TIMEOUT_MILLIS.set(millis);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                ACQUIRE_TIMEOUT_MILLIS.set(previous);
+            } else {
+                ACQUIRE_TIMEOUT_MILLIS.remove();
+            }
+        }
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        Long timeout = ACQUIRE_TIMEOUT_MILLIS.get();
+        // Pool chưa khởi tạo (null) thì để HikariDataSource tự tạo với connection-timeout mặc định
+        if (timeout != null && hikari.getHikariPoolMXBean() instanceof HikariPool pool) {
+            return pool.getConnection(Math.max(1, timeout));
+        }
+        return super.getConnection();
+    }
+}
+
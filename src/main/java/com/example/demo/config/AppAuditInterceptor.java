@@ -0,0 +1,89 @@
+package com.example.demo.config;
+
+import com.example.demo.service.AppAuditLog;
+import com.example.demo.service.AuthenticationService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.FlashMap;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Ghi mọi thao tác thay đổi dữ liệu (POST / PUT / DELETE) vào AppAuditLog: ai, thao tác nào, trên đối tượng nào,
+ * thành công hay không và mất bao lâu.
+ *
+ * Controller HTML báo kết quả bằng flash attribute "success" / "error" rồi redirect,
+ * JSON API bằng status code, nên outcome được suy ra từ cả hai.
+ */
+@Component
+public class AppAuditInterceptor implements HandlerInterceptor {
+    
+    private static final String STARTED_ATTRIBUTE = AppAuditInterceptor.class.getName() + ".started";
+    
+    @Autowired
+    private AppAuditLog appAuditLog;
+    
+    @Autowired
+    private AuthenticationService authenticationService;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (isMutation(request)) {
+            request.setAttribute(STARTED_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object started = request.getAttribute(STARTED_ATTRIBUTE);
+        if (started == null) {
+            return;
+        }
+        
+        HttpSession session = request.getSession(false);
+        String actor = session == null ? null : authenticationService.getCurrentUser(session);
+        
+        // Dùng pattern (/users/{username}/lock) thay vì URI để các thao tác cùng loại gom được với nhau
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String action = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        
+        FlashMap flash = RequestContextUtils.getOutputFlashMap(request);
+        Object flashError = flash == null ? null : flash.get("error");
+        boolean success = ex == null && response.getStatus() < 400 && flashError == null;
+        String detail = ex != null ? ex.getMessage() : flashError != null ? flashError.toString()
+            : response.getStatus() >= 400 ? "HTTP " + response.getStatus() : null;
+        
+        appAuditLog.record(actor, action, target(request), success, detail, (Long) started, request.getRemoteAddr());
+    }
+    
+    private boolean isMutation(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "POST".equals(method) || "PUT".equals(method) || "DELETE".equals(method) || "PATCH".equals(method);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private String target(HttpServletRequest request) {
+        StringJoiner target = new StringJoiner(", ");
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables instanceof Map<?, ?> map) {
+            ((Map<String, String>) map).forEach((name, value) -> target.add(name + "=" + value));
+        }
+        request.getParameterMap().forEach((name, values) -> {
+            // Không bao giờ ghi password (password, confirmPassword, newPassword...) vào log
+            if (!name.toLowerCase().contains("password") && !name.startsWith("_") && values.length > 0) {
+                target.add(name + "=" + String.join("|", values));
+            }
+        });
+        return target.length() == 0 ? null : target.toString();
+    }
+}
+
@@ -1,19 +1,33 @@
 package com.example.demo.config;
 
 import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.PrivilegeService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bắt buộc đăng nhập, rồi kiểm tra @RequiresOraclePrivilege của handler: mọi quyền cần hỏi (cùng các quyền admin
+ * mà trang nào cũng dùng cho menu) được lấy bằng một query và nhớ trong request (PrivilegeService).
+ */
 @Component
 public class AuthInterceptor implements HandlerInterceptor {
     
     @Autowired
     private AuthenticationService authenticationService;
     
+    @Autowired
+    private PrivilegeService privilegeService;
+    
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, 
                            Object handler) throws Exception {
@@ -31,11 +45,80 @@ public class AuthInterceptor implements HandlerInterceptor {
         
         // Kiểm tra đã đăng nhập chưa
         if (!authenticationService.isLoggedIn(session)) {
+            // JSON API: trả 401 cho script thay vì redirect về trang login HTML
+            if (path.startsWith("/api/")) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.setContentType("application/json");
+                response.getWriter().write("{\"status\":401,\"error\":\"Not logged in\"}");
+                return false;
+            }
             response.sendRedirect("/login");
             return false;
         }
         
+        RequiresOraclePrivilege denied = firstDenied(authenticationService.getCurrentUser(session), handler);
+        if (denied != null) {
+            if (path.startsWith("/api/")) {
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                response.setContentType("application/json");
+                response.getWriter().write("{\"status\":403,\"error\":\"Insufficient Oracle privileges\"}");
+                return false;
+            }
+            response.sendRedirect(denied.deniedRedirect());
+            return false;
+        }
+        
         return true;
     }
+    
+    private static Set<RequiresOraclePrivilege> requiredPrivileges(Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return Set.of();
+        }
+        Set<RequiresOraclePrivilege> required =
+            AnnotatedElementUtils.findMergedRepeatableAnnotations(handlerMethod.getMethod(), RequiresOraclePrivilege.class);
+        if (required.isEmpty()) {
+            required = AnnotatedElementUtils.findMergedRepeatableAnnotations(handlerMethod.getBeanType(),
+                RequiresOraclePrivilege.class);
+        }
+        return required;
+    }
+    
+    // Annotation đầu tiên không thỏa (theo thứ tự khai báo), null nếu đủ quyền hoặc handler không yêu cầu gì
+    private RequiresOraclePrivilege firstDenied(String username, Object handler) {
+        Set<RequiresOraclePrivilege> required = requiredPrivileges(handler);
+        if (required.isEmpty()) {
+            return null;
+        }
+        
+        Set<String> wanted = new LinkedHashSet<>(AuthenticationService.ADMIN_PRIVILEGES);
+        for (RequiresOraclePrivilege annotation : required) {
+            wanted.addAll(List.of(annotation.value()));
+            wanted.addAll(List.of(annotation.anyOf()));
+        }
+        Set<String> granted = privilegeService.grantedPrivileges(username, wanted);
+        
+        for (RequiresOraclePrivilege annotation : required) {
+            if (!isGranted(granted, annotation)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean isGranted(Set<String> granted, RequiresOraclePrivilege required) {
+        if (!granted.containsAll(List.of(required.value()))) {
+            return false;
+        }
+        if (required.anyOf().length == 0) {
+            return true;
+        }
+        for (String privilege : required.anyOf()) {
+            if (granted.contains(privilege)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
 
@@ -23,6 +23,10 @@ public class DataSourceConfig {
     @Value("${spring.datasource.admin.password}")
     private String adminPassword;
     
+    // Profile standin dùng org.h2.Driver
+    @Value("${spring.datasource.admin.driver-class-name:oracle.jdbc.OracleDriver}")
+    private String adminDriverClassName;
+    
     @Value("${spring.datasource.app.url}")
     private String appUrl;
     
@@ -32,41 +36,66 @@ public class DataSourceConfig {
     @Value("${spring.datasource.app.password}")
     private String appPassword;
     
+    @Value("${spring.datasource.app.driver-class-name:oracle.jdbc.OracleDriver}")
+    private String appDriverClassName;
+    
+    // -1 = không chờ kết nối Oracle khi tạo pool (fast-start), 1 = fail-fast như mặc định của Hikari
+    @Value("${app.datasource.initialization-fail-timeout:1}")
+    private long initializationFailTimeout;
+    
+    // Đếm câu lệnh SQL theo request (QueryCountFilter, header X-Query-Count)
+    @Value("${app.query-count.enabled:true}")
+    private boolean queryCountEnabled;
+    
     @Bean(name = "adminDataSource")
     public DataSource adminDataSource() {
         HikariConfig config = new HikariConfig();
+        config.setPoolName("AdminPool");
         config.setJdbcUrl(adminUrl);
         config.setUsername(adminUsername);
         config.setPassword(adminPassword);
-        config.setDriverClassName("oracle.jdbc.OracleDriver");
+        config.setDriverClassName(adminDriverClassName);
         config.setMaximumPoolSize(10);
         config.setMinimumIdle(2);
         config.setConnectionTimeout(30000);
-        return new HikariDataSource(config);
+        config.setInitializationFailTimeout(initializationFailTimeout);
+        // Database chính cũng là target đầu tiên của TargetDatabases.fanOut
+        return counting(new AcquireTimeoutDataSource(new HikariDataSource(config)));
     }
     
+    // true sau khi chạy VPD_CONTEXT_MIGRATION.sql: set APP_USER_CTX theo user đăng nhập trên connection của APP_OWNER
+    @Value("${app.vpd.context.enabled:false}")
+    private boolean vpdContextEnabled;
+    
     @Bean(name = "appDataSource")
     public DataSource appDataSource() {
         HikariConfig config = new HikariConfig();
+        config.setPoolName("AppPool");
         config.setJdbcUrl(appUrl);
         config.setUsername(appUsername);
         config.setPassword(appPassword);
-        config.setDriverClassName("oracle.jdbc.OracleDriver");
+        config.setDriverClassName(appDriverClassName);
         config.setMaximumPoolSize(10);
         config.setMinimumIdle(2);
         config.setConnectionTimeout(30000);
-        return new HikariDataSource(config);
+        config.setInitializationFailTimeout(initializationFailTimeout);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        return counting(vpdContextEnabled ? new VpdContextDataSource(dataSource) : dataSource);
+    }
+    
+    private DataSource counting(DataSource dataSource) {
+        return queryCountEnabled ? new QueryCountingDataSource(dataSource) : dataSource;
     }
     
     @Bean(name = "adminJdbcTemplate")
     @Primary
     public JdbcTemplate adminJdbcTemplate(@Qualifier("adminDataSource") DataSource dataSource) {
-        return new JdbcTemplate(dataSource);
+        return new OracleJdbcTemplate(dataSource);
     }
     
     @Bean(name = "appJdbcTemplate")
     public JdbcTemplate appJdbcTemplate(@Qualifier("appDataSource") DataSource dataSource) {
-        return new JdbcTemplate(dataSource);
+        return new OracleJdbcTemplate(dataSource);
     }
 }
 
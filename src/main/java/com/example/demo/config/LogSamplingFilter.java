@@ -0,0 +1,85 @@
+package com.example.demo.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lấy mẫu log theo category: giữ 1 trên N event của logger (theo prefix) ở level bằng hoặc thấp hơn level của rule,
+ * để log lặp lại ở mỗi request (SQL count, debug của repository) không chiếm hết I/O khi tải cao.
+ *
+ * Mỗi rule có dạng prefix:LEVEL:N, ví dụ com.example.demo.config.QueryCountFilter:INFO:100 = giữ 1/100 dòng INFO,
+ * WARN / ERROR vẫn giữ đủ. Rule có prefix dài nhất khớp với logger được áp dụng.
+ * Chạy trước khi Logback tạo LoggingEvent, nên event bị bỏ không tốn chi phí format hay đẩy vào queue.
+ * Khai báo trong logback-spring.xml, rules lấy từ app.logging.samples.
+ */
+public class LogSamplingFilter extends TurboFilter {
+    
+    private final List<Rule> rules = new ArrayList<>();
+    
+    record Rule(String prefix, Level level, long every, AtomicLong counter) {
+        
+        static Rule parse(String spec) {
+            String[] parts = spec.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid log sampling rule (prefix:LEVEL:N): " + spec);
+            }
+            long every = Long.parseLong(parts[2]);
+            if (every < 1) {
+                throw new IllegalArgumentException("Sampling rate must be >= 1: " + spec);
+            }
+            return new Rule(parts[0], Level.toLevel(parts[1], Level.INFO), every, new AtomicLong());
+        }
+        
+        boolean matches(String loggerName) {
+            return loggerName.equals(prefix) || loggerName.startsWith(prefix + ".");
+        }
+    }
+    
+    /**
+     * Danh sách rule ngăn cách bằng dấu phẩy; rỗng = không lấy mẫu.
+     */
+    public void setRules(String specs) {
+        rules.clear();
+        if (specs == null || specs.isBlank()) {
+            return;
+        }
+        for (String spec : specs.split(",")) {
+            if (!spec.isBlank()) {
+                rules.add(Rule.parse(spec));
+            }
+        }
+        // Prefix dài nhất trước
+        rules.sort((a, b) -> Integer.compare(b.prefix().length(), a.prefix().length()));
+    }
+    
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format == null: isDebugEnabled()... không phải event thật, không đếm
+        if (!isStarted() || format == null || rules.isEmpty()) {
+            return FilterReply.NEUTRAL;
+        }
+        // Event sẽ bị level của logger chặn thì không tính vào mẫu
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        
+        String name = logger.getName();
+        for (Rule rule : rules) {
+            if (rule.matches(name)) {
+                if (level.toInt() > rule.level().toInt()) {
+                    return FilterReply.NEUTRAL;
+                }
+                return rule.counter().getAndIncrement() % rule.every() == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
+
@@ -0,0 +1,93 @@
+package com.example.demo.config;
+
+import com.example.demo.metrics.MethodMetrics;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Đo thời gian mọi public method của các class @Repository / @Service trong ứng dụng, ghi vào MethodMetrics.
+ *
+ * Không cần AspectJ: advisor khai báo ROLE_INFRASTRUCTURE nên auto-proxy creator mặc định của Spring Boot
+ * (khi không có AspectJ trên classpath) tự áp dụng, tạo CGLIB proxy cho các bean khớp.
+ * Lời gọi nội bộ trong cùng class (this.x()) không đi qua proxy nên không được đo riêng.
+ */
+@Configuration
+public class MethodMetricsConfig {
+    
+    private static final String BASE_PACKAGE = "com.example.demo";
+    
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor methodMetricsAdvisor(MethodMetrics methodMetrics,
+                                               @Value("${app.metrics.methods.enabled:true}") boolean enabled) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return Modifier.isPublic(method.getModifiers())
+                    && !Modifier.isStatic(method.getModifiers())
+                    && method.getDeclaringClass() != Object.class;
+            }
+        };
+        // Tắt thì không class nào match, nên không bean nào bị proxy
+        pointcut.setClassFilter(enabled ? MethodMetricsConfig::isMeasured : type -> false);
+        
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new TimingInterceptor(methodMetrics));
+        advisor.setOrder(0);
+        return advisor;
+    }
+    
+    private static boolean isMeasured(Class<?> type) {
+        return type.getPackageName().startsWith(BASE_PACKAGE)
+            && (AnnotatedElementUtils.hasAnnotation(type, Repository.class)
+                || AnnotatedElementUtils.hasAnnotation(type, Service.class));
+    }
+    
+    static class TimingInterceptor implements MethodInterceptor {
+        
+        private final MethodMetrics methodMetrics;
+        
+        // Tra theo Method để không ghép tên ClassName.method ở mỗi lần gọi
+        private final Map<Method, MethodMetrics.Stats> statsByMethod = new ConcurrentHashMap<>();
+        
+        TimingInterceptor(MethodMetrics methodMetrics) {
+            this.methodMetrics = methodMetrics;
+        }
+        
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            MethodMetrics.Stats stats = statsByMethod.get(invocation.getMethod());
+            if (stats == null) {
+                stats = statsByMethod.computeIfAbsent(invocation.getMethod(), method -> methodMetrics.stats(
+                    ClassUtils.getUserClass(invocation.getThis()).getSimpleName() + "." + method.getName()));
+            }
+            
+            long start = System.nanoTime();
+            try {
+                Object result = invocation.proceed();
+                stats.recordSuccess(System.nanoTime() - start);
+                return result;
+            } catch (Throwable t) {
+                stats.recordError(System.nanoTime() - start, t);
+                throw t;
+            }
+        }
+    }
+}
+
@@ -0,0 +1,305 @@
+package com.example.demo.config;
+
+import com.example.demo.metrics.SqlEvent;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * JdbcTemplate dùng cho cả adminJdbcTemplate và appJdbcTemplate.
+ * Cho phép đặt query timeout theo từng lời gọi (thread-local) thay vì một giá trị chung cho mọi statement,
+ * vì DDL như DROP USER ... CASCADE có thể chạy lâu hơn nhiều so với một query dictionary.
+ * Trong request, timeout còn bị giới hạn bởi deadline của request (RequestDeadline) và statement đang chạy
+ * được cancel khi hết deadline. Riêng DDL / DCL (CREATE, ALTER, DROP, GRANT, REVOKE...) không bao giờ bị deadline
+ * chặn hay cancel: DROP USER ... CASCADE dừng giữa chừng để lại schema bị xóa dở, CREATE USER xong mà GRANT
+ * CREATE SESSION bị chặn để lại user không đăng nhập được.
+ *
+ * Mỗi query / update / batch / DDL phát một JFR event (SqlEvent) kèm loại câu lệnh, số dòng và user của request.
+ * Khi không có recording nào bật event thì chỉ tốn một lần kiểm tra isEnabled().
+ * Câu lệnh vượt ngưỡng được báo cho SlowStatementListener (SlowQueryLog) kèm bind.
+ * execute / update / batchUpdate xóa memo của request (RequestMemo).
+ */
+public class OracleJdbcTemplate extends JdbcTemplate {
+    
+    private static final ThreadLocal<Integer> QUERY_TIMEOUT_SECONDS = new ThreadLocal<>();
+    
+    // true trong lúc execute(sql) chạy một câu DDL / DCL
+    private static final ThreadLocal<Boolean> UNCANCELLABLE = new ThreadLocal<>();
+    
+    private static final int MAX_EVENT_SQL_LENGTH = 1000;
+    private static final String SESSION_USER_ATTRIBUTE = "username";
+    
+    // CREATE USER / ALTER USER / CREATE ROLE ... IDENTIFIED BY <password>, CREATE USER ... PASSWORD '<password>' (H2)
+    private static final Pattern PASSWORD_CLAUSE =
+        Pattern.compile("(?i)\\b(IDENTIFIED\\s+BY\\s+|PASSWORD\\s+)(\"[^\"]*\"|'[^']*'|\\S+)");
+    
+    // DDL / DCL chạy qua execute(): không bị deadline chặn hay cancel giữa chừng
+    private static final Pattern DDL_OR_DCL =
+        Pattern.compile("(?i)^\\s*(CREATE|ALTER|DROP|GRANT|REVOKE|TRUNCATE|RENAME|COMMENT|AUDIT|NOAUDIT|PURGE)\\b");
+    
+    // Query đọc DBA_* / ALL_* / USER_* / V$ (kể cả qua SYS.)
+    private static final Pattern DICTIONARY_VIEW =
+        Pattern.compile("(?i)\\b(FROM|JOIN)\\s+(SYS\\.)?((DBA|ALL|USER)_\\w+|G?V\\$\\w+)");
+    
+    private volatile SlowStatementListener slowStatementListener;
+    private volatile long slowThresholdNanos = Long.MAX_VALUE;
+    
+    public OracleJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+    
+    /**
+     * Chạy action với query timeout (giây) áp dụng cho mọi statement mà action thực thi trên thread hiện tại.
+     */
+    public static <T> T withQueryTimeout(int seconds, Supplier<T> action) {
+        Integer previous = QUERY_TIMEOUT_SECONDS.get();
+        QUERY_TIMEOUT_SECONDS.set(seconds);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                QUERY_TIMEOUT_SECONDS.set(previous);
+            } else {
+                QUERY_TIMEOUT_SECONDS.remove();
+            }
+        }
+    }
+    
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        if (Boolean.TRUE.equals(UNCANCELLABLE.get())) {
+            // DDL / DCL: không query timeout, không đăng ký với watchdog
+            return;
+        }
+        Integer timeout = QUERY_TIMEOUT_SECONDS.get();
+        RequestDeadline.Deadline deadline = RequestDeadline.current();
+        if (deadline != null) {
+            // Timeout của lời gọi (DictionaryQueryGuard) nếu có, nhưng không vượt quá thời gian còn lại của request
+            deadline.begin(stmt, timeout != null ? timeout : 0);
+        } else if (timeout != null && timeout > 0) {
+            stmt.setQueryTimeout(timeout);
+        }
+    }
+    
+    @Override
+    protected void handleWarnings(Statement stmt) throws SQLException {
+        RequestDeadline.Deadline deadline = RequestDeadline.current();
+        if (deadline != null) {
+            deadline.end(stmt);
+        }
+        super.handleWarnings(stmt);
+    }
+    
+    /**
+     * ORA-01013 / query timeout do watchdog của RequestDeadlineFilter cancel hoặc do hết thời gian còn lại
+     * của request được báo là RequestDeadlineExceededException thay vì lỗi Oracle chung.
+     */
+    @Override
+    protected DataAccessException translateException(String task, String sql, SQLException ex) {
+        RequestDeadline.Deadline deadline = RequestDeadline.current();
+        // DDL / DCL chạy quá deadline mà lỗi thì đó là lỗi thật của Oracle, không phải do bị cancel
+        String reason = deadline != null && !Boolean.TRUE.equals(UNCANCELLABLE.get()) ? deadline.stopReason() : null;
+        if (reason != null) {
+            return new RequestDeadlineExceededException(deadline.getEndpoint(), reason, ex);
+        }
+        return super.translateException(task, sql, ex);
+    }
+    
+    @Override
+    public void execute(String sql) throws DataAccessException {
+        boolean uncancellable = DDL_OR_DCL.matcher(sql).find();
+        if (uncancellable) {
+            UNCANCELLABLE.set(true);
+        }
+        try {
+            modifying(() -> recorded(sql, null, () -> {
+                super.execute(sql);
+                return null;
+            }, result -> -1));
+        } finally {
+            if (uncancellable) {
+                UNCANCELLABLE.remove();
+            }
+        }
+    }
+    
+    @Override
+    public <T> T query(String sql, ResultSetExtractor<T> rse) throws DataAccessException {
+        return recorded(sql, null, () -> super.query(sql, rse), OracleJdbcTemplate::rowCount);
+    }
+    
+    @Override
+    public <T> T query(String sql, PreparedStatementSetter pss, ResultSetExtractor<T> rse) throws DataAccessException {
+        return recorded(sql, pss, () -> super.query(sql, pss, rse), OracleJdbcTemplate::rowCount);
+    }
+    
+    @Override
+    public int update(String sql) throws DataAccessException {
+        return modifying(() -> recorded(sql, null, () -> super.update(sql), Integer::longValue));
+    }
+    
+    @Override
+    public int update(String sql, PreparedStatementSetter pss) throws DataAccessException {
+        return modifying(() -> recorded(sql, pss, () -> super.update(sql, pss), Integer::longValue));
+    }
+    
+    @Override
+    public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) throws DataAccessException {
+        return modifying(() -> recorded(sql, null, () -> super.batchUpdate(sql, pss), counts -> {
+            long total = 0;
+            for (int count : counts) {
+                // Statement.SUCCESS_NO_INFO (-2): driver không trả số dòng
+                if (count < 0) {
+                    return -1;
+                }
+                total += count;
+            }
+            return total;
+        }));
+    }
+    
+    /**
+     * Giữ lại bind của query(sql, mapper, args...) / update(sql, args...) để slow query log ghi được.
+     */
+    @Override
+    protected PreparedStatementSetter newArgPreparedStatementSetter(Object[] args) {
+        return new BindArguments(args);
+    }
+    
+    /**
+     * Nhận mọi câu lệnh chạy lâu hơn thresholdMillis (kể cả câu lệnh lỗi); listener chạy trên thread gọi query
+     * nên chỉ được ghi nhận nhanh rồi trả về. listener = null để tắt.
+     */
+    public void setSlowStatementListener(long thresholdMillis, SlowStatementListener listener) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.slowStatementListener = listener;
+    }
+    
+    /**
+     * DDL / DML (GRANT, CREATE USER, INSERT APP_LOGIN_USER...) làm các kết quả đã nhớ trong request (RequestMemo) hết đúng,
+     * kể cả khi câu lệnh lỗi giữa chừng.
+     */
+    private static <T> T modifying(Supplier<T> action) {
+        try {
+            return action.get();
+        } finally {
+            RequestMemo.invalidate();
+        }
+    }
+    
+    private <T> T recorded(String sql, PreparedStatementSetter pss, Supplier<T> action, ToLongFunction<T> rows) {
+        SqlEvent event = new SqlEvent();
+        SlowStatementListener listener = slowStatementListener;
+        if (!event.isEnabled() && listener == null) {
+            return action.get();
+        }
+        
+        long start = System.nanoTime();
+        event.begin();
+        T result = null;
+        boolean succeeded = false;
+        try {
+            result = action.get();
+            succeeded = true;
+            return result;
+        } finally {
+            event.end();
+            long elapsed = System.nanoTime() - start;
+            boolean slow = listener != null && elapsed >= slowThresholdNanos;
+            if (event.shouldCommit() || slow) {
+                long rowCount = succeeded && result != null ? rows.applyAsLong(result) : -1;
+                String user = currentUser();
+                if (event.shouldCommit()) {
+                    event.sqlClass = sqlClass(sql);
+                    event.sql = eventSql(sql);
+                    event.rows = rowCount;
+                    event.user = user;
+                    event.succeeded = succeeded;
+                    event.commit();
+                }
+                if (slow) {
+                    Object[] binds = pss instanceof BindArguments bindArguments ? bindArguments.args : null;
+                    listener.onSlowStatement(sql, binds, elapsed, rowCount, succeeded, user);
+                }
+            }
+        }
+    }
+    
+    private static long rowCount(Object result) {
+        return result instanceof List<?> list ? list.size() : -1;
+    }
+    
+    /**
+     * QUERY, DICTIONARY (đọc DBA_* / V$...), DML, DDL, PLSQL hoặc OTHER theo từ khóa đầu câu lệnh.
+     */
+    public static String sqlClass(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return switch (trimmed.substring(0, end).toUpperCase(Locale.ROOT)) {
+            case "SELECT", "WITH" -> DICTIONARY_VIEW.matcher(trimmed).find() ? "DICTIONARY" : "QUERY";
+            case "INSERT", "UPDATE", "DELETE", "MERGE" -> "DML";
+            case "CREATE", "ALTER", "DROP", "GRANT", "REVOKE", "TRUNCATE", "AUDIT", "NOAUDIT", "COMMENT" -> "DDL";
+            case "BEGIN", "DECLARE", "CALL" -> "PLSQL";
+            default -> "OTHER";
+        };
+    }
+    
+    /**
+     * Che password trong IDENTIFIED BY / PASSWORD của DDL trước khi ghi câu lệnh ra ngoài.
+     */
+    public static String maskPasswords(String sql) {
+        return PASSWORD_CLAUSE.matcher(sql).replaceAll("$1***");
+    }
+    
+    private static String eventSql(String sql) {
+        String masked = maskPasswords(sql);
+        return masked.length() > MAX_EVENT_SQL_LENGTH ? masked.substring(0, MAX_EVENT_SQL_LENGTH) + "..." : masked;
+    }
+    
+    private static String currentUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (String) attributes.getAttribute(SESSION_USER_ATTRIBUTE, RequestAttributes.SCOPE_SESSION);
+    }
+    
+    @FunctionalInterface
+    public interface SlowStatementListener {
+        
+        /**
+         * @param binds bind theo thứ tự, null nếu không lấy được (statement không có bind, batch, setter tự viết)
+         * @param rows  số dòng trả về / bị ảnh hưởng, -1 nếu không biết
+         */
+        void onSlowStatement(String sql, Object[] binds, long elapsedNanos, long rows, boolean succeeded, String user);
+    }
+    
+    private static final class BindArguments extends ArgumentPreparedStatementSetter {
+        
+        private final Object[] args;
+        
+        BindArguments(Object[] args) {
+            super(args);
+            this.args = args;
+        }
+    }
+}
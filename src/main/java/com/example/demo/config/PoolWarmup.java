@@ -0,0 +1,59 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Mở connection đầu tiên cho cả hai pool song song, sau khi port đã mở.
+ * Khi initialization-fail-timeout = -1 thì Hikari không kết nối lúc tạo pool,
+ * nên request đầu tiên không phải chờ handshake Oracle nối tiếp cho từng pool.
+ */
+@Component
+public class PoolWarmup {
+    
+    private static final Logger log = LoggerFactory.getLogger(PoolWarmup.class);
+    
+    @Autowired
+    @Qualifier("adminDataSource")
+    private DataSource adminDataSource;
+    
+    @Autowired
+    @Qualifier("appDataSource")
+    private DataSource appDataSource;
+    
+    @Value("${app.datasource.warmup:true}")
+    private boolean enabled;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        CompletableFuture.allOf(
+            CompletableFuture.runAsync(() -> touch("AdminPool", adminDataSource)),
+            CompletableFuture.runAsync(() -> touch("AppPool", appDataSource))
+        ).whenComplete((ignored, e) ->
+            log.info("Pool warm-up finished in {} ms", (System.nanoTime() - start) / 1_000_000));
+    }
+    
+    private void touch(String poolName, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.isValid(2);
+        } catch (Exception e) {
+            log.warn("Pool warm-up failed for {}: {}", poolName, e.getMessage());
+        }
+    }
+}
+
@@ -0,0 +1,21 @@
+package com.example.demo.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Số câu lệnh SQL tối đa một endpoint được chạy trong một request (đặt trên method hoặc cả controller).
+ * QueryCountFilter cảnh báo khi vượt; với app.query-count.fail-on-budget-exceeded=true (dùng trong test)
+ * request ném QueryBudgetExceededException để N+1 không quay lại mà không ai biết.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryBudget {
+    
+    int value();
+}
+
@@ -0,0 +1,32 @@
+package com.example.demo.config;
+
+/**
+ * Endpoint chạy nhiều câu lệnh SQL hơn @QueryBudget cho phép (chỉ ném khi app.query-count.fail-on-budget-exceeded=true).
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+    
+    private final String endpoint;
+    private final int statements;
+    private final int budget;
+    
+    public QueryBudgetExceededException(String endpoint, int statements, int budget, String mostRepeated) {
+        super(endpoint + " ran " + statements + " SQL statements, budget is " + budget
+            + (mostRepeated != null ? " (most repeated: " + mostRepeated + ")" : ""));
+        this.endpoint = endpoint;
+        this.statements = statements;
+        this.budget = budget;
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+    
+    public int getStatements() {
+        return statements;
+    }
+    
+    public int getBudget() {
+        return budget;
+    }
+}
+
@@ -0,0 +1,179 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Đếm câu lệnh SQL và thời gian trong Oracle của mỗi request (QueryCounter), trả về trong header
+ * X-Query-Count / X-Query-Time-Ms và in một dòng log, kèm câu lệnh lặp lại nhiều nhất để thấy N+1
+ * (getAllUsers, getAllRoles, hasPrivilege gọi nhiều lần trong một trang...).
+ *
+ * Là filter thay vì HandlerInterceptor vì header phải được ghi trước khi response commit:
+ * ResponseEntity / JSON / redirect commit ngay trong handler, trước postHandle.
+ *
+ * Vì cùng lý do, vượt @QueryBudget (khi fail-on-budget-exceeded) được ném ngay trước khi response commit,
+ * lúc header được ghi, chứ không phải sau chain.doFilter: khi đó trang / JSON đã gửi đi với 200
+ * và exception không còn đổi được kết quả. Câu lệnh chạy sau khi response đã commit (render lazy trong
+ * template) chỉ còn được log.
+ */
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+    
+    private static final Logger log = LoggerFactory.getLogger(QueryCountFilter.class);
+    
+    static final String COUNT_HEADER = "X-Query-Count";
+    static final String TIME_HEADER = "X-Query-Time-Ms";
+    
+    @Value("${app.query-count.enabled:true}")
+    private boolean enabled;
+    
+    // Chỉ log request chạy ít nhất chừng này câu lệnh
+    @Value("${app.query-count.log-min-statements:1}")
+    private int logMinStatements;
+    
+    // true trong test: vượt @QueryBudget thì request ném QueryBudgetExceededException
+    @Value("${app.query-count.fail-on-budget-exceeded:false}")
+    private boolean failOnBudgetExceeded;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !enabled || path.startsWith("/css/") || path.startsWith("/js/") || path.startsWith("/images/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter.Stats stats = QueryCounter.start();
+        CountHeaderResponse countingResponse = new CountHeaderResponse(request, response, stats);
+        try {
+            chain.doFilter(request, countingResponse);
+        } finally {
+            QueryCounter.stop();
+        }
+        
+        String endpoint = endpoint(request);
+        String mostRepeated = stats.mostRepeated();
+        if (stats.getStatements() >= logMinStatements) {
+            log.info("SQL {} -> {}: {} statements, {} ms in Oracle{}", endpoint, response.getStatus(),
+                stats.getStatements(), stats.getElapsedMillis(),
+                mostRepeated != null ? " (most repeated: " + mostRepeated + ")" : "");
+        }
+        
+        Integer budget = budget(request);
+        if (budget != null && stats.getStatements() > budget) {
+            log.warn("Query budget exceeded: {} ran {} statements, budget {}{}", endpoint, stats.getStatements(), budget,
+                response.isCommitted() ? " (response already committed)" : "");
+        }
+        
+        // Response chưa commit (không có body): ghi header và kiểm tra budget bây giờ
+        countingResponse.beforeCommit();
+    }
+    
+    private void enforceBudget(HttpServletRequest request, QueryCounter.Stats stats) {
+        if (!failOnBudgetExceeded) {
+            return;
+        }
+        Integer budget = budget(request);
+        if (budget != null && stats.getStatements() > budget) {
+            throw new QueryBudgetExceededException(endpoint(request), stats.getStatements(), budget, stats.mostRepeated());
+        }
+    }
+    
+    private String endpoint(HttpServletRequest request) {
+        // Pattern (/users/{username}) để các request cùng endpoint gom được với nhau trong log
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+    
+    private Integer budget(HttpServletRequest request) {
+        if (!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler)) {
+            return null;
+        }
+        QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(handler.getMethod(), QueryBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), QueryBudget.class);
+        }
+        return budget != null ? budget.value() : null;
+    }
+    
+    /**
+     * Ngay trước khi response bắt đầu commit (body, flush, redirect, lỗi): ghi header đếm và kiểm tra budget,
+     * nên QueryBudgetExceededException vẫn thành một response lỗi thay vì đến sau một response 200.
+     * Với StreamingResponseBody header được ghi lúc handler trả về, nên mang số đếm của handler.
+     */
+    private final class CountHeaderResponse extends HttpServletResponseWrapper {
+        
+        private final HttpServletRequest request;
+        private final QueryCounter.Stats stats;
+        private boolean written;
+        
+        CountHeaderResponse(HttpServletRequest request, HttpServletResponse response, QueryCounter.Stats stats) {
+            super(response);
+            this.request = request;
+            this.stats = stats;
+        }
+        
+        void beforeCommit() {
+            if (written || isCommitted()) {
+                return;
+            }
+            // Đánh dấu trước khi ném: response lỗi sau đó đi qua đây lần nữa và không được ném lại
+            written = true;
+            setHeader(COUNT_HEADER, String.valueOf(stats.getStatements()));
+            setHeader(TIME_HEADER, String.valueOf(stats.getElapsedMillis()));
+            enforceBudget(request, stats);
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            beforeCommit();
+            return super.getOutputStream();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            beforeCommit();
+            return super.getWriter();
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeCommit();
+            super.flushBuffer();
+        }
+        
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            beforeCommit();
+            super.sendRedirect(location);
+        }
+        
+        @Override
+        public void sendError(int sc) throws IOException {
+            beforeCommit();
+            super.sendError(sc);
+        }
+        
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            beforeCommit();
+            super.sendError(sc, msg);
+        }
+    }
+}
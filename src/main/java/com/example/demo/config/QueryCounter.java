@@ -0,0 +1,106 @@
+package com.example.demo.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Đếm số câu lệnh SQL và thời gian chờ Oracle của request hiện tại (thread-local).
+ * QueryCountFilter bật bộ đếm khi request bắt đầu, QueryCountingDataSource ghi vào khi statement chạy;
+ * ngoài request (job nền, warm-up) không có bộ đếm nên record() không làm gì.
+ */
+public final class QueryCounter {
+    
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+    
+    private QueryCounter() {
+    }
+    
+    public static Stats start() {
+        Stats stats = new Stats();
+        CURRENT.set(stats);
+        return stats;
+    }
+    
+    public static Stats current() {
+        return CURRENT.get();
+    }
+    
+    public static void stop() {
+        CURRENT.remove();
+    }
+    
+    static void record(String sql, long elapsedNanos) {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.add(sql, elapsedNanos);
+        }
+    }
+    
+    /**
+     * Chạy action với bộ đếm riêng và trả về số câu lệnh đã chạy, vd để kiểm tra một service method
+     * không sinh N+1 query. Bộ đếm của request (nếu có) được khôi phục sau đó.
+     */
+    public static Stats count(Runnable action) {
+        Stats previous = CURRENT.get();
+        Stats stats = start();
+        try {
+            action.run();
+            return stats;
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+                previous.merge(stats);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+    
+    public static final class Stats {
+        
+        // Chỉ thread của request ghi; header có thể được đọc từ thread async của StreamingResponseBody
+        private volatile int statements;
+        private volatile long elapsedNanos;
+        private final Map<String, Integer> perSql = new HashMap<>();
+        
+        private synchronized void add(String sql, long nanos) {
+            statements++;
+            elapsedNanos += nanos;
+            if (sql != null) {
+                perSql.merge(sql, 1, Integer::sum);
+            }
+        }
+        
+        private synchronized void merge(Stats other) {
+            statements += other.statements;
+            elapsedNanos += other.elapsedNanos;
+            other.perSql.forEach((sql, count) -> perSql.merge(sql, count, Integer::sum));
+        }
+        
+        public int getStatements() {
+            return statements;
+        }
+        
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+        
+        /**
+         * Câu lệnh chạy nhiều lần nhất trong request (dấu hiệu của N+1), null nếu không câu nào chạy quá một lần.
+         */
+        public synchronized String mostRepeated() {
+            Map.Entry<String, Integer> top = null;
+            for (Map.Entry<String, Integer> entry : perSql.entrySet()) {
+                if (entry.getValue() > 1 && (top == null || entry.getValue() > top.getValue())) {
+                    top = entry;
+                }
+            }
+            if (top == null) {
+                return null;
+            }
+            String sql = top.getKey().replaceAll("\\s+", " ").trim();
+            return top.getValue() + "x " + (sql.length() > 120 ? sql.substring(0, 120) + "..." : sql);
+        }
+    }
+}
+
@@ -0,0 +1,128 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Bọc DataSource để mỗi lần execute* của Statement / PreparedStatement / CallableStatement được ghi vào
+ * QueryCounter của request hiện tại (số câu lệnh, thời gian chờ Oracle, SQL nào lặp lại).
+ * Connection và statement chỉ là proxy chuyển tiếp: unwrap() vẫn trả về object của Hikari / driver.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+    
+    public QueryCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+    
+    private static Connection countingConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, new ConnectionHandler(target));
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+    
+    private static final class ConnectionHandler implements InvocationHandler {
+        
+        private final Connection target;
+        
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "QueryCounting[" + target + "]";
+                default:
+                    break;
+            }
+            
+            Object result = QueryCountingDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement / prepareCall: SQL là tham số đầu; createStatement: SQL có ở lúc execute
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                    : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                    new Class<?>[] {type}, new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+    
+    private static final class StatementHandler implements InvocationHandler {
+        
+        private final Statement target;
+        private final String preparedSql;
+        
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "QueryCounting[" + target + "]";
+                default:
+                    break;
+            }
+            if (!name.startsWith("execute")) {
+                return QueryCountingDataSource.invoke(target, method, args);
+            }
+            
+            long start = System.nanoTime();
+            try {
+                return QueryCountingDataSource.invoke(target, method, args);
+            } finally {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                QueryCounter.record(sql, System.nanoTime() - start);
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
+
@@ -0,0 +1,104 @@
+package com.example.demo.config;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline của request hiện tại (thread-local). RequestDeadlineFilter đặt deadline khi request bắt đầu,
+ * OracleJdbcTemplate đổi thời gian còn lại thành query timeout của từng statement và đăng ký statement đang chạy
+ * để watchdog cancel được khi hết giờ. Ngoài request (job nền, warm-up) không có deadline.
+ */
+public final class RequestDeadline {
+    
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    
+    private RequestDeadline() {
+    }
+    
+    public static Deadline start(String endpoint, long timeoutMillis) {
+        Deadline deadline = new Deadline(endpoint, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+        CURRENT.set(deadline);
+        return deadline;
+    }
+    
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+    
+    public static void stop() {
+        CURRENT.remove();
+    }
+    
+    public static final class Deadline {
+        
+        private final String endpoint;
+        private final long deadlineNanos;
+        
+        // Ghi bởi thread của request, đọc bởi thread watchdog
+        private volatile Statement running;
+        private volatile String cancelReason;
+        
+        private Deadline(String endpoint, long deadlineNanos) {
+            this.endpoint = endpoint;
+            this.deadlineNanos = deadlineNanos;
+        }
+        
+        public String getEndpoint() {
+            return endpoint;
+        }
+        
+        public long remainingMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        }
+        
+        /**
+         * Lý do request bị dừng (hết deadline, bị cancel), null nếu request còn chạy tiếp được.
+         */
+        public String stopReason() {
+            String reason = cancelReason;
+            if (reason == null && System.nanoTime() - deadlineNanos >= 0) {
+                return "deadline exceeded";
+            }
+            return reason;
+        }
+        
+        /**
+         * Gọi trước khi statement chạy: hết giờ thì ném RequestDeadlineExceededException (không mở thêm
+         * câu lệnh nào), còn giờ thì đặt query timeout = thời gian còn lại, làm tròn lên giây.
+         */
+        void begin(Statement stmt, int callTimeoutSeconds) throws SQLException {
+            String reason = stopReason();
+            if (reason != null) {
+                throw new RequestDeadlineExceededException(endpoint, reason, null);
+            }
+            int remainingSeconds = (int) Math.max(1, (remainingMillis() + 999) / 1000);
+            stmt.setQueryTimeout(callTimeoutSeconds > 0 ? Math.min(callTimeoutSeconds, remainingSeconds) : remainingSeconds);
+            running = stmt;
+        }
+        
+        void end(Statement stmt) {
+            if (running == stmt) {
+                running = null;
+            }
+        }
+        
+        /**
+         * Gọi từ watchdog: đánh dấu request bị dừng và cancel statement đang chạy (Oracle trả ORA-01013).
+         */
+        public void cancel(String reason) {
+            if (cancelReason == null) {
+                cancelReason = reason;
+            }
+            Statement stmt = running;
+            if (stmt != null) {
+                try {
+                    stmt.cancel();
+                } catch (SQLException e) {
+                    // Statement vừa chạy xong / đã đóng
+                }
+            }
+        }
+    }
+}
+
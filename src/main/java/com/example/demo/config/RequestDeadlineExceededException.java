@@ -0,0 +1,21 @@
+package com.example.demo.config;
+
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * Câu lệnh SQL bị chặn hoặc bị cancel vì request đã hết deadline (RequestDeadlineFilter).
+ */
+public class RequestDeadlineExceededException extends QueryTimeoutException {
+    
+    private final String endpoint;
+    
+    public RequestDeadlineExceededException(String endpoint, String reason, Throwable cause) {
+        super(endpoint + ": " + reason + ", SQL statement cancelled", cause);
+        this.endpoint = endpoint;
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
+
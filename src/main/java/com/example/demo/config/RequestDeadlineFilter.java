@@ -0,0 +1,126 @@
+package com.example.demo.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline cho mỗi request (RequestDeadline): mặc định app.request-deadline.default-ms, riêng từng endpoint qua
+ * app.request-deadline.endpoints=pattern:ms,... (Ant pattern trên đường dẫn, pattern đầu tiên khớp được dùng).
+ *
+ * Mọi statement của request chạy với query timeout = thời gian còn lại; khi hết deadline, watchdog cancel
+ * statement đang chạy để connection trả về pool ngay thay vì giữ session Oracle cho một request không ai chờ nữa.
+ * Chạy trước QueryCountFilter để thời gian trong Oracle của câu lệnh bị cancel vẫn được đếm.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+    
+    private static final Logger log = LoggerFactory.getLogger(RequestDeadlineFilter.class);
+    
+    @Value("${app.request-deadline.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.request-deadline.default-ms:30000}")
+    private long defaultMillis;
+    
+    @Value("${app.request-deadline.endpoints:}")
+    private String endpointDeadlines;
+    
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    
+    private final List<EndpointDeadline> endpoints = new ArrayList<>();
+    
+    private ScheduledThreadPoolExecutor watchdog;
+    
+    private record EndpointDeadline(String pattern, long millis) {
+    }
+    
+    @PostConstruct
+    void start() {
+        for (String rule : endpointDeadlines.split(",")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            int separator = rule.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid app.request-deadline.endpoints rule (pattern:ms): " + rule);
+            }
+            endpoints.add(new EndpointDeadline(rule.substring(0, separator).trim(),
+                Long.parseLong(rule.substring(separator + 1).trim())));
+        }
+        
+        watchdog = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "request-deadline-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Hầu hết request xong trước deadline: task đã hủy được bỏ khỏi queue ngay
+        watchdog.setRemoveOnCancelPolicy(true);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !enabled || path.startsWith("/css/") || path.startsWith("/js/") || path.startsWith("/images/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        long timeoutMillis = timeoutMillis(path);
+        if (timeoutMillis <= 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        RequestDeadline.Deadline deadline = RequestDeadline.start(request.getMethod() + " " + path, timeoutMillis);
+        ScheduledFuture<?> expiry = watchdog.schedule(() -> {
+            log.warn("Request deadline of {} ms exceeded: {}, cancelling running SQL", timeoutMillis,
+                deadline.getEndpoint());
+            deadline.cancel("deadline of " + timeoutMillis + " ms exceeded");
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            expiry.cancel(false);
+            RequestDeadline.stop();
+        }
+    }
+    
+    private long timeoutMillis(String path) {
+        for (EndpointDeadline endpoint : endpoints) {
+            if (pathMatcher.match(endpoint.pattern(), path)) {
+                return endpoint.millis();
+            }
+        }
+        return defaultMillis;
+    }
+}
+
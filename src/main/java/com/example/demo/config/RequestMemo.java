@@ -0,0 +1,80 @@
+package com.example.demo.config;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Kết quả đọc dictionary được nhớ trong request hiện tại (request attribute): cùng câu hỏi với cùng bind
+ * (DictionaryQueryGuard cacheKey) trong một request chỉ chạy trên Oracle một lần.
+ * OracleJdbcTemplate xóa memo khi request chạy DDL / DML (GRANT, CREATE USER...), để các lần đọc sau thấy thay đổi.
+ * Ngoài request (job nền, warm-up) không có memo nên loader luôn chạy.
+ *
+ * Giá trị nhớ được trả cho mọi caller trong request nên phải là giá trị không ai sửa: DictionaryQueryGuard
+ * chép kết quả mỗi lần đọc, PrivilegeService nhớ từng Boolean.
+ */
+public final class RequestMemo {
+    
+    private static final String ATTRIBUTE = RequestMemo.class.getName();
+    
+    private RequestMemo() {
+    }
+    
+    /**
+     * Giá trị đã nhớ cho key, hoặc chạy loader và nhớ kết quả (kể cả null). Loader ném exception thì không nhớ gì.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T computeIfAbsent(String key, Supplier<T> loader) {
+        Map<String, Object> memo = memo(true);
+        if (memo == null) {
+            return loader.get();
+        }
+        if (memo.containsKey(key)) {
+            return (T) memo.get(key);
+        }
+        T value = loader.get();
+        memo.put(key, value);
+        return value;
+    }
+    
+    /**
+     * Giá trị đã nhớ cho key, null nếu chưa có hoặc ngoài request.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(String key) {
+        Map<String, Object> memo = memo(false);
+        return memo != null ? (T) memo.get(key) : null;
+    }
+    
+    public static void put(String key, Object value) {
+        Map<String, Object> memo = memo(true);
+        if (memo != null) {
+            memo.put(key, value);
+        }
+    }
+    
+    public static void invalidate() {
+        Map<String, Object> memo = memo(false);
+        if (memo != null) {
+            memo.clear();
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> memo(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<String, Object> memo = (Map<String, Object>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null && create) {
+            memo = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return memo;
+    }
+}
+
@@ -0,0 +1,35 @@
+package com.example.demo.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Quyền hệ thống Oracle (DBA_SYS_PRIVS, trực tiếp hoặc qua role) mà user đăng nhập phải có để gọi handler
+ * (đặt trên method hoặc cả controller). AuthInterceptor kiểm tra tất cả bằng một query trước khi handler chạy;
+ * thiếu quyền thì trang HTML chuyển về deniedRedirect, /api/ nhận 403.
+ * Lặp lại annotation khi mỗi quyền cần một deniedRedirect riêng: vẫn chỉ một query, redirect theo
+ * annotation đầu tiên không thỏa.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Repeatable(RequiresOraclePrivileges.class)
+public @interface RequiresOraclePrivilege {
+    
+    /**
+     * Cần có tất cả các quyền này.
+     */
+    String[] value() default {};
+    
+    /**
+     * Cần có ít nhất một trong các quyền này (vd. GRANT ANY PRIVILEGE hoặc GRANT ANY ROLE).
+     */
+    String[] anyOf() default {};
+    
+    String deniedRedirect() default "/dashboard?error=access_denied";
+}
+
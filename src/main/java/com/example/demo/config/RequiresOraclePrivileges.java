@@ -0,0 +1,19 @@
+package com.example.demo.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Container của @RequiresOraclePrivilege lặp lại trên cùng handler.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresOraclePrivileges {
+    
+    RequiresOraclePrivilege[] value();
+}
+
@@ -0,0 +1,41 @@
+package com.example.demo.config;
+
+import com.example.demo.repository.DictionaryQueryGuard;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Nếu trong request có query dictionary phải trả về kết quả cũ (Oracle chậm hoặc lỗi),
+ * đưa thời điểm của dữ liệu cũ nhất vào model để layout hiện banner cảnh báo.
+ *
+ * Trang đó cũng không được cache: CatalogVersion.checkNotModified đã đặt ETag trước khi handler đọc dữ liệu,
+ * và nếu browser giữ bản này thì các request sau nhận 304 và tiếp tục hiện dữ liệu cũ cho tới khi version đổi.
+ */
+@Component
+public class StaleDataInterceptor implements HandlerInterceptor {
+    
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response,
+                           Object handler, ModelAndView modelAndView) throws Exception {
+        Object staleSince = request.getAttribute(DictionaryQueryGuard.STALE_SINCE_ATTRIBUTE);
+        if (staleSince == null) {
+            return;
+        }
+        if (!response.isCommitted()) {
+            // no-store: browser không lưu response nên không gửi lại ETag của nó trong If-None-Match
+            response.setHeader("Cache-Control", "no-store");
+        }
+        if (modelAndView == null) {
+            return;
+        }
+        String viewName = modelAndView.getViewName();
+        if (viewName != null && viewName.startsWith("redirect:")) {
+            return;
+        }
+        modelAndView.addObject("staleSince", staleSince);
+    }
+}
+
@@ -0,0 +1,51 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Đo thời gian khởi động: lúc context sẵn sàng và lúc request đầu tiên được trả về,
+ * tính từ thời điểm JVM start. Dùng để so sánh profile mặc định với faststart + AppCDS.
+ */
+@Component
+public class StartupTimer extends OncePerRequestFilter {
+    
+    private static final Logger log = LoggerFactory.getLogger(StartupTimer.class);
+    
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean(false);
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        log.info("Application ready {} ms after JVM start", uptimeMillis());
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!firstRequestSeen.get() && firstRequestSeen.compareAndSet(false, true)) {
+                log.info("Time to first request: {} ms after JVM start ({} {})", uptimeMillis(),
+                    request.getMethod(), request.getRequestURI());
+            }
+        }
+    }
+    
+    private long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
+
@@ -0,0 +1,246 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Các database (PDB / instance) cùng mô hình bảo mật mà ứng dụng quản lý. Target đầu tiên là database chính
+ * (adminJdbcTemplate, app.targets.primary-name); các target khác khai báo bằng app.targets.names và
+ * app.targets.&lt;NAME&gt;.url (username / password / driver mặc định giống spring.datasource.admin.*).
+ * Pool của target phụ chỉ được tạo ở lần dùng đầu tiên.
+ *
+ * fanOut chạy cùng một câu hỏi trên mọi target song song, mỗi target có timeout riêng: tổng thời gian
+ * bằng target chậm nhất chứ không phải tổng các target, target lỗi / hết giờ chỉ làm mất dòng của nó.
+ *
+ * Mọi target dùng tài khoản kỹ thuật của pool; quyền của user đăng nhập chỉ được kiểm tra trên database chính
+ * (AuthInterceptor), không kiểm tra lại trên từng target.
+ */
+@Component
+public class TargetDatabases implements DisposableBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(TargetDatabases.class);
+    
+    @Autowired
+    private Environment environment;
+    
+    @Autowired
+    @Qualifier("adminJdbcTemplate")
+    private JdbcTemplate adminJdbcTemplate;
+    
+    @Value("${app.targets.primary-name:ORCLPDB}")
+    private String primaryName;
+    
+    @Value("${app.targets.names:}")
+    private List<String> targetNames;
+    
+    @Value("${app.targets.timeout-seconds:10}")
+    private int timeoutSeconds;
+    
+    @Value("${app.targets.max-pool-size:2}")
+    private int maxPoolSize;
+    
+    @Value("${app.targets.parallelism:16}")
+    private int parallelism;
+    
+    private final Map<String, TargetPool> pools = new ConcurrentHashMap<>();
+    
+    /**
+     * Tên các target, database chính đứng đầu.
+     */
+    public List<String> names() {
+        Set<String> names = new LinkedHashSet<>();
+        names.add(primaryName.toUpperCase(Locale.ROOT));
+        for (String name : targetNames) {
+            if (!name.isBlank()) {
+                names.add(name.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        return new ArrayList<>(names);
+    }
+    
+    public JdbcTemplate jdbcTemplate(String target) {
+        String name = target.trim().toUpperCase(Locale.ROOT);
+        if (name.equals(primaryName.toUpperCase(Locale.ROOT))) {
+            return adminJdbcTemplate;
+        }
+        if (!names().contains(name)) {
+            throw new IllegalArgumentException("Unknown target database: " + target);
+        }
+        return pools.computeIfAbsent(name, this::createPool).jdbcTemplate();
+    }
+    
+    /**
+     * Chạy query trên mọi target song song. Kết quả theo thứ tự của names(); target quá
+     * app.targets.timeout-seconds (hoặc quá deadline còn lại của request) có timedOut = true.
+     *
+     * Mỗi lời gọi có executor riêng (tối đa app.targets.parallelism thread) nên các request đồng thời không xếp hàng
+     * sau task của nhau. Đồng hồ của một target bắt đầu khi task của nó bắt đầu chạy, và cả thời gian chờ
+     * connection lẫn query timeout đều không vượt phần còn lại của timeout / deadline.
+     */
+    public <T> List<TargetResult<T>> fanOut(Function<JdbcTemplate, T> query) {
+        List<String> names = names();
+        RequestDeadline.Deadline deadline = RequestDeadline.current();
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(timeoutSeconds);
+        long deadlineAt = deadline != null ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadline.remainingMillis()) : 0;
+        
+        // 0 = task chưa bắt đầu (còn trong hàng đợi của executor)
+        AtomicLongArray startedAt = new AtomicLongArray(names.size());
+        ExecutorService executor = newExecutor(names.size());
+        try {
+            List<Future<TargetResult<T>>> futures = new ArrayList<>(names.size());
+            for (int i = 0; i < names.size(); i++) {
+                int index = i;
+                String name = names.get(i);
+                futures.add(executor.submit(() -> {
+                    long start = System.nanoTime();
+                    startedAt.set(index, start);
+                    long budgetMillis = budgetMillis(start, timeoutMillis, deadlineAt);
+                    if (budgetMillis <= 0) {
+                        return TargetResult.failed(name, "request deadline exceeded before start", true);
+                    }
+                    int queryTimeoutSeconds = (int) Math.max(1, (budgetMillis + 999) / 1000);
+                    T value = AcquireTimeoutDataSource.withAcquireTimeout(budgetMillis, () ->
+                        OracleJdbcTemplate.withQueryTimeout(queryTimeoutSeconds, () -> query.apply(jdbcTemplate(name))));
+                    return TargetResult.ok(name, value, (System.nanoTime() - start) / 1_000_000);
+                }));
+            }
+            
+            List<TargetResult<T>> results = new ArrayList<>(names.size());
+            for (int i = 0; i < names.size(); i++) {
+                results.add(await(names.get(i), futures.get(i), startedAt, i, timeoutMillis, deadlineAt));
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for target databases", e);
+        } finally {
+            // Ngắt các task còn chạy / còn xếp hàng; thread của executor là daemon và chỉ sống trong lời gọi này
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Chờ một target đến hết ngân sách của chính nó, tính từ lúc task bắt đầu chạy. Task bắt đầu muộn
+     * (xếp hàng sau target khác của cùng lời gọi) vẫn được đủ thời gian, trừ khi deadline request đã hết.
+     */
+    private <T> TargetResult<T> await(String name, Future<TargetResult<T>> future, AtomicLongArray startedAt, int index,
+                                      long timeoutMillis, long deadlineAt) throws InterruptedException {
+        long waitStart = System.nanoTime();
+        while (true) {
+            long started = startedAt.get(index);
+            long limit = budgetEnd(started != 0 ? started : waitStart, timeoutMillis, deadlineAt);
+            try {
+                return future.get(Math.max(0, limit - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                long nowStarted = startedAt.get(index);
+                if (started == 0 && nowStarted != 0 && (deadlineAt == 0 || deadlineAt - System.nanoTime() > 0)) {
+                    // Vừa bắt đầu trong lúc chờ: tính lại mốc từ lúc nó bắt đầu
+                    continue;
+                }
+                future.cancel(true);
+                return TargetResult.failed(name, nowStarted == 0
+                    ? "not started within " + timeoutMillis + " ms"
+                    : "timed out after " + budgetMillis(nowStarted, timeoutMillis, deadlineAt) + " ms", true);
+            } catch (ExecutionException e) {
+                log.warn("Query on target {} failed: {}", name, e.getCause().getMessage());
+                return TargetResult.failed(name, e.getCause().getMessage(), false);
+            }
+        }
+    }
+    
+    private static long budgetEnd(long start, long timeoutMillis, long deadlineAt) {
+        long end = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        return deadlineAt != 0 && deadlineAt - end < 0 ? deadlineAt : end;
+    }
+    
+    private static long budgetMillis(long start, long timeoutMillis, long deadlineAt) {
+        return TimeUnit.NANOSECONDS.toMillis(budgetEnd(start, timeoutMillis, deadlineAt) - start);
+    }
+    
+    private TargetPool createPool(String name) {
+        String prefix = "app.targets." + name + ".";
+        String url = environment.getProperty(prefix + "url");
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException("Missing " + prefix + "url");
+        }
+        
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("Target-" + name);
+        config.setJdbcUrl(url);
+        config.setUsername(environment.getProperty(prefix + "username", environment.getProperty("spring.datasource.admin.username")));
+        config.setPassword(environment.getProperty(prefix + "password", environment.getProperty("spring.datasource.admin.password")));
+        config.setDriverClassName(environment.getProperty(prefix + "driver-class-name",
+            environment.getProperty("spring.datasource.admin.driver-class-name", "oracle.jdbc.OracleDriver")));
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setMinimumIdle(0);
+        config.setConnectionTimeout(TimeUnit.SECONDS.toMillis(timeoutSeconds));
+        // Không kết nối khi tạo pool: target đang down chỉ làm lỗi lời gọi hiện tại, lần sau thử lại
+        config.setInitializationFailTimeout(-1);
+        
+        log.info("Creating pool for target database {} ({})", name, url);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        return new TargetPool(dataSource, new OracleJdbcTemplate(new AcquireTimeoutDataSource(dataSource)));
+    }
+    
+    private ExecutorService newExecutor(int targets) {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, Math.min(targets, parallelism)), r -> {
+            Thread thread = new Thread(r, "target-fanout-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @Override
+    public void destroy() {
+        pools.values().forEach(pool -> pool.dataSource().close());
+    }
+    
+    private record TargetPool(HikariDataSource dataSource, JdbcTemplate jdbcTemplate) {
+    }
+    
+    /**
+     * Kết quả của một target: value khi thành công, error (và timedOut) khi lỗi.
+     */
+    public record TargetResult<T>(String target, T value, String error, boolean timedOut, long durationMillis) {
+        
+        static <T> TargetResult<T> ok(String target, T value, long durationMillis) {
+            return new TargetResult<>(target, value, null, false, durationMillis);
+        }
+        
+        static <T> TargetResult<T> failed(String target, String error, boolean timedOut) {
+            return new TargetResult<>(target, null, error, timedOut, -1);
+        }
+        
+        public boolean isOk() {
+            return error == null;
+        }
+    }
+}
+
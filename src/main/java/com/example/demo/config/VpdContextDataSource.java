@@ -0,0 +1,85 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Bọc DataSource của APP_OWNER khi dùng VPD_CONTEXT_MIGRATION.sql: trước khi giao connection cho request,
+ * set APP_USER_CTX.USERNAME thành user đang đăng nhập (PKG_APP_USER_CTX.SET_USER), để policy
+ * CONTEXT_SENSITIVE lọc APP_USER_PROFILE theo user của giao diện thay vì APP_OWNER.
+ *
+ * Context nằm trong session Oracle nên còn nguyên khi connection quay về pool: chỉ gọi package khi
+ * user của connection vật lý khác user của request, không tốn thêm round-trip ở mỗi câu lệnh.
+ * Không có request (job nền) thì trả context về chính APP_OWNER.
+ */
+public class VpdContextDataSource extends DelegatingDataSource implements AutoCloseable {
+    
+    private static final String SESSION_USER_ATTRIBUTE = "username";
+    
+    // Key là connection vật lý (Hikari unwrap), tự bỏ khi pool đóng connection
+    private final Map<Connection, String> contextUsers = Collections.synchronizedMap(new WeakHashMap<>());
+    
+    public VpdContextDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return withContext(super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return withContext(super.getConnection(username, password));
+    }
+    
+    private Connection withContext(Connection connection) throws SQLException {
+        String user = currentUser();
+        Connection physical = connection.unwrap(Connection.class);
+        if (contextUsers.containsKey(physical) && Objects.equals(contextUsers.get(physical), user)) {
+            return connection;
+        }
+        
+        try (CallableStatement call = connection.prepareCall(user != null
+                ? "{call APP_OWNER.PKG_APP_USER_CTX.SET_USER(?)}"
+                : "{call APP_OWNER.PKG_APP_USER_CTX.CLEAR_USER}")) {
+            if (user != null) {
+                call.setString(1, user);
+            }
+            call.execute();
+        } catch (SQLException e) {
+            // Không giao connection mang context của user khác
+            contextUsers.remove(physical);
+            connection.close();
+            throw e;
+        }
+        contextUsers.put(physical, user);
+        return connection;
+    }
+    
+    private String currentUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (String) attributes.getAttribute(SESSION_USER_ATTRIBUTE, RequestAttributes.SCOPE_SESSION);
+    }
+    
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
+
@@ -11,9 +11,23 @@ public class WebConfig implements WebMvcConfigurer {
     @Autowired
     private AuthInterceptor authInterceptor;
     
+    @Autowired
+    private StaleDataInterceptor staleDataInterceptor;
+    
+    @Autowired
+    private AppAuditInterceptor appAuditInterceptor;
+    
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // /metrics tự kiểm tra token hoặc session (MetricsController), không tạo session cho mỗi lần scrape
         registry.addInterceptor(authInterceptor)
+                .addPathPatterns("/**")
+                .excludePathPatterns("/login", "/metrics", "/css/**", "/js/**", "/images/**");
+        registry.addInterceptor(staleDataInterceptor)
+                .addPathPatterns("/**")
+                .excludePathPatterns("/css/**", "/js/**", "/images/**");
+        // Login được ghi trong AuthenticationService (có cả lý do thất bại)
+        registry.addInterceptor(appAuditInterceptor)
                 .addPathPatterns("/**")
                 .excludePathPatterns("/login", "/css/**", "/js/**", "/images/**");
     }
@@ -0,0 +1,138 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.OracleJdbcTemplate;
+import com.example.demo.config.RequestDeadlineExceededException;
+import com.example.demo.repository.DictionaryUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.HttpMediaTypeException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lỗi của JSON API trả về dạng {"status": ..., "error": ...} thay vì trang lỗi HTML.
+ * Request sai (body không đọc được, tham số thiếu / sai kiểu...) là 4xx như Spring MVC quy định.
+ * Lỗi Oracle được map sang HTTP status theo mã ORA- đã biết, còn lại là 500. Client chỉ nhận mã ORA- chứ không nhận
+ * message gốc: message của lỗi DDL có thể chứa cả câu lệnh (IDENTIFIED BY &lt;password&gt;), nên chỉ được ghi log
+ * sau khi che password.
+ */
+@RestControllerAdvice(assignableTypes = {UserApiController.class, RoleApiController.class,
+    ProfileApiController.class, PrivilegeApiController.class, ReportApiController.class})
+public class ApiExceptionHandler {
+    
+    private static final Logger log = LoggerFactory.getLogger(ApiExceptionHandler.class);
+    
+    private static final Pattern ORA_CODE = Pattern.compile("ORA-\\d{5}");
+    
+    private static final Map<String, HttpStatus> ORA_STATUS = Map.ofEntries(
+        Map.entry("ORA-01031", HttpStatus.FORBIDDEN),         // insufficient privileges
+        Map.entry("ORA-01917", HttpStatus.NOT_FOUND),         // user or role does not exist
+        Map.entry("ORA-01918", HttpStatus.NOT_FOUND),         // user does not exist
+        Map.entry("ORA-01919", HttpStatus.NOT_FOUND),         // role does not exist
+        Map.entry("ORA-02380", HttpStatus.NOT_FOUND),         // profile does not exist
+        Map.entry("ORA-00942", HttpStatus.NOT_FOUND),         // table or view does not exist
+        Map.entry("ORA-00001", HttpStatus.CONFLICT),          // unique constraint violated
+        Map.entry("ORA-01920", HttpStatus.CONFLICT),          // user name conflicts
+        Map.entry("ORA-01921", HttpStatus.CONFLICT),          // role name conflicts
+        Map.entry("ORA-02379", HttpStatus.CONFLICT),          // profile already exists
+        Map.entry("ORA-00904", HttpStatus.BAD_REQUEST),       // invalid identifier
+        Map.entry("ORA-00922", HttpStatus.BAD_REQUEST),       // missing or invalid option
+        Map.entry("ORA-00988", HttpStatus.BAD_REQUEST),       // missing or invalid password
+        Map.entry("ORA-00990", HttpStatus.BAD_REQUEST),       // missing or invalid privilege
+        Map.entry("ORA-01935", HttpStatus.BAD_REQUEST),       // missing user or role name
+        Map.entry("ORA-28003", HttpStatus.BAD_REQUEST));      // password verification failed
+    
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, Object>> handleStatus(ResponseStatusException e) {
+        return error(HttpStatus.valueOf(e.getStatusCode().value()), e.getReason());
+    }
+    
+    /**
+     * Lỗi của request mà Spring MVC phát hiện trước khi vào handler - không để rơi xuống handleOracle thành 500.
+     */
+    @ExceptionHandler({HttpMessageNotReadableException.class, TypeMismatchException.class,
+        ServletRequestBindingException.class, MissingServletRequestPartException.class,
+        MethodArgumentNotValidException.class, HandlerMethodValidationException.class,
+        HttpMediaTypeException.class, HttpRequestMethodNotSupportedException.class})
+    public ResponseEntity<Map<String, Object>> handleClientError(Exception e) {
+        if (e instanceof ErrorResponse errorResponse) {
+            // MissingPathVariableException là lỗi mapping phía server: status của chính exception (500) được giữ
+            HttpStatus status = HttpStatus.valueOf(errorResponse.getStatusCode().value());
+            if (status.is5xxServerError()) {
+                log.error("API error ({}): {}", status.value(), e.getMessage());
+            }
+            return error(status, errorResponse.getBody().getDetail());
+        }
+        if (e instanceof MethodArgumentTypeMismatchException mismatch) {
+            return error(HttpStatus.BAD_REQUEST, "Invalid value for parameter '" + mismatch.getName() + "'");
+        }
+        if (e instanceof TypeMismatchException mismatch) {
+            return error(HttpStatus.BAD_REQUEST, "Invalid value for '" + mismatch.getPropertyName() + "'");
+        }
+        // Không trả message của Jackson: nó chứa một phần body (có thể là password)
+        return error(HttpStatus.BAD_REQUEST, "Malformed request body");
+    }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        return error(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+    
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<Map<String, Object>> handleNotFound(NoSuchElementException e) {
+        return error(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+    
+    @ExceptionHandler(DictionaryUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleUnavailable(DictionaryUnavailableException e) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+    }
+    
+    @ExceptionHandler(RequestDeadlineExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleDeadline(RequestDeadlineExceededException e) {
+        return error(HttpStatus.GATEWAY_TIMEOUT, e.getMessage());
+    }
+    
+    // Lỗi thật phía server (thường là Oracle); lỗi của request đã được các handler ở trên xử lý
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<Map<String, Object>> handleOracle(RuntimeException e) {
+        String message = OracleJdbcTemplate.maskPasswords(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        Matcher ora = ORA_CODE.matcher(message);
+        String code = ora.find() ? ora.group() : null;
+        HttpStatus status = code != null ? ORA_STATUS.getOrDefault(code, HttpStatus.INTERNAL_SERVER_ERROR)
+            : HttpStatus.INTERNAL_SERVER_ERROR;
+        
+        if (status.is5xxServerError()) {
+            log.error("API error ({}): {}", status.value(), message);
+        } else {
+            log.warn("API error ({}): {}", status.value(), message);
+        }
+        return error(status, code != null ? "Oracle error " + code : "Internal server error");
+    }
+    
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status.value());
+        body.put("error", message);
+        return ResponseEntity.status(status).body(body);
+    }
+}
+
@@ -0,0 +1,30 @@
+package com.example.demo.controller;
+
+import java.util.List;
+
+/**
+ * Tham số phân trang của API (page bắt đầu từ 0).
+ */
+record ApiPaging(int page, int size) {
+    
+    static ApiPaging of(Integer page, Integer size, int defaultSize, int maxSize) {
+        int p = page != null ? page : 0;
+        int s = size != null ? size : defaultSize;
+        if (p < 0) {
+            throw new IllegalArgumentException("page must be >= 0");
+        }
+        if (s < 1 || s > maxSize) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxSize);
+        }
+        return new ApiPaging(p, s);
+    }
+    
+    <T> List<T> slice(List<T> all) {
+        long from = (long) page * size;
+        if (from >= all.size()) {
+            return List.of();
+        }
+        return all.subList((int) from, (int) Math.min(from + size, all.size()));
+    }
+}
+
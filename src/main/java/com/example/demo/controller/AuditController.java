@@ -0,0 +1,186 @@
+package com.example.demo.controller;
+
+import com.example.demo.archive.ArchiveSearchResult;
+import com.example.demo.archive.AuditArchive;
+import com.example.demo.model.AuditCursor;
+import com.example.demo.model.AuditRecord;
+import com.example.demo.repository.AuditRepository;
+import com.example.demo.service.AuditTailService;
+import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.FgaAnomalyDetector;
+import com.example.demo.service.PrivilegeService;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Xem audit trail (UNIFIED_AUDIT_TRAIL, DBA_FGA_AUDIT_TRAIL).
+ * Trang danh sách dùng keyset pagination ("before" = cursor của dòng cuối trang trước),
+ * chế độ follow lấy record mới từ buffer của AuditTailService.
+ */
+@Controller
+@RequestMapping("/audit")
+public class AuditController {
+    
+    private static final Logger log = LoggerFactory.getLogger(AuditController.class);
+    
+    // Đánh dấu trong session khi đã kiểm tra quyền, để các request follow không phải hỏi lại Oracle
+    private static final String AUDIT_ACCESS_ATTRIBUTE = "auditViewerAccess";
+    
+    @Autowired
+    private AuditRepository auditRepository;
+    
+    @Autowired
+    private AuditTailService auditTailService;
+    
+    @Autowired
+    private AuditArchive auditArchive;
+    
+    @Autowired
+    private FgaAnomalyDetector fgaAnomalyDetector;
+    
+    @Autowired
+    private AuthenticationService authenticationService;
+    
+    @Autowired
+    private PrivilegeService privilegeService;
+    
+    @Value("${app.audit.viewer.page-size:50}")
+    private int pageSize;
+    
+    @Value("${app.audit.viewer.max-hours:720}")
+    private int maxHours;
+    
+    @GetMapping
+    public String listAudit(@RequestParam(defaultValue = AuditRepository.UNIFIED) String source,
+                            @RequestParam(required = false) String user,
+                            @RequestParam(required = false) String action,
+                            @RequestParam(required = false) String policy,
+                            @RequestParam(defaultValue = "24") int hours,
+                            @RequestParam(required = false) String before,
+                            HttpSession session, Model model) {
+        if (!authenticationService.isLoggedIn(session)) {
+            return "redirect:/login";
+        }
+        
+        String currentUser = authenticationService.getCurrentUser(session);
+        if (!authenticationService.hasAdminCapabilities(currentUser, privilegeService)) {
+            return "redirect:/dashboard?error=access_denied";
+        }
+        session.setAttribute(AUDIT_ACCESS_ATTRIBUTE, Boolean.TRUE);
+        
+        AuditRepository.Filter filter = filter(user, action, policy);
+        int window = Math.max(1, Math.min(hours, maxHours));
+        LocalDateTime sinceUtc = LocalDateTime.now(ZoneOffset.UTC).minusHours(window);
+        
+        List<AuditRecord> records = new ArrayList<>();
+        String nextCursor = null;
+        try {
+            // Lấy thêm một dòng để biết còn trang sau hay không
+            records = auditRepository.search(source, filter, sinceUtc, AuditCursor.parse(before), pageSize + 1);
+            if (records.size() > pageSize) {
+                records = records.subList(0, pageSize);
+                nextCursor = records.get(records.size() - 1).getCursor();
+            }
+        } catch (Exception e) {
+            log.warn("Error reading audit trail: {}", e.getMessage());
+            model.addAttribute("error", "Không thể đọc audit trail: " + e.getMessage());
+        }
+        
+        model.addAttribute("records", records);
+        model.addAttribute("nextCursor", nextCursor);
+        model.addAttribute("newestCursor", records.isEmpty() ? null : records.get(0).getCursor());
+        model.addAttribute("firstPage", before == null || before.isBlank());
+        model.addAttribute("source", source);
+        model.addAttribute("user", filter.user());
+        model.addAttribute("action", filter.action());
+        model.addAttribute("policy", filter.policy());
+        model.addAttribute("hours", window);
+        model.addAttribute("lastPollAt", auditTailService.getLastPollAt());
+        model.addAttribute("alerts", fgaAnomalyDetector.recentAlerts(10));
+        model.addAttribute("username", currentUser);
+        model.addAttribute("isAdmin", true);
+        
+        return "audit/list";
+    }
+    
+    /**
+     * Tìm trong archive cục bộ (AuditArchive) - lịch sử dài hơn max-hours mà không query Oracle.
+     */
+    @GetMapping("/archive")
+    public String searchArchive(@RequestParam(defaultValue = AuditRepository.UNIFIED) String source,
+                                @RequestParam(required = false) String user,
+                                @RequestParam(required = false) String action,
+                                @RequestParam(required = false) String object,
+                                @RequestParam(defaultValue = "30") int days,
+                                HttpSession session, Model model) {
+        if (!authenticationService.isLoggedIn(session)) {
+            return "redirect:/login";
+        }
+        
+        String currentUser = authenticationService.getCurrentUser(session);
+        if (!authenticationService.hasAdminCapabilities(currentUser, privilegeService)) {
+            return "redirect:/dashboard?error=access_denied";
+        }
+        
+        int window = Math.max(1, days);
+        LocalDateTime fromUtc = LocalDateTime.now(ZoneOffset.UTC).minusDays(window);
+        ArchiveSearchResult result = auditArchive.search(source, blankToNull(user), blankToNull(action),
+            blankToNull(object), fromUtc, null, pageSize);
+        
+        model.addAttribute("records", result.records());
+        model.addAttribute("result", result);
+        model.addAttribute("archiveEnabled", auditArchive.isEnabled());
+        model.addAttribute("segmentCount", auditArchive.getSegmentCount());
+        model.addAttribute("recordCount", auditArchive.getRecordCount());
+        model.addAttribute("source", source);
+        model.addAttribute("user", blankToNull(user));
+        model.addAttribute("action", blankToNull(action));
+        model.addAttribute("object", blankToNull(object));
+        model.addAttribute("days", window);
+        model.addAttribute("username", currentUser);
+        model.addAttribute("isAdmin", true);
+        
+        return "audit/archive";
+    }
+    
+    /**
+     * Các dòng mới hơn "after" (fragment audit/list :: rows) cho chế độ follow - không query Oracle.
+     */
+    @GetMapping("/tail")
+    public String tailAudit(@RequestParam(defaultValue = AuditRepository.UNIFIED) String source,
+                            @RequestParam(required = false) String user,
+                            @RequestParam(required = false) String action,
+                            @RequestParam(required = false) String policy,
+                            @RequestParam(required = false) String after,
+                            HttpSession session, Model model) {
+        List<AuditRecord> records = new ArrayList<>();
+        if (Boolean.TRUE.equals(session.getAttribute(AUDIT_ACCESS_ATTRIBUTE))) {
+            records = auditTailService.recentAfter(source, AuditCursor.parse(after), filter(user, action, policy), pageSize);
+        }
+        
+        model.addAttribute("records", records);
+        return "audit/list :: rows";
+    }
+    
+    private AuditRepository.Filter filter(String user, String action, String policy) {
+        return new AuditRepository.Filter(blankToNull(user), blankToNull(action), blankToNull(policy));
+    }
+    
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
+
@@ -2,6 +2,7 @@ package com.example.demo.controller;
 
 import com.example.demo.model.LoginRequest;
 import com.example.demo.service.AuthenticationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -24,7 +25,7 @@ public class AuthController {
     }
     
     @PostMapping("/login")
-    public String login(LoginRequest loginRequest, HttpSession session, Model model) {
+    public String login(LoginRequest loginRequest, HttpSession session, HttpServletRequest request, Model model) {
         if (loginRequest.getUsername() == null || loginRequest.getUsername().isEmpty() ||
             loginRequest.getPassword() == null || loginRequest.getPassword().isEmpty()) {
             model.addAttribute("error", "Username and password are required");
@@ -34,7 +35,8 @@ public class AuthController {
         boolean authenticated = authenticationService.login(
             loginRequest.getUsername(), 
             loginRequest.getPassword(), 
-            session
+            session,
+            request.getRemoteAddr()
         );
         
         if (authenticated) {
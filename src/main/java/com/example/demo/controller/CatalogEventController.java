@@ -0,0 +1,25 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.CatalogEventBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Kênh server-sent events cho các trang danh sách (main.js mở khi trang có tbody[data-live]).
+ * AuthInterceptor đã chặn request chưa đăng nhập.
+ */
+@RestController
+public class CatalogEventController {
+    
+    @Autowired
+    private CatalogEventBroadcaster catalogEventBroadcaster;
+    
+    @GetMapping(path = "/events/catalog", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter catalogEvents() {
+        return catalogEventBroadcaster.subscribe();
+    }
+}
+
@@ -6,6 +6,8 @@ import com.example.demo.service.PrivilegeService;
 import com.example.demo.service.RoleService;
 import com.example.demo.service.UserService;
 import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -16,6 +18,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 @RequestMapping("/dashboard")
 public class DashboardController {
     
+    private static final Logger log = LoggerFactory.getLogger(DashboardController.class);
+    
     @Autowired
     private AuthenticationService authenticationService;
     
@@ -45,10 +49,9 @@ public class DashboardController {
         java.util.List<String> userRoles = new java.util.ArrayList<>();
         try {
             userRoles = userService.getUserRoles(username);
-            System.out.println("User " + username + " has " + userRoles.size() + " roles: " + userRoles);
+            log.debug("User {} has {} roles: {}", username, userRoles.size(), userRoles);
         } catch (Exception e) {
-            System.err.println("Error getting user roles: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error getting user roles: {}", e.getMessage(), e);
         }
         
         // Nếu là admin và không có roles, hiển thị privileges thay vì roles
@@ -63,19 +66,18 @@ public class DashboardController {
                         .map(priv -> priv.getPrivilege())
                         .limit(10) // Chỉ hiển thị 10 quyền đầu tiên
                         .collect(java.util.stream.Collectors.toList());
-                    System.out.println("Admin has " + privileges.size() + " direct privileges (showing first 10): " + adminPrivileges);
+                    log.debug("Admin has {} direct privileges (showing first 10): {}", privileges.size(), adminPrivileges);
                 }
                 
                 // Cũng hiển thị tất cả roles có sẵn trong hệ thống
                 java.util.List<com.example.demo.model.Role> roles = roleService.getAllRoles();
-                System.out.println("Retrieved " + roles.size() + " roles from database");
+                log.debug("Retrieved {} roles from database", roles.size());
                 allSystemRoles = roles.stream()
                     .map(role -> role.getRoleName())
                     .collect(java.util.stream.Collectors.toList());
-                System.out.println("Admin has no assigned roles, showing all system roles: " + allSystemRoles);
+                log.debug("Admin has no assigned roles, showing all system roles: {}", allSystemRoles);
             } catch (Exception e) {
-                System.err.println("Error getting admin privileges/roles: " + e.getMessage());
-                e.printStackTrace();
+                log.warn("Error getting admin privileges/roles: {}", e.getMessage(), e);
             }
         }
         
@@ -88,25 +90,25 @@ public class DashboardController {
         try {
             totalUsers = userService.getAllUsers(username).size();
         } catch (Exception e) {
-            System.err.println("Error getting users: " + e.getMessage());
+            log.warn("Error getting users: {}", e.getMessage());
         }
         
         try {
             totalProfiles = profileService.getAllProfiles().size();
         } catch (Exception e) {
-            System.err.println("Error getting profiles: " + e.getMessage());
+            log.warn("Error getting profiles: {}", e.getMessage());
         }
         
         try {
             totalRoles = roleService.getAllRoles().size();
         } catch (Exception e) {
-            System.err.println("Error getting roles: " + e.getMessage());
+            log.warn("Error getting roles: {}", e.getMessage());
         }
         
         try {
             totalPrivileges = privilegeService.getAllPrivileges().size();
         } catch (Exception e) {
-            System.err.println("Error getting privileges: " + e.getMessage());
+            log.warn("Error getting privileges: {}", e.getMessage());
         }
         
         model.addAttribute("username", username);
@@ -0,0 +1,62 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.RequiresOraclePrivilege;
+import com.example.demo.config.TargetDatabases.TargetResult;
+import com.example.demo.model.TargetCounts;
+import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.FleetService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+/**
+ * Các câu hỏi trên mọi target database (app.targets.*): số lượng user / role / profile của từng target,
+ * user tồn tại ở đâu, so sánh một role giữa các môi trường. Mỗi trang là một lần fanOut song song.
+ */
+@Controller
+@RequestMapping("/fleet")
+@RequiresOraclePrivilege(anyOf = {"CREATE USER", "ALTER USER", "CREATE ROLE", "CREATE PROFILE"})
+public class FleetController {
+    
+    @Autowired
+    private FleetService fleetService;
+    
+    @Autowired
+    private AuthenticationService authenticationService;
+    
+    @GetMapping
+    public String overview(HttpSession session, Model model) {
+        List<TargetResult<TargetCounts>> counts = fleetService.countObjects();
+        model.addAttribute("counts", counts);
+        model.addAttribute("total", fleetService.total(counts));
+        return view(session, model);
+    }
+    
+    @GetMapping("/users")
+    public String findUser(@RequestParam String username, HttpSession session, Model model) {
+        model.addAttribute("searchUsername", username.trim().toUpperCase());
+        model.addAttribute("userResults", fleetService.findUser(username.trim()));
+        return view(session, model);
+    }
+    
+    @GetMapping("/roles")
+    public String compareRole(@RequestParam String role, HttpSession session, Model model) {
+        model.addAttribute("searchRole", role.trim().toUpperCase());
+        model.addAttribute("comparison", fleetService.compareRole(role.trim()));
+        return view(session, model);
+    }
+    
+    private String view(HttpSession session, Model model) {
+        model.addAttribute("targets", fleetService.getTargets());
+        model.addAttribute("username", authenticationService.getCurrentUser(session));
+        model.addAttribute("isAdmin", true);
+        return "fleet/view";
+    }
+}
+
@@ -0,0 +1,91 @@
+package com.example.demo.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Các field JSON mà API trả về cho một model, theo thứ tự khai báo.
+ * Field không khai báo ở đây (vd. password) không bao giờ được serialize.
+ *
+ * Kết quả được ghi thẳng ra response bằng JsonGenerator, từng item một,
+ * thay vì dựng cả cây JSON hoặc String trong bộ nhớ.
+ */
+final class JsonProjection<T> {
+    
+    private final Map<String, Function<T, Object>> fields = new LinkedHashMap<>();
+    
+    JsonProjection<T> field(String name, Function<T, Object> getter) {
+        fields.put(name, getter);
+        return this;
+    }
+    
+    /**
+     * Parse tham số fields=a,b,c. Không truyền thì trả về tất cả field.
+     */
+    Set<String> select(String fieldsParam) {
+        if (fieldsParam == null || fieldsParam.isBlank()) {
+            return Collections.unmodifiableSet(fields.keySet());
+        }
+        
+        Set<String> selected = new LinkedHashSet<>();
+        for (String name : fieldsParam.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!fields.containsKey(trimmed)) {
+                throw new IllegalArgumentException("Unknown field '" + trimmed + "'. Available fields: " + fields.keySet());
+            }
+            selected.add(trimmed);
+        }
+        return selected;
+    }
+    
+    StreamingResponseBody one(ObjectMapper objectMapper, T item, Set<String> selected) {
+        return out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                write(generator, item, selected);
+            }
+        };
+    }
+    
+    StreamingResponseBody page(ObjectMapper objectMapper, ApiPaging paging, int total,
+                               List<T> items, Set<String> selected) {
+        return out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartObject();
+                generator.writeNumberField("page", paging.page());
+                generator.writeNumberField("size", paging.size());
+                generator.writeNumberField("total", total);
+                generator.writeArrayFieldStart("items");
+                for (T item : items) {
+                    write(generator, item, selected);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        };
+    }
+    
+    private void write(JsonGenerator generator, T item, Set<String> selected) throws IOException {
+        generator.writeStartObject();
+        for (Map.Entry<String, Function<T, Object>> field : fields.entrySet()) {
+            if (selected.contains(field.getKey())) {
+                generator.writeFieldName(field.getKey());
+                generator.writeObject(field.getValue().apply(item));
+            }
+        }
+        generator.writeEndObject();
+    }
+}
+
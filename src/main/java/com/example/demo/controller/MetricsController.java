@@ -0,0 +1,170 @@
+package com.example.demo.controller;
+
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MethodMetrics;
+import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.PrivilegeService;
+import com.example.demo.service.SlowQueryLog;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Số liệu của MethodMetrics: /metrics ở định dạng text của Prometheus, /metrics/view là trang cho admin.
+ * /metrics/slow-queries hiển thị SlowQueryLog (câu lệnh chậm kèm execution plan).
+ *
+ * /metrics không đi qua AuthInterceptor (không tạo session ở mỗi lần scrape): chấp nhận header
+ * "Authorization: Bearer <app.metrics.scrape-token>" hoặc session của user có quyền admin.
+ */
+@Controller
+@RequestMapping("/metrics")
+public class MetricsController {
+    
+    private static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8");
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    
+    @Autowired
+    private MethodMetrics methodMetrics;
+    
+    @Autowired
+    private AuthenticationService authenticationService;
+    
+    @Autowired
+    private PrivilegeService privilegeService;
+    
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+    
+    // Rỗng = chỉ scrape được bằng session admin
+    @Value("${app.metrics.scrape-token:}")
+    private String scrapeToken;
+    
+    @GetMapping
+    public ResponseEntity<String> scrape(HttpServletRequest request) {
+        if (!hasScrapeToken(request) && !isAdmin(request.getSession(false))) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        StringBuilder out = new StringBuilder(8192);
+        out.append("# HELP app_method_duration_seconds Latency of repository and service methods\n");
+        out.append("# TYPE app_method_duration_seconds summary\n");
+        for (MethodMetrics.Stats stats : methodMetrics.snapshot()) {
+            appendSummary(out, stats.getName(), "success", stats.getSuccess());
+            if (stats.getError() != null) {
+                appendSummary(out, stats.getName(), "error", stats.getError());
+            }
+        }
+        
+        out.append("# HELP app_method_errors_total Exceptions thrown by repository and service methods\n");
+        out.append("# TYPE app_method_errors_total counter\n");
+        for (MethodMetrics.Stats stats : methodMetrics.snapshot()) {
+            for (Map.Entry<String, Long> error : stats.getErrorsByType().entrySet()) {
+                out.append("app_method_errors_total{method=\"").append(label(stats.getName()))
+                    .append("\",exception=\"").append(label(error.getKey())).append("\"} ")
+                    .append(error.getValue()).append('\n');
+            }
+        }
+        
+        out.append("# HELP app_events_total Named application counters\n");
+        out.append("# TYPE app_events_total counter\n");
+        for (Map.Entry<String, Long> counter : methodMetrics.counters().entrySet()) {
+            out.append("app_events_total{name=\"").append(label(counter.getKey())).append("\"} ")
+                .append(counter.getValue()).append('\n');
+        }
+        
+        return ResponseEntity.ok().contentType(PROMETHEUS_TEXT).body(out.toString());
+    }
+    
+    @GetMapping("/view")
+    public String view(HttpSession session, Model model) {
+        if (!authenticationService.isLoggedIn(session)) {
+            return "redirect:/login";
+        }
+        if (!isAdmin(session)) {
+            return "redirect:/dashboard?error=access_denied";
+        }
+        
+        model.addAttribute("methods", methodMetrics.snapshot());
+        model.addAttribute("counters", methodMetrics.counters());
+        model.addAttribute("username", authenticationService.getCurrentUser(session));
+        model.addAttribute("isAdmin", true);
+        return "metrics/view";
+    }
+    
+    @PostMapping("/reset")
+    public String reset(HttpSession session) {
+        if (!isAdmin(session)) {
+            return "redirect:/dashboard?error=access_denied";
+        }
+        methodMetrics.reset();
+        return "redirect:/metrics/view";
+    }
+    
+    @GetMapping("/slow-queries")
+    public String slowQueries(HttpSession session, Model model) {
+        if (!authenticationService.isLoggedIn(session)) {
+            return "redirect:/login";
+        }
+        if (!isAdmin(session)) {
+            return "redirect:/dashboard?error=access_denied";
+        }
+        
+        model.addAttribute("queries", slowQueryLog.recent());
+        model.addAttribute("enabled", slowQueryLog.isEnabled());
+        model.addAttribute("thresholdMillis", slowQueryLog.getThresholdMillis());
+        model.addAttribute("username", authenticationService.getCurrentUser(session));
+        model.addAttribute("isAdmin", true);
+        return "metrics/slow-queries";
+    }
+    
+    @PostMapping("/slow-queries/clear")
+    public String clearSlowQueries(HttpSession session) {
+        if (!isAdmin(session)) {
+            return "redirect:/dashboard?error=access_denied";
+        }
+        slowQueryLog.clear();
+        return "redirect:/metrics/slow-queries";
+    }
+    
+    private boolean hasScrapeToken(HttpServletRequest request) {
+        return !scrapeToken.isBlank() && ("Bearer " + scrapeToken).equals(request.getHeader("Authorization"));
+    }
+    
+    private boolean isAdmin(HttpSession session) {
+        return session != null && authenticationService.isLoggedIn(session)
+            && authenticationService.hasAdminCapabilities(authenticationService.getCurrentUser(session), privilegeService);
+    }
+    
+    private static void appendSummary(StringBuilder out, String method, String outcome, LatencyHistogram histogram) {
+        String labels = "method=\"" + label(method) + "\",outcome=\"" + outcome + "\"";
+        for (double quantile : QUANTILES) {
+            out.append("app_method_duration_seconds{").append(labels).append(",quantile=\"").append(quantile)
+                .append("\"} ").append(seconds(histogram.percentile(quantile * 100))).append('\n');
+        }
+        out.append("app_method_duration_seconds_sum{").append(labels).append("} ")
+            .append(seconds(histogram.getMeanMicros() * histogram.getCount())).append('\n');
+        out.append("app_method_duration_seconds_count{").append(labels).append("} ")
+            .append(histogram.getCount()).append('\n');
+    }
+    
+    private static String seconds(double micros) {
+        return String.format(Locale.ROOT, "%.6f", micros / 1_000_000.0);
+    }
+    
+    private static String label(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
+
@@ -0,0 +1,125 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.RequiresOraclePrivilege;
+import com.example.demo.model.PrivilegeInfo;
+import com.example.demo.model.PrivilegeTable;
+import com.example.demo.service.PrivilegeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Set;
+
+/**
+ * JSON API cho PrivilegeService.
+ *
+ * GET /api/v1/privileges?grantee=HR_USER&type=OBJECT&page=0&size=200
+ * Danh sách privileges có thể rất lớn (DBA_SYS_PRIVS + DBA_TAB_PRIVS), nên kết quả được
+ * ghi ra response theo từng item thay vì serialize cả danh sách thành một khối.
+ */
+@RestController
+@RequestMapping("/api/v1/privileges")
+public class PrivilegeApiController {
+    
+    private static final JsonProjection<PrivilegeInfo> PROJECTION = new JsonProjection<PrivilegeInfo>()
+        .field("privilege", PrivilegeInfo::getPrivilege)
+        .field("grantee", PrivilegeInfo::getGrantee)
+        .field("grantor", PrivilegeInfo::getGrantor)
+        .field("adminOption", PrivilegeInfo::isAdminOption)
+        .field("type", PrivilegeInfo::getType)
+        .field("roleName", PrivilegeInfo::getRoleName)
+        .field("objectName", PrivilegeInfo::getObjectName);
+    
+    @Autowired
+    private PrivilegeService privilegeService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.api.default-page-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${app.api.max-page-size:500}")
+    private int maxPageSize;
+    
+    /**
+     * Body của grant/revoke - cùng tham số với form /privileges/grant và /privileges/revoke.
+     */
+    public record GrantRequest(String privilegeType, String privilege, String grantee,
+                               String table, String column, boolean withOption) {
+    }
+    
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listPrivileges(@RequestParam(required = false) String grantee,
+                                                                @RequestParam(required = false) String type,
+                                                                @RequestParam(required = false) Integer page,
+                                                                @RequestParam(required = false) Integer size,
+                                                                @RequestParam(required = false) String fields) {
+        ApiPaging paging = ApiPaging.of(page, size, defaultPageSize, maxPageSize);
+        Set<String> selected = PROJECTION.select(fields);
+        
+        // Lọc trong SQL (WHERE GRANTEE = ?, chỉ view của type) thay vì đọc mọi privilege rồi lọc
+        PrivilegeTable privileges = privilegeService.findPrivileges(grantee, type);
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(PROJECTION.page(objectMapper, paging, privileges.size(), paging.slice(privileges), selected));
+    }
+    
+    @PostMapping("/grant")
+    // Giống PrivilegeController: cần GRANT ANY PRIVILEGE hoặc GRANT ANY ROLE
+    @RequiresOraclePrivilege(anyOf = {"GRANT ANY PRIVILEGE", "GRANT ANY ROLE"})
+    public ResponseEntity<Void> grantPrivilege(@RequestBody GrantRequest request) {
+        validate(request);
+        
+        switch (request.privilegeType()) {
+            case "SYSTEM" -> privilegeService.grantSystemPrivilege(request.privilege(), request.grantee(), request.withOption());
+            case "ROLE" -> privilegeService.grantRole(request.privilege(), request.grantee(), request.withOption());
+            case "OBJECT" -> privilegeService.grantObjectPrivilege(request.privilege(), requireTable(request),
+                request.grantee(), request.withOption());
+            case "COLUMN" -> {
+                if (request.column() == null || request.column().isEmpty()) {
+                    throw new IllegalArgumentException("Table and column names are required");
+                }
+                privilegeService.grantColumnPrivilege(request.privilege(), requireTable(request),
+                    request.column(), request.grantee());
+            }
+            default -> throw new IllegalArgumentException("Unknown privilegeType: " + request.privilegeType());
+        }
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/revoke")
+    // Giống PrivilegeController: cần GRANT ANY PRIVILEGE hoặc GRANT ANY ROLE
+    @RequiresOraclePrivilege(anyOf = {"GRANT ANY PRIVILEGE", "GRANT ANY ROLE"})
+    public ResponseEntity<Void> revokePrivilege(@RequestBody GrantRequest request) {
+        validate(request);
+        
+        switch (request.privilegeType()) {
+            case "SYSTEM" -> privilegeService.revokeSystemPrivilege(request.privilege(), request.grantee());
+            case "ROLE" -> privilegeService.revokeRole(request.privilege(), request.grantee());
+            case "OBJECT" -> privilegeService.revokeObjectPrivilege(request.privilege(), requireTable(request),
+                request.grantee());
+            default -> throw new IllegalArgumentException("Unknown privilegeType: " + request.privilegeType());
+        }
+        return ResponseEntity.noContent().build();
+    }
+    
+    private void validate(GrantRequest request) {
+        if (request.privilegeType() == null || request.privilege() == null || request.grantee() == null) {
+            throw new IllegalArgumentException("privilegeType, privilege and grantee are required");
+        }
+    }
+    
+    private String requireTable(GrantRequest request) {
+        if (request.table() == null || request.table().isEmpty()) {
+            throw new IllegalArgumentException("Table name is required");
+        }
+        return request.table();
+    }
+}
+
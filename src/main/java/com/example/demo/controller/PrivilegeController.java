@@ -1,16 +1,22 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.RequiresOraclePrivilege;
 import com.example.demo.model.PrivilegeInfo;
+import com.example.demo.model.PrivilegeTable;
 import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.CatalogVersion;
 import com.example.demo.service.PrivilegeService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
+import java.util.Set;
 
 @Controller
 @RequestMapping("/privileges")
@@ -22,13 +28,19 @@ public class PrivilegeController {
     @Autowired
     private AuthenticationService authenticationService;
     
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
     @GetMapping
-    public String listPrivileges(HttpSession session, Model model) {
+    public String listPrivileges(HttpSession session, Model model, ServletWebRequest webRequest) {
         if (!authenticationService.isLoggedIn(session)) {
             return "redirect:/login";
         }
         
         String currentUser = authenticationService.getCurrentUser(session);
+        if (catalogVersion.checkNotModified(webRequest, model, "privileges", currentUser)) {
+            return null;
+        }
         List<PrivilegeInfo> privileges = privilegeService.getAllPrivileges();
         
         model.addAttribute("privileges", privileges);
@@ -38,20 +50,35 @@ public class PrivilegeController {
         return "privileges/list";
     }
     
-    @GetMapping("/grant")
-    public String grantPrivilegeForm(HttpSession session, Model model) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
+    /**
+     * Các dòng privileges (fragment privileges/list :: rows) - main.js tải lại khi catalog event báo bảng
+     * privileges đổi. Với since chỉ các dòng của grantee đã đổi sau version đó được đọc (WHERE GRANTEE = ?),
+     * không đọc lại cả DBA_SYS_PRIVS + DBA_TAB_PRIVS.
+     */
+    @GetMapping("/rows")
+    public String privilegeRows(@RequestParam(required = false) Long since, HttpSession session, Model model,
+                                HttpServletResponse response) {
         String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - Oracle enforces GRANT ANY PRIVILEGE or GRANT ANY ROLE
-        // For UI, we check if user can grant privileges
-        if (!privilegeService.hasPrivilege(currentUser, "GRANT ANY PRIVILEGE") && 
-            !privilegeService.hasPrivilege(currentUser, "GRANT ANY ROLE")) {
-            return "redirect:/privileges?error=no_privilege";
+        long version = catalogVersion.current();
+        Set<String> changed = since != null ? catalogVersion.changedKeys("privileges", since) : null;
+        if (changed == null) {
+            model.addAttribute("privileges", privilegeService.getAllPrivileges());
+        } else {
+            PrivilegeTable.Builder privileges = PrivilegeTable.builder();
+            for (String grantee : changed) {
+                privileges.addAll(privilegeService.getPrivilegesForGrantee(grantee));
+            }
+            model.addAttribute("privileges", privileges.build());
         }
-        
+        CatalogVersion.writeRowHeaders(response, version, changed);
+        model.addAttribute("isAdmin", authenticationService.hasAdminCapabilities(currentUser, privilegeService));
+        return "privileges/list :: rows";
+    }
+    
+    @GetMapping("/grant")
+    @RequiresOraclePrivilege(anyOf = {"GRANT ANY PRIVILEGE", "GRANT ANY ROLE"},
+                             deniedRedirect = "/privileges?error=no_privilege")
+    public String grantPrivilegeForm(Model model) {
         model.addAttribute("privilegeTypes", List.of("SYSTEM", "ROLE", "OBJECT", "COLUMN"));
         model.addAttribute("systemPrivileges", List.of(
             "CREATE PROFILE", "ALTER PROFILE", "DROP PROFILE",
@@ -67,26 +94,15 @@ public class PrivilegeController {
     }
     
     @PostMapping("/grant")
+    @RequiresOraclePrivilege(anyOf = {"GRANT ANY PRIVILEGE", "GRANT ANY ROLE"},
+                             deniedRedirect = "/privileges?error=no_privilege")
     public String grantPrivilege(@RequestParam String privilegeType,
                                  @RequestParam String privilege,
                                  @RequestParam String grantee,
                                  @RequestParam(required = false) String table,
                                  @RequestParam(required = false) String column,
                                  @RequestParam(defaultValue = "false") boolean withOption,
-                                 HttpSession session,
                                  RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - Oracle enforces GRANT ANY PRIVILEGE or GRANT ANY ROLE
-        // For UI, we check if user can grant privileges
-        if (!privilegeService.hasPrivilege(currentUser, "GRANT ANY PRIVILEGE") && 
-            !privilegeService.hasPrivilege(currentUser, "GRANT ANY ROLE")) {
-            return "redirect:/privileges?error=no_privilege";
-        }
-        
         try {
             switch (privilegeType) {
                 case "SYSTEM" -> {
@@ -122,24 +138,13 @@ public class PrivilegeController {
     }
     
     @PostMapping("/revoke")
+    @RequiresOraclePrivilege(anyOf = {"GRANT ANY PRIVILEGE", "GRANT ANY ROLE"},
+                             deniedRedirect = "/privileges?error=no_privilege")
     public String revokePrivilege(@RequestParam String privilegeType,
                                  @RequestParam String privilege,
                                  @RequestParam String grantee,
                                  @RequestParam(required = false) String table,
-                                 HttpSession session,
                                  RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - Oracle enforces GRANT ANY PRIVILEGE or GRANT ANY ROLE
-        // For UI, we check if user can grant privileges
-        if (!privilegeService.hasPrivilege(currentUser, "GRANT ANY PRIVILEGE") && 
-            !privilegeService.hasPrivilege(currentUser, "GRANT ANY ROLE")) {
-            return "redirect:/privileges?error=no_privilege";
-        }
-        
         try {
             switch (privilegeType) {
                 case "SYSTEM" -> {
@@ -0,0 +1,126 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.QueryBudget;
+import com.example.demo.config.RequiresOraclePrivilege;
+import com.example.demo.model.Profile;
+import com.example.demo.service.ProfileService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JSON API cho ProfileService. Phân trang trên danh sách tên profile, chỉ load
+ * giới hạn tài nguyên và assignedUsers cho các profile trong trang.
+ */
+@RestController
+@RequestMapping("/api/v1/profiles")
+public class ProfileApiController {
+    
+    private static final JsonProjection<Profile> PROJECTION = new JsonProjection<Profile>()
+        .field("profileName", Profile::getProfileName)
+        .field("sessionsPerUser", Profile::getSessionsPerUser)
+        .field("connectTime", Profile::getConnectTime)
+        .field("idleTime", Profile::getIdleTime)
+        .field("assignedUsers", Profile::getAssignedUsers);
+    
+    @Autowired
+    private ProfileService profileService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.api.default-page-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${app.api.max-page-size:500}")
+    private int maxPageSize;
+    
+    @GetMapping
+    @QueryBudget(4)
+    public ResponseEntity<StreamingResponseBody> listProfiles(@RequestParam(required = false) Integer page,
+                                                              @RequestParam(required = false) Integer size,
+                                                              @RequestParam(required = false) String fields) {
+        ApiPaging paging = ApiPaging.of(page, size, defaultPageSize, maxPageSize);
+        Set<String> selected = PROJECTION.select(fields);
+        
+        List<String> profileNames = profileService.getProfileNames();
+        List<String> pageNames = paging.slice(profileNames);
+        List<Profile> profiles;
+        if (selected.size() == 1 && selected.contains("profileName")) {
+            profiles = new ArrayList<>();
+            for (String profileName : pageNames) {
+                Profile profile = new Profile();
+                profile.setProfileName(profileName);
+                profiles.add(profile);
+            }
+        } else {
+            profiles = profileService.getProfiles(pageNames);
+        }
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(PROJECTION.page(objectMapper, paging, profileNames.size(), profiles, selected));
+    }
+    
+    @GetMapping("/{profileName}")
+    @QueryBudget(3)
+    public ResponseEntity<StreamingResponseBody> getProfile(@PathVariable String profileName,
+                                                            @RequestParam(required = false) String fields) {
+        Set<String> selected = PROJECTION.select(fields);
+        String name = profileName.toUpperCase();
+        if (!profileService.getProfileNames().contains(name)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Profile not found: " + name);
+        }
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(PROJECTION.one(objectMapper, profileService.getProfile(name), selected));
+    }
+    
+    @PostMapping
+    @RequiresOraclePrivilege("CREATE PROFILE")
+    public ResponseEntity<Void> createProfile(@RequestBody Profile profile) {
+        if (profile.getProfileName() == null || profile.getProfileName().isBlank()) {
+            throw new IllegalArgumentException("profileName is required");
+        }
+        
+        profileService.createProfile(
+            profile.getProfileName(),
+            profile.getSessionsPerUser(),
+            profile.getConnectTime(),
+            profile.getIdleTime()
+        );
+        return ResponseEntity.created(URI.create("/api/v1/profiles/" + profile.getProfileName().toUpperCase())).build();
+    }
+    
+    @PutMapping("/{profileName}")
+    @RequiresOraclePrivilege("ALTER PROFILE")
+    public ResponseEntity<Void> updateProfile(@PathVariable String profileName, @RequestBody Profile profile) {
+        profileService.updateProfile(
+            profileName,
+            profile.getSessionsPerUser(),
+            profile.getConnectTime(),
+            profile.getIdleTime()
+        );
+        return ResponseEntity.noContent().build();
+    }
+    
+    @DeleteMapping("/{profileName}")
+    @RequiresOraclePrivilege("DROP PROFILE")
+    public ResponseEntity<Void> deleteProfile(@PathVariable String profileName) {
+        profileService.deleteProfile(profileName);
+        return ResponseEntity.noContent().build();
+    }
+}
+
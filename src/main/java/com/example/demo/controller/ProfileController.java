@@ -1,22 +1,33 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.QueryBudget;
+import com.example.demo.config.RequiresOraclePrivilege;
 import com.example.demo.model.Profile;
 import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.CatalogVersion;
 import com.example.demo.service.PrivilegeService;
 import com.example.demo.service.ProfileService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Controller
 @RequestMapping("/profiles")
 public class ProfileController {
     
+    private static final Logger log = LoggerFactory.getLogger(ProfileController.class);
+    
     @Autowired
     private ProfileService profileService;
     
@@ -26,51 +37,68 @@ public class ProfileController {
     @Autowired
     private PrivilegeService privilegeService;
     
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
     @GetMapping
-    public String listProfiles(HttpSession session, Model model) {
+    @QueryBudget(5)
+    public String listProfiles(HttpSession session, Model model, ServletWebRequest webRequest) {
         if (!authenticationService.isLoggedIn(session)) {
             return "redirect:/login";
         }
         
         String currentUser = authenticationService.getCurrentUser(session);
-        List<Profile> profiles = profileService.getAllProfiles();
+        if (catalogVersion.checkNotModified(webRequest, model, "profiles", currentUser)) {
+            return null;
+        }
+        try {
+            List<Profile> profiles = profileService.getAllProfiles();
+            model.addAttribute("profiles", profiles);
+        } catch (Exception e) {
+            log.warn("Error in listProfiles: {}", e.getMessage());
+            model.addAttribute("profiles", new ArrayList<>());
+            model.addAttribute("error", "Không thể tải danh sách profiles: " + e.getMessage());
+        }
         
-        model.addAttribute("profiles", profiles);
         model.addAttribute("username", currentUser);
         model.addAttribute("isAdmin", authenticationService.hasAdminCapabilities(currentUser, privilegeService));
         
         return "profiles/list";
     }
     
-    @GetMapping("/create")
-    public String createProfileForm(HttpSession session, Model model) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
+    /**
+     * Các dòng của bảng profiles (fragment profiles/list :: rows) - main.js tải lại khi catalog event báo bảng
+     * profiles đổi. Với since chỉ các profile đã đổi sau version đó (và còn tồn tại) được load và render.
+     */
+    @GetMapping("/rows")
+    @QueryBudget(5)
+    public String profileRows(@RequestParam(required = false) Long since, HttpSession session, Model model,
+                              HttpServletResponse response) {
         String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE PROFILE")) {
-            return "redirect:/profiles?error=no_privilege";
+        long version = catalogVersion.current();
+        Set<String> changed = since != null ? catalogVersion.changedKeys("profiles", since) : null;
+        if (changed == null) {
+            model.addAttribute("profiles", profileService.getAllProfiles());
+        } else {
+            List<String> existing = new ArrayList<>(profileService.getProfileNames());
+            existing.retainAll(changed);
+            model.addAttribute("profiles", profileService.getProfiles(existing));
         }
-        
+        CatalogVersion.writeRowHeaders(response, version, changed);
+        model.addAttribute("isAdmin", authenticationService.hasAdminCapabilities(currentUser, privilegeService));
+        return "profiles/list :: rows";
+    }
+    
+    @GetMapping("/create")
+    @RequiresOraclePrivilege(value = "CREATE PROFILE", deniedRedirect = "/profiles?error=no_privilege")
+    public String createProfileForm(Model model) {
         model.addAttribute("profile", new Profile());
         return "profiles/create";
     }
     
     @PostMapping("/create")
-    public String createProfile(@ModelAttribute Profile profile, HttpSession session,
-                               RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE PROFILE")) {
-            return "redirect:/profiles?error=no_privilege";
-        }
-        
+    @RequiresOraclePrivilege(value = "CREATE PROFILE", deniedRedirect = "/profiles?error=no_privilege")
+    public String createProfile(@ModelAttribute Profile profile, RedirectAttributes redirectAttributes) {
         try {
             profileService.createProfile(
                 profile.getProfileName(),
@@ -87,35 +115,17 @@ public class ProfileController {
     }
     
     @GetMapping("/{profileName}/edit")
-    public String editProfileForm(@PathVariable String profileName, HttpSession session, Model model) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "ALTER PROFILE")) {
-            return "redirect:/profiles?error=no_privilege";
-        }
-        
+    @RequiresOraclePrivilege(value = "ALTER PROFILE", deniedRedirect = "/profiles?error=no_privilege")
+    public String editProfileForm(@PathVariable String profileName, Model model) {
         Profile profile = profileService.getProfile(profileName);
         model.addAttribute("profile", profile);
         return "profiles/edit";
     }
     
     @PostMapping("/{profileName}/edit")
+    @RequiresOraclePrivilege(value = "ALTER PROFILE", deniedRedirect = "/profiles?error=no_privilege")
     public String updateProfile(@PathVariable String profileName, @ModelAttribute Profile profile,
-                               HttpSession session, RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "ALTER PROFILE")) {
-            return "redirect:/profiles?error=no_privilege";
-        }
-        
+                               RedirectAttributes redirectAttributes) {
         try {
             profileService.updateProfile(
                 profileName,
@@ -132,18 +142,8 @@ public class ProfileController {
     }
     
     @PostMapping("/{profileName}/delete")
-    public String deleteProfile(@PathVariable String profileName, HttpSession session,
-                               RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "DROP PROFILE")) {
-            return "redirect:/profiles?error=no_privilege";
-        }
-        
+    @RequiresOraclePrivilege(value = "DROP PROFILE", deniedRedirect = "/profiles?error=no_privilege")
+    public String deleteProfile(@PathVariable String profileName, RedirectAttributes redirectAttributes) {
         try {
             profileService.deleteProfile(profileName);
             redirectAttributes.addFlashAttribute("success", "Profile deleted successfully");
@@ -0,0 +1,70 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.RequiresOraclePrivilege;
+import com.example.demo.model.StorageUsage;
+import com.example.demo.service.StorageReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JSON cho các báo cáo nền, cùng quyền với ReportController. Tách khỏi /api/v1/users để không trùng
+ * với GET /api/v1/users/{username}.
+ */
+@RestController
+@RequestMapping("/api/v1/reports")
+@RequiresOraclePrivilege(anyOf = {"CREATE USER", "ALTER USER"})
+public class ReportApiController {
+    
+    private static final JsonProjection<StorageUsage> STORAGE_PROJECTION = new JsonProjection<StorageUsage>()
+        .field("username", StorageUsage::getUsername)
+        .field("tablespace", StorageUsage::getTablespaceName)
+        .field("usedBytes", StorageUsage::getUsedBytes)
+        .field("maxBytes", StorageUsage::getMaxBytes)
+        .field("percentUsed", StorageUsage::getPercentUsed)
+        .field("segments", StorageUsage::getSegments);
+    
+    @Autowired
+    private StorageReport storageReport;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.api.default-page-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${app.api.max-page-size:500}")
+    private int maxPageSize;
+    
+    /**
+     * GET /api/v1/reports/storage?sort=used|percent|segments&tablespace=TS_APP_DATA&size=20 - top-N của StorageReport.
+     * Đọc snapshot do job nền tính (ngoài kiểm tra quyền không query Oracle); header X-Computed-At cho biết snapshot cũ đến đâu.
+     */
+    @GetMapping("/storage")
+    public ResponseEntity<StreamingResponseBody> storage(@RequestParam(required = false) String sort,
+                                                         @RequestParam(required = false) String tablespace,
+                                                         @RequestParam(required = false) Integer page,
+                                                         @RequestParam(required = false) Integer size,
+                                                         @RequestParam(required = false) String fields) {
+        ApiPaging paging = ApiPaging.of(page, size, defaultPageSize, maxPageSize);
+        Set<String> selected = STORAGE_PROJECTION.select(fields);
+        
+        List<StorageUsage> rows = storageReport.top(StorageReport.Sort.parse(sort), tablespace, Integer.MAX_VALUE);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (storageReport.getComputedAt() != null) {
+            response.header("X-Computed-At", storageReport.getComputedAt().toString());
+        }
+        return response.body(STORAGE_PROJECTION.page(objectMapper, paging, rows.size(), paging.slice(rows), selected));
+    }
+}
+
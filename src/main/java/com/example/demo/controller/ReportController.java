@@ -0,0 +1,103 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.RequiresOraclePrivilege;
+import com.example.demo.service.AccountHygieneScanner;
+import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.StorageReport;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+/**
+ * Các báo cáo do job nền tính sẵn. Nằm dưới /reports thay vì /users để không che trang chi tiết
+ * của một Oracle user tình cờ tên STORAGE hay HYGIENE (/users/{username}).
+ */
+@Controller
+@RequestMapping("/reports")
+@RequiresOraclePrivilege(anyOf = {"CREATE USER", "ALTER USER"}, deniedRedirect = "/users?error=access_denied")
+public class ReportController {
+    
+    @Autowired
+    private AuthenticationService authenticationService;
+    
+    @Autowired
+    private StorageReport storageReport;
+    
+    @Autowired
+    private AccountHygieneScanner accountHygieneScanner;
+    
+    @Value("${app.storage-report.default-limit:50}")
+    private int storageDefaultLimit;
+    
+    @Value("${app.storage-report.max-limit:500}")
+    private int storageMaxLimit;
+    
+    /**
+     * Top-N user / tablespace theo dung lượng đã dùng, % quota hoặc số segment, từ snapshot của StorageReport
+     * (không query Oracle trong request).
+     */
+    @GetMapping("/storage")
+    public String storage(@RequestParam(required = false) String sort,
+                          @RequestParam(required = false) String tablespace,
+                          @RequestParam(required = false) Integer limit,
+                          HttpSession session, Model model) {
+        StorageReport.Sort order = StorageReport.Sort.parse(sort);
+        int rows = Math.min(limit != null && limit > 0 ? limit : storageDefaultLimit, storageMaxLimit);
+        
+        model.addAttribute("rows", storageReport.top(order, tablespace, rows));
+        model.addAttribute("report", storageReport);
+        model.addAttribute("sort", order.name());
+        model.addAttribute("tablespace", tablespace);
+        model.addAttribute("limit", rows);
+        model.addAttribute("username", authenticationService.getCurrentUser(session));
+        model.addAttribute("isAdmin", true);
+        return "reports/storage";
+    }
+    
+    /**
+     * Kết quả lần quét vệ sinh tài khoản gần nhất (AccountHygieneScanner): số vi phạm theo luật và các dòng đầu,
+     * file CSV đầy đủ tải qua /reports/hygiene/report.csv.
+     */
+    @GetMapping("/hygiene")
+    public String hygiene(HttpSession session, Model model) {
+        model.addAttribute("scanner", accountHygieneScanner);
+        model.addAttribute("report", accountHygieneScanner.getReport());
+        model.addAttribute("username", authenticationService.getCurrentUser(session));
+        model.addAttribute("isAdmin", true);
+        return "reports/hygiene";
+    }
+    
+    @PostMapping("/hygiene/run")
+    public String runHygieneScan(RedirectAttributes redirectAttributes) {
+        if (accountHygieneScanner.runAsync()) {
+            redirectAttributes.addFlashAttribute("success", "Đã bắt đầu quét, tải lại trang sau ít phút để xem kết quả");
+        } else {
+            redirectAttributes.addFlashAttribute("error", "Đang có một lần quét chạy");
+        }
+        return "redirect:/reports/hygiene";
+    }
+    
+    @GetMapping("/hygiene/report.csv")
+    public ResponseEntity<Resource> hygieneReport() {
+        AccountHygieneScanner.Report report = accountHygieneScanner.getReport();
+        if (report == null || report.file() == null || !report.file().toFile().isFile()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + report.file().getFileName() + "\"")
+            .body(new FileSystemResource(report.file()));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.QueryBudget;
+import com.example.demo.config.RequiresOraclePrivilege;
+import com.example.demo.model.Role;
+import com.example.demo.service.RoleService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JSON API cho RoleService. Phân trang trên danh sách tên role, chỉ load chi tiết
+ * (privileges, assignedUsers) cho các role trong trang.
+ */
+@RestController
+@RequestMapping("/api/v1/roles")
+public class RoleApiController {
+    
+    private static final JsonProjection<Role> PROJECTION = new JsonProjection<Role>()
+        .field("roleName", Role::getRoleName)
+        .field("hasPassword", Role::isHasPassword)
+        .field("privileges", Role::getPrivileges)
+        .field("assignedUsers", Role::getAssignedUsers);
+    
+    @Autowired
+    private RoleService roleService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.api.default-page-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${app.api.max-page-size:500}")
+    private int maxPageSize;
+    
+    @GetMapping
+    @QueryBudget(5)
+    public ResponseEntity<StreamingResponseBody> listRoles(@RequestParam(required = false) Integer page,
+                                                           @RequestParam(required = false) Integer size,
+                                                           @RequestParam(required = false) String fields) {
+        ApiPaging paging = ApiPaging.of(page, size, defaultPageSize, maxPageSize);
+        Set<String> selected = PROJECTION.select(fields);
+        
+        List<String> roleNames = roleService.getRoleNames();
+        List<String> pageNames = paging.slice(roleNames);
+        List<Role> roles;
+        if (selected.size() == 1 && selected.contains("roleName")) {
+            roles = new ArrayList<>();
+            for (String roleName : pageNames) {
+                Role role = new Role();
+                role.setRoleName(roleName);
+                roles.add(role);
+            }
+        } else {
+            roles = roleService.getRoles(pageNames);
+        }
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(PROJECTION.page(objectMapper, paging, roleNames.size(), roles, selected));
+    }
+    
+    @GetMapping("/{roleName}")
+    @QueryBudget(4)
+    public ResponseEntity<StreamingResponseBody> getRole(@PathVariable String roleName,
+                                                         @RequestParam(required = false) String fields) {
+        Set<String> selected = PROJECTION.select(fields);
+        String name = roleName.toUpperCase();
+        if (!roleService.getRoleNames().contains(name)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Role not found: " + name);
+        }
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(PROJECTION.one(objectMapper, roleService.getRole(name), selected));
+    }
+    
+    @PostMapping
+    @RequiresOraclePrivilege("CREATE ROLE")
+    public ResponseEntity<Void> createRole(@RequestBody Role role) {
+        if (role.getRoleName() == null || role.getRoleName().isBlank()) {
+            throw new IllegalArgumentException("roleName is required");
+        }
+        
+        roleService.createRole(role.getRoleName(), role.getPassword());
+        return ResponseEntity.created(URI.create("/api/v1/roles/" + role.getRoleName().toUpperCase())).build();
+    }
+    
+    @PutMapping("/{roleName}")
+    @RequiresOraclePrivilege("ALTER ANY ROLE")
+    public ResponseEntity<Void> updateRole(@PathVariable String roleName, @RequestBody Role role) {
+        roleService.updateRolePassword(roleName, role.getPassword());
+        return ResponseEntity.noContent().build();
+    }
+    
+    @DeleteMapping("/{roleName}")
+    @RequiresOraclePrivilege("DROP ANY ROLE")
+    public ResponseEntity<Void> deleteRole(@PathVariable String roleName) {
+        roleService.deleteRole(roleName);
+        return ResponseEntity.noContent().build();
+    }
+}
+
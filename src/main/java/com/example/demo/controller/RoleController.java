@@ -1,22 +1,33 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.QueryBudget;
+import com.example.demo.config.RequiresOraclePrivilege;
 import com.example.demo.model.Role;
 import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.CatalogVersion;
 import com.example.demo.service.PrivilegeService;
 import com.example.demo.service.RoleService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Controller
 @RequestMapping("/roles")
 public class RoleController {
     
+    private static final Logger log = LoggerFactory.getLogger(RoleController.class);
+    
     @Autowired
     private RoleService roleService;
     
@@ -26,51 +37,69 @@ public class RoleController {
     @Autowired
     private PrivilegeService privilegeService;
     
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
     @GetMapping
-    public String listRoles(HttpSession session, Model model) {
+    @QueryBudget(6)
+    public String listRoles(HttpSession session, Model model, ServletWebRequest webRequest) {
         if (!authenticationService.isLoggedIn(session)) {
             return "redirect:/login";
         }
         
         String currentUser = authenticationService.getCurrentUser(session);
-        List<Role> roles = roleService.getAllRoles();
+        if (catalogVersion.checkNotModified(webRequest, model, "roles", currentUser)) {
+            return null;
+        }
+        try {
+            List<Role> roles = roleService.getAllRoles();
+            model.addAttribute("roles", roles);
+        } catch (Exception e) {
+            log.warn("Error in listRoles: {}", e.getMessage());
+            model.addAttribute("roles", new ArrayList<>());
+            model.addAttribute("error", "Không thể tải danh sách roles: " + e.getMessage());
+        }
         
-        model.addAttribute("roles", roles);
         model.addAttribute("username", currentUser);
         model.addAttribute("isAdmin", authenticationService.hasAdminCapabilities(currentUser, privilegeService));
         
         return "roles/list";
     }
     
-    @GetMapping("/create")
-    public String createRoleForm(HttpSession session, Model model) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
+    /**
+     * Các dòng của bảng roles (fragment roles/list :: rows) - main.js tải lại khi catalog event báo bảng roles đổi.
+     * Với since chỉ các role đã đổi sau version đó (và còn tồn tại) được load và render.
+     */
+    @GetMapping("/rows")
+    @QueryBudget(6)
+    public String roleRows(@RequestParam(required = false) Long since, HttpSession session, Model model,
+                           HttpServletResponse response) {
         String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE ROLE")) {
-            return "redirect:/roles?error=no_privilege";
+        long version = catalogVersion.current();
+        Set<String> changed = since != null ? catalogVersion.changedKeys("roles", since) : null;
+        if (changed == null) {
+            model.addAttribute("roles", roleService.getAllRoles());
+        } else {
+            // Khóa từ event có thể là role đã drop, hoặc tên privilege / user: chỉ load các role còn trong DBA_ROLES
+            List<String> existing = new ArrayList<>(roleService.getRoleNames());
+            existing.retainAll(changed);
+            model.addAttribute("roles", roleService.getRoles(existing));
         }
-        
+        CatalogVersion.writeRowHeaders(response, version, changed);
+        model.addAttribute("isAdmin", authenticationService.hasAdminCapabilities(currentUser, privilegeService));
+        return "roles/list :: rows";
+    }
+    
+    @GetMapping("/create")
+    @RequiresOraclePrivilege(value = "CREATE ROLE", deniedRedirect = "/roles?error=no_privilege")
+    public String createRoleForm(Model model) {
         model.addAttribute("role", new Role());
         return "roles/create";
     }
     
     @PostMapping("/create")
-    public String createRole(@ModelAttribute Role role, HttpSession session,
-                            RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE ROLE")) {
-            return "redirect:/roles?error=no_privilege";
-        }
-        
+    @RequiresOraclePrivilege(value = "CREATE ROLE", deniedRedirect = "/roles?error=no_privilege")
+    public String createRole(@ModelAttribute Role role, RedirectAttributes redirectAttributes) {
         try {
             roleService.createRole(role.getRoleName(), role.getPassword());
             redirectAttributes.addFlashAttribute("success", "Role created successfully");
@@ -82,35 +111,17 @@ public class RoleController {
     }
     
     @GetMapping("/{roleName}/edit")
-    public String editRoleForm(@PathVariable String roleName, HttpSession session, Model model) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "ALTER ANY ROLE")) {
-            return "redirect:/roles?error=no_privilege";
-        }
-        
+    @RequiresOraclePrivilege(value = "ALTER ANY ROLE", deniedRedirect = "/roles?error=no_privilege")
+    public String editRoleForm(@PathVariable String roleName, Model model) {
         Role role = roleService.getRole(roleName);
         model.addAttribute("role", role);
         return "roles/edit";
     }
     
     @PostMapping("/{roleName}/edit")
+    @RequiresOraclePrivilege(value = "ALTER ANY ROLE", deniedRedirect = "/roles?error=no_privilege")
     public String updateRolePassword(@PathVariable String roleName, @ModelAttribute Role role,
-                                    HttpSession session, RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "ALTER ANY ROLE")) {
-            return "redirect:/roles?error=no_privilege";
-        }
-        
+                                    RedirectAttributes redirectAttributes) {
         try {
             if (role.getPassword() != null && !role.getPassword().isEmpty()) {
                 roleService.updateRolePassword(roleName, role.getPassword());
@@ -124,18 +135,8 @@ public class RoleController {
     }
     
     @PostMapping("/{roleName}/delete")
-    public String deleteRole(@PathVariable String roleName, HttpSession session,
-                            RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "DROP ANY ROLE")) {
-            return "redirect:/roles?error=no_privilege";
-        }
-        
+    @RequiresOraclePrivilege(value = "DROP ANY ROLE", deniedRedirect = "/roles?error=no_privilege")
+    public String deleteRole(@PathVariable String roleName, RedirectAttributes redirectAttributes) {
         try {
             roleService.deleteRole(roleName);
             redirectAttributes.addFlashAttribute("success", "Role deleted successfully");
@@ -0,0 +1,170 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.QueryBudget;
+import com.example.demo.config.RequiresOraclePrivilege;
+import com.example.demo.model.User;
+import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JSON API cho UserService. Cùng quy tắc với UserController: Oracle quyết định user thấy gì,
+ * các thao tác ghi cần CREATE USER / DROP USER như trên giao diện.
+ *
+ * GET /api/v1/users?page=0&size=50&fields=username,accountStatus
+ * Chỉ user trong trang hiện tại mới được load chi tiết, và chỉ những chi tiết có trong fields
+ * (bỏ roles, privileges thì không chạy các query DBA_ROLE_PRIVS / DBA_SYS_PRIVS).
+ */
+@RestController
+@RequestMapping("/api/v1/users")
+public class UserApiController {
+    
+    private static final JsonProjection<User> PROJECTION = new JsonProjection<User>()
+        .field("username", User::getUsername)
+        .field("accountStatus", User::getAccountStatus)
+        .field("lockDate", User::getLockDate)
+        .field("createdDate", User::getCreatedDate)
+        .field("defaultTablespace", User::getDefaultTablespace)
+        .field("temporaryTablespace", User::getTemporaryTablespace)
+        .field("quota", User::getQuota)
+        .field("profile", User::getProfile)
+        .field("roles", User::getRoles)
+        .field("privileges", User::getPrivileges)
+        .field("fullName", User::getFullName)
+        .field("email", User::getEmail)
+        .field("phone", User::getPhone)
+        .field("address", User::getAddress);
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private AuthenticationService authenticationService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.api.default-page-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${app.api.max-page-size:500}")
+    private int maxPageSize;
+    
+    @GetMapping
+    @QueryBudget(10)
+    public ResponseEntity<StreamingResponseBody> listUsers(@RequestParam(required = false) Integer page,
+                                                           @RequestParam(required = false) Integer size,
+                                                           @RequestParam(required = false) String fields,
+                                                           HttpSession session) {
+        String currentUser = authenticationService.getCurrentUser(session);
+        ApiPaging paging = ApiPaging.of(page, size, defaultPageSize, maxPageSize);
+        Set<String> selected = PROJECTION.select(fields);
+        
+        List<User> users = userService.getVisibleUsers(currentUser);
+        List<User> pageItems = paging.slice(users);
+        userService.populateDetails(pageItems, details(selected));
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(PROJECTION.page(objectMapper, paging, users.size(), pageItems, selected));
+    }
+    
+    @GetMapping("/{username}")
+    @QueryBudget(10)
+    public ResponseEntity<StreamingResponseBody> getUser(@PathVariable String username,
+                                                         @RequestParam(required = false) String fields,
+                                                         HttpSession session) {
+        String currentUser = authenticationService.getCurrentUser(session);
+        Set<String> selected = PROJECTION.select(fields);
+        User user = userService.getUser(username, currentUser);
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(PROJECTION.one(objectMapper, user, selected));
+    }
+    
+    @PostMapping
+    @RequiresOraclePrivilege("CREATE USER")
+    public ResponseEntity<Void> createUser(@RequestBody User user) {
+        if (user.getUsername() == null || user.getUsername().isBlank()
+                || user.getPassword() == null || user.getPassword().isEmpty()) {
+            throw new IllegalArgumentException("username and password are required");
+        }
+        
+        userService.createUser(
+            user.getUsername(),
+            user.getPassword(),
+            user.getDefaultTablespace(),
+            user.getTemporaryTablespace(),
+            user.getQuota()
+        );
+        return ResponseEntity.created(URI.create("/api/v1/users/" + user.getUsername().toUpperCase())).build();
+    }
+    
+    @PutMapping("/{username}")
+    @RequiresOraclePrivilege("CREATE USER")
+    public ResponseEntity<Void> updateUser(@PathVariable String username, @RequestBody User user) {
+        userService.updateUser(
+            username,
+            user.getPassword(),
+            user.getDefaultTablespace(),
+            user.getTemporaryTablespace(),
+            user.getQuota(),
+            user.getProfile()
+        );
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/{username}/lock")
+    @RequiresOraclePrivilege("CREATE USER")
+    public ResponseEntity<Void> lockUser(@PathVariable String username) {
+        userService.lockUser(username);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/{username}/unlock")
+    @RequiresOraclePrivilege("CREATE USER")
+    public ResponseEntity<Void> unlockUser(@PathVariable String username) {
+        userService.unlockUser(username);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @DeleteMapping("/{username}")
+    // Cùng điều kiện với trang HTML (UserController.deleteUser), một lần kiểm tra
+    @RequiresOraclePrivilege({"CREATE USER", "DROP USER"})
+    public ResponseEntity<Void> deleteUser(@PathVariable String username) {
+        userService.deleteUser(username);
+        return ResponseEntity.noContent().build();
+    }
+    
+    private Set<UserService.Detail> details(Set<String> selected) {
+        Set<UserService.Detail> details = EnumSet.noneOf(UserService.Detail.class);
+        if (selected.contains("quota")) {
+            details.add(UserService.Detail.QUOTA);
+        }
+        if (selected.contains("roles")) {
+            details.add(UserService.Detail.ROLES);
+        }
+        if (selected.contains("privileges")) {
+            details.add(UserService.Detail.PRIVILEGES);
+        }
+        if (selected.contains("fullName") || selected.contains("email")
+                || selected.contains("phone") || selected.contains("address")) {
+            details.add(UserService.Detail.APP_PROFILE);
+        }
+        return details;
+    }
+}
+
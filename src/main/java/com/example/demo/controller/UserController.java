@@ -1,27 +1,38 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.QueryBudget;
+import com.example.demo.config.RequiresOraclePrivilege;
 import com.example.demo.model.AppLoginUser;
 import com.example.demo.model.User;
 import com.example.demo.repository.AppLoginUserRepository;
 import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.CatalogVersion;
 import com.example.demo.service.PrivilegeService;
 import com.example.demo.service.ProfileService;
 import com.example.demo.service.RoleService;
+import com.example.demo.service.StorageReport;
 import com.example.demo.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Controller
 @RequestMapping("/users")
 public class UserController {
     
+    private static final Logger log = LoggerFactory.getLogger(UserController.class);
+    
     @Autowired
     private UserService userService;
     
@@ -40,13 +51,19 @@ public class UserController {
     @Autowired
     private AppLoginUserRepository appLoginUserRepository;
     
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
+    @Autowired
+    private StorageReport storageReport;
+    
     @GetMapping
-    public String listUsers(HttpSession session, Model model) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
+    @QueryBudget(10)
+    public String listUsers(HttpSession session, Model model, ServletWebRequest webRequest) {
         String currentUser = authenticationService.getCurrentUser(session);
+        if (catalogVersion.checkNotModified(webRequest, model, "users", currentUser)) {
+            return null;
+        }
         // Check Oracle privileges - no hardcoding
         boolean hasAdminCapabilities = authenticationService.hasAdminCapabilities(currentUser, privilegeService);
         
@@ -54,7 +71,7 @@ public class UserController {
             List<User> users = userService.getAllUsers(currentUser);
             model.addAttribute("users", users);
         } catch (Exception e) {
-            System.err.println("Error in listUsers: " + e.getMessage());
+            log.warn("Error in listUsers: {}", e.getMessage());
             model.addAttribute("users", new ArrayList<>());
             model.addAttribute("error", "Không thể tải danh sách users: " + e.getMessage());
         }
@@ -67,14 +84,11 @@ public class UserController {
     
     @GetMapping("/{username}")
     public String viewUser(@PathVariable String username, HttpSession session, Model model) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
         String currentUser = authenticationService.getCurrentUser(session);
         try {
             User user = userService.getUser(username, currentUser);
             model.addAttribute("user", user);
+            model.addAttribute("storage", storageReport.forUser(user.getUsername()));
             model.addAttribute("username", currentUser);
             model.addAttribute("isAdmin", authenticationService.hasAdminCapabilities(currentUser, privilegeService));
             return "users/view";
@@ -83,41 +97,47 @@ public class UserController {
         }
     }
     
-    @GetMapping("/create")
-    public String createUserForm(HttpSession session, Model model) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
+    /**
+     * Các dòng của bảng users (fragment users/list :: rows) - main.js tải lại khi catalog event báo bảng users đổi.
+     * Catalog event không mang tên user nên các dòng được đọc lại bằng quyền của người đang xem; với since chỉ
+     * các user đã đổi sau version đó được load chi tiết và render.
+     */
+    @GetMapping("/rows")
+    @QueryBudget(10)
+    public String userRows(@RequestParam(required = false) Long since, HttpSession session, Model model,
+                           HttpServletResponse response) {
         String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE USER")) {
-            return "redirect:/users?error=access_denied";
-        }
+        long version = catalogVersion.current();
+        Set<String> changed = since != null ? catalogVersion.changedKeys("users", since) : null;
+        boolean isAdmin = authenticationService.hasAdminCapabilities(currentUser, privilegeService);
         
-        // Kiểm tra quyền CREATE USER
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE USER")) {
-            return "redirect:/users?error=no_privilege";
+        List<User> users;
+        if (changed == null) {
+            users = userService.getAllUsers(currentUser);
+            CatalogVersion.writeRowHeaders(response, version, null);
+        } else {
+            users = userService.getVisibleUsers(currentUser, changed);
+            // Tên user đã bị xóa chỉ báo cho người có quyền quản trị user; người khác chỉ nhận khóa các dòng họ thấy
+            List<String> visible = new ArrayList<>();
+            users.forEach(user -> visible.add(user.getUsername()));
+            CatalogVersion.writeRowHeaders(response, version, isAdmin ? changed : visible);
         }
-        
+        model.addAttribute("users", users);
+        model.addAttribute("isAdmin", isAdmin);
+        return "users/list :: rows";
+    }
+    
+    @GetMapping("/create")
+    @RequiresOraclePrivilege(value = "CREATE USER", deniedRedirect = "/users?error=access_denied")
+    public String createUserForm(Model model) {
         model.addAttribute("user", new User());
         model.addAttribute("tablespaces", privilegeService.getAvailableTablespaces());
         return "users/create";
     }
     
     @PostMapping("/create")
-    public String createUser(@ModelAttribute User user, HttpSession session, 
-                           RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE USER")) {
-            return "redirect:/users?error=access_denied";
-        }
-        
+    @RequiresOraclePrivilege(value = "CREATE USER", deniedRedirect = "/users?error=access_denied")
+    public String createUser(@ModelAttribute User user, RedirectAttributes redirectAttributes) {
         try {
             userService.createUser(
                 user.getUsername(),
@@ -143,24 +163,16 @@ public class UserController {
             }
             
             redirectAttributes.addFlashAttribute("error", "Failed to create user: " + errorMsg);
-            System.err.println("Error creating user " + user.getUsername() + ": " + e.getMessage());
+            log.warn("Error creating user {}: {}", user.getUsername(), e.getMessage());
         }
         
         return "redirect:/users";
     }
     
     @GetMapping("/{username}/edit")
+    @RequiresOraclePrivilege(value = "CREATE USER", deniedRedirect = "/users?error=access_denied")
     public String editUserForm(@PathVariable String username, HttpSession session, Model model) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
         String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE USER")) {
-            return "redirect:/users?error=access_denied";
-        }
-        
         try {
             User user = userService.getUser(username, currentUser);
             model.addAttribute("user", user);
@@ -175,18 +187,9 @@ public class UserController {
     }
     
     @PostMapping("/{username}/edit")
+    @RequiresOraclePrivilege(value = "CREATE USER", deniedRedirect = "/users?error=access_denied")
     public String updateUser(@PathVariable String username, @ModelAttribute User user,
-                           HttpSession session, RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE USER")) {
-            return "redirect:/users?error=access_denied";
-        }
-        
+                           RedirectAttributes redirectAttributes) {
         try {
             userService.updateUser(
                 username,
@@ -205,18 +208,8 @@ public class UserController {
     }
     
     @PostMapping("/{username}/lock")
-    public String lockUser(@PathVariable String username, HttpSession session,
-                          RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE USER")) {
-            return "redirect:/users?error=access_denied";
-        }
-        
+    @RequiresOraclePrivilege(value = "CREATE USER", deniedRedirect = "/users?error=access_denied")
+    public String lockUser(@PathVariable String username, RedirectAttributes redirectAttributes) {
         try {
             userService.lockUser(username);
             redirectAttributes.addFlashAttribute("success", "User locked successfully");
@@ -228,18 +221,8 @@ public class UserController {
     }
     
     @PostMapping("/{username}/unlock")
-    public String unlockUser(@PathVariable String username, HttpSession session,
-                            RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE USER")) {
-            return "redirect:/users?error=access_denied";
-        }
-        
+    @RequiresOraclePrivilege(value = "CREATE USER", deniedRedirect = "/users?error=access_denied")
+    public String unlockUser(@PathVariable String username, RedirectAttributes redirectAttributes) {
         try {
             userService.unlockUser(username);
             redirectAttributes.addFlashAttribute("success", "User unlocked successfully");
@@ -251,23 +234,10 @@ public class UserController {
     }
     
     @PostMapping("/{username}/delete")
-    public String deleteUser(@PathVariable String username, HttpSession session,
-                           RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege - no hardcoding
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE USER")) {
-            return "redirect:/users?error=access_denied";
-        }
-        
-        // Kiểm tra quyền DROP USER
-        if (!privilegeService.hasPrivilege(currentUser, "DROP USER")) {
-            return "redirect:/users?error=no_privilege";
-        }
-        
+    @RequiresOraclePrivilege(value = "CREATE USER", deniedRedirect = "/users?error=access_denied")
+    // Có CREATE USER nhưng thiếu DROP USER là lỗi riêng (no_privilege), như trước khi có annotation
+    @RequiresOraclePrivilege(value = "DROP USER", deniedRedirect = "/users?error=no_privilege")
+    public String deleteUser(@PathVariable String username, RedirectAttributes redirectAttributes) {
         try {
             userService.deleteUser(username);
             redirectAttributes.addFlashAttribute("success", "User deleted successfully");
@@ -283,20 +253,10 @@ public class UserController {
      * This is useful when user was created directly in Oracle (not through the app).
      */
     @PostMapping("/{username}/add-to-app-login")
+    @RequiresOraclePrivilege(value = "CREATE USER", deniedRedirect = "/users?error=access_denied")
     public String addToAppLogin(@PathVariable String username,
                                 @RequestParam String password,
-                                HttpSession session,
                                 RedirectAttributes redirectAttributes) {
-        if (!authenticationService.isLoggedIn(session)) {
-            return "redirect:/login";
-        }
-        
-        String currentUser = authenticationService.getCurrentUser(session);
-        // Check Oracle privilege
-        if (!privilegeService.hasPrivilege(currentUser, "CREATE USER")) {
-            return "redirect:/users?error=access_denied";
-        }
-        
         try {
             // Hash password with BCrypt
             String passwordHash = authenticationService.encodePassword(password);
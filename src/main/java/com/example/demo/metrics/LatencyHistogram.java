@@ -0,0 +1,106 @@
+package com.example.demo.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram latency (micro giây) với bucket log-tuyến tính: sai số tương đối tối đa ~1.6%,
+ * bộ nhớ cố định (~20 KB) bất kể số lần ghi, ghi không khóa từ nhiều thread.
+ *
+ * Giá trị dưới 128 µs có bucket riêng; từ 2^k trở lên mỗi khoảng [2^k, 2^(k+1)) chia 64 bucket đều nhau.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKETS = 64;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    // 2^47 µs ~ 4.5 năm: đủ cho mọi latency
+    private static final int MAX_EXPONENT = 47;
+    private static final int BUCKETS = LINEAR_LIMIT + (MAX_EXPONENT - 7 + 1) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+    
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(index(value));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+    
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalMicros.addAndGet(other.totalMicros.get());
+        maxMicros.accumulateAndGet(other.maxMicros.get(), Math::max);
+    }
+    
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+    
+    public long getCount() {
+        return totalCount.get();
+    }
+    
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+    
+    public double getMeanMicros() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) totalMicros.get() / count;
+    }
+    
+    /**
+     * Giá trị tại percentile (0-100), là cận trên của bucket chứa nó (không vượt quá max đã ghi).
+     */
+    public long percentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestEquivalent(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+    
+    static int index(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+        int shift = exponent - 6;
+        int sub = (int) Math.min(value >> shift, LINEAR_LIMIT - 1) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (exponent - 7) * SUB_BUCKETS + sub;
+    }
+    
+    static long highestEquivalent(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + 7;
+        long sub = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = exponent - 6;
+        return ((sub + 1) << shift) - 1;
+    }
+}
+
@@ -0,0 +1,29 @@
+package com.example.demo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event bao toàn bộ AuthenticationService.login: tra APP_LOGIN_USER, auto-sync và BCrypt
+ * (BCrypt có PasswordHashEvent riêng bên trong).
+ */
+@Name("com.example.demo.Login")
+@Label("Login")
+@Category({"Demo App", "Security"})
+@StackTrace(false)
+public class LoginEvent extends jdk.jfr.Event {
+    
+    @Label("User")
+    public String user;
+    
+    @Label("Succeeded")
+    public boolean succeeded;
+    
+    @Label("Failure")
+    @Description("Failure reason written to the application audit log")
+    public String failure;
+}
+
@@ -0,0 +1,138 @@
+package com.example.demo.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram và error counter theo method của repository / service (MethodMetricsConfig ghi vào),
+ * cộng với counter đặt tên tự do cho các nhánh cần đếm riêng (vd. fallback của UserRepository.getUserInfo).
+ * Ghi không khóa; đọc ra qua /metrics (Prometheus) và trang /metrics/view.
+ */
+@Component
+public class MethodMetrics {
+    
+    /**
+     * Số liệu của một method: histogram của lần gọi thành công, histogram của lần gọi lỗi (tạo khi có lỗi đầu tiên)
+     * và số lỗi theo loại exception.
+     */
+    public static final class Stats {
+        
+        private final String name;
+        private final LatencyHistogram success = new LatencyHistogram();
+        private volatile LatencyHistogram error;
+        private final Map<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+        
+        Stats(String name) {
+            this.name = name;
+        }
+        
+        public void recordSuccess(long nanos) {
+            success.record(nanos / 1000);
+        }
+        
+        public void recordError(long nanos, Throwable t) {
+            LatencyHistogram histogram = error;
+            if (histogram == null) {
+                synchronized (this) {
+                    if (error == null) {
+                        error = new LatencyHistogram();
+                    }
+                    histogram = error;
+                }
+            }
+            histogram.record(nanos / 1000);
+            errorsByType.computeIfAbsent(t.getClass().getSimpleName(), k -> new LongAdder()).increment();
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public LatencyHistogram getSuccess() {
+            return success;
+        }
+        
+        /**
+         * null nếu method chưa lỗi lần nào.
+         */
+        public LatencyHistogram getError() {
+            return error;
+        }
+        
+        public long getErrorCount() {
+            LatencyHistogram histogram = error;
+            return histogram == null ? 0 : histogram.getCount();
+        }
+        
+        public long getCallCount() {
+            return success.getCount() + getErrorCount();
+        }
+        
+        public double getTotalMillis() {
+            LatencyHistogram histogram = error;
+            double micros = success.getMeanMicros() * success.getCount()
+                + (histogram == null ? 0 : histogram.getMeanMicros() * histogram.getCount());
+            return micros / 1000.0;
+        }
+        
+        public Map<String, Long> getErrorsByType() {
+            Map<String, Long> result = new TreeMap<>();
+            errorsByType.forEach((type, count) -> result.put(type, count.sum()));
+            return result;
+        }
+    }
+    
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    
+    /**
+     * Stats của method (ClassName.method); gọi một lần rồi giữ lại, không gọi ở mỗi lần đo.
+     */
+    public Stats stats(String name) {
+        return stats.computeIfAbsent(name, Stats::new);
+    }
+    
+    public void count(String counter) {
+        counters.computeIfAbsent(counter, k -> new LongAdder()).increment();
+    }
+    
+    /**
+     * Các method đã được gọi, tổng thời gian lớn nhất trước.
+     */
+    public List<Stats> snapshot() {
+        List<Stats> result = new ArrayList<>();
+        for (Stats s : stats.values()) {
+            if (s.getCallCount() > 0) {
+                result.add(s);
+            }
+        }
+        result.sort(Comparator.comparingDouble(Stats::getTotalMillis).reversed());
+        return result;
+    }
+    
+    public Map<String, Long> counters() {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((name, count) -> result.put(name, count.sum()));
+        return result;
+    }
+    
+    public void reset() {
+        for (Stats s : stats.values()) {
+            s.success.reset();
+            LatencyHistogram histogram = s.error;
+            if (histogram != null) {
+                histogram.reset();
+            }
+            s.errorsByType.clear();
+        }
+        counters.clear();
+    }
+}
+
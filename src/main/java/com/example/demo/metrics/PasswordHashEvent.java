@@ -0,0 +1,22 @@
+package com.example.demo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event cho một lần BCrypt encode / matches.
+ */
+@Name("com.example.demo.PasswordHash")
+@Label("Password Hash")
+@Category({"Demo App", "Security"})
+@StackTrace(false)
+public class PasswordHashEvent extends jdk.jfr.Event {
+    
+    @Label("Operation")
+    @Description("encode or matches")
+    public String operation;
+}
+
@@ -0,0 +1,27 @@
+package com.example.demo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event cho PrivilegeRepository.hasPrivilege / grantedPrivileges (privilege là danh sách, granted = có đủ),
+ * kể cả khi kết quả lấy từ cache của DictionaryQueryGuard (khi đó không có SqlEvent nào bên trong).
+ */
+@Name("com.example.demo.PrivilegeCheck")
+@Label("Privilege Check")
+@Category({"Demo App", "Security"})
+@StackTrace(false)
+public class PrivilegeCheckEvent extends jdk.jfr.Event {
+    
+    @Label("User")
+    public String user;
+    
+    @Label("Privilege")
+    public String privilege;
+    
+    @Label("Granted")
+    public boolean granted;
+}
+
@@ -0,0 +1,39 @@
+package com.example.demo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event cho mỗi câu lệnh đi qua OracleJdbcTemplate (query, update, batch, DDL).
+ * Thời gian của event gồm cả chờ connection từ pool và đọc hết ResultSet.
+ */
+@Name("com.example.demo.Sql")
+@Label("SQL Statement")
+@Category({"Demo App", "Database"})
+@Description("SQL executed through adminJdbcTemplate / appJdbcTemplate")
+@StackTrace(false)
+public class SqlEvent extends jdk.jfr.Event {
+    
+    @Label("SQL Class")
+    @Description("QUERY, DICTIONARY, DML, DDL, PLSQL or OTHER")
+    public String sqlClass;
+    
+    @Label("SQL")
+    @Description("SQL text, passwords masked, truncated")
+    public String sql;
+    
+    @Label("Rows")
+    @Description("Rows returned or affected, -1 if unknown")
+    public long rows;
+    
+    @Label("User")
+    @Description("Logged-in application user of the request, null for background jobs")
+    public String user;
+    
+    @Label("Succeeded")
+    public boolean succeeded;
+}
+
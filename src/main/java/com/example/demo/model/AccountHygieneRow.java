@@ -0,0 +1,23 @@
+package com.example.demo.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một dòng của cursor quét vệ sinh tài khoản (UserRepository.streamAccountHygiene): DBA_USERS
+ * cùng số quyền "nguy hiểm" user có (trực tiếp hoặc qua role).
+ */
+@Data
+public class AccountHygieneRow {
+    private String username;
+    private String accountStatus;
+    private String profile;
+    private LocalDateTime created;
+    private LocalDateTime lastLogin;        // null: chưa đăng nhập lần nào (hoặc Oracle < 12c)
+    private LocalDateTime lockDate;
+    private LocalDateTime expiryDate;
+    private int powerfulGrants;
+    private String samplePowerfulGrant;     // một trong các quyền đó, để báo cáo dễ đọc
+}
+
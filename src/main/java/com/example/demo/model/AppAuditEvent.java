@@ -0,0 +1,25 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một thao tác trên giao diện (login, grant, lock, drop...) ghi vào APP_OWNER.APP_AUDIT_LOG.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppAuditEvent {
+    private LocalDateTime eventTime;
+    private String actor;       // user đăng nhập ứng dụng (hoặc username đã nhập khi login)
+    private String action;      // LOGIN, POST /users/{username}/lock...
+    private String target;      // path variable và request param (không bao gồm password)
+    private boolean success;
+    private String detail;      // thông báo lỗi nếu thất bại
+    private long durationMicros;
+    private String clientIp;
+}
+
@@ -0,0 +1,40 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Vị trí trong audit trail: (thời điểm UTC, session id, entry id).
+ * Dùng làm high-watermark khi tail và làm keyset khi phân trang - so sánh theo đúng thứ tự ORDER BY của query.
+ */
+public record AuditCursor(LocalDateTime eventTimeUtc, long sessionId, long entryId) {
+    
+    /**
+     * Dạng chuỗi để đặt vào URL: 2024-05-01T10:15:30.123456_12345_7
+     */
+    public String encode() {
+        return eventTimeUtc + "_" + sessionId + "_" + entryId;
+    }
+    
+    public static AuditCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String[] parts = value.split("_");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid audit cursor: " + value);
+        }
+        return new AuditCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+    }
+    
+    public boolean isBefore(AuditCursor other) {
+        int cmp = eventTimeUtc.compareTo(other.eventTimeUtc);
+        if (cmp != 0) {
+            return cmp < 0;
+        }
+        if (sessionId != other.sessionId) {
+            return sessionId < other.sessionId;
+        }
+        return entryId < other.entryId;
+    }
+}
+
@@ -0,0 +1,33 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một record từ UNIFIED_AUDIT_TRAIL hoặc DBA_FGA_AUDIT_TRAIL.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditRecord {
+    private String source;              // "UNIFIED" hoặc "FGA"
+    private LocalDateTime eventTimeUtc; // dùng cho high-watermark / keyset cursor
+    private LocalDateTime eventTime;    // giờ server, để hiển thị
+    private long sessionId;
+    private long entryId;
+    private String dbUser;
+    private String action;
+    private String objectSchema;
+    private String objectName;
+    private String policyName;
+    private Integer returnCode;
+    private String sqlText;
+    
+    public String getCursor() {
+        return new AuditCursor(eventTimeUtc, sessionId, entryId).encode();
+    }
+}
+
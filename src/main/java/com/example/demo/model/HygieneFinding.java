@@ -0,0 +1,19 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một vi phạm của AccountHygieneScanner: tài khoản, luật vi phạm và chi tiết.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HygieneFinding {
+    private String username;
+    private String rule;
+    private String accountStatus;
+    private String detail;
+}
+
@@ -0,0 +1,170 @@
+package com.example.demo.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Danh sách privilege (DBA_SYS_PRIVS / DBA_TAB_PRIVS) lưu gọn: mỗi grant là một dòng int trong một mảng chung,
+ * trỏ vào bảng symbol (tên quyền, grantee, grantor, tên object lặp lại rất nhiều) thay vì một PrivilegeInfo
+ * với các String riêng cho mỗi dòng. Bản được giữ lâu (stale cache của DictionaryQueryGuard, memo của request)
+ * chỉ còn vài mảng, không phụ thuộc số dòng về số object.
+ *
+ * get(i) trả về một PrivilegeInfo mới cho dòng i (các String là symbol dùng chung, không chép) cho template / JSON;
+ * bảng không giữ lại object đó, nên nó chỉ sống trong lúc render rồi được thu hồi ngay. Đọc từng cột không tạo
+ * object nào thì dùng getPrivilege(i), getGrantee(i)... Bảng không sửa được sau khi build; sửa PrivilegeInfo
+ * nhận từ get(i) không ảnh hưởng bảng.
+ */
+public final class PrivilegeTable extends AbstractList<PrivilegeInfo> implements RandomAccess {
+    
+    private static final int NONE = -1;
+    
+    // Các cột của một dòng trong rows (row * COLUMNS + cột)
+    private static final int PRIVILEGE = 0;
+    private static final int GRANTEE = 1;
+    private static final int GRANTOR = 2;
+    private static final int TYPE = 3;
+    private static final int ROLE_NAME = 4;
+    private static final int OBJECT_NAME = 5;
+    private static final int COLUMNS = 6;
+    
+    public static final PrivilegeTable EMPTY = builder().build();
+    
+    private final String[] symbols;
+    private final int[] rows;
+    private final BitSet adminOptions;
+    private final int size;
+    
+    private PrivilegeTable(String[] symbols, int[] rows, BitSet adminOptions, int size) {
+        this.symbols = symbols;
+        this.rows = rows;
+        this.adminOptions = adminOptions;
+        this.size = size;
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public PrivilegeInfo get(int row) {
+        return new PrivilegeInfo(getPrivilege(row), getGrantee(row), getGrantor(row), isAdminOption(row),
+            getType(row), getRoleName(row), getObjectName(row));
+    }
+    
+    public String getPrivilege(int row) {
+        return column(row, PRIVILEGE);
+    }
+    
+    public String getGrantee(int row) {
+        return column(row, GRANTEE);
+    }
+    
+    public String getGrantor(int row) {
+        return column(row, GRANTOR);
+    }
+    
+    public boolean isAdminOption(int row) {
+        Objects.checkIndex(row, size);
+        return adminOptions.get(row);
+    }
+    
+    public String getType(int row) {
+        return column(row, TYPE);
+    }
+    
+    public String getRoleName(int row) {
+        return column(row, ROLE_NAME);
+    }
+    
+    public String getObjectName(int row) {
+        return column(row, OBJECT_NAME);
+    }
+    
+    /**
+     * Số String khác nhau mà bảng giữ (so với tối đa size() * 6 nếu mỗi dòng là một PrivilegeInfo).
+     */
+    public int symbolCount() {
+        return symbols.length;
+    }
+    
+    private String column(int row, int column) {
+        Objects.checkIndex(row, size);
+        int symbol = rows[row * COLUMNS + column];
+        return symbol == NONE ? null : symbols[symbol];
+    }
+    
+    /**
+     * Gom các dòng khi đọc ResultSet; String giống nhau chỉ được giữ một lần.
+     */
+    public static final class Builder {
+        
+        private final Map<String, Integer> symbolIds = new HashMap<>();
+        private final List<String> symbols = new ArrayList<>();
+        private int[] rows = new int[16 * COLUMNS];
+        private final BitSet adminOptions = new BitSet();
+        private int size;
+        
+        private Builder() {
+        }
+        
+        public Builder add(String privilege, String grantee, String grantor, boolean adminOption, String type,
+                           String roleName, String objectName) {
+            if ((size + 1) * COLUMNS > rows.length) {
+                rows = Arrays.copyOf(rows, rows.length * 2);
+            }
+            int offset = size * COLUMNS;
+            rows[offset + PRIVILEGE] = symbol(privilege);
+            rows[offset + GRANTEE] = symbol(grantee);
+            rows[offset + GRANTOR] = symbol(grantor);
+            rows[offset + TYPE] = symbol(type);
+            rows[offset + ROLE_NAME] = symbol(roleName);
+            rows[offset + OBJECT_NAME] = symbol(objectName);
+            adminOptions.set(size, adminOption);
+            size++;
+            return this;
+        }
+        
+        public Builder addAll(PrivilegeTable table) {
+            for (int row = 0; row < table.size(); row++) {
+                add(table.getPrivilege(row), table.getGrantee(row), table.getGrantor(row), table.isAdminOption(row),
+                    table.getType(row), table.getRoleName(row), table.getObjectName(row));
+            }
+            return this;
+        }
+        
+        public int size() {
+            return size;
+        }
+        
+        public PrivilegeTable build() {
+            return new PrivilegeTable(symbols.toArray(new String[0]), Arrays.copyOf(rows, size * COLUMNS),
+                (BitSet) adminOptions.clone(), size);
+        }
+        
+        private int symbol(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            Integer id = symbolIds.get(value);
+            if (id == null) {
+                id = symbols.size();
+                symbols.add(value);
+                symbolIds.put(value, id);
+            }
+            return id;
+        }
+    }
+}
+
@@ -0,0 +1,29 @@
+package com.example.demo.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một câu lệnh chạy quá ngưỡng của SlowQueryLog. Bất biến: khi thread nền lấy được sqlId / plan,
+ * SlowQueryLog thay entry bằng bản mới (toBuilder) thay vì sửa entry mà trang đang đọc
+ * (planStatus: PENDING -> CAPTURED hoặc UNAVAILABLE / SKIPPED).
+ */
+@Value
+@Builder(toBuilder = true)
+public class SlowQuery {
+    long id;
+    LocalDateTime capturedAt;
+    String pool;            // AdminPool / AppPool
+    String sql;             // password trong DDL đã được che
+    String binds;           // null nếu không có bind hoặc đã bị che (bảng / cột mật khẩu)
+    long durationMillis;
+    long rows;              // -1 nếu không biết
+    boolean succeeded;
+    String user;            // user đăng nhập ứng dụng, null với job nền
+    String sqlId;
+    Integer childNumber;
+    String planStatus;
+    String plan;   // output của DBMS_XPLAN.DISPLAY_CURSOR, hoặc lý do không lấy được
+}
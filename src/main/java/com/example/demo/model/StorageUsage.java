@@ -0,0 +1,51 @@
+package com.example.demo.model;
+
+import lombok.Data;
+
+import java.util.Locale;
+
+/**
+ * Dung lượng một user đang dùng trên một tablespace (DBA_SEGMENTS) so với quota (DBA_TS_QUOTAS).
+ * Dòng không có quota là user dùng tablespace nhờ UNLIMITED TABLESPACE.
+ */
+@Data
+public class StorageUsage {
+    private String username;
+    private String tablespaceName;
+    private long usedBytes;
+    private int segments;
+    private Long maxBytes;          // null: không có dòng trong DBA_TS_QUOTAS, -1: UNLIMITED
+    
+    public boolean isLimited() {
+        return maxBytes != null && maxBytes > 0;
+    }
+    
+    /**
+     * Phần trăm quota đã dùng, null nếu quota không giới hạn (hoặc không có quota).
+     */
+    public Double getPercentUsed() {
+        return isLimited() ? usedBytes * 100.0 / maxBytes : null;
+    }
+    
+    public String getQuota() {
+        if (maxBytes == null) {
+            return "-";
+        }
+        return maxBytes < 0 ? "UNLIMITED" : formatBytes(maxBytes);
+    }
+    
+    public String getUsed() {
+        return formatBytes(usedBytes);
+    }
+    
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024 * 1024) {
+            return (bytes / 1024) + "K";
+        }
+        if (bytes < 1024L * 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1fM", bytes / (1024.0 * 1024));
+        }
+        return String.format(Locale.ROOT, "%.2fG", bytes / (1024.0 * 1024 * 1024));
+    }
+}
+
@@ -0,0 +1,15 @@
+package com.example.demo.model;
+
+import lombok.Data;
+
+/**
+ * Số lượng đối tượng bảo mật trên một target database (trang /fleet).
+ */
+@Data
+public class TargetCounts {
+    private long users;
+    private long lockedUsers;       // ACCOUNT_STATUS khác OPEN
+    private long roles;
+    private long profiles;
+}
+
@@ -0,0 +1,50 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.AppAuditEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class AppAuditLogRepository {
+    
+    @Autowired
+    @Qualifier("appJdbcTemplate")
+    private JdbcTemplate appJdbcTemplate;
+    
+    /**
+     * Ghi cả batch bằng một JDBC batch insert (một round-trip cho cả batch).
+     */
+    public void insertBatch(List<AppAuditEvent> events) {
+        String sql = """
+            INSERT INTO APP_OWNER.APP_AUDIT_LOG
+                (EVENT_TIME, ACTOR, ACTION, TARGET, OUTCOME, DETAIL, DURATION_US, CLIENT_IP)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (AppAuditEvent event : events) {
+            rows.add(new Object[] {
+                Timestamp.valueOf(event.getEventTime()),
+                truncate(event.getActor(), 128),
+                truncate(event.getAction(), 128),
+                truncate(event.getTarget(), 1000),
+                event.isSuccess() ? "SUCCESS" : "FAILURE",
+                truncate(event.getDetail(), 1000),
+                event.getDurationMicros(),
+                truncate(event.getClientIp(), 64)
+            });
+        }
+        appJdbcTemplate.batchUpdate(sql, rows);
+    }
+    
+    private String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
+
@@ -1,6 +1,8 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.AppLoginUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -14,6 +16,8 @@ import java.util.List;
 @Repository
 public class AppLoginUserRepository {
     
+    private static final Logger log = LoggerFactory.getLogger(AppLoginUserRepository.class);
+    
     @Autowired
     @Qualifier("appJdbcTemplate")
     private JdbcTemplate appJdbcTemplate;
@@ -35,33 +39,26 @@ public class AppLoginUserRepository {
         try {
             List<AppLoginUser> users = appJdbcTemplate.query(sql, new AppLoginUserRowMapper(), normalizedUsername);
             if (users != null && !users.isEmpty()) {
-                System.out.println("Found user in APP_LOGIN_USER: " + normalizedUsername);
+                log.debug("Found user in APP_LOGIN_USER: {}", normalizedUsername);
+                return users.get(0);
+            }
+            
+            // Username lưu khác hoa/thường: một query so sánh UPPER thay cho quét cả bảng rồi so từng dòng
+            String caseInsensitiveSql = """
+                SELECT USERNAME, PASSWORD_HASH
+                FROM APP_OWNER.APP_LOGIN_USER
+                WHERE UPPER(TRIM(USERNAME)) = ?
+                """;
+            users = appJdbcTemplate.query(caseInsensitiveSql, new AppLoginUserRowMapper(), normalizedUsername);
+            if (!users.isEmpty()) {
+                log.debug("Case-insensitive match in APP_LOGIN_USER: {} -> {}", normalizedUsername, users.get(0).getUsername());
                 return users.get(0);
-            } else {
-                System.err.println("User not found in APP_LOGIN_USER: " + normalizedUsername);
-                // Debug: Check what users exist
-                try {
-                    List<String> allUsers = appJdbcTemplate.queryForList(
-                        "SELECT USERNAME FROM APP_OWNER.APP_LOGIN_USER", String.class);
-                    System.err.println("Available users in APP_LOGIN_USER: " + allUsers);
-                    System.err.println("Searching for: '" + normalizedUsername + "' (length: " + normalizedUsername.length() + ")");
-                    // Check if there's any match with different case
-                    for (String u : allUsers) {
-                        System.err.println("  Comparing: '" + u + "' (length: " + (u != null ? u.length() : 0) + ")");
-                        if (u != null && u.equalsIgnoreCase(normalizedUsername)) {
-                            System.err.println("  -> Case-insensitive match found! Using: " + u);
-                            // Retry with exact case from database
-                            return appJdbcTemplate.query(sql, new AppLoginUserRowMapper(), u).get(0);
-                        }
-                    }
-                } catch (Exception debugE) {
-                    System.err.println("Error checking available users: " + debugE.getMessage());
-                }
-                return null;
             }
+            
+            log.info("User not found in APP_LOGIN_USER: {}", normalizedUsername);
+            return null;
         } catch (Exception e) {
-            System.err.println("Error querying APP_LOGIN_USER for " + normalizedUsername + ": " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error querying APP_LOGIN_USER for {}: {}", normalizedUsername, e.getMessage(), e);
             return null;
         }
     }
@@ -76,9 +73,9 @@ public class AppLoginUserRepository {
             appJdbcTemplate.update(sql, 
                 appLoginUser.getUsername().toUpperCase(), 
                 appLoginUser.getPasswordHash());
-            System.out.println("Successfully inserted user: " + appLoginUser.getUsername());
+            log.info("Successfully inserted user: {}", appLoginUser.getUsername());
         } catch (Exception e) {
-            System.err.println("Error inserting user " + appLoginUser.getUsername() + ": " + e.getMessage());
+            log.warn("Error inserting user {}: {}", appLoginUser.getUsername(), e.getMessage());
             throw e;
         }
     }
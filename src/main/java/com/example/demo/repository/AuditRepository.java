@@ -0,0 +1,240 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.AuditCursor;
+import com.example.demo.model.AuditRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đọc UNIFIED_AUDIT_TRAIL và DBA_FGA_AUDIT_TRAIL theo keyset (thời điểm UTC, session id, entry id).
+ *
+ * Mọi query đều có cận dưới theo thời gian trên chính cột timestamp của view:
+ * - UNIFIED: EVENT_TIMESTAMP_UTC là cột partition của AUDSYS.AUD$UNIFIED nên Oracle chỉ đọc các partition mới
+ *   (EVENT_TIMESTAMP thì đã được view convert sang giờ local nên không prune được)
+ * - FGA: so sánh EXTENDED_TIMESTAMP với FROM_TZ(?, 'UTC') để không bọc hàm quanh cột
+ * và luôn có FETCH FIRST n ROWS ONLY.
+ */
+@Repository
+public class AuditRepository {
+    
+    public static final String UNIFIED = "UNIFIED";
+    public static final String FGA = "FGA";
+    
+    private static final SourceSql UNIFIED_SQL = new SourceSql(
+        """
+            SELECT
+                EVENT_TIMESTAMP_UTC AS EVENT_TS_UTC,
+                SESSIONID AS SESSION_ID,
+                ENTRY_ID,
+                DBUSERNAME AS DB_USER,
+                ACTION_NAME AS ACTION,
+                OBJECT_SCHEMA,
+                OBJECT_NAME,
+                NVL(FGA_POLICY_NAME, UNIFIED_AUDIT_POLICIES) AS POLICY_NAME,
+                RETURN_CODE,
+                DBMS_LOB.SUBSTR(SQL_TEXT, 1000, 1) AS SQL_TEXT
+            FROM UNIFIED_AUDIT_TRAIL
+            """,
+        "EVENT_TIMESTAMP_UTC", "?", "SESSIONID", "ENTRY_ID", "DBUSERNAME", "ACTION_NAME",
+        "NVL(FGA_POLICY_NAME, UNIFIED_AUDIT_POLICIES) LIKE '%' || ? || '%'");
+    
+    private static final SourceSql FGA_SQL = new SourceSql(
+        """
+            SELECT
+                SYS_EXTRACT_UTC(EXTENDED_TIMESTAMP) AS EVENT_TS_UTC,
+                SESSION_ID,
+                ENTRYID AS ENTRY_ID,
+                DB_USER,
+                STATEMENT_TYPE AS ACTION,
+                OBJECT_SCHEMA,
+                OBJECT_NAME,
+                POLICY_NAME,
+                CAST(NULL AS NUMBER) AS RETURN_CODE,
+                SUBSTR(SQL_TEXT, 1, 1000) AS SQL_TEXT
+            FROM DBA_FGA_AUDIT_TRAIL
+            """,
+        "EXTENDED_TIMESTAMP", "FROM_TZ(CAST(? AS TIMESTAMP), 'UTC')", "SESSION_ID", "ENTRYID", "DB_USER",
+        "STATEMENT_TYPE", "POLICY_NAME LIKE '%' || ? || '%'");
+    
+    @Autowired
+    @Qualifier("adminJdbcTemplate")
+    private JdbcTemplate adminJdbcTemplate;
+    
+    @Autowired
+    @Qualifier("appJdbcTemplate")
+    private JdbcTemplate appJdbcTemplate;
+    
+    /**
+     * Filter cho trang audit. Giá trị null = không lọc.
+     */
+    public record Filter(String user, String action, String policy) {
+        
+        public static Filter none() {
+            return new Filter(null, null, null);
+        }
+    }
+    
+    /**
+     * Record mới hơn cursor, theo thứ tự tăng dần - dùng khi tail.
+     */
+    public List<AuditRecord> fetchAfter(String source, AuditCursor after, int limit) {
+        SourceSql sql = sourceSql(source);
+        List<Object> args = new ArrayList<>();
+        
+        StringBuilder query = new StringBuilder(sql.select())
+            .append("WHERE ").append(sql.tsColumn()).append(" >= ").append(sql.tsBind()).append('\n')
+            .append("  AND (").append(sql.tsColumn()).append(" > ").append(sql.tsBind())
+            .append(" OR ").append(sql.sessionColumn()).append(" > ?")
+            .append(" OR (").append(sql.sessionColumn()).append(" = ? AND ").append(sql.entryColumn()).append(" > ?))\n")
+            .append("ORDER BY ").append(sql.tsColumn()).append(", ").append(sql.sessionColumn()).append(", ")
+            .append(sql.entryColumn()).append('\n')
+            .append("FETCH FIRST ? ROWS ONLY");
+        
+        Timestamp ts = Timestamp.valueOf(after.eventTimeUtc());
+        args.add(ts);
+        args.add(ts);
+        args.add(after.sessionId());
+        args.add(after.sessionId());
+        args.add(after.entryId());
+        args.add(limit);
+        
+        return adminJdbcTemplate.query(query.toString(), new AuditRecordRowMapper(source), args.toArray());
+    }
+    
+    /**
+     * Trang audit mới nhất trước, keyset theo cursor "before" (null = trang đầu).
+     * sinceUtc là cận dưới thời gian bắt buộc, để không bao giờ quét toàn bộ audit trail.
+     */
+    public List<AuditRecord> search(String source, Filter filter, LocalDateTime sinceUtc, AuditCursor before, int limit) {
+        SourceSql sql = sourceSql(source);
+        List<Object> args = new ArrayList<>();
+        
+        StringBuilder query = new StringBuilder(sql.select())
+            .append("WHERE ").append(sql.tsColumn()).append(" >= ").append(sql.tsBind()).append('\n');
+        args.add(Timestamp.valueOf(sinceUtc));
+        
+        if (before != null) {
+            Timestamp ts = Timestamp.valueOf(before.eventTimeUtc());
+            query.append("  AND ").append(sql.tsColumn()).append(" <= ").append(sql.tsBind()).append('\n')
+                .append("  AND (").append(sql.tsColumn()).append(" < ").append(sql.tsBind())
+                .append(" OR ").append(sql.sessionColumn()).append(" < ?")
+                .append(" OR (").append(sql.sessionColumn()).append(" = ? AND ").append(sql.entryColumn()).append(" < ?))\n");
+            args.add(ts);
+            args.add(ts);
+            args.add(before.sessionId());
+            args.add(before.sessionId());
+            args.add(before.entryId());
+        }
+        if (filter.user() != null) {
+            query.append("  AND ").append(sql.userColumn()).append(" = ?\n");
+            args.add(filter.user().toUpperCase());
+        }
+        if (filter.action() != null) {
+            query.append("  AND ").append(sql.actionColumn()).append(" = ?\n");
+            args.add(filter.action().toUpperCase());
+        }
+        if (filter.policy() != null) {
+            query.append("  AND ").append(sql.policyPredicate()).append('\n');
+            args.add(filter.policy().toUpperCase());
+        }
+        
+        query.append("ORDER BY ").append(sql.tsColumn()).append(" DESC, ").append(sql.sessionColumn()).append(" DESC, ")
+            .append(sql.entryColumn()).append(" DESC\n")
+            .append("FETCH FIRST ? ROWS ONLY");
+        args.add(limit);
+        
+        return adminJdbcTemplate.query(query.toString(), new AuditRecordRowMapper(source), args.toArray());
+    }
+    
+    public AuditCursor loadWatermark(String source) {
+        String sql = """
+            SELECT LAST_EVENT_TS, LAST_SESSION_ID, LAST_ENTRY_ID
+            FROM APP_OWNER.AUDIT_WATERMARK
+            WHERE SOURCE = ?
+            """;
+        
+        List<AuditCursor> cursors = appJdbcTemplate.query(sql, (rs, rowNum) -> new AuditCursor(
+            rs.getTimestamp("LAST_EVENT_TS").toLocalDateTime(),
+            rs.getLong("LAST_SESSION_ID"),
+            rs.getLong("LAST_ENTRY_ID")), source);
+        return cursors.isEmpty() ? null : cursors.get(0);
+    }
+    
+    public void saveWatermark(String source, AuditCursor cursor) {
+        String sql = """
+            MERGE INTO APP_OWNER.AUDIT_WATERMARK w
+            USING (SELECT ? AS SOURCE FROM DUAL) s
+            ON (w.SOURCE = s.SOURCE)
+            WHEN MATCHED THEN UPDATE SET
+                LAST_EVENT_TS = ?, LAST_SESSION_ID = ?, LAST_ENTRY_ID = ?, UPDATED_AT = SYSTIMESTAMP
+            WHEN NOT MATCHED THEN INSERT (SOURCE, LAST_EVENT_TS, LAST_SESSION_ID, LAST_ENTRY_ID)
+                VALUES (?, ?, ?, ?)
+            """;
+        
+        Timestamp ts = Timestamp.valueOf(cursor.eventTimeUtc());
+        appJdbcTemplate.update(sql, source, ts, cursor.sessionId(), cursor.entryId(),
+            source, ts, cursor.sessionId(), cursor.entryId());
+    }
+    
+    private SourceSql sourceSql(String source) {
+        return switch (source) {
+            case UNIFIED -> UNIFIED_SQL;
+            case FGA -> FGA_SQL;
+            default -> throw new IllegalArgumentException("Unknown audit source: " + source);
+        };
+    }
+    
+    /**
+     * Phần khác nhau giữa hai view: select list và tên các cột dùng trong keyset/filter.
+     * tsBind là biểu thức bind cho một timestamp UTC (FGA cần FROM_TZ vì cột có time zone).
+     */
+    private record SourceSql(String select, String tsColumn, String tsBind, String sessionColumn,
+                             String entryColumn, String userColumn, String actionColumn, String policyPredicate) {
+    }
+    
+    private static class AuditRecordRowMapper implements RowMapper<AuditRecord> {
+        
+        private final String source;
+        
+        AuditRecordRowMapper(String source) {
+            this.source = source;
+        }
+        
+        @Override
+        public AuditRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
+            AuditRecord record = new AuditRecord();
+            record.setSource(source);
+            
+            LocalDateTime utc = rs.getTimestamp("EVENT_TS_UTC").toLocalDateTime();
+            record.setEventTimeUtc(utc);
+            record.setEventTime(utc.atZone(ZoneOffset.UTC).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime());
+            
+            record.setSessionId(rs.getLong("SESSION_ID"));
+            record.setEntryId(rs.getLong("ENTRY_ID"));
+            record.setDbUser(rs.getString("DB_USER"));
+            record.setAction(rs.getString("ACTION"));
+            record.setObjectSchema(rs.getString("OBJECT_SCHEMA"));
+            record.setObjectName(rs.getString("OBJECT_NAME"));
+            record.setPolicyName(rs.getString("POLICY_NAME"));
+            
+            int returnCode = rs.getInt("RETURN_CODE");
+            record.setReturnCode(rs.wasNull() ? null : returnCode);
+            
+            record.setSqlText(rs.getString("SQL_TEXT"));
+            return record;
+        }
+    }
+}
+
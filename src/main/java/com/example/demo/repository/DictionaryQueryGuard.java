@@ -0,0 +1,350 @@
+package com.example.demo.repository;
+
+import com.example.demo.config.OracleJdbcTemplate;
+import com.example.demo.config.RequestDeadlineExceededException;
+import com.example.demo.config.RequestMemo;
+import com.example.demo.model.PrivilegeInfo;
+import com.example.demo.model.PrivilegeTable;
+import com.example.demo.model.Profile;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Lớp bảo vệ cho các query đọc Oracle dictionary (DBA_USERS, DBA_ROLES, DBA_PROFILES, DBA_SYS_PRIVS...).
+ *
+ * - Query timeout riêng cho từng query (app.dictionary.timeout.&lt;Repository.method&gt;, mặc định app.dictionary.query-timeout-seconds)
+ * - Circuit breaker theo từng query: mở khi tỉ lệ lỗi hoặc tỉ lệ query chậm vượt ngưỡng
+ * - Khi lỗi hoặc breaker đang mở: trả về kết quả tốt gần nhất (stale) và đánh dấu request để UI hiện banner.
+ *   Kết quả stale là bản sao: người gọi sửa List / User nhận được không làm hỏng cache.
+ *   Kiểm tra quyền dùng readNoStale - lỗi phải có nghĩa là "không có quyền", không phải quyền của lần trước
+ * - Trong một request, cùng query với cùng bind (cacheKey) chỉ chạy một lần (RequestMemo), tới khi request chạy DDL
+ */
+@Component
+public class DictionaryQueryGuard {
+    
+    private static final Logger log = LoggerFactory.getLogger(DictionaryQueryGuard.class);
+    
+    public static final String STALE_SINCE_ATTRIBUTE = "dictionaryStaleSince";
+    
+    @Autowired
+    private Environment environment;
+    
+    @Value("${app.dictionary.query-timeout-seconds:5}")
+    private int defaultTimeoutSeconds;
+    
+    @Value("${app.dictionary.slow-call-ms:2000}")
+    private long slowCallMillis;
+    
+    @Value("${app.dictionary.breaker.window-size:20}")
+    private int windowSize;
+    
+    @Value("${app.dictionary.breaker.minimum-calls:5}")
+    private int minimumCalls;
+    
+    @Value("${app.dictionary.breaker.failure-rate:0.5}")
+    private double failureRateThreshold;
+    
+    @Value("${app.dictionary.breaker.slow-call-rate:0.5}")
+    private double slowCallRateThreshold;
+    
+    @Value("${app.dictionary.breaker.open-seconds:30}")
+    private long openSeconds;
+    
+    @Value("${app.dictionary.stale-cache-size:2000}")
+    private int staleCacheSize;
+    
+    // Cùng cacheKey trong một request chỉ query một lần (RequestMemo)
+    @Value("${app.dictionary.request-memo.enabled:true}")
+    private boolean requestMemoEnabled;
+    
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    
+    private Map<String, CachedResult> lastGoodResults;
+    
+    /**
+     * Chạy query đọc dictionary qua timeout + circuit breaker.
+     *
+     * @param queryName tên query dạng Repository.method - dùng cho timeout và breaker
+     * @param cacheKey  khóa của kết quả (queryName + bind values) - dùng cho stale fallback
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(String queryName, String cacheKey, Supplier<T> query) {
+        if (requestMemoEnabled) {
+            // Memo giữ một bản cho cả request, mỗi caller nhận bản sao riêng để sửa (populateDetails...) không lan sang
+            return (T) copy(RequestMemo.computeIfAbsent(cacheKey, () -> guarded(queryName, cacheKey, query, true)));
+        }
+        return guarded(queryName, cacheKey, query, true);
+    }
+    
+    /**
+     * Như read nhưng không có stale fallback và không ghi vào stale cache: query lỗi hoặc breaker đang mở thì ném
+     * exception. Dùng cho kiểm tra quyền, để quyền đã bị revoke không còn hiệu lực trong lúc Oracle lỗi.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T readNoStale(String queryName, String cacheKey, Supplier<T> query) {
+        if (requestMemoEnabled) {
+            return (T) copy(RequestMemo.computeIfAbsent(cacheKey, () -> guarded(queryName, cacheKey, query, false)));
+        }
+        return guarded(queryName, cacheKey, query, false);
+    }
+    
+    public <T> T read(String queryName, Supplier<T> query) {
+        return read(queryName, queryName, query);
+    }
+    
+    private <T> T guarded(String queryName, String cacheKey, Supplier<T> query, boolean allowStale) {
+        CircuitBreaker breaker = breakers.computeIfAbsent(queryName, CircuitBreaker::new);
+        
+        Permit permit = breaker.allowRequest();
+        if (permit == null) {
+            if (!allowStale) {
+                throw new DictionaryUnavailableException("Oracle dictionary query " + queryName
+                    + " is temporarily disabled (circuit open)");
+            }
+            return fallback(queryName, cacheKey, null);
+        }
+        
+        long start = System.nanoTime();
+        boolean recorded = false;
+        try {
+            int timeout = environment.getProperty("app.dictionary.timeout." + queryName, Integer.class, defaultTimeoutSeconds);
+            T result = OracleJdbcTemplate.withQueryTimeout(timeout, query);
+            recorded = true;
+            breaker.record(permit, true, (System.nanoTime() - start) / 1_000_000 >= slowCallMillis);
+            if (allowStale) {
+                remember(cacheKey, result);
+            }
+            return result;
+        } catch (RequestDeadlineExceededException e) {
+            // Request hết giờ: không phải lỗi của Oracle nên không tính vào breaker
+            throw e;
+        } catch (RuntimeException e) {
+            if (!recorded) {
+                recorded = true;
+                breaker.record(permit, false, false);
+            }
+            if (!allowStale) {
+                throw e;
+            }
+            return fallback(queryName, cacheKey, e);
+        } finally {
+            if (!recorded) {
+                // Lời gọi không có kết quả (deadline): trả lượt thử HALF_OPEN để request sau thử lại
+                breaker.release(permit);
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> T fallback(String queryName, String cacheKey, RuntimeException cause) {
+        CachedResult cached;
+        synchronized (this) {
+            cached = cache().get(cacheKey);
+        }
+        
+        if (cached == null) {
+            if (cause != null) {
+                throw cause;
+            }
+            throw new DictionaryUnavailableException("Oracle dictionary query " + queryName
+                + " is temporarily disabled (circuit open) and no cached result is available");
+        }
+        
+        log.warn("Serving stale result for {} (fetched at {}): {}", cacheKey, cached.fetchedAt(),
+            cause != null ? cause.getMessage() : "circuit open");
+        markStale(cached.fetchedAt());
+        return (T) copy(cached.value());
+    }
+    
+    private void remember(String cacheKey, Object value) {
+        Object snapshot = copy(value);
+        synchronized (this) {
+            cache().put(cacheKey, new CachedResult(snapshot, LocalDateTime.now()));
+        }
+    }
+    
+    /**
+     * Bản sao đủ sâu của kết quả dictionary: collection (List, Map, Set) và các model có setter
+     * (User, Role, Profile, PrivilegeInfo) được tạo mới, giá trị bất biến (String, Boolean, PrivilegeTable...) dùng chung.
+     */
+    static Object copy(Object value) {
+        if (value instanceof PrivilegeTable) {
+            return value;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(copy(element));
+            }
+            return copy;
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, element) -> copy.put(key, copy(element)));
+            return copy;
+        }
+        if (value instanceof Set<?> set) {
+            Set<Object> copy = new LinkedHashSet<>();
+            for (Object element : set) {
+                copy.add(copy(element));
+            }
+            return copy;
+        }
+        if (value instanceof User user) {
+            return new User(user.getUsername(), user.getPassword(), user.getDefaultTablespace(),
+                user.getTemporaryTablespace(), user.getQuota(), user.getAccountStatus(), user.getLockDate(),
+                user.getCreatedDate(), user.getProfile(), copyList(user.getRoles()), copyList(user.getPrivileges()),
+                user.getFullName(), user.getEmail(), user.getPhone(), user.getAddress());
+        }
+        if (value instanceof Role role) {
+            return new Role(role.getRoleName(), role.isHasPassword(), role.getPassword(),
+                copyList(role.getPrivileges()), copyList(role.getAssignedUsers()));
+        }
+        if (value instanceof Profile profile) {
+            return new Profile(profile.getProfileName(), profile.getSessionsPerUser(), profile.getConnectTime(),
+                profile.getIdleTime(), copyList(profile.getAssignedUsers()));
+        }
+        if (value instanceof PrivilegeInfo info) {
+            return new PrivilegeInfo(info.getPrivilege(), info.getGrantee(), info.getGrantor(), info.isAdminOption(),
+                info.getType(), info.getRoleName(), info.getObjectName());
+        }
+        return value;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <E> List<E> copyList(List<E> list) {
+        // PrivilegeTable không sửa được nên không cần chép
+        return list == null || list instanceof PrivilegeTable ? list : (List<E>) copy(list);
+    }
+    
+    private Map<String, CachedResult> cache() {
+        if (lastGoodResults == null) {
+            lastGoodResults = new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                    return size() > staleCacheSize;
+                }
+            };
+        }
+        return lastGoodResults;
+    }
+    
+    private void markStale(LocalDateTime fetchedAt) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        Object current = attributes.getAttribute(STALE_SINCE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (current == null || fetchedAt.isBefore((LocalDateTime) current)) {
+            attributes.setAttribute(STALE_SINCE_ATTRIBUTE, fetchedAt, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+    
+    private record CachedResult(Object value, LocalDateTime fetchedAt) {
+    }
+    
+    // Lời gọi được breaker cho chạy: bình thường (CLOSED) hoặc lời gọi thử của HALF_OPEN
+    private enum Permit {
+        CALL, PROBE
+    }
+    
+    /**
+     * Circuit breaker đơn giản trên cửa sổ N lời gọi gần nhất.
+     * CLOSED -> OPEN khi tỉ lệ lỗi/chậm vượt ngưỡng; OPEN -> HALF_OPEN sau open-seconds;
+     * HALF_OPEN cho đúng một lời gọi thử, thành công thì CLOSED, lỗi thì OPEN lại.
+     */
+    private class CircuitBreaker {
+        
+        private final String name;
+        private final boolean[] failures = new boolean[windowSize];
+        private final boolean[] slowCalls = new boolean[windowSize];
+        private int next;
+        private int recorded;
+        private long openedAt = -1;
+        private boolean probeInFlight;
+        
+        CircuitBreaker(String name) {
+            this.name = name;
+        }
+        
+        /**
+         * null nếu breaker đang mở; PROBE nếu đây là lời gọi thử duy nhất của HALF_OPEN.
+         * Mỗi permit phải kết thúc bằng record hoặc release.
+         */
+        synchronized Permit allowRequest() {
+            if (openedAt < 0) {
+                return Permit.CALL;
+            }
+            if (System.currentTimeMillis() - openedAt < openSeconds * 1000 || probeInFlight) {
+                return null;
+            }
+            // HALF_OPEN: cho một request thử
+            probeInFlight = true;
+            return Permit.PROBE;
+        }
+        
+        /**
+         * Lời gọi kết thúc mà không nói gì về Oracle: không tính là thành công hay lỗi,
+         * chỉ trả lại lượt thử để breaker không kẹt ở HALF_OPEN.
+         */
+        synchronized void release(Permit permit) {
+            if (permit == Permit.PROBE) {
+                probeInFlight = false;
+            }
+        }
+        
+        synchronized void record(Permit permit, boolean success, boolean slow) {
+            if (permit == Permit.PROBE) {
+                probeInFlight = false;
+                if (success && !slow) {
+                    openedAt = -1;
+                    next = 0;
+                    recorded = 0;
+                } else {
+                    openedAt = System.currentTimeMillis();
+                }
+                return;
+            }
+            
+            failures[next] = !success;
+            slowCalls[next] = slow;
+            next = (next + 1) % failures.length;
+            recorded = Math.min(recorded + 1, failures.length);
+            
+            if (recorded < minimumCalls) {
+                return;
+            }
+            int failed = 0;
+            int slowed = 0;
+            for (int i = 0; i < recorded; i++) {
+                if (failures[i]) failed++;
+                if (slowCalls[i]) slowed++;
+            }
+            if ((double) failed / recorded >= failureRateThreshold
+                    || (double) slowed / recorded >= slowCallRateThreshold) {
+                openedAt = System.currentTimeMillis();
+                log.warn("Circuit breaker OPEN for {} ({} failed, {} slow of last {} calls)",
+                    name, failed, slowed, recorded);
+            }
+        }
+    }
+}
+
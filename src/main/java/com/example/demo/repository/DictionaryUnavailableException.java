@@ -0,0 +1,12 @@
+package com.example.demo.repository;
+
+/**
+ * Query dictionary bị chặn bởi circuit breaker và không có kết quả cũ để trả về.
+ */
+public class DictionaryUnavailableException extends RuntimeException {
+    
+    public DictionaryUnavailableException(String message) {
+        super(message);
+    }
+}
+
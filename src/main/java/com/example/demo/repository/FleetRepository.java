@@ -0,0 +1,96 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.TargetCounts;
+import com.example.demo.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Các câu hỏi chạy trên từng target database (TargetDatabases.fanOut): cùng SQL với UserRepository / RoleRepository
+ * nhưng nhận JdbcTemplate của target thay vì adminJdbcTemplate, và không qua DictionaryQueryGuard
+ * (timeout do fanOut đặt cho từng target).
+ */
+@Repository
+public class FleetRepository {
+    
+    public TargetCounts countObjects(JdbcTemplate target) {
+        String sql = """
+            SELECT
+                (SELECT COUNT(*) FROM DBA_USERS
+                  WHERE USERNAME NOT IN ('SYS', 'SYSTEM', 'SYSAUX', 'XS$NULL') AND USERNAME NOT LIKE 'C##%') AS USERS,
+                (SELECT COUNT(*) FROM DBA_USERS
+                  WHERE USERNAME NOT IN ('SYS', 'SYSTEM', 'SYSAUX', 'XS$NULL') AND USERNAME NOT LIKE 'C##%'
+                    AND ACCOUNT_STATUS <> 'OPEN') AS LOCKED_USERS,
+                (SELECT COUNT(*) FROM DBA_ROLES
+                  WHERE ROLE NOT IN ('CONNECT', 'RESOURCE', 'DBA', 'SELECT_CATALOG_ROLE')) AS ROLES,
+                (SELECT COUNT(DISTINCT PROFILE) FROM DBA_PROFILES) AS PROFILES
+            FROM DUAL
+            """;
+        
+        return target.queryForObject(sql, (rs, rowNum) -> {
+            TargetCounts counts = new TargetCounts();
+            counts.setUsers(rs.getLong("USERS"));
+            counts.setLockedUsers(rs.getLong("LOCKED_USERS"));
+            counts.setRoles(rs.getLong("ROLES"));
+            counts.setProfiles(rs.getLong("PROFILES"));
+            return counts;
+        });
+    }
+    
+    /**
+     * User trên target, null nếu không tồn tại.
+     */
+    public User findUser(JdbcTemplate target, String username) {
+        String sql = """
+            SELECT 
+                USERNAME,
+                ACCOUNT_STATUS,
+                LOCK_DATE,
+                CREATED,
+                DEFAULT_TABLESPACE,
+                TEMPORARY_TABLESPACE,
+                PROFILE
+            FROM DBA_USERS
+            WHERE USERNAME = ?
+            """;
+        
+        List<User> users = target.query(sql, new UserRepository.UserRowMapper(), username.toUpperCase());
+        return users.isEmpty() ? null : users.get(0);
+    }
+    
+    /**
+     * Quyền của role trên target dạng so sánh được giữa các target: system privilege ("CREATE SESSION"),
+     * role được grant ("ROLE R_EMPLOYEE"), object privilege ("SELECT ON APP_OWNER.T_001").
+     * null nếu role không tồn tại.
+     */
+    public Set<String> roleGrants(JdbcTemplate target, String roleName) {
+        String sql = """
+            SELECT 'EXISTS' AS KIND, ROLE AS NAME FROM DBA_ROLES WHERE ROLE = ?
+            UNION ALL
+            SELECT 'SYSTEM', PRIVILEGE FROM DBA_SYS_PRIVS WHERE GRANTEE = ?
+            UNION ALL
+            SELECT 'ROLE', GRANTED_ROLE FROM DBA_ROLE_PRIVS WHERE GRANTEE = ?
+            UNION ALL
+            SELECT 'OBJECT', PRIVILEGE || ' ON ' || OWNER || '.' || TABLE_NAME FROM DBA_TAB_PRIVS WHERE GRANTEE = ?
+            """;
+        
+        String role = roleName.toUpperCase();
+        Set<String> grants = new TreeSet<>();
+        boolean[] exists = new boolean[1];
+        target.query(sql, (RowCallbackHandler) rs -> {
+            String name = rs.getString("NAME");
+            switch (rs.getString("KIND")) {
+                case "EXISTS" -> exists[0] = true;
+                case "ROLE" -> grants.add("ROLE " + name);
+                default -> grants.add(name);
+            }
+        }, role, role, role, role);
+        return exists[0] ? grants : null;
+    }
+}
+
@@ -1,141 +1,249 @@
 package com.example.demo.repository;
 
-import com.example.demo.model.PrivilegeInfo;
+import com.example.demo.metrics.PrivilegeCheckEvent;
+import com.example.demo.model.PrivilegeTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Repository
 public class PrivilegeRepository {
     
+    private static final Logger log = LoggerFactory.getLogger(PrivilegeRepository.class);
+    
+    // DBA_SYS_PRIVS (PRIVILEGE, GRANTEE, ADMIN_OPTION); DBA_SYS_PRIVS không có GRANTOR
+    static void addSystemPrivilege(PrivilegeTable.Builder table, ResultSet rs) throws SQLException {
+        table.add(rs.getString("PRIVILEGE"), rs.getString("GRANTEE"), null,
+            "YES".equals(rs.getString("ADMIN_OPTION")), "DIRECT", null, null);
+    }
+    
+    // DBA_TAB_PRIVS (PRIVILEGE, GRANTEE, GRANTOR, OBJECT_NAME, GRANTABLE)
+    static void addObjectPrivilege(PrivilegeTable.Builder table, ResultSet rs) throws SQLException {
+        table.add(rs.getString("PRIVILEGE"), rs.getString("GRANTEE"), rs.getString("GRANTOR"),
+            "YES".equals(rs.getString("GRANTABLE")), "OBJECT", null, rs.getString("OBJECT_NAME"));
+    }
+    
     @Autowired
     @Qualifier("adminJdbcTemplate")
     private JdbcTemplate adminJdbcTemplate;
     
-    public List<PrivilegeInfo> getAllPrivileges() {
-        List<PrivilegeInfo> privileges = new ArrayList<>();
-        
+    @Autowired
+    private DictionaryQueryGuard dictionaryQueryGuard;
+    
+    public PrivilegeTable getAllPrivileges() {
         try {
-            // Lấy system privileges trực tiếp
-            // Lưu ý: DBA_SYS_PRIVS không có cột GRANTOR
-            String sysPrivSql = """
-                SELECT 
-                    PRIVILEGE,
-                    GRANTEE,
-                    ADMIN_OPTION
-                FROM DBA_SYS_PRIVS
-                WHERE GRANTEE NOT IN ('SYS', 'SYSTEM')
-                ORDER BY GRANTEE, PRIVILEGE
-                """;
-            
-            List<PrivilegeInfo> sysPrivs = adminJdbcTemplate.query(sysPrivSql, (rs, rowNum) -> {
-                PrivilegeInfo priv = new PrivilegeInfo();
-                priv.setPrivilege(rs.getString("PRIVILEGE"));
-                priv.setGrantee(rs.getString("GRANTEE"));
-                priv.setGrantor(null); // DBA_SYS_PRIVS không có GRANTOR
-                priv.setAdminOption("YES".equals(rs.getString("ADMIN_OPTION")));
-                priv.setType("DIRECT");
-                return priv;
-            });
-            
-            if (sysPrivs != null) {
-                privileges.addAll(sysPrivs);
-            }
-            
-            // Lấy object privileges
-            String objPrivSql = """
-                SELECT 
-                    PRIVILEGE,
-                    GRANTEE,
-                    GRANTOR,
-                    TABLE_NAME as OBJECT_NAME,
-                    GRANTABLE
-                FROM DBA_TAB_PRIVS
-                WHERE GRANTEE NOT IN ('SYS', 'SYSTEM')
-                ORDER BY GRANTEE, PRIVILEGE
-                """;
-            
-            List<PrivilegeInfo> objPrivs = adminJdbcTemplate.query(objPrivSql, (rs, rowNum) -> {
-                PrivilegeInfo priv = new PrivilegeInfo();
-                priv.setPrivilege(rs.getString("PRIVILEGE"));
-                priv.setGrantee(rs.getString("GRANTEE"));
-                priv.setGrantor(rs.getString("GRANTOR"));
-                priv.setObjectName(rs.getString("OBJECT_NAME"));
-                priv.setAdminOption("YES".equals(rs.getString("GRANTABLE")));
-                priv.setType("OBJECT");
-                return priv;
-            });
-            
-            if (objPrivs != null) {
-                privileges.addAll(objPrivs);
-            }
-            
-            System.out.println("Total privileges retrieved: " + privileges.size());
+            return dictionaryQueryGuard.read("PrivilegeRepository.getAllPrivileges", () -> queryPrivileges(null, true, true));
         } catch (Exception e) {
             // Nếu không có quyền truy cập DBA views, trả về danh sách rỗng
-            System.err.println("Error getting all privileges: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error getting all privileges: {}", e.getMessage(), e);
+            return PrivilegeTable.EMPTY;
         }
+    }
+    
+    /**
+     * Privileges (system + object) của một grantee - dùng khi chỉ cần cập nhật các dòng của grantee đó.
+     */
+    public PrivilegeTable getPrivilegesForGrantee(String grantee) {
+        String granteeUpper = grantee.toUpperCase();
+        return dictionaryQueryGuard.read("PrivilegeRepository.getPrivilegesForGrantee",
+            "PrivilegeRepository.getPrivilegesForGrantee:" + granteeUpper, () -> queryPrivileges(granteeUpper, true, true));
+    }
+    
+    /**
+     * Privileges lọc theo grantee và / hoặc type (DIRECT = system, OBJECT) ngay trong SQL: chỉ view cần thiết được
+     * query và chỉ các dòng khớp được đọc về. null là không lọc; type khác DIRECT / OBJECT cho kết quả rỗng.
+     */
+    public PrivilegeTable findPrivileges(String grantee, String type) {
+        String granteeUpper = grantee != null && !grantee.isBlank() ? grantee.trim().toUpperCase() : null;
+        String typeUpper = type != null && !type.isBlank() ? type.trim().toUpperCase() : null;
+        boolean system = typeUpper == null || typeUpper.equals("DIRECT");
+        boolean object = typeUpper == null || typeUpper.equals("OBJECT");
+        if (!system && !object) {
+            return PrivilegeTable.EMPTY;
+        }
+        return dictionaryQueryGuard.read("PrivilegeRepository.findPrivileges",
+            "PrivilegeRepository.findPrivileges:" + granteeUpper + ":" + typeUpper,
+            () -> queryPrivileges(granteeUpper, system, object));
+    }
+    
+    // grantee = null: tất cả grantee (trừ SYS, SYSTEM)
+    private PrivilegeTable queryPrivileges(String grantee, boolean system, boolean object) {
+        PrivilegeTable.Builder privileges = PrivilegeTable.builder();
+        String granteeFilter = grantee != null ? "AND GRANTEE = ?" : "";
+        Object[] args = grantee != null ? new Object[] { grantee } : new Object[0];
         
-        return privileges;
+        // Lấy system privileges trực tiếp
+        // Lưu ý: DBA_SYS_PRIVS không có cột GRANTOR
+        String sysPrivSql = """
+            SELECT 
+                PRIVILEGE,
+                GRANTEE,
+                ADMIN_OPTION
+            FROM DBA_SYS_PRIVS
+            WHERE GRANTEE NOT IN ('SYS', 'SYSTEM')
+            %s
+            ORDER BY GRANTEE, PRIVILEGE
+            """.formatted(granteeFilter);
+        
+        if (system) {
+            adminJdbcTemplate.query(sysPrivSql, (RowCallbackHandler) rs -> addSystemPrivilege(privileges, rs), args);
+        }
+        
+        // Lấy object privileges
+        String objPrivSql = """
+            SELECT 
+                PRIVILEGE,
+                GRANTEE,
+                GRANTOR,
+                TABLE_NAME as OBJECT_NAME,
+                GRANTABLE
+            FROM DBA_TAB_PRIVS
+            WHERE GRANTEE NOT IN ('SYS', 'SYSTEM')
+            %s
+            ORDER BY GRANTEE, PRIVILEGE
+            """.formatted(granteeFilter);
+        
+        if (object) {
+            adminJdbcTemplate.query(objPrivSql, (RowCallbackHandler) rs -> addObjectPrivilege(privileges, rs), args);
+        }
+        
+        PrivilegeTable table = privileges.build();
+        log.debug("Total privileges retrieved: {} ({} distinct strings)", table.size(), table.symbolCount());
+        
+        return table;
     }
     
     public boolean hasPrivilege(String username, String privilege) {
+        PrivilegeCheckEvent event = new PrivilegeCheckEvent();
+        event.begin();
+        boolean granted = false;
         try {
-            System.out.println("DEBUG: Checking privilege " + privilege + " for user " + username);
-            
-            // Kiểm tra quyền trực tiếp - sử dụng DBA_SYS_PRIVS với GRANTEE
-            String directSql = """
-                SELECT COUNT(*) as CNT
-                FROM DBA_SYS_PRIVS
-                WHERE GRANTEE = ?
-                AND PRIVILEGE = ?
-                """;
-            
-            System.out.println("DEBUG: Running direct query for user: " + username);
-            List<Integer> results = adminJdbcTemplate.query(directSql, (rs, rowNum) -> rs.getInt("CNT"), 
-                username.toUpperCase(), privilege);
-            
-            System.out.println("DEBUG: Direct query result: " + (results != null && !results.isEmpty() ? results.get(0) : "null"));
-            
-            if (results != null && !results.isEmpty() && results.get(0) > 0) {
-                System.out.println("DEBUG: User " + username + " HAS privilege " + privilege + " (direct)");
-                return true;
-            }
-            
-            // Kiểm tra quyền thông qua role - dùng DBA views
-            String roleSql = """
-                SELECT COUNT(*) as CNT
-                FROM DBA_SYS_PRIVS
-                WHERE GRANTEE IN (
-                    SELECT GRANTED_ROLE
-                    FROM DBA_ROLE_PRIVS
-                    WHERE GRANTEE = ?
-                )
-                AND PRIVILEGE = ?
-                """;
-            
-            System.out.println("DEBUG: Running role query for user: " + username);
-            results = adminJdbcTemplate.query(roleSql, (rs, rowNum) -> rs.getInt("CNT"), 
-                username.toUpperCase(), privilege);
-            
-            System.out.println("DEBUG: Role query result: " + (results != null && !results.isEmpty() ? results.get(0) : "null"));
-            
-            boolean hasPriv = results != null && !results.isEmpty() && results.get(0) > 0;
-            System.out.println("DEBUG: User " + username + " " + (hasPriv ? "HAS" : "DOES NOT HAVE") + " privilege " + privilege);
-            
-            return hasPriv;
+            // Không dùng stale cache: Oracle lỗi thì coi như không có quyền
+            granted = dictionaryQueryGuard.readNoStale("PrivilegeRepository.hasPrivilege",
+                "PrivilegeRepository.hasPrivilege:" + username.toUpperCase() + ":" + privilege,
+                () -> queryPrivilege(username, privilege));
+            return granted;
         } catch (Exception e) {
-            System.err.println("ERROR checking privilege for " + username + ": " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error checking privilege for {}: {}", username, e.getMessage(), e);
             return false;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.user = username.toUpperCase();
+                event.privilege = privilege;
+                event.granted = granted;
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Các quyền trong privileges mà user có (trực tiếp hoặc qua role), bằng một query thay vì hai query cho mỗi quyền.
+     * Lỗi Oracle thì coi như không có quyền nào, giống hasPrivilege.
+     */
+    public Set<String> grantedPrivileges(String username, Collection<String> privileges) {
+        if (privileges.isEmpty()) {
+            return Set.of();
+        }
+        List<String> sorted = new ArrayList<>(new TreeSet<>(privileges));
+        PrivilegeCheckEvent event = new PrivilegeCheckEvent();
+        event.begin();
+        Set<String> granted = Set.of();
+        try {
+            // Nguồn của mọi @RequiresOraclePrivilege: không dùng stale cache, Oracle lỗi thì coi như không có quyền
+            granted = dictionaryQueryGuard.readNoStale("PrivilegeRepository.grantedPrivileges",
+                "PrivilegeRepository.grantedPrivileges:" + username.toUpperCase() + ":" + String.join(",", sorted),
+                () -> queryGrantedPrivileges(username, sorted));
+            return granted;
+        } catch (Exception e) {
+            log.warn("Error checking privileges {} for {}: {}", sorted, username, e.getMessage(), e);
+            return Set.of();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.user = username.toUpperCase();
+                event.privilege = String.join(",", sorted);
+                event.granted = granted.size() == sorted.size();
+                event.commit();
+            }
         }
     }
     
+    private Set<String> queryGrantedPrivileges(String username, List<String> privileges) {
+        String sql = """
+            SELECT DISTINCT PRIVILEGE
+            FROM DBA_SYS_PRIVS
+            WHERE PRIVILEGE IN (%s)
+            AND (GRANTEE = ?
+                 OR GRANTEE IN (SELECT GRANTED_ROLE FROM DBA_ROLE_PRIVS WHERE GRANTEE = ?))
+            """.formatted(String.join(", ", Collections.nCopies(privileges.size(), "?")));
+        
+        List<Object> args = new ArrayList<>(privileges);
+        args.add(username.toUpperCase());
+        args.add(username.toUpperCase());
+        return new HashSet<>(adminJdbcTemplate.queryForList(sql, String.class, args.toArray()));
+    }
+    
+    private boolean queryPrivilege(String username, String privilege) {
+        log.debug("Checking privilege {} for user {}", privilege, username);
+        
+        // Kiểm tra quyền trực tiếp - sử dụng DBA_SYS_PRIVS với GRANTEE
+        String directSql = """
+            SELECT COUNT(*) as CNT
+            FROM DBA_SYS_PRIVS
+            WHERE GRANTEE = ?
+            AND PRIVILEGE = ?
+            """;
+        
+        log.debug("Running direct query for user: {}", username);
+        List<Integer> results = adminJdbcTemplate.query(directSql, (rs, rowNum) -> rs.getInt("CNT"), 
+            username.toUpperCase(), privilege);
+        
+        log.debug("Direct query result: {}", (results != null && !results.isEmpty() ? results.get(0) : "null"));
+        
+        if (results != null && !results.isEmpty() && results.get(0) > 0) {
+            log.debug("User {} HAS privilege {} (direct)", username, privilege);
+            return true;
+        }
+        
+        // Kiểm tra quyền thông qua role - dùng DBA views
+        String roleSql = """
+            SELECT COUNT(*) as CNT
+            FROM DBA_SYS_PRIVS
+            WHERE GRANTEE IN (
+                SELECT GRANTED_ROLE
+                FROM DBA_ROLE_PRIVS
+                WHERE GRANTEE = ?
+            )
+            AND PRIVILEGE = ?
+            """;
+        
+        log.debug("Running role query for user: {}", username);
+        results = adminJdbcTemplate.query(roleSql, (rs, rowNum) -> rs.getInt("CNT"), 
+            username.toUpperCase(), privilege);
+        
+        log.debug("Role query result: {}", (results != null && !results.isEmpty() ? results.get(0) : "null"));
+        
+        boolean hasPriv = results != null && !results.isEmpty() && results.get(0) > 0;
+        log.debug("User {} {} privilege {}", username, (hasPriv ? "HAS" : "DOES NOT HAVE"), privilege);
+        
+        return hasPriv;
+    }
+    
     public void grantSystemPrivilege(String privilege, String grantee, boolean withAdminOption) {
         String sql = "GRANT " + privilege + " TO " + grantee.toUpperCase();
         if (withAdminOption) {
@@ -187,7 +295,7 @@ public class PrivilegeRepository {
             
             return adminJdbcTemplate.queryForList(sql, String.class);
         } catch (Exception e) {
-            System.err.println("Error getting tablespaces: " + e.getMessage());
+            log.warn("Error getting tablespaces: {}", e.getMessage());
             return new ArrayList<>();
         }
     }
@@ -7,7 +7,10 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class ProfileRepository {
@@ -16,7 +19,75 @@ public class ProfileRepository {
     @Qualifier("adminJdbcTemplate")
     private JdbcTemplate adminJdbcTemplate;
     
+    @Autowired
+    private DictionaryQueryGuard dictionaryQueryGuard;
+    
     public List<Profile> getAllProfiles() {
+        return dictionaryQueryGuard.read("ProfileRepository.getAllProfiles", () -> getProfiles(getProfileNames()));
+    }
+    
+    /**
+     * Load nhiều profile cùng lúc: hai query cho cả danh sách (users, limits) thay vì hai query mỗi profile.
+     * Giữ thứ tự của profileNames.
+     */
+    public List<Profile> getProfiles(Collection<String> profileNames) {
+        if (profileNames.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return dictionaryQueryGuard.read("ProfileRepository.getProfiles",
+            UserRepository.cacheKey("ProfileRepository.getProfiles", profileNames), () -> loadProfiles(profileNames));
+    }
+    
+    private List<Profile> loadProfiles(Collection<String> profileNames) {
+        String usersSql = """
+            SELECT PROFILE, USERNAME
+            FROM DBA_USERS
+            WHERE %s
+            ORDER BY PROFILE, USERNAME
+            """;
+        
+        String limitsSql = """
+            SELECT PROFILE, RESOURCE_NAME, LIMIT
+            FROM DBA_PROFILES
+            WHERE %s
+            AND RESOURCE_NAME IN ('SESSIONS_PER_USER', 'CONNECT_TIME', 'IDLE_TIME')
+            """;
+        
+        Map<String, Profile> profiles = new LinkedHashMap<>();
+        for (String profileName : profileNames) {
+            Profile profile = new Profile();
+            profile.setProfileName(profileName);
+            profile.setAssignedUsers(new ArrayList<>());
+            profiles.put(profileName, profile);
+        }
+        
+        UserRepository.queryIn(adminJdbcTemplate, usersSql, "PROFILE", profiles.keySet(), rs -> {
+            Profile profile = profiles.get(rs.getString("PROFILE"));
+            if (profile != null) {
+                profile.getAssignedUsers().add(rs.getString("USERNAME"));
+            }
+        });
+        
+        UserRepository.queryIn(adminJdbcTemplate, limitsSql, "PROFILE", profiles.keySet(), rs -> {
+            Profile profile = profiles.get(rs.getString("PROFILE"));
+            if (profile == null) {
+                return;
+            }
+            String limit = rs.getString("LIMIT");
+            switch (rs.getString("RESOURCE_NAME")) {
+                case "SESSIONS_PER_USER" -> profile.setSessionsPerUser(limit);
+                case "CONNECT_TIME" -> profile.setConnectTime(limit);
+                case "IDLE_TIME" -> profile.setIdleTime(limit);
+            }
+        });
+        
+        return new ArrayList<>(profiles.values());
+    }
+    
+    /**
+     * Chỉ lấy tên profile (một query), dùng để phân trang trước khi load chi tiết từng profile.
+     */
+    public List<String> getProfileNames() {
         String sql = """
             SELECT PROFILE
             FROM DBA_PROFILES
@@ -25,17 +96,16 @@ public class ProfileRepository {
             ORDER BY PROFILE
             """;
         
-        List<String> profileNames = adminJdbcTemplate.queryForList(sql, String.class);
-        List<Profile> profiles = new ArrayList<>();
-        
-        for (String profileName : profileNames) {
-            profiles.add(getProfile(profileName));
-        }
-        
-        return profiles;
+        return dictionaryQueryGuard.read("ProfileRepository.getProfileNames",
+            () -> adminJdbcTemplate.queryForList(sql, String.class));
     }
     
     public Profile getProfile(String profileName) {
+        return dictionaryQueryGuard.read("ProfileRepository.getProfile", "ProfileRepository.getProfile:" + profileName,
+            () -> loadProfile(profileName));
+    }
+    
+    private Profile loadProfile(String profileName) {
         String sql = """
             SELECT RESOURCE_NAME, RESOURCE_TYPE, LIMIT
             FROM DBA_PROFILES
@@ -1,40 +1,126 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class RoleRepository {
     
+    private static final Logger log = LoggerFactory.getLogger(RoleRepository.class);
+    
     @Autowired
     @Qualifier("adminJdbcTemplate")
     private JdbcTemplate adminJdbcTemplate;
     
+    @Autowired
+    private DictionaryQueryGuard dictionaryQueryGuard;
+    
     public List<Role> getAllRoles() {
-        String sql = """
-            SELECT ROLE
+        return dictionaryQueryGuard.read("RoleRepository.getAllRoles", () -> getRoles(getRoleNames()));
+    }
+    
+    /**
+     * Load nhiều role cùng lúc: ba query cho cả danh sách (password, privileges, users) thay vì ba query mỗi role.
+     * Giữ thứ tự của roleNames; tên không tồn tại vẫn có một Role rỗng, giống getRole.
+     */
+    public List<Role> getRoles(Collection<String> roleNames) {
+        if (roleNames.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return dictionaryQueryGuard.read("RoleRepository.getRoles",
+            UserRepository.cacheKey("RoleRepository.getRoles", roleNames), () -> loadRoles(roleNames));
+    }
+    
+    private List<Role> loadRoles(Collection<String> roleNames) {
+        String checkPasswordSql = """
+            SELECT ROLE, PASSWORD_REQUIRED
             FROM DBA_ROLES
-            WHERE ROLE NOT IN ('CONNECT', 'RESOURCE', 'DBA', 'SELECT_CATALOG_ROLE')
-            ORDER BY ROLE
+            WHERE %s
             """;
         
-        List<String> roleNames = adminJdbcTemplate.queryForList(sql, String.class);
-        List<Role> roles = new ArrayList<>();
+        String privilegesSql = """
+            SELECT GRANTEE, PRIVILEGE
+            FROM DBA_SYS_PRIVS
+            WHERE %s
+            ORDER BY GRANTEE, PRIVILEGE
+            """;
         
+        String usersSql = """
+            SELECT GRANTED_ROLE, GRANTEE
+            FROM DBA_ROLE_PRIVS
+            WHERE %s
+            ORDER BY GRANTED_ROLE, GRANTEE
+            """;
+        
+        Map<String, Role> roles = new LinkedHashMap<>();
         for (String roleName : roleNames) {
-            roles.add(getRole(roleName));
+            Role role = new Role();
+            role.setRoleName(roleName);
+            role.setPrivileges(new ArrayList<>());
+            role.setAssignedUsers(new ArrayList<>());
+            roles.put(roleName, role);
         }
         
-        return roles;
+        try {
+            UserRepository.queryIn(adminJdbcTemplate, checkPasswordSql, "ROLE", roles.keySet(), rs -> {
+                Role role = roles.get(rs.getString("ROLE"));
+                if (role != null) {
+                    role.setHasPassword("YES".equals(rs.getString("PASSWORD_REQUIRED")));
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Error checking role passwords: {}", e.getMessage());
+        }
+        
+        UserRepository.queryIn(adminJdbcTemplate, privilegesSql, "GRANTEE", roles.keySet(), rs -> {
+            Role role = roles.get(rs.getString("GRANTEE"));
+            if (role != null) {
+                role.getPrivileges().add(rs.getString("PRIVILEGE"));
+            }
+        });
+        
+        UserRepository.queryIn(adminJdbcTemplate, usersSql, "GRANTED_ROLE", roles.keySet(), rs -> {
+            Role role = roles.get(rs.getString("GRANTED_ROLE"));
+            if (role != null) {
+                role.getAssignedUsers().add(rs.getString("GRANTEE"));
+            }
+        });
+        
+        return new ArrayList<>(roles.values());
+    }
+    
+    /**
+     * Chỉ lấy tên role (một query), dùng để phân trang trước khi load chi tiết từng role.
+     */
+    public List<String> getRoleNames() {
+        String sql = """
+            SELECT ROLE
+            FROM DBA_ROLES
+            WHERE ROLE NOT IN ('CONNECT', 'RESOURCE', 'DBA', 'SELECT_CATALOG_ROLE')
+            ORDER BY ROLE
+            """;
+        
+        return dictionaryQueryGuard.read("RoleRepository.getRoleNames",
+            () -> adminJdbcTemplate.queryForList(sql, String.class));
     }
     
     public Role getRole(String roleName) {
+        return dictionaryQueryGuard.read("RoleRepository.getRole", "RoleRepository.getRole:" + roleName,
+            () -> loadRole(roleName));
+    }
+    
+    private Role loadRole(String roleName) {
         // Kiểm tra role có password không
         String checkPasswordSql = """
             SELECT PASSWORD_REQUIRED
@@ -49,7 +135,7 @@ public class RoleRepository {
                 hasPassword = "YES".equals(results.get(0));
             }
         } catch (Exception e) {
-            System.err.println("Error checking role password for " + roleName + ": " + e.getMessage());
+            log.warn("Error checking role password for {}: {}", roleName, e.getMessage());
         }
         
         Role role = new Role();
@@ -1,23 +1,46 @@
 package com.example.demo.repository;
 
+import com.example.demo.metrics.MethodMetrics;
+import com.example.demo.model.AccountHygieneRow;
 import com.example.demo.model.PrivilegeInfo;
+import com.example.demo.model.PrivilegeTable;
+import com.example.demo.model.StorageUsage;
 import com.example.demo.model.User;
 import com.example.demo.model.UserProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Repository
 public class UserRepository {
     
+    private static final Logger log = LoggerFactory.getLogger(UserRepository.class);
+    
+    // Số phần tử tối đa của một IN-list trong Oracle (ORA-01795)
+    static final int MAX_IN_LIST = 1000;
+    
     @Autowired
     @Qualifier("adminJdbcTemplate")
     private JdbcTemplate adminJdbcTemplate;
@@ -26,6 +49,12 @@ public class UserRepository {
     @Qualifier("appJdbcTemplate")
     private JdbcTemplate appJdbcTemplate;
     
+    @Autowired
+    private DictionaryQueryGuard dictionaryQueryGuard;
+    
+    @Autowired
+    private MethodMetrics methodMetrics;
+    
     
     public User getUserInfo(String username) {
         // Dùng DBA_USERS (yêu cầu quyền SELECT ANY DICTIONARY)
@@ -43,46 +72,49 @@ public class UserRepository {
             """;
         
         try {
-            List<User> users = adminJdbcTemplate.query(dbaSql, new UserRowMapper(), username.toUpperCase());
+            List<User> users = dictionaryQueryGuard.read("UserRepository.getUserInfo",
+                "UserRepository.getUserInfo:" + username.toUpperCase(),
+                () -> adminJdbcTemplate.query(dbaSql, new UserRowMapper(), username.toUpperCase()));
             if (users != null && !users.isEmpty()) {
-                System.out.println("Found user " + username + " in DBA_USERS");
+                log.debug("Found user {} in DBA_USERS", username);
                 return users.get(0);
             } else {
-                System.err.println("User " + username + " not found in DBA_USERS (empty result)");
-                // Test query để xem có users nào trong DBA_USERS không
-                String testSql = "SELECT COUNT(*) as CNT FROM DBA_USERS WHERE USERNAME = ?";
-                List<Integer> counts = adminJdbcTemplate.query(testSql, (rs, rowNum) -> rs.getInt("CNT"), username.toUpperCase());
-                if (counts != null && !counts.isEmpty()) {
-                    System.err.println("Test query returned count: " + counts.get(0) + " for user " + username);
+                log.debug("User {} not found in DBA_USERS (empty result)", username);
+                // Test query để xem có users nào trong DBA_USERS không (chỉ khi bật DEBUG)
+                if (log.isDebugEnabled()) {
+                    String testSql = "SELECT COUNT(*) as CNT FROM DBA_USERS WHERE USERNAME = ?";
+                    List<Integer> counts = adminJdbcTemplate.query(testSql, (rs, rowNum) -> rs.getInt("CNT"), username.toUpperCase());
+                    if (counts != null && !counts.isEmpty()) {
+                        log.debug("Test query returned count: {} for user {}", counts.get(0), username);
+                    }
                 }
             }
         } catch (Exception e) {
-            System.err.println("Error querying DBA_USERS for " + username + ": " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error querying DBA_USERS for {}: {}", username, e.getMessage(), e);
         }
         
         // Fallback: Tạo User object cơ bản nếu không tìm thấy trong DBA_USERS
         // (Có thể do user không tồn tại hoặc không có quyền)
+        methodMetrics.count("UserRepository.getUserInfo.dualFallback");
         try {
             String currentUserSql = "SELECT USER FROM DUAL";
             List<String> currentUsers = adminJdbcTemplate.query(currentUserSql, (rs, rowNum) -> rs.getString("USER"));
             if (currentUsers != null && !currentUsers.isEmpty()) {
                 String currentUser = currentUsers.get(0);
-                System.out.println("Current user from DUAL: " + currentUser);
+                log.debug("Current user from DUAL: {}", currentUser);
                 if (currentUser.equalsIgnoreCase(username)) {
                     // Tạo User object với thông tin cơ bản
                     User user = new User();
                     user.setUsername(currentUser);
                     user.setAccountStatus("OPEN"); // Giả định
-                    System.out.println("Created basic user object for " + currentUser);
+                    log.debug("Created basic user object for {}", currentUser);
                     return user;
                 } else {
-                    System.err.println("Current user (" + currentUser + ") does not match requested user (" + username + ")");
+                    log.debug("Current user ({}) does not match requested user ({})", currentUser, username);
                 }
             }
         } catch (Exception e) {
-            System.err.println("Error getting current user: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error getting current user: {}", e.getMessage(), e);
         }
         
         return null;
@@ -106,43 +138,42 @@ public class UserRepository {
             """;
         
         try {
-            // Test query trước để xem có bao nhiêu users
-            String countSql = """
-                SELECT COUNT(*) as CNT
-                FROM DBA_USERS
-                WHERE USERNAME NOT IN ('SYS', 'SYSTEM', 'SYSAUX', 'XS$NULL')
-                   AND USERNAME NOT LIKE 'C##%'
-                """;
-            System.out.println("Executing count query for getAllUsers...");
-            List<Integer> counts = adminJdbcTemplate.query(countSql, (rs, rowNum) -> rs.getInt("CNT"));
-            int totalCount = counts != null && !counts.isEmpty() ? counts.get(0) : 0;
-            System.out.println("Total users in DBA_USERS (after filter): " + totalCount);
-            
-            // Test query không filter để xem tổng số users
-            String totalCountSql = "SELECT COUNT(*) as CNT FROM DBA_USERS";
-            List<Integer> totalCounts = adminJdbcTemplate.query(totalCountSql, (rs, rowNum) -> rs.getInt("CNT"));
-            int totalAllUsers = totalCounts != null && !totalCounts.isEmpty() ? totalCounts.get(0) : 0;
-            System.out.println("Total users in DBA_USERS (no filter): " + totalAllUsers);
-            
-            // List một số usernames để debug
-            String sampleSql = "SELECT USERNAME FROM DBA_USERS WHERE ROWNUM <= 10 ORDER BY USERNAME";
-            List<String> sampleUsers = adminJdbcTemplate.queryForList(sampleSql, String.class);
-            System.out.println("Sample usernames in DBA_USERS: " + sampleUsers);
-            
-            System.out.println("Executing main query for getAllUsers...");
-            List<User> users = adminJdbcTemplate.query(sql, new UserRowMapper());
-            System.out.println("Successfully mapped " + users.size() + " users from DBA_USERS");
-            
-            if (users.isEmpty() && totalCount > 0) {
-                System.err.println("WARNING: Query returned " + totalCount + " rows but mapping resulted in 0 users. Check RowMapper!");
-            } else if (users.isEmpty()) {
-                System.err.println("WARNING: No users found! Total in DBA_USERS: " + totalAllUsers + ", After filter: " + totalCount);
-            }
-            
-            return users;
+            return dictionaryQueryGuard.read("UserRepository.getAllUsers", () -> {
+                List<User> users = adminJdbcTemplate.query(sql, new UserRowMapper());
+                log.debug("Successfully mapped {} users from DBA_USERS", users.size());
+                
+                // Các query đếm / lấy mẫu chỉ để chẩn đoán: chạy khi bật DEBUG hoặc khi không map được user nào
+                if (users.isEmpty() || log.isDebugEnabled()) {
+                    String countSql = """
+                        SELECT COUNT(*) as CNT
+                        FROM DBA_USERS
+                        WHERE USERNAME NOT IN ('SYS', 'SYSTEM', 'SYSAUX', 'XS$NULL')
+                           AND USERNAME NOT LIKE 'C##%'
+                        """;
+                    List<Integer> counts = adminJdbcTemplate.query(countSql, (rs, rowNum) -> rs.getInt("CNT"));
+                    int totalCount = counts != null && !counts.isEmpty() ? counts.get(0) : 0;
+                    
+                    String totalCountSql = "SELECT COUNT(*) as CNT FROM DBA_USERS";
+                    List<Integer> totalCounts = adminJdbcTemplate.query(totalCountSql, (rs, rowNum) -> rs.getInt("CNT"));
+                    int totalAllUsers = totalCounts != null && !totalCounts.isEmpty() ? totalCounts.get(0) : 0;
+                    log.debug("Total users in DBA_USERS: {} (after filter: {})", totalAllUsers, totalCount);
+                    
+                    if (log.isDebugEnabled()) {
+                        String sampleSql = "SELECT USERNAME FROM DBA_USERS WHERE ROWNUM <= 10 ORDER BY USERNAME";
+                        log.debug("Sample usernames in DBA_USERS: {}", adminJdbcTemplate.queryForList(sampleSql, String.class));
+                    }
+                    
+                    if (users.isEmpty() && totalCount > 0) {
+                        log.warn("Query returned {} rows but mapping resulted in 0 users. Check RowMapper!", totalCount);
+                    } else if (users.isEmpty()) {
+                        log.warn("No users found! Total in DBA_USERS: {}, After filter: {}", totalAllUsers, totalCount);
+                    }
+                }
+                
+                return users;
+            });
         } catch (Exception e) {
-            System.err.println("Error getting all users: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error getting all users: {}", e.getMessage(), e);
             return new ArrayList<>();
         }
     }
@@ -171,6 +202,126 @@ public class UserRepository {
         return "0M";
     }
     
+    /**
+     * Dung lượng đã dùng và quota của mọi user trên mọi tablespace: hai query gom nhóm (DBA_TS_QUOTAS,
+     * DBA_SEGMENTS GROUP BY OWNER, TABLESPACE_NAME) ghép theo (user, tablespace).
+     * DBA_SEGMENTS đắt trên database lớn - chỉ gọi từ job nền (StorageReport), không gọi trong request.
+     */
+    public List<StorageUsage> getStorageUsage() {
+        String quotaSql = """
+            SELECT USERNAME, TABLESPACE_NAME, BYTES, MAX_BYTES
+            FROM DBA_TS_QUOTAS
+            WHERE USERNAME NOT IN ('SYS', 'SYSTEM', 'SYSAUX', 'XS$NULL')
+            """;
+        
+        String segmentSql = """
+            SELECT OWNER, TABLESPACE_NAME, SUM(BYTES) AS USED_BYTES, COUNT(*) AS SEGMENTS
+            FROM DBA_SEGMENTS
+            WHERE OWNER NOT IN ('SYS', 'SYSTEM', 'SYSAUX', 'XS$NULL')
+            GROUP BY OWNER, TABLESPACE_NAME
+            """;
+        
+        Map<String, StorageUsage> usage = new LinkedHashMap<>();
+        adminJdbcTemplate.query(quotaSql, (RowCallbackHandler) rs -> {
+            StorageUsage row = storageUsage(usage, rs.getString("USERNAME"), rs.getString("TABLESPACE_NAME"));
+            // BYTES của DBA_TS_QUOTAS là phần đã tính vào quota; DBA_SEGMENTS (nếu có) sẽ ghi đè
+            row.setUsedBytes(rs.getLong("BYTES"));
+            row.setMaxBytes(rs.getLong("MAX_BYTES"));
+        });
+        adminJdbcTemplate.query(segmentSql, (RowCallbackHandler) rs -> {
+            StorageUsage row = storageUsage(usage, rs.getString("OWNER"), rs.getString("TABLESPACE_NAME"));
+            row.setUsedBytes(rs.getLong("USED_BYTES"));
+            row.setSegments(rs.getInt("SEGMENTS"));
+        });
+        
+        return new ArrayList<>(usage.values());
+    }
+    
+    private static StorageUsage storageUsage(Map<String, StorageUsage> usage, String username, String tablespace) {
+        return usage.computeIfAbsent(username + '\0' + tablespace, key -> {
+            StorageUsage row = new StorageUsage();
+            row.setUsername(username);
+            row.setTablespaceName(tablespace);
+            return row;
+        });
+    }
+    
+    /**
+     * Quét DBA_USERS bằng một cursor duy nhất, mỗi dòng kèm LAST_LOGIN và số quyền trong powerfulPrivileges /
+     * powerfulRoles mà user có (trực tiếp hoặc qua role, giống grantedPrivileges), rồi đưa từng dòng cho consumer
+     * mà không giữ lại - bộ nhớ không phụ thuộc số user. Chỉ gọi từ job nền (AccountHygieneScanner).
+     */
+    public void streamAccountHygiene(Collection<String> powerfulPrivileges, Collection<String> powerfulRoles,
+                                     int fetchSize, Consumer<AccountHygieneRow> consumer) {
+        // IN () rỗng không hợp lệ: dùng một giá trị không thể là tên quyền
+        List<String> privileges = powerfulPrivileges.isEmpty() ? List.of("-") : new ArrayList<>(powerfulPrivileges);
+        List<String> roles = powerfulRoles.isEmpty() ? List.of("-") : new ArrayList<>(powerfulRoles);
+        String privilegeBinds = String.join(", ", Collections.nCopies(privileges.size(), "?"));
+        String roleBinds = String.join(", ", Collections.nCopies(roles.size(), "?"));
+        
+        String sql = """
+            SELECT
+                u.USERNAME,
+                u.ACCOUNT_STATUS,
+                u.PROFILE,
+                u.CREATED,
+                CAST(u.LAST_LOGIN AS TIMESTAMP) AS LAST_LOGIN,
+                u.LOCK_DATE,
+                u.EXPIRY_DATE,
+                NVL(g.POWERFUL_GRANTS, 0) AS POWERFUL_GRANTS,
+                g.SAMPLE_GRANT
+            FROM DBA_USERS u
+            LEFT JOIN (
+                SELECT GRANTEE, COUNT(DISTINCT GRANT_NAME) AS POWERFUL_GRANTS, MIN(GRANT_NAME) AS SAMPLE_GRANT
+                FROM (
+                    SELECT GRANTEE, PRIVILEGE AS GRANT_NAME
+                    FROM DBA_SYS_PRIVS
+                    WHERE PRIVILEGE IN (%1$s)
+                    UNION ALL
+                    SELECT rp.GRANTEE, sp.PRIVILEGE
+                    FROM DBA_ROLE_PRIVS rp
+                    JOIN DBA_SYS_PRIVS sp ON sp.GRANTEE = rp.GRANTED_ROLE
+                    WHERE sp.PRIVILEGE IN (%1$s)
+                    UNION ALL
+                    SELECT GRANTEE, GRANTED_ROLE
+                    FROM DBA_ROLE_PRIVS
+                    WHERE GRANTED_ROLE IN (%2$s)
+                ) grants
+                GROUP BY GRANTEE
+            ) g ON g.GRANTEE = u.USERNAME
+            WHERE u.USERNAME NOT IN ('SYS', 'SYSTEM', 'SYSAUX', 'XS$NULL')
+               AND u.USERNAME NOT LIKE 'C##%%'
+            """.formatted(privilegeBinds, roleBinds);
+        
+        List<Object> args = new ArrayList<>(privileges);
+        args.addAll(privileges);
+        args.addAll(roles);
+        
+        adminJdbcTemplate.query(sql, (PreparedStatementSetter) ps -> {
+            // Fetch size mặc định của ojdbc là 10 dòng mỗi round-trip
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+        }, (RowCallbackHandler) rs -> {
+            AccountHygieneRow row = new AccountHygieneRow();
+            row.setUsername(rs.getString("USERNAME"));
+            row.setAccountStatus(rs.getString("ACCOUNT_STATUS"));
+            row.setProfile(rs.getString("PROFILE"));
+            row.setCreated(toLocalDateTime(rs.getTimestamp("CREATED")));
+            row.setLastLogin(toLocalDateTime(rs.getTimestamp("LAST_LOGIN")));
+            row.setLockDate(toLocalDateTime(rs.getTimestamp("LOCK_DATE")));
+            row.setExpiryDate(toLocalDateTime(rs.getTimestamp("EXPIRY_DATE")));
+            row.setPowerfulGrants(rs.getInt("POWERFUL_GRANTS"));
+            row.setSamplePowerfulGrant(rs.getString("SAMPLE_GRANT"));
+            consumer.accept(row);
+        });
+    }
+    
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+    
     public List<String> getUserRoles(String username) {
         String sql = """
             SELECT GRANTED_ROLE
@@ -179,12 +330,12 @@ public class UserRepository {
             ORDER BY GRANTED_ROLE
             """;
         
-        return adminJdbcTemplate.queryForList(sql, String.class, username.toUpperCase());
+        return dictionaryQueryGuard.read("UserRepository.getUserRoles",
+            "UserRepository.getUserRoles:" + username.toUpperCase(),
+            () -> adminJdbcTemplate.queryForList(sql, String.class, username.toUpperCase()));
     }
     
     public List<PrivilegeInfo> getUserPrivileges(String username) {
-        List<PrivilegeInfo> privileges = new ArrayList<>();
-        
         try {
             // System privileges (direct)
             // Lưu ý: DBA_SYS_PRIVS không có cột GRANTOR
@@ -197,46 +348,36 @@ public class UserRepository {
                 WHERE GRANTEE = ?
                 """;
             
-            adminJdbcTemplate.query(sysPrivSql, (rs, rowNum) -> {
-                PrivilegeInfo priv = new PrivilegeInfo();
-                priv.setPrivilege(rs.getString("PRIVILEGE"));
-                priv.setGrantee(rs.getString("GRANTEE"));
-                priv.setGrantor(null); // DBA_SYS_PRIVS không có GRANTOR
-                priv.setAdminOption("YES".equals(rs.getString("ADMIN_OPTION")));
-                priv.setType("DIRECT");
-                privileges.add(priv);
-                return null;
-            }, username.toUpperCase());
-            
-            // Privileges through roles
-            // Lưu ý: DBA_SYS_PRIVS không có cột GRANTOR
-            String rolePrivSql = """
-                SELECT DISTINCT
-                    sp.PRIVILEGE,
-                    sp.ADMIN_OPTION,
-                    rp.GRANTED_ROLE
-                FROM DBA_SYS_PRIVS sp
-                INNER JOIN DBA_ROLE_PRIVS rp ON sp.GRANTEE = rp.GRANTED_ROLE
-                WHERE rp.GRANTEE = ?
-                """;
-            
-            adminJdbcTemplate.query(rolePrivSql, (rs, rowNum) -> {
-                PrivilegeInfo priv = new PrivilegeInfo();
-                priv.setPrivilege(rs.getString("PRIVILEGE"));
-                priv.setGrantee(username.toUpperCase());
-                priv.setGrantor(null); // DBA_SYS_PRIVS không có GRANTOR
-                priv.setAdminOption("YES".equals(rs.getString("ADMIN_OPTION")));
-                priv.setType("ROLE");
-                priv.setRoleName(rs.getString("GRANTED_ROLE"));
-                privileges.add(priv);
-                return null;
-            }, username.toUpperCase());
+            String upperUsername = username.toUpperCase();
+            return dictionaryQueryGuard.read("UserRepository.getUserPrivileges",
+                "UserRepository.getUserPrivileges:" + upperUsername, () -> {
+                PrivilegeTable.Builder fetched = PrivilegeTable.builder();
+                
+                adminJdbcTemplate.query(sysPrivSql,
+                    (RowCallbackHandler) rs -> PrivilegeRepository.addSystemPrivilege(fetched, rs), upperUsername);
+                
+                // Privileges through roles
+                // Lưu ý: DBA_SYS_PRIVS không có cột GRANTOR
+                String rolePrivSql = """
+                    SELECT DISTINCT
+                        sp.PRIVILEGE,
+                        sp.ADMIN_OPTION,
+                        rp.GRANTED_ROLE
+                    FROM DBA_SYS_PRIVS sp
+                    INNER JOIN DBA_ROLE_PRIVS rp ON sp.GRANTEE = rp.GRANTED_ROLE
+                    WHERE rp.GRANTEE = ?
+                    """;
+                
+                adminJdbcTemplate.query(rolePrivSql, (RowCallbackHandler) rs -> fetched.add(
+                    rs.getString("PRIVILEGE"), upperUsername, null, "YES".equals(rs.getString("ADMIN_OPTION")),
+                    "ROLE", rs.getString("GRANTED_ROLE"), null), upperUsername);
+                return fetched.build();
+            });
         } catch (Exception e) {
             // Nếu không có quyền truy cập DBA views, trả về danh sách rỗng
-            System.err.println("Error getting privileges for user " + username + ": " + e.getMessage());
+            log.warn("Error getting privileges for user {}: {}", username, e.getMessage());
+            return PrivilegeTable.EMPTY;
         }
-        
-        return privileges;
     }
     
     public UserProfile getUserProfile(String username) {
@@ -269,6 +410,185 @@ public class UserRepository {
         return null;
     }
     
+    /**
+     * Quota trên default tablespace của từng user (một query cho cả danh sách), "0M" nếu không có dòng quota -
+     * giống getUserQuota nhưng không chạy một query mỗi user.
+     */
+    public Map<String, String> getUserQuotas(List<User> users) {
+        String sql = """
+            SELECT 
+                USERNAME,
+                TABLESPACE_NAME,
+                CASE 
+                    WHEN MAX_BYTES = -1 THEN 'UNLIMITED'
+                    ELSE TO_CHAR(MAX_BYTES / 1024 / 1024) || 'M'
+                END AS QUOTA
+            FROM DBA_TS_QUOTAS
+            WHERE %s
+            """;
+        
+        Map<String, String> defaultTablespaces = new LinkedHashMap<>();
+        for (User user : users) {
+            if (user.getDefaultTablespace() != null) {
+                defaultTablespaces.put(user.getUsername().toUpperCase(), user.getDefaultTablespace());
+            }
+        }
+        Map<String, String> quotas = new LinkedHashMap<>();
+        if (defaultTablespaces.isEmpty()) {
+            return quotas;
+        }
+        defaultTablespaces.keySet().forEach(username -> quotas.put(username, "0M"));
+        
+        queryIn(adminJdbcTemplate, sql, "USERNAME", defaultTablespaces.keySet(), rs -> {
+            String username = rs.getString("USERNAME");
+            if (rs.getString("TABLESPACE_NAME").equals(defaultTablespaces.get(username))) {
+                quotas.put(username, rs.getString("QUOTA"));
+            }
+        });
+        return quotas;
+    }
+    
+    /**
+     * Roles của nhiều user trong một query (mỗi MAX_IN_LIST user); user không có role nào không có trong map.
+     */
+    public Map<String, List<String>> getUserRoles(Collection<String> usernames) {
+        String sql = """
+            SELECT GRANTEE, GRANTED_ROLE
+            FROM DBA_ROLE_PRIVS
+            WHERE %s
+            ORDER BY GRANTEE, GRANTED_ROLE
+            """;
+        
+        List<String> upper = upper(usernames);
+        if (upper.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        return dictionaryQueryGuard.read("UserRepository.getUserRoles[]",
+            cacheKey("UserRepository.getUserRoles[]", upper), () -> {
+                Map<String, List<String>> roles = new LinkedHashMap<>();
+                queryIn(adminJdbcTemplate, sql, "GRANTEE", upper, rs ->
+                    roles.computeIfAbsent(rs.getString("GRANTEE"), g -> new ArrayList<>()).add(rs.getString("GRANTED_ROLE")));
+                return roles;
+            });
+    }
+    
+    /**
+     * System privileges (trực tiếp và qua role) của nhiều user: hai query cho mỗi MAX_IN_LIST user thay vì hai
+     * query mỗi user.
+     */
+    public Map<String, PrivilegeTable> getUserPrivileges(Collection<String> usernames) {
+        String sysPrivSql = """
+            SELECT 
+                PRIVILEGE,
+                GRANTEE,
+                ADMIN_OPTION
+            FROM DBA_SYS_PRIVS
+            WHERE %s
+            """;
+        
+        String rolePrivSql = """
+            SELECT DISTINCT
+                rp.GRANTEE,
+                sp.PRIVILEGE,
+                sp.ADMIN_OPTION,
+                rp.GRANTED_ROLE
+            FROM DBA_SYS_PRIVS sp
+            INNER JOIN DBA_ROLE_PRIVS rp ON sp.GRANTEE = rp.GRANTED_ROLE
+            WHERE %s
+            """;
+        
+        List<String> upper = upper(usernames);
+        if (upper.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        return dictionaryQueryGuard.read("UserRepository.getUserPrivileges[]",
+            cacheKey("UserRepository.getUserPrivileges[]", upper), () -> {
+                Map<String, PrivilegeTable.Builder> fetched = new LinkedHashMap<>();
+                queryIn(adminJdbcTemplate, sysPrivSql, "GRANTEE", upper, rs ->
+                    PrivilegeRepository.addSystemPrivilege(
+                        fetched.computeIfAbsent(rs.getString("GRANTEE"), g -> PrivilegeTable.builder()), rs));
+                queryIn(adminJdbcTemplate, rolePrivSql, "rp.GRANTEE", upper, rs -> {
+                    String grantee = rs.getString("GRANTEE");
+                    fetched.computeIfAbsent(grantee, g -> PrivilegeTable.builder()).add(
+                        rs.getString("PRIVILEGE"), grantee, null, "YES".equals(rs.getString("ADMIN_OPTION")),
+                        "ROLE", rs.getString("GRANTED_ROLE"), null);
+                });
+                
+                Map<String, PrivilegeTable> privileges = new LinkedHashMap<>();
+                fetched.forEach((grantee, table) -> privileges.put(grantee, table.build()));
+                return privileges;
+            });
+    }
+    
+    /**
+     * APP_USER_PROFILE của nhiều user trong một query mỗi MAX_IN_LIST user (VPD vẫn lọc theo user đăng nhập).
+     */
+    public Map<String, UserProfile> getUserProfiles(Collection<String> usernames) {
+        String sql = """
+            SELECT USERNAME, FULL_NAME, EMAIL, PHONE, ADDRESS
+            FROM APP_OWNER.APP_USER_PROFILE
+            WHERE %s
+            """;
+        
+        List<String> upper = upper(usernames);
+        Map<String, UserProfile> profiles = new LinkedHashMap<>();
+        if (upper.isEmpty()) {
+            return profiles;
+        }
+        queryIn(appJdbcTemplate, sql, "USERNAME", upper, rs -> {
+            UserProfile profile = new UserProfile();
+            profile.setUsername(rs.getString("USERNAME"));
+            profile.setFullName(rs.getString("FULL_NAME"));
+            profile.setEmail(rs.getString("EMAIL"));
+            profile.setPhone(rs.getString("PHONE"));
+            profile.setAddress(rs.getString("ADDRESS"));
+            profiles.put(profile.getUsername(), profile);
+        });
+        return profiles;
+    }
+    
+    /**
+     * Chạy sql (với %s là chỗ của điều kiện "column IN (?, ?, ...)") cho từng đoạn tối đa MAX_IN_LIST giá trị:
+     * danh sách vừa một IN-list của Oracle là một câu lệnh, dài hơn thì thêm một câu mỗi MAX_IN_LIST giá trị -
+     * không bao giờ đọc cả view. ORDER BY chỉ có hiệu lực trong từng đoạn.
+     */
+    static void queryIn(JdbcTemplate jdbcTemplate, String sql, String column, Collection<String> values,
+                        RowCallbackHandler handler) {
+        List<String> all = new ArrayList<>(values);
+        for (int from = 0; from < all.size(); from += MAX_IN_LIST) {
+            List<String> chunk = all.subList(from, Math.min(from + MAX_IN_LIST, all.size()));
+            String filter = column + " IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql.formatted(filter), handler, chunk.toArray());
+        }
+    }
+    
+    /**
+     * Key của stale cache / request memo cho một danh sách tên: số tên và SHA-256 của cả danh sách (theo thứ tự),
+     * thay vì nối mọi tên vào key - trang có hàng nghìn user không tạo ra key dài hàng chục KB.
+     */
+    static String cacheKey(String query, Collection<String> values) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String value : values) {
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return query + ":" + values.size() + ":" + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static List<String> upper(Collection<String> usernames) {
+        List<String> upper = new ArrayList<>(usernames.size());
+        for (String username : usernames) {
+            if (username != null) {
+                upper.add(username.toUpperCase());
+            }
+        }
+        return upper;
+    }
+    
     /**
      * Create user using DDL.
      * Oracle enforces CREATE USER privilege - no Spring code checks.
@@ -347,7 +667,7 @@ public class UserRepository {
         adminJdbcTemplate.execute("DROP USER " + username.toUpperCase() + " CASCADE");
     }
     
-    private static class UserRowMapper implements RowMapper<User> {
+    static class UserRowMapper implements RowMapper<User> {
         @Override
         public User mapRow(ResultSet rs, int rowNum) throws SQLException {
             try {
@@ -371,7 +691,7 @@ public class UserRepository {
                 
                 return user;
             } catch (SQLException e) {
-                System.err.println("Error mapping row " + rowNum + ": " + e.getMessage());
+                log.warn("Error mapping row {}: {}", rowNum, e.getMessage());
                 throw e;
             }
         }
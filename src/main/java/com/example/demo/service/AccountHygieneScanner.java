@@ -0,0 +1,353 @@
+package com.example.demo.service;
+
+import com.example.demo.config.OracleJdbcTemplate;
+import com.example.demo.model.AccountHygieneRow;
+import com.example.demo.model.HygieneFinding;
+import com.example.demo.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Quét vệ sinh tài khoản định kỳ: user lâu không đăng nhập, chưa từng đăng nhập, mật khẩu hết hạn,
+ * bị khóa quá lâu hoặc có quá nhiều quyền nguy hiểm. Toàn bộ DBA_USERS (kèm LAST_LOGIN và số quyền nguy hiểm)
+ * được đọc qua một cursor duy nhất với fetch size lớn, mỗi dòng được đánh giá rồi ghi thẳng ra file CSV;
+ * trong bộ nhớ chỉ có số vi phạm theo luật và app.hygiene.sample-size dòng đầu để hiển thị, nên bộ nhớ
+ * không phụ thuộc số user.
+ *
+ * Không lazy kể cả với profile faststart, để @Scheduled được đăng ký ngay.
+ */
+@Service
+@Lazy(false)
+public class AccountHygieneScanner {
+    
+    private static final Logger log = LoggerFactory.getLogger(AccountHygieneScanner.class);
+    
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    
+    private static final String FILE_PREFIX = "hygiene-";
+    
+    public enum Rule {
+        DORMANT,
+        NEVER_LOGGED_IN,
+        EXPIRED_PASSWORD,
+        LONG_LOCKED,
+        OVER_PRIVILEGED
+    }
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Value("${app.hygiene.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.hygiene.rules:DORMANT,NEVER_LOGGED_IN,EXPIRED_PASSWORD,LONG_LOCKED,OVER_PRIVILEGED}")
+    private List<String> ruleNames;
+    
+    @Value("${app.hygiene.dormant-days:90}")
+    private int dormantDays;
+    
+    @Value("${app.hygiene.never-logged-in-days:30}")
+    private int neverLoggedInDays;
+    
+    @Value("${app.hygiene.locked-days:90}")
+    private int lockedDays;
+    
+    @Value("${app.hygiene.powerful-privileges:GRANT ANY PRIVILEGE,GRANT ANY ROLE,ALTER USER,DROP USER,SELECT ANY TABLE,INSERT ANY TABLE,UPDATE ANY TABLE,DELETE ANY TABLE,EXECUTE ANY PROCEDURE,ALTER SYSTEM,CREATE ANY INDEX}")
+    private List<String> powerfulPrivileges;
+    
+    @Value("${app.hygiene.powerful-roles:DBA}")
+    private List<String> powerfulRoles;
+    
+    @Value("${app.hygiene.powerful-grant-threshold:1}")
+    private int powerfulGrantThreshold;
+    
+    // Tài khoản kỹ thuật / quản trị được phép có quyền mạnh hoặc không đăng nhập
+    @Value("${app.hygiene.exempt-users:SEC_ADMIN,APP_OWNER}")
+    private List<String> exemptUsers;
+    
+    @Value("${app.hygiene.fetch-size:1000}")
+    private int fetchSize;
+    
+    // Quét toàn bộ DBA_USERS là việc của job nền nên timeout rộng hơn app.dictionary.query-timeout-seconds
+    @Value("${app.hygiene.query-timeout-seconds:600}")
+    private int queryTimeoutSeconds;
+    
+    @Value("${app.hygiene.report-dir:./data/hygiene-reports}")
+    private String reportDir;
+    
+    @Value("${app.hygiene.keep-reports:14}")
+    private int keepReports;
+    
+    @Value("${app.hygiene.sample-size:200}")
+    private int sampleSize;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    // Cả lần quét theo cron lẫn nút "Quét ngay" chạy ở đây, không chiếm thread của scheduler trong tối đa
+    // query-timeout-seconds
+    private final ExecutorService scans = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "account-hygiene");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private volatile Report report;
+    
+    @Scheduled(cron = "${app.hygiene.cron:0 30 2 * * *}")
+    public void scheduledScan() {
+        if (enabled) {
+            runAsync();
+        }
+    }
+    
+    /**
+     * Chạy một lần quét ở thread account-hygiene (cron và nút "Quét ngay"). false nếu đang có lần quét khác chạy.
+     */
+    public boolean runAsync() {
+        if (running.get()) {
+            return false;
+        }
+        try {
+            scans.execute(this::scan);
+        } catch (RejectedExecutionException e) {
+            // Đang shutdown
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Một lần quét đầy đủ. Lần quét chồng lên lần đang chạy bị bỏ qua.
+     */
+    public void scan() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Account hygiene scan already running, skipped");
+            return;
+        }
+        
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        Path dir = Paths.get(reportDir);
+        Path file = dir.resolve(FILE_PREFIX + FILE_TIMESTAMP.format(startedAt) + ".csv");
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(dir);
+            Evaluator evaluator = new Evaluator(activeRules(), startedAt);
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                out.write("USERNAME,RULE,ACCOUNT_STATUS,DETAIL");
+                out.newLine();
+                OracleJdbcTemplate.withQueryTimeout(queryTimeoutSeconds, () -> {
+                    userRepository.streamAccountHygiene(powerfulPrivileges, powerfulRoles, fetchSize,
+                        row -> evaluator.accept(row, out));
+                    return null;
+                });
+            }
+            // Chỉ file hoàn chỉnh mới xuất hiện dưới tên .csv
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            report = new Report(startedAt, durationMillis, evaluator.scanned, evaluator.counts, evaluator.sample,
+                evaluator.findings, file, null);
+            log.info("Account hygiene scan: {} accounts, {} findings in {} ms -> {}",
+                evaluator.scanned, evaluator.findings, durationMillis, file.toAbsolutePath());
+            pruneReports(dir);
+        } catch (Exception e) {
+            Throwable cause = e instanceof UncheckedIOException ? e.getCause() : e;
+            // Giữ file của lần quét thành công gần nhất để vẫn tải được
+            Path lastFile = report != null ? report.file() : null;
+            report = new Report(startedAt, (System.nanoTime() - start) / 1_000_000, 0, Map.of(), List.of(), 0,
+                lastFile, cause.getMessage());
+            log.warn("Account hygiene scan failed: {}", cause.getMessage());
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // file tạm sẽ bị ghi đè ở lần sau
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private Set<Rule> activeRules() {
+        Set<Rule> rules = EnumSet.noneOf(Rule.class);
+        for (String name : ruleNames) {
+            if (name.isBlank()) {
+                continue;
+            }
+            try {
+                rules.add(Rule.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                log.warn("Unknown account hygiene rule ignored: {}", name);
+            }
+        }
+        return rules;
+    }
+    
+    private void pruneReports(Path dir) throws IOException {
+        List<Path> reports;
+        try (Stream<Path> files = Files.list(dir)) {
+            // Tên file chứa timestamp nên thứ tự tên là thứ tự thời gian
+            reports = files.filter(p -> p.getFileName().toString().startsWith(FILE_PREFIX)
+                    && p.getFileName().toString().endsWith(".csv"))
+                .sorted()
+                .toList();
+        }
+        for (int i = 0; i < reports.size() - Math.max(keepReports, 1); i++) {
+            Files.deleteIfExists(reports.get(i));
+        }
+    }
+    
+    public Report getReport() {
+        return report;
+    }
+    
+    public boolean isRunning() {
+        return running.get();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public Set<Rule> getRules() {
+        return activeRules();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scans.shutdownNow();
+    }
+    
+    /**
+     * Đánh giá từng dòng của cursor. Chỉ được dùng bởi thread đang quét.
+     */
+    private class Evaluator {
+        
+        private final Set<Rule> rules;
+        private final LocalDateTime dormantBefore;
+        private final LocalDateTime neverLoggedInBefore;
+        private final LocalDateTime lockedBefore;
+        private final LocalDateTime now;
+        private final Set<String> exempt = new HashSet<>();
+        private final Map<Rule, Long> counts = new EnumMap<>(Rule.class);
+        private final List<HygieneFinding> sample = new ArrayList<>();
+        private long scanned;
+        private long findings;
+        
+        Evaluator(Set<Rule> rules, LocalDateTime now) {
+            this.rules = rules;
+            this.now = now;
+            this.dormantBefore = now.minusDays(dormantDays);
+            this.neverLoggedInBefore = now.minusDays(neverLoggedInDays);
+            this.lockedBefore = now.minusDays(lockedDays);
+            for (String user : exemptUsers) {
+                if (!user.isBlank()) {
+                    exempt.add(user.trim().toUpperCase(Locale.ROOT));
+                }
+            }
+            for (Rule rule : rules) {
+                counts.put(rule, 0L);
+            }
+        }
+        
+        void accept(AccountHygieneRow row, BufferedWriter out) {
+            scanned++;
+            if (exempt.contains(row.getUsername())) {
+                return;
+            }
+            
+            String status = row.getAccountStatus() != null ? row.getAccountStatus() : "";
+            boolean locked = status.contains("LOCKED");
+            
+            if (rules.contains(Rule.DORMANT) && !locked
+                    && row.getLastLogin() != null && row.getLastLogin().isBefore(dormantBefore)) {
+                report(row, Rule.DORMANT, out, "last login " + row.getLastLogin().toLocalDate()
+                    + " (" + ChronoUnit.DAYS.between(row.getLastLogin(), now) + " days ago)");
+            }
+            if (rules.contains(Rule.NEVER_LOGGED_IN) && !locked && row.getLastLogin() == null
+                    && row.getCreated() != null && row.getCreated().isBefore(neverLoggedInBefore)) {
+                report(row, Rule.NEVER_LOGGED_IN, out, "created " + row.getCreated().toLocalDate() + ", never logged in");
+            }
+            if (rules.contains(Rule.EXPIRED_PASSWORD) && (status.contains("EXPIRED")
+                    || (row.getExpiryDate() != null && row.getExpiryDate().isBefore(now)))) {
+                report(row, Rule.EXPIRED_PASSWORD, out, row.getExpiryDate() != null
+                    ? "password expired " + row.getExpiryDate().toLocalDate() : "password expired");
+            }
+            if (rules.contains(Rule.LONG_LOCKED) && locked
+                    && row.getLockDate() != null && row.getLockDate().isBefore(lockedBefore)) {
+                report(row, Rule.LONG_LOCKED, out, "locked since " + row.getLockDate().toLocalDate()
+                    + " (" + ChronoUnit.DAYS.between(row.getLockDate(), now) + " days)");
+            }
+            if (rules.contains(Rule.OVER_PRIVILEGED) && row.getPowerfulGrants() >= Math.max(powerfulGrantThreshold, 1)) {
+                report(row, Rule.OVER_PRIVILEGED, out, row.getPowerfulGrants() + " powerful grant(s), e.g. "
+                    + row.getSamplePowerfulGrant());
+            }
+        }
+        
+        private void report(AccountHygieneRow row, Rule rule, BufferedWriter out, String detail) {
+            findings++;
+            counts.merge(rule, 1L, Long::sum);
+            HygieneFinding finding = new HygieneFinding(row.getUsername(), rule.name(), row.getAccountStatus(), detail);
+            if (sample.size() < sampleSize) {
+                sample.add(finding);
+            }
+            try {
+                out.write(csv(finding.getUsername()) + ',' + finding.getRule() + ',' + csv(finding.getAccountStatus())
+                    + ',' + csv(finding.getDetail()));
+                out.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
+    /**
+     * Kết quả lần quét gần nhất: số vi phạm theo luật, sample dòng đầu và file CSV đầy đủ.
+     * error != null khi lần quét lỗi (file là của lần thành công trước đó, nếu có).
+     */
+    public record Report(LocalDateTime startedAt, long durationMillis, long scanned, Map<Rule, Long> counts,
+                         List<HygieneFinding> sample, long findings, Path file, String error) {
+    }
+}
+
@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cảnh báo khi số FGA record của một policy (theo từng user, hoặc tổng mọi user khi user = null)
+ * vượt ngưỡng trong cửa sổ thời gian. Cũng được publish như application event.
+ */
+public record AnomalyAlert(String policy, String user, long count, long threshold, long windowSeconds,
+                           LocalDateTime lastEventTime, LocalDateTime detectedAt) {
+}
+
@@ -0,0 +1,179 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AppAuditEvent;
+import com.example.demo.repository.AppAuditLogRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Audit log của ứng dụng: ai đã login, ai đã bấm grant / lock / drop... và kết quả.
+ *
+ * record() chỉ đặt event vào một ring buffer không dùng lock (nhiều request thread ghi, một thread đọc);
+ * thread nền gom event và ghi vào APP_OWNER.APP_AUDIT_LOG bằng JDBC batch insert. Request không phải chờ
+ * round-trip tới Oracle. Khi buffer đầy (DB chậm hoặc lỗi lâu), event mới bị bỏ và được đếm trong droppedCount.
+ */
+@Service
+public class AppAuditLog {
+    
+    private static final Logger log = LoggerFactory.getLogger(AppAuditLog.class);
+    
+    @Autowired
+    private AppAuditLogRepository appAuditLogRepository;
+    
+    @Value("${app.audit.app-log.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.audit.app-log.buffer-size:8192}")
+    private int bufferSize;
+    
+    @Value("${app.audit.app-log.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${app.audit.app-log.flush-interval-ms:500}")
+    private long flushIntervalMillis;
+    
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "app-audit-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final AtomicLong dropped = new AtomicLong();
+    
+    private RingBuffer buffer;
+    
+    @PostConstruct
+    void start() {
+        buffer = new RingBuffer(bufferSize);
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Ghi một thao tác. startedNanos = System.nanoTime() lúc bắt đầu thao tác.
+     */
+    public void record(String actor, String action, String target, boolean success, String detail,
+                       long startedNanos, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        
+        AppAuditEvent event = new AppAuditEvent(LocalDateTime.now(), actor, action, target, success, detail,
+            (System.nanoTime() - startedNanos) / 1_000, clientIp);
+        if (!buffer.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+    
+    private void flush() {
+        List<AppAuditEvent> batch = new ArrayList<>(batchSize);
+        AppAuditEvent event;
+        while ((event = buffer.poll()) != null) {
+            batch.add(event);
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+        
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            log.warn("App audit log buffer full, dropped {} events", lost);
+        }
+    }
+    
+    private void write(List<AppAuditEvent> batch) {
+        try {
+            appAuditLogRepository.insertBatch(batch);
+        } catch (Exception e) {
+            log.warn("Error writing {} app audit events: {}", batch.size(), e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Ghi nốt các event còn trong buffer
+        flush();
+    }
+    
+    /**
+     * Ring buffer có giới hạn, nhiều producer / một consumer (thuật toán của D. Vyukov):
+     * mỗi ô có sequence cho biết ô đang trống cho vị trí nào hoặc đã có dữ liệu của vị trí nào,
+     * producer giành vị trí bằng CAS trên tail.
+     */
+    static final class RingBuffer {
+        
+        private final int mask;
+        private final AtomicReferenceArray<AppAuditEvent> slots;
+        private final AtomicLongArray sequences;
+        private final AtomicLong tail = new AtomicLong();
+        private long head; // chỉ thread flush đọc / ghi
+        
+        RingBuffer(int requestedCapacity) {
+            int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+            this.mask = capacity - 1;
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.sequences = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+        
+        boolean offer(AppAuditEvent event) {
+            long position = tail.get();
+            while (true) {
+                int index = (int) (position & mask);
+                long diff = sequences.get(index) - position;
+                if (diff == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        slots.set(index, event);
+                        sequences.set(index, position + 1);
+                        return true;
+                    }
+                    position = tail.get();
+                } else if (diff < 0) {
+                    // Ô chưa được consumer giải phóng: buffer đầy
+                    return false;
+                } else {
+                    position = tail.get();
+                }
+            }
+        }
+        
+        AppAuditEvent poll() {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                return null;
+            }
+            AppAuditEvent event = slots.get(index);
+            slots.set(index, null);
+            sequences.set(index, head + mask + 1);
+            head++;
+            return event;
+        }
+    }
+}
+
@@ -0,0 +1,14 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AuditRecord;
+
+import java.util.List;
+
+/**
+ * Phát ra sau mỗi batch record mới mà AuditTailService đọc được (thứ tự tăng dần theo thời gian).
+ * Listener nhận mỗi record ít nhất một lần: watermark chỉ được lưu sau khi publish, và không vượt quá phần
+ * AuditArchive đã ghi ra đĩa (AuditArchive.durableWatermark).
+ */
+public record AuditRecordsEvent(String source, List<AuditRecord> records) {
+}
+
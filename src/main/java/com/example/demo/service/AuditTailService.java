@@ -0,0 +1,235 @@
+package com.example.demo.service;
+
+import com.example.demo.archive.AuditArchive;
+import com.example.demo.model.AuditCursor;
+import com.example.demo.model.AuditRecord;
+import com.example.demo.repository.AuditRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tail UNIFIED_AUDIT_TRAIL và DBA_FGA_AUDIT_TRAIL từ high-watermark đã lưu trong APP_OWNER.AUDIT_WATERMARK.
+ * Mỗi lần poll chỉ đọc record mới hơn watermark (keyset, tối đa batch-size dòng mỗi query),
+ * giữ một buffer các record gần nhất cho chế độ "follow" của trang audit, và publish AuditRecordsEvent
+ * cho các consumer khác.
+ *
+ * Audit ở queued mode ghi record vào UNIFIED_AUDIT_TRAIL trễ: một record có thể xuất hiện sau khi watermark
+ * đã vượt qua thời điểm của nó. Mỗi lần poll vì vậy đọc lại overlap-seconds phía sau watermark và bỏ các
+ * record đã thấy (theo thời điểm, session id, entry id).
+ *
+ * Không lazy kể cả với profile faststart (spring.main.lazy-initialization), để @Scheduled vẫn được đăng ký.
+ */
+@Service
+@Lazy(false)
+public class AuditTailService {
+    
+    private static final Logger log = LoggerFactory.getLogger(AuditTailService.class);
+    
+    @Autowired
+    private AuditRepository auditRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private AuditArchive auditArchive;
+    
+    @Value("${app.audit.tail.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.audit.tail.sources:UNIFIED,FGA}")
+    private List<String> sources;
+    
+    @Value("${app.audit.tail.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.audit.tail.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+    
+    @Value("${app.audit.tail.initial-lookback-hours:24}")
+    private long initialLookbackHours;
+    
+    @Value("${app.audit.tail.recent-buffer-size:2000}")
+    private int recentBufferSize;
+    
+    @Value("${app.audit.tail.overlap-seconds:5}")
+    private long overlapSeconds;
+    
+    private final Map<String, AuditCursor> watermarks = new ConcurrentHashMap<>();
+    
+    // Watermark đã lưu trong AUDIT_WATERMARK, có thể chậm hơn watermarks khi archive còn record chưa ghi
+    private final Map<String, AuditCursor> saved = new ConcurrentHashMap<>();
+    
+    // Khóa của các record trong cửa sổ overlap đã publish, theo source; chỉ thread poll truy cập
+    private final Map<String, Set<AuditCursor>> seen = new ConcurrentHashMap<>();
+    
+    // Record mới nhất ở cuối; truy cập trong synchronized (recent)
+    private final Deque<AuditRecord> recent = new ArrayDeque<>();
+    
+    private volatile LocalDateTime lastPollAt;
+    
+    @Scheduled(fixedDelayString = "${app.audit.tail.poll-interval-ms:10000}",
+               initialDelayString = "${app.audit.tail.initial-delay-ms:15000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        
+        for (String source : sources) {
+            try {
+                pollSource(source.trim());
+            } catch (Exception e) {
+                log.warn("Audit tail failed for {}: {}", source, e.getMessage());
+            }
+        }
+        lastPollAt = LocalDateTime.now();
+    }
+    
+    private void pollSource(String source) {
+        AuditCursor watermark = watermarks.get(source);
+        // Lần poll đầu sau khi khởi động chưa có khóa nào để bỏ trùng: đọc đúng từ watermark đã lưu
+        boolean overlap = watermark != null && overlapSeconds > 0;
+        if (watermark == null) {
+            watermark = auditRepository.loadWatermark(source);
+            if (watermark != null) {
+                saved.put(source, watermark);
+            }
+        }
+        if (watermark == null) {
+            // Lần đầu: không đọc lại toàn bộ lịch sử, chỉ từ initial-lookback-hours trước
+            watermark = new AuditCursor(LocalDateTime.now(ZoneOffset.UTC).minusHours(initialLookbackHours), -1, -1);
+        }
+        
+        Set<AuditCursor> seenKeys = seen.computeIfAbsent(source, s -> new HashSet<>());
+        AuditCursor cursor = overlap
+            ? new AuditCursor(watermark.eventTimeUtc().minusSeconds(overlapSeconds), -1, -1)
+            : watermark;
+        
+        for (int i = 0; i < maxBatchesPerPoll; i++) {
+            List<AuditRecord> batch = auditRepository.fetchAfter(source, cursor, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            
+            List<AuditRecord> fresh = new ArrayList<>();
+            for (AuditRecord record : batch) {
+                if (seenKeys.add(cursorOf(record))) {
+                    fresh.add(record);
+                }
+            }
+            cursor = cursorOf(batch.get(batch.size() - 1));
+            if (watermark.isBefore(cursor)) {
+                watermark = cursor;
+            }
+            
+            if (!fresh.isEmpty()) {
+                remember(fresh);
+                eventPublisher.publishEvent(new AuditRecordsEvent(source, fresh));
+            }
+            watermarks.put(source, watermark);
+            persist(source, watermark);
+            
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        watermarks.putIfAbsent(source, watermark);
+        
+        // Chỉ cần nhớ khóa của các record mà lần poll sau còn đọc lại
+        LocalDateTime horizon = watermark.eventTimeUtc().minusSeconds(overlapSeconds);
+        seenKeys.removeIf(key -> key.eventTimeUtc().isBefore(horizon));
+        
+        if (saved.containsKey(source)) {
+            // Archive có thể đã flush từ lần poll trước
+            persist(source, watermark);
+        }
+    }
+    
+    /**
+     * Lưu watermark không vượt quá phần AuditArchive đã ghi thành segment: record còn trong bộ nhớ của archive
+     * được đọc lại sau khi khởi động lại (archive bỏ phần trùng), thay vì mất.
+     */
+    private void persist(String source, AuditCursor watermark) {
+        AuditCursor durable = auditArchive.durableWatermark(source, watermark);
+        if (durable != null && !durable.equals(saved.get(source))) {
+            auditRepository.saveWatermark(source, durable);
+            saved.put(source, durable);
+        }
+    }
+    
+    private static AuditCursor cursorOf(AuditRecord record) {
+        return new AuditCursor(record.getEventTimeUtc(), record.getSessionId(), record.getEntryId());
+    }
+    
+    private void remember(List<AuditRecord> batch) {
+        synchronized (recent) {
+            for (AuditRecord record : batch) {
+                recent.addLast(record);
+                if (recent.size() > recentBufferSize) {
+                    recent.removeFirst();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Record mới hơn cursor lấy từ buffer trong bộ nhớ, mới nhất trước.
+     * Trang audit ở chế độ follow gọi hàm này thay vì query Oracle, nên số browser đang mở không ảnh hưởng tới DB.
+     */
+    public List<AuditRecord> recentAfter(String source, AuditCursor after, AuditRepository.Filter filter, int limit) {
+        List<AuditRecord> result = new ArrayList<>();
+        synchronized (recent) {
+            Iterator<AuditRecord> it = recent.descendingIterator();
+            while (it.hasNext() && result.size() < limit) {
+                AuditRecord record = it.next();
+                if (!record.getSource().equals(source) || !matches(record, filter)) {
+                    continue;
+                }
+                AuditCursor cursor = cursorOf(record);
+                if (after != null && !after.isBefore(cursor)) {
+                    continue;
+                }
+                result.add(record);
+            }
+        }
+        return result;
+    }
+    
+    private boolean matches(AuditRecord record, AuditRepository.Filter filter) {
+        if (filter.user() != null && !filter.user().equalsIgnoreCase(record.getDbUser())) {
+            return false;
+        }
+        if (filter.action() != null && !filter.action().equalsIgnoreCase(record.getAction())) {
+            return false;
+        }
+        return filter.policy() == null
+            || (record.getPolicyName() != null && record.getPolicyName().toUpperCase().contains(filter.policy().toUpperCase()));
+    }
+    
+    public AuditCursor getWatermark(String source) {
+        return watermarks.get(source);
+    }
+    
+    public LocalDateTime getLastPollAt() {
+        return lastPollAt;
+    }
+}
+
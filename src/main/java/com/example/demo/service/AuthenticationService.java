@@ -1,9 +1,13 @@
 package com.example.demo.service;
 
+import com.example.demo.metrics.LoginEvent;
+import com.example.demo.metrics.PasswordHashEvent;
 import com.example.demo.model.AppLoginUser;
 import com.example.demo.model.User;
 import com.example.demo.repository.AppLoginUserRepository;
 import com.example.demo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -11,9 +15,16 @@ import org.springframework.stereotype.Service;
 
 import jakarta.servlet.http.HttpSession;
 
+import java.util.List;
+
 @Service
 public class AuthenticationService {
     
+    private static final Logger log = LoggerFactory.getLogger(AuthenticationService.class);
+    
+    // Có một trong các quyền này thì được coi là admin (menu, trang metrics / audit)
+    public static final List<String> ADMIN_PRIVILEGES = List.of("CREATE USER", "ALTER USER", "CREATE ROLE", "CREATE PROFILE");
+    
     @Autowired
     private AppLoginUserRepository appLoginUserRepository;
     
@@ -22,6 +33,9 @@ public class AuthenticationService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private AppAuditLog appAuditLog;
+    
     /**
      * Login using application-level authentication with BCrypt password hashing.
      * Oracle username is stored in APP_LOGIN_USER table.
@@ -29,10 +43,33 @@ public class AuthenticationService {
      * Auto-sync: If user exists in Oracle but not in APP_LOGIN_USER,
      * automatically add to APP_LOGIN_USER with the provided password.
      * Oracle enforces security (VPD, privileges) when user queries data.
+     *
+     * Every attempt (success or failure) is written to the application audit log.
      */
-    public boolean login(String username, String password, HttpSession session) {
+    public boolean login(String username, String password, HttpSession session, String clientIp) {
+        LoginEvent event = new LoginEvent();
+        event.begin();
+        long started = System.nanoTime();
+        String failure = authenticate(username, password, session);
+        String actor = username == null ? null : username.trim().toUpperCase();
+        appAuditLog.record(actor, "LOGIN", null, failure == null, failure, started, clientIp);
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.user = actor;
+            event.succeeded = failure == null;
+            event.failure = failure;
+            event.commit();
+        }
+        return failure == null;
+    }
+    
+    /**
+     * @return null on success, otherwise the failure reason (for the audit log, not shown to the user)
+     */
+    private String authenticate(String username, String password, HttpSession session) {
         if (username == null || password == null || username.isEmpty() || password.isEmpty()) {
-            return false;
+            return "Missing username or password";
         }
         
         // Trim username to remove any trailing spaces
@@ -43,35 +80,35 @@ public class AuthenticationService {
         
         // Auto-sync: If user not in APP_LOGIN_USER but exists in Oracle, add it
         if (appUser == null) {
-            System.out.println("User not found in APP_LOGIN_USER: " + username + ". Checking Oracle...");
+            log.info("User not found in APP_LOGIN_USER: {}. Checking Oracle...", username);
             
             // Check if user exists in Oracle
             try {
                 User oracleUser = userRepository.getUserInfo(username);
                 if (oracleUser != null) {
-                    System.out.println("User " + username + " exists in Oracle. Auto-adding to APP_LOGIN_USER...");
+                    log.info("User {} exists in Oracle. Auto-adding to APP_LOGIN_USER...", username);
                     
                     // Hash password and add to APP_LOGIN_USER
-                    String passwordHash = passwordEncoder.encode(password);
+                    String passwordHash = encodePassword(password);
                     AppLoginUser newAppUser = new AppLoginUser(username.toUpperCase(), passwordHash);
                     appLoginUserRepository.save(newAppUser);
                     
-                    System.out.println("Successfully auto-added " + username + " to APP_LOGIN_USER");
+                    log.info("Successfully auto-added {} to APP_LOGIN_USER", username);
                     appUser = newAppUser;
                 } else {
-                    System.err.println("User " + username + " not found in Oracle either");
-                    return false;
+                    log.warn("User {} not found in Oracle either", username);
+                    return "Unknown user";
                 }
             } catch (Exception e) {
-                System.err.println("Error checking Oracle for user " + username + ": " + e.getMessage());
-                return false;
+                log.warn("Error checking Oracle for user {}: {}", username, e.getMessage());
+                return "Error checking Oracle user: " + e.getMessage();
             }
         }
         
         // Verify password using BCrypt
-        if (!passwordEncoder.matches(password, appUser.getPasswordHash())) {
-            System.err.println("Password mismatch for user: " + username);
-            return false;
+        if (!matchesPassword(password, appUser.getPasswordHash())) {
+            log.warn("Password mismatch for user: {}", username);
+            return "Password mismatch";
         }
         
         // Login successful - store Oracle username in session
@@ -79,7 +116,7 @@ public class AuthenticationService {
         // IMPORTANT: Trim to remove any trailing spaces!
         session.setAttribute("username", username.trim().toUpperCase());
         
-        return true;
+        return null;
     }
     
     public void logout(HttpSession session) {
@@ -103,7 +140,27 @@ public class AuthenticationService {
      * Used when creating new users in admin UI.
      */
     public String encodePassword(String rawPassword) {
-        return passwordEncoder.encode(rawPassword);
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        String hash = passwordEncoder.encode(rawPassword);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "encode";
+            event.commit();
+        }
+        return hash;
+    }
+    
+    private boolean matchesPassword(String rawPassword, String passwordHash) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        boolean matches = passwordEncoder.matches(rawPassword, passwordHash);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "matches";
+            event.commit();
+        }
+        return matches;
     }
     
     /**
@@ -118,11 +175,8 @@ public class AuthenticationService {
         // Trim username to remove any trailing spaces
         username = username.trim();
         
-        // Check for common admin privileges - Oracle decides
-        return privilegeService.hasPrivilege(username, "CREATE USER") ||
-               privilegeService.hasPrivilege(username, "ALTER USER") ||
-               privilegeService.hasPrivilege(username, "CREATE ROLE") ||
-               privilegeService.hasPrivilege(username, "CREATE PROFILE");
+        // Check for common admin privileges - Oracle decides (one batched lookup)
+        return !privilegeService.grantedPrivileges(username, ADMIN_PRIVILEGES).isEmpty();
     }
 }
 
@@ -0,0 +1,24 @@
+package com.example.demo.service;
+
+/**
+ * Phát ra sau khi ứng dụng chạy thành công một lệnh DDL thay đổi catalog bảo mật
+ * (CREATE/ALTER/DROP USER, ROLE, PROFILE, GRANT/REVOKE).
+ *
+ * @param entity     USER, ROLE, PROFILE hoặc PRIVILEGE
+ * @param action     CREATE, UPDATE, LOCK, UNLOCK, DROP, GRANT, REVOKE
+ * @param name       tên user/role/profile, hoặc tên privilege/role được grant
+ * @param grantee    người nhận quyền (chỉ với PRIVILEGE)
+ * @param objectName table/column (chỉ với object/column privilege)
+ */
+public record CatalogChangedEvent(String entity, String action, String name, String grantee, String objectName) {
+    
+    public static CatalogChangedEvent of(String entity, String action, String name) {
+        return new CatalogChangedEvent(entity, action, name != null ? name.toUpperCase() : null, null, null);
+    }
+    
+    public static CatalogChangedEvent privilege(String action, String privilege, String grantee, String objectName) {
+        return new CatalogChangedEvent("PRIVILEGE", action, privilege,
+            grantee != null ? grantee.toUpperCase() : null, objectName);
+    }
+}
+
@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Báo cho các trang danh sách đang mở qua server-sent events rằng catalog đã đổi (CatalogChangedEvent).
+ * Mọi user đã đăng nhập cùng nhận một kênh, nên event chỉ mang loại entity, các bảng bị ảnh hưởng và catalog
+ * version, không mang tên user / role / grantee: trang của bảng bị ảnh hưởng hỏi lại fragment rows với
+ * since = version nó đang có, và server trả các dòng đã đổi bằng session của người xem (Oracle quyết định
+ * họ thấy gì). Trang của bảng khác bỏ qua event.
+ *
+ * Việc gửi chạy trên một thread riêng để DDL request không phải chờ các browser chậm.
+ */
+@Service
+public class CatalogEventBroadcaster {
+    
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    
+    private final ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "catalog-sse");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
+    @Value("${app.catalog.sse-timeout-ms:1800000}")
+    private long timeoutMillis;
+    
+    @Value("${app.catalog.sse-heartbeat-seconds:25}")
+    private long heartbeatSeconds;
+    
+    @PostConstruct
+    void startHeartbeat() {
+        // Comment line giữ connection qua proxy và phát hiện browser đã đóng tab
+        sender.scheduleAtFixedRate(() -> send(SseEmitter.event().comment("ping").build()),
+            heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+    
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        return emitter;
+    }
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        
+        Map<String, Object> data = Map.of(
+            "entity", event.entity(),
+            "tables", CatalogVersion.tablesAffectedBy(event),
+            "version", catalogVersion.current());
+        
+        // build() một lần, dùng chung cho mọi emitter
+        Set<ResponseBodyEmitter.DataWithMediaType> message = SseEmitter.event()
+            .name("catalog")
+            .id(String.valueOf(catalogVersion.current()))
+            .data(data, MediaType.APPLICATION_JSON)
+            .build();
+        sender.execute(() -> send(message));
+    }
+    
+    private void send(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(message);
+            } catch (IOException | IllegalStateException e) {
+                // Browser đã đóng connection
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+}
+
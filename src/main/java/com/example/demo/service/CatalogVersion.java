@@ -0,0 +1,222 @@
+package com.example.demo.service;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.ui.Model;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bộ đếm phiên bản catalog (users, roles, profiles, privileges).
+ * Tăng mỗi khi ứng dụng chạy DDL, dùng làm ETag cho các trang danh sách để trả 304
+ * khi không có gì thay đổi - không query Oracle, không render template.
+ *
+ * DDL chạy ngoài ứng dụng (sqlplus...) không tăng version, nên ETag còn gắn với
+ * một khoảng thời gian (app.catalog.etag-max-age-seconds) để tự làm mới sau đó.
+ *
+ * Các thay đổi gần đây được giữ lại (app.catalog.change-log-size) để fragment rows của mỗi trang chỉ
+ * render lại các dòng đã đổi kể từ version mà browser đang có (changedKeys).
+ */
+@Service
+public class CatalogVersion {
+    
+    /**
+     * Các bảng có live update (tbody[data-live] và fragment /{table}/rows).
+     */
+    public static final List<String> TABLES = List.of("users", "roles", "profiles", "privileges");
+    
+    /**
+     * Version mà fragment rows phản ánh - browser gửi lại làm tham số since ở lần tải sau.
+     */
+    public static final String VERSION_HEADER = "X-Catalog-Version";
+    
+    /**
+     * Khóa (data-key) của các dòng đã đổi, khi fragment chỉ chứa các dòng đó. Dòng có khóa trong danh sách
+     * nhưng không có trong fragment là dòng đã bị xóa. Không có header: fragment là cả bảng.
+     */
+    public static final String CHANGED_HEADER = "X-Catalog-Changed";
+    
+    // Khác nhau giữa các lần khởi động để ETag cũ không khớp sau restart
+    private final long epoch = System.currentTimeMillis();
+    
+    // Bắt đầu từ epoch: version của lần khởi động sau luôn lớn hơn, since cũ không bị hiểu nhầm
+    private final AtomicLong version = new AtomicLong(epoch);
+    
+    private final Deque<Change> changes = new ArrayDeque<>();
+    
+    @Value("${app.catalog.etag-max-age-seconds:60}")
+    private long etagMaxAgeSeconds;
+    
+    @Value("${app.catalog.change-log-size:256}")
+    private int changeLogSize;
+    
+    @Value("${app.catalog.max-changed-rows:50}")
+    private int maxChangedRows;
+    
+    private record Change(long version, CatalogChangedEvent event) {
+    }
+    
+    // Chạy trước các listener khác (vd. CatalogEventBroadcaster) để chúng đọc được version mới
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        synchronized (changes) {
+            changes.addLast(new Change(version.incrementAndGet(), event));
+            while (changes.size() > changeLogSize) {
+                changes.removeFirst();
+            }
+        }
+    }
+    
+    public long current() {
+        return version.get();
+    }
+    
+    /**
+     * Các bảng mà event làm đổi ít nhất một dòng - trang của bảng khác không cần tải lại.
+     */
+    public static List<String> tablesAffectedBy(CatalogChangedEvent event) {
+        List<String> tables = new ArrayList<>();
+        for (String table : TABLES) {
+            Set<String> keys = affectedKeys(table, event);
+            if (keys == null || !keys.isEmpty()) {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+    
+    /**
+     * Khóa các dòng của table đã đổi sau version since.
+     *
+     * @return null nếu phải tải lại cả bảng: log không còn tới since (hoặc since từ lần khởi động trước),
+     *         có thay đổi không xác định được dòng (vd. DROP ROLE đổi cột Roles của mọi user), hoặc quá
+     *         app.catalog.max-changed-rows dòng
+     */
+    public Set<String> changedKeys(String table, long since) {
+        Set<String> keys = new LinkedHashSet<>();
+        synchronized (changes) {
+            if (since < epoch || since > version.get()
+                    || (!changes.isEmpty() && changes.peekFirst().version() > since + 1)
+                    || (changes.isEmpty() && version.get() > since)) {
+                return null;
+            }
+            for (Change change : changes) {
+                if (change.version() <= since) {
+                    continue;
+                }
+                Set<String> affected = affectedKeys(table, change.event());
+                if (affected == null) {
+                    return null;
+                }
+                keys.addAll(affected);
+            }
+        }
+        return keys.size() <= maxChangedRows ? keys : null;
+    }
+    
+    /**
+     * Ghi VERSION_HEADER, và CHANGED_HEADER khi changedKeys khác null (khóa được URL-encode, cách nhau bởi dấu phẩy).
+     */
+    public static void writeRowHeaders(HttpServletResponse response, long version, Collection<String> changedKeys) {
+        response.setHeader(VERSION_HEADER, String.valueOf(version));
+        if (changedKeys != null) {
+            List<String> encoded = new ArrayList<>();
+            for (String key : changedKeys) {
+                encoded.add(URLEncoder.encode(key, StandardCharsets.UTF_8).replace("+", "%20"));
+            }
+            response.setHeader(CHANGED_HEADER, String.join(",", encoded));
+        }
+    }
+    
+    // Khóa các dòng của table mà event làm đổi; rỗng nếu không liên quan, null nếu không xác định được
+    private static Set<String> affectedKeys(String table, CatalogChangedEvent event) {
+        boolean drop = "DROP".equals(event.action());
+        Set<String> keys = new LinkedHashSet<>();
+        switch (table) {
+            case "users" -> {
+                // Cột Roles / Profile của user: DROP ROLE / DROP PROFILE đổi các user không biết trước
+                if ((event.entity().equals("ROLE") || event.entity().equals("PROFILE")) && drop) {
+                    return null;
+                }
+                addKey(keys, event.entity().equals("USER") ? event.name() : null);
+                addKey(keys, event.entity().equals("PRIVILEGE") ? event.grantee() : null);
+            }
+            case "roles" -> {
+                // Cột Assigned Users: DROP USER bỏ user khỏi mọi role của nó
+                if (event.entity().equals("USER") && drop) {
+                    return null;
+                }
+                addKey(keys, event.entity().equals("ROLE") ? event.name() : null);
+                if (event.entity().equals("PRIVILEGE")) {
+                    // Grant cho role (cột Privileges), hoặc grant role cho user (cột Assigned Users)
+                    addKey(keys, event.grantee());
+                    addKey(keys, event.name());
+                }
+            }
+            case "profiles" -> {
+                // Cột Assigned Users: không biết profile cũ của user
+                if (event.entity().equals("USER") && !event.action().equals("LOCK") && !event.action().equals("UNLOCK")) {
+                    return null;
+                }
+                addKey(keys, event.entity().equals("PROFILE") ? event.name() : null);
+            }
+            case "privileges" -> {
+                // DROP ROLE thu hồi role đó khỏi mọi grantee
+                if (event.entity().equals("ROLE") && drop) {
+                    return null;
+                }
+                addKey(keys, event.entity().equals("PRIVILEGE") ? event.grantee() : null);
+                addKey(keys, event.entity().equals("USER") && drop ? event.name() : null);
+            }
+            default -> throw new IllegalArgumentException("Unknown catalog table: " + table);
+        }
+        return keys;
+    }
+    
+    private static void addKey(Set<String> keys, String key) {
+        if (key != null) {
+            keys.add(key);
+        }
+    }
+    
+    /**
+     * Kiểm tra If-None-Match cho một trang danh sách.
+     * ETag phụ thuộc user đang login vì Oracle quyết định user thấy gì và có nút admin hay không.
+     * Không trả 304 khi có flash message (success/error) cần hiển thị sau redirect.
+     * Nếu sau đó trang được render từ dữ liệu cũ của stale cache, StaleDataInterceptor đổi response sang
+     * no-store để ETag này không được dùng lại.
+     *
+     * Model nhận catalogVersion (version trước khi đọc dữ liệu) cho tbody[data-version] của trang.
+     *
+     * @return true nếu client đã có bản mới nhất - handler trả về null, response là 304
+     */
+    public boolean checkNotModified(ServletWebRequest request, Model model, String page, String currentUser) {
+        model.addAttribute("catalogVersion", version.get());
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader("Cache-Control", "private, no-cache");
+        }
+        if (model.containsAttribute("success") || model.containsAttribute("error")) {
+            return false;
+        }
+        long bucket = etagMaxAgeSeconds > 0 ? System.currentTimeMillis() / (etagMaxAgeSeconds * 1000) : 0;
+        String etag = "W/\"" + page + "-" + Long.toHexString(epoch) + "-" + version.get() + "-"
+            + Integer.toHexString(String.valueOf(currentUser).hashCode()) + "-" + bucket + "\"";
+        return request.checkNotModified(etag);
+    }
+}
+
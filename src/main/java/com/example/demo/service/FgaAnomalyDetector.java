@@ -0,0 +1,238 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AuditRecord;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Phát hiện truy cập bất thường từ FGA record (FGA_AUDIT_CONTACT, FGA_AUDIT_AFTER_HOURS...) ngay khi
+ * AuditTailService đọc được, bằng counter cửa sổ trượt trong bộ nhớ thay vì GROUP BY lặp lại trên audit trail.
+ *
+ * Mỗi rule có dạng POLICY:ngưỡng:cửa-sổ-giây[:user|all], ví dụ FGA_AUDIT_CONTACT:100:300 =
+ * cảnh báo khi một user có hơn 100 lần đọc EMAIL/PHONE trong 5 phút. Counter đếm theo thời điểm của record
+ * (không phải lúc poll), nên record đọc trễ vẫn rơi vào đúng cửa sổ.
+ *
+ * Không lazy kể cả với profile faststart, để listener được đăng ký ngay.
+ */
+@Service
+@Lazy(false)
+public class FgaAnomalyDetector {
+    
+    private static final Logger log = LoggerFactory.getLogger(FgaAnomalyDetector.class);
+    
+    private static final int BUCKETS = 60;
+    private static final String ALL_USERS = "*";
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.audit.anomaly.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.audit.anomaly.sources:FGA}")
+    private List<String> sources;
+    
+    @Value("${app.audit.anomaly.rules:FGA_AUDIT_CONTACT:100:300,FGA_AUDIT_AFTER_HOURS:5:60}")
+    private List<String> ruleSpecs;
+    
+    @Value("${app.audit.anomaly.recent-alerts:200}")
+    private int recentAlertsSize;
+    
+    private final Map<String, List<Rule>> rulesByPolicy = new ConcurrentHashMap<>();
+    
+    // Key: rule + user (hoặc ALL_USERS)
+    private final Map<String, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+    
+    // Cảnh báo mới nhất ở cuối; truy cập trong synchronized (alerts)
+    private final Deque<AnomalyAlert> alerts = new ArrayDeque<>();
+    
+    /**
+     * perUser = false: đếm tổng mọi user của policy.
+     */
+    record Rule(String policy, long threshold, long windowSeconds, boolean perUser) {
+        
+        static Rule parse(String spec) {
+            String[] parts = spec.trim().split(":");
+            if (parts.length < 3 || parts.length > 4) {
+                throw new IllegalArgumentException("Invalid anomaly rule (POLICY:threshold:seconds[:user|all]): " + spec);
+            }
+            boolean perUser = parts.length == 3 || !"all".equalsIgnoreCase(parts[3]);
+            return new Rule(parts[0].toUpperCase(), Long.parseLong(parts[1]), Long.parseLong(parts[2]), perUser);
+        }
+        
+        String key(String user) {
+            return policy + ":" + threshold + ":" + windowSeconds + "|" + (perUser ? user : ALL_USERS);
+        }
+    }
+    
+    @PostConstruct
+    void loadRules() {
+        for (String spec : ruleSpecs) {
+            if (!spec.isBlank()) {
+                Rule rule = Rule.parse(spec);
+                rulesByPolicy.computeIfAbsent(rule.policy(), p -> new ArrayList<>()).add(rule);
+            }
+        }
+    }
+    
+    @EventListener
+    public void onAuditRecords(AuditRecordsEvent event) {
+        if (!enabled || !sources.contains(event.source())) {
+            return;
+        }
+        
+        for (AuditRecord record : event.records()) {
+            if (record.getPolicyName() == null) {
+                continue;
+            }
+            List<Rule> rules = rulesByPolicy.get(record.getPolicyName().toUpperCase());
+            if (rules == null) {
+                continue;
+            }
+            
+            long eventMillis = record.getEventTimeUtc().toInstant(ZoneOffset.UTC).toEpochMilli();
+            String user = record.getDbUser() == null ? "?" : record.getDbUser();
+            for (Rule rule : rules) {
+                SlidingWindowCounter counter = counters.computeIfAbsent(rule.key(user),
+                    k -> new SlidingWindowCounter(rule.windowSeconds() * 1000));
+                long count = counter.add(eventMillis);
+                if (count > rule.threshold() && counter.claimAlert(eventMillis)) {
+                    raise(new AnomalyAlert(rule.policy(), rule.perUser() ? user : null, count, rule.threshold(),
+                        rule.windowSeconds(), toLocal(record.getEventTimeUtc()), LocalDateTime.now()));
+                }
+            }
+        }
+    }
+    
+    private void raise(AnomalyAlert alert) {
+        log.warn("FGA ALERT: {}{} - {} events in {}s (threshold {})", alert.policy(),
+            alert.user() != null ? " by " + alert.user() : "", alert.count(), alert.windowSeconds(), alert.threshold());
+        synchronized (alerts) {
+            alerts.addLast(alert);
+            if (alerts.size() > recentAlertsSize) {
+                alerts.removeFirst();
+            }
+        }
+        eventPublisher.publishEvent(alert);
+    }
+    
+    /**
+     * Bỏ counter của user không còn hoạt động, để map không lớn dần theo số user từng xuất hiện.
+     */
+    @Scheduled(fixedDelayString = "${app.audit.anomaly.cleanup-interval-ms:60000}")
+    public void evictIdleCounters() {
+        long now = System.currentTimeMillis();
+        counters.values().removeIf(counter -> counter.isIdle(now));
+    }
+    
+    /**
+     * Cảnh báo gần nhất, mới nhất trước.
+     */
+    public List<AnomalyAlert> recentAlerts(int limit) {
+        List<AnomalyAlert> result = new ArrayList<>();
+        synchronized (alerts) {
+            Iterator<AnomalyAlert> it = alerts.descendingIterator();
+            while (it.hasNext() && result.size() < limit) {
+                result.add(it.next());
+            }
+        }
+        return result;
+    }
+    
+    private LocalDateTime toLocal(LocalDateTime utc) {
+        return utc.atZone(ZoneOffset.UTC).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+    
+    /**
+     * Counter cửa sổ trượt gồm BUCKETS bucket, không dùng lock.
+     * Mỗi bucket là một long: 40 bit cao là số thứ tự bucket (thời điểm / độ dài bucket), 24 bit thấp là số đếm,
+     * nên việc chuyển bucket sang khoảng thời gian mới và tăng đếm là một CAS duy nhất.
+     */
+    static final class SlidingWindowCounter {
+        
+        private static final int COUNT_BITS = 24;
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+        
+        private final long bucketMillis;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong alertedSlot = new AtomicLong(Long.MIN_VALUE / 2);
+        private final AtomicLong lastSlot = new AtomicLong();
+        
+        SlidingWindowCounter(long windowMillis) {
+            this.bucketMillis = Math.max(1, windowMillis / BUCKETS);
+        }
+        
+        /**
+         * Đếm một event tại thời điểm eventMillis, trả về tổng trong cửa sổ kết thúc tại thời điểm đó.
+         */
+        long add(long eventMillis) {
+            long slot = eventMillis / bucketMillis;
+            int index = (int) (slot % BUCKETS);
+            while (true) {
+                long current = buckets.get(index);
+                long currentSlot = current >>> COUNT_BITS;
+                long next;
+                if (currentSlot == slot) {
+                    next = (current & COUNT_MASK) == COUNT_MASK ? current : current + 1;
+                } else if (currentSlot > slot) {
+                    // Bucket đã thuộc về khoảng thời gian mới hơn: event nằm ngoài cửa sổ
+                    return sum(lastSlot.get());
+                } else {
+                    next = (slot << COUNT_BITS) | 1;
+                }
+                if (buckets.compareAndSet(index, current, next)) {
+                    break;
+                }
+            }
+            lastSlot.accumulateAndGet(slot, Math::max);
+            return sum(slot);
+        }
+        
+        long sum(long endSlot) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long value = buckets.get(i);
+                long slot = value >>> COUNT_BITS;
+                if (slot <= endSlot && slot > endSlot - BUCKETS) {
+                    total += value & COUNT_MASK;
+                }
+            }
+            return total;
+        }
+        
+        /**
+         * Chỉ cảnh báo một lần mỗi cửa sổ cho cùng một counter.
+         */
+        boolean claimAlert(long eventMillis) {
+            long slot = eventMillis / bucketMillis;
+            long previous = alertedSlot.get();
+            return slot >= previous + BUCKETS && alertedSlot.compareAndSet(previous, slot);
+        }
+        
+        boolean isIdle(long nowMillis) {
+            return nowMillis / bucketMillis - lastSlot.get() > 2L * BUCKETS;
+        }
+    }
+}
+
@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import com.example.demo.config.TargetDatabases;
+import com.example.demo.config.TargetDatabases.TargetResult;
+import com.example.demo.model.TargetCounts;
+import com.example.demo.model.User;
+import com.example.demo.repository.FleetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Câu hỏi trên toàn bộ các target database (TargetDatabases): mỗi hàm là một fanOut song song,
+ * rồi ghép kết quả của các target trả lời kịp.
+ */
+@Service
+public class FleetService {
+    
+    @Autowired
+    private TargetDatabases targetDatabases;
+    
+    @Autowired
+    private FleetRepository fleetRepository;
+    
+    public List<String> getTargets() {
+        return targetDatabases.names();
+    }
+    
+    public List<TargetResult<TargetCounts>> countObjects() {
+        return targetDatabases.fanOut(fleetRepository::countObjects);
+    }
+    
+    /**
+     * Tổng số trên các target trả lời được.
+     */
+    public TargetCounts total(List<TargetResult<TargetCounts>> results) {
+        TargetCounts total = new TargetCounts();
+        for (TargetResult<TargetCounts> result : results) {
+            if (result.isOk()) {
+                total.setUsers(total.getUsers() + result.value().getUsers());
+                total.setLockedUsers(total.getLockedUsers() + result.value().getLockedUsers());
+                total.setRoles(total.getRoles() + result.value().getRoles());
+                total.setProfiles(total.getProfiles() + result.value().getProfiles());
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * User tồn tại trên target nào (value null = không có trên target đó).
+     */
+    public List<TargetResult<User>> findUser(String username) {
+        return targetDatabases.fanOut(target -> fleetRepository.findUser(target, username));
+    }
+    
+    public RoleComparison compareRole(String roleName) {
+        List<TargetResult<Set<String>>> results = targetDatabases.fanOut(target -> fleetRepository.roleGrants(target, roleName));
+        
+        // Quyền -> các target có quyền đó (chỉ tính target có role)
+        Map<String, Set<String>> grants = new TreeMap<>();
+        Set<String> targetsWithRole = new TreeSet<>();
+        for (TargetResult<Set<String>> result : results) {
+            if (result.isOk() && result.value() != null) {
+                targetsWithRole.add(result.target());
+                for (String grant : result.value()) {
+                    grants.computeIfAbsent(grant, g -> new TreeSet<>()).add(result.target());
+                }
+            }
+        }
+        return new RoleComparison(roleName.toUpperCase(), results, grants, targetsWithRole);
+    }
+    
+    /**
+     * So sánh một role giữa các target: grants cho biết quyền nào có ở target nào.
+     */
+    public record RoleComparison(String roleName, List<TargetResult<Set<String>>> results,
+                                 Map<String, Set<String>> grants, Set<String> targetsWithRole) {
+        
+        /**
+         * Quyền không có ở mọi target có role.
+         */
+        public boolean differs(String grant) {
+            return grants.getOrDefault(grant, Set.of()).size() < targetsWithRole.size();
+        }
+    }
+}
+
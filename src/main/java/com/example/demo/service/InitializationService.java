@@ -2,41 +2,61 @@ package com.example.demo.service;
 
 import com.example.demo.model.AppLoginUser;
 import com.example.demo.repository.AppLoginUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Service để khởi tạo user SEC_ADMIN vào APP_LOGIN_USER table.
  * Chạy tự động khi ứng dụng start nếu SEC_ADMIN chưa tồn tại trong APP_LOGIN_USER.
  * 
  * Lưu ý: SEC_ADMIN đã được tạo sẵn trong Oracle bằng SYS.
  * Service này chỉ thêm vào APP_LOGIN_USER để có thể login qua ứng dụng.
+ * 
+ * Mặc định chạy trên background thread (app.startup.seed-async=true) để findByUsername,
+ * BCrypt encode và INSERT không nằm trên đường khởi động. Nếu SEC_ADMIN login trước khi
+ * seed xong thì AuthenticationService.login vẫn tự đồng bộ vào APP_LOGIN_USER.
  */
 @Service
 @Order(1)
 public class InitializationService implements CommandLineRunner {
     
+    private static final Logger log = LoggerFactory.getLogger(InitializationService.class);
+    
     @Autowired
     private AppLoginUserRepository appLoginUserRepository;
     
     @Autowired
     private AuthenticationService authenticationService;
     
+    @Value("${app.startup.seed-async:true}")
+    private boolean seedAsync;
+    
     @Override
     public void run(String... args) throws Exception {
+        if (seedAsync) {
+            CompletableFuture.runAsync(this::seedSecAdmin);
+        } else {
+            seedSecAdmin();
+        }
+    }
+    
+    private void seedSecAdmin() {
         try {
             // Kiểm tra xem SEC_ADMIN đã có trong APP_LOGIN_USER chưa
             AppLoginUser existingUser = appLoginUserRepository.findByUsername("SEC_ADMIN");
             
             if (existingUser == null) {
-                System.out.println("========================================");
-                System.out.println("Đang khởi tạo SEC_ADMIN trong APP_LOGIN_USER...");
+                log.info("Đang khởi tạo SEC_ADMIN trong APP_LOGIN_USER...");
                 
                 // Hash password "admin123" bằng BCrypt
                 String passwordHash = authenticationService.encodePassword("admin123");
-                System.out.println("Password đã được hash: " + passwordHash.substring(0, Math.min(20, passwordHash.length())) + "...");
                 
                 // Insert vào APP_LOGIN_USER
                 AppLoginUser secAdmin = new AppLoginUser("SEC_ADMIN", passwordHash);
@@ -45,25 +65,16 @@ public class InitializationService implements CommandLineRunner {
                 // Verify insertion
                 AppLoginUser verifyUser = appLoginUserRepository.findByUsername("SEC_ADMIN");
                 if (verifyUser != null) {
-                    System.out.println("========================================");
-                    System.out.println("SUCCESS: SEC_ADMIN đã được thêm vào APP_LOGIN_USER");
-                    System.out.println("Username: SEC_ADMIN");
-                    System.out.println("Password: admin123 (đã hash bằng BCrypt)");
-                    System.out.println("========================================");
+                    log.info("SEC_ADMIN đã được thêm vào APP_LOGIN_USER (password admin123, đã hash bằng BCrypt)");
                 } else {
-                    System.err.println("ERROR: Không thể verify SEC_ADMIN sau khi insert!");
+                    log.error("Không thể verify SEC_ADMIN sau khi insert!");
                 }
             } else {
-                System.out.println("SEC_ADMIN đã tồn tại trong APP_LOGIN_USER");
+                log.info("SEC_ADMIN đã tồn tại trong APP_LOGIN_USER");
             }
         } catch (Exception e) {
-            System.err.println("========================================");
-            System.err.println("ERROR khi khởi tạo SEC_ADMIN:");
-            System.err.println("Message: " + e.getMessage());
-            System.err.println("Có thể table APP_LOGIN_USER chưa được tạo!");
-            System.err.println("Vui lòng chạy script: init_app_login_user.sql");
-            System.err.println("========================================");
-            e.printStackTrace();
+            log.error("Lỗi khi khởi tạo SEC_ADMIN: {}. Có thể table APP_LOGIN_USER chưa được tạo, "
+                + "vui lòng chạy script: init_app_login_user.sql", e.getMessage(), e);
         }
     }
 }
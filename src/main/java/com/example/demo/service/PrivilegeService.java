@@ -1,52 +1,123 @@
 package com.example.demo.service;
 
-import com.example.demo.model.PrivilegeInfo;
+import com.example.demo.config.RequestMemo;
+import com.example.demo.model.PrivilegeTable;
 import com.example.demo.repository.PrivilegeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Trong một request, kết quả kiểm tra quyền được nhớ lại (RequestMemo) nên AuthInterceptor
+ * (@RequiresOraclePrivilege), hasAdminCapabilities và handler hỏi cùng một quyền chỉ tốn một lần query.
+ */
 @Service
 public class PrivilegeService {
     
+    private static final String GRANTED_KEY = "PrivilegeService.granted:";
+    
     @Autowired
     private PrivilegeRepository privilegeRepository;
     
-    public List<PrivilegeInfo> getAllPrivileges() {
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    public PrivilegeTable getAllPrivileges() {
         return privilegeRepository.getAllPrivileges();
     }
     
+    public PrivilegeTable getPrivilegesForGrantee(String grantee) {
+        return privilegeRepository.getPrivilegesForGrantee(grantee);
+    }
+    
+    public PrivilegeTable findPrivileges(String grantee, String type) {
+        return privilegeRepository.findPrivileges(grantee, type);
+    }
+    
     public boolean hasPrivilege(String username, String privilege) {
-        return privilegeRepository.hasPrivilege(username, privilege);
+        if (username == null) {
+            return privilegeRepository.hasPrivilege(username, privilege);
+        }
+        return RequestMemo.computeIfAbsent(grantedKey(username, privilege),
+            () -> privilegeRepository.hasPrivilege(username, privilege));
+    }
+    
+    /**
+     * Các quyền trong privileges mà user có. Quyền chưa biết trong request được hỏi Oracle bằng một query.
+     */
+    public Set<String> grantedPrivileges(String username, Collection<String> privileges) {
+        if (username == null || RequestContextHolder.getRequestAttributes() == null) {
+            return privilegeRepository.grantedPrivileges(username, privileges);
+        }
+        
+        List<String> unknown = new ArrayList<>();
+        for (String privilege : privileges) {
+            if (RequestMemo.get(grantedKey(username, privilege)) == null) {
+                unknown.add(privilege);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            Set<String> fetched = privilegeRepository.grantedPrivileges(username, unknown);
+            for (String privilege : unknown) {
+                RequestMemo.put(grantedKey(username, privilege), fetched.contains(privilege));
+            }
+        }
+        
+        Set<String> result = new LinkedHashSet<>();
+        for (String privilege : privileges) {
+            if (Boolean.TRUE.equals(RequestMemo.get(grantedKey(username, privilege)))) {
+                result.add(privilege);
+            }
+        }
+        return result;
+    }
+    
+    // Mỗi quyền là một Boolean riêng trong RequestMemo (không phải một map dùng chung để sửa),
+    // nên bị xóa cùng các kết quả khác khi request chạy GRANT / REVOKE
+    private static String grantedKey(String username, String privilege) {
+        return GRANTED_KEY + username.trim().toUpperCase() + ":" + privilege;
     }
     
     public void grantSystemPrivilege(String privilege, String grantee, boolean withAdminOption) {
         privilegeRepository.grantSystemPrivilege(privilege, grantee, withAdminOption);
+        eventPublisher.publishEvent(CatalogChangedEvent.privilege("GRANT", privilege, grantee, null));
     }
     
     public void revokeSystemPrivilege(String privilege, String grantee) {
         privilegeRepository.revokeSystemPrivilege(privilege, grantee);
+        eventPublisher.publishEvent(CatalogChangedEvent.privilege("REVOKE", privilege, grantee, null));
     }
     
     public void grantRole(String role, String grantee, boolean withAdminOption) {
         privilegeRepository.grantRole(role, grantee, withAdminOption);
+        eventPublisher.publishEvent(CatalogChangedEvent.privilege("GRANT", role.toUpperCase(), grantee, null));
     }
     
     public void revokeRole(String role, String grantee) {
         privilegeRepository.revokeRole(role, grantee);
+        eventPublisher.publishEvent(CatalogChangedEvent.privilege("REVOKE", role.toUpperCase(), grantee, null));
     }
     
     public void grantObjectPrivilege(String privilege, String table, String grantee, boolean withGrantOption) {
         privilegeRepository.grantObjectPrivilege(privilege, table, grantee, withGrantOption);
+        eventPublisher.publishEvent(CatalogChangedEvent.privilege("GRANT", privilege, grantee, table));
     }
     
     public void revokeObjectPrivilege(String privilege, String table, String grantee) {
         privilegeRepository.revokeObjectPrivilege(privilege, table, grantee);
+        eventPublisher.publishEvent(CatalogChangedEvent.privilege("REVOKE", privilege, grantee, table));
     }
     
     public void grantColumnPrivilege(String privilege, String table, String column, String grantee) {
         privilegeRepository.grantColumnPrivilege(privilege, table, column, grantee);
+        eventPublisher.publishEvent(CatalogChangedEvent.privilege("GRANT", privilege, grantee, table + "." + column));
     }
     
     public List<String> getAvailableTablespaces() {
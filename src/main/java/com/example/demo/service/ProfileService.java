@@ -3,8 +3,10 @@ package com.example.demo.service;
 import com.example.demo.model.Profile;
 import com.example.demo.repository.ProfileRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -13,26 +15,40 @@ public class ProfileService {
     @Autowired
     private ProfileRepository profileRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     public List<Profile> getAllProfiles() {
         return profileRepository.getAllProfiles();
     }
     
+    public List<String> getProfileNames() {
+        return profileRepository.getProfileNames();
+    }
+    
     public Profile getProfile(String profileName) {
         return profileRepository.getProfile(profileName);
     }
     
+    public List<Profile> getProfiles(Collection<String> profileNames) {
+        return profileRepository.getProfiles(profileNames);
+    }
+    
     public void createProfile(String profileName, String sessionsPerUser,
                              String connectTime, String idleTime) {
         profileRepository.createProfile(profileName, sessionsPerUser, connectTime, idleTime);
+        eventPublisher.publishEvent(CatalogChangedEvent.of("PROFILE", "CREATE", profileName));
     }
     
     public void updateProfile(String profileName, String sessionsPerUser,
                              String connectTime, String idleTime) {
         profileRepository.alterProfile(profileName, sessionsPerUser, connectTime, idleTime);
+        eventPublisher.publishEvent(CatalogChangedEvent.of("PROFILE", "UPDATE", profileName));
     }
     
     public void deleteProfile(String profileName) {
         profileRepository.dropProfile(profileName);
+        eventPublisher.publishEvent(CatalogChangedEvent.of("PROFILE", "DROP", profileName));
     }
 }
 
@@ -3,8 +3,10 @@ package com.example.demo.service;
 import com.example.demo.model.Role;
 import com.example.demo.repository.RoleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -13,24 +15,38 @@ public class RoleService {
     @Autowired
     private RoleRepository roleRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     public List<Role> getAllRoles() {
         return roleRepository.getAllRoles();
     }
     
+    public List<String> getRoleNames() {
+        return roleRepository.getRoleNames();
+    }
+    
     public Role getRole(String roleName) {
         return roleRepository.getRole(roleName);
     }
     
+    public List<Role> getRoles(Collection<String> roleNames) {
+        return roleRepository.getRoles(roleNames);
+    }
+    
     public void createRole(String roleName, String password) {
         roleRepository.createRole(roleName, password);
+        eventPublisher.publishEvent(CatalogChangedEvent.of("ROLE", "CREATE", roleName));
     }
     
     public void updateRolePassword(String roleName, String password) {
         roleRepository.alterRolePassword(roleName, password);
+        eventPublisher.publishEvent(CatalogChangedEvent.of("ROLE", "UPDATE", roleName));
     }
     
     public void deleteRole(String roleName) {
         roleRepository.dropRole(roleName);
+        eventPublisher.publishEvent(CatalogChangedEvent.of("ROLE", "DROP", roleName));
     }
 }
 
@@ -0,0 +1,377 @@
+package com.example.demo.service;
+
+import com.example.demo.config.OracleJdbcTemplate;
+import com.example.demo.model.SlowQuery;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Slow query log cho adminJdbcTemplate và appJdbcTemplate: câu lệnh chạy quá app.slow-query.threshold-ms được
+ * ghi lại (SQL, bind, thời gian, số dòng, user) vào một danh sách giới hạn trong bộ nhớ, sau đó thread nền
+ * tìm SQL_ID / child cursor trong V$SQL và lấy execution plan thật bằng DBMS_XPLAN.DISPLAY_CURSOR
+ * trước khi cursor bị đẩy khỏi shared pool.
+ *
+ * SQL_ID được tính từ text giống Oracle (MD5 của text gửi đi, '?' đã đổi thành :1, :2...); không khớp
+ * (driver đổi text khác) thì tìm trong V$SQL theo phần đầu của text.
+ * Cùng một câu lệnh chỉ lấy plan lại sau app.slow-query.plan-refresh-minutes.
+ *
+ * Bind của câu lệnh chạm bảng / cột chứa mật khẩu (APP_LOGIN_USER, PASSWORD_HASH...) không được ghi, và plan của
+ * chúng không bao giờ lấy kèm peeked binds. Entry là bất biến: thread lấy plan thay entry bằng bản mới.
+ */
+@Service
+public class SlowQueryLog {
+    
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+    
+    private static final String SQL_ID_ALPHABET = "0123456789abcdfghjkmnpqrstuvwxyz";
+    private static final int MAX_BIND_LENGTH = 100;
+    private static final int TEXT_MATCH_PREFIX = 200;
+    private static final Set<String> PLAN_SQL_CLASSES = Set.of("QUERY", "DICTIONARY", "DML");
+    private static final String REDACTED_BINDS = "(ẩn - câu lệnh chạm bảng / cột mật khẩu)";
+    
+    // Bảng / cột chứa thông tin đăng nhập: bind của câu lệnh có thể là hash mật khẩu
+    private static final Pattern CREDENTIAL_SQL =
+        Pattern.compile("(?i)\\b(APP_LOGIN_USER|\\w*PASSWORD\\w*|\\w*_HASH|\\w*SECRET\\w*|\\w*TOKEN\\w*)\\b");
+    private static final Pattern PEEKED_BINDS = Pattern.compile("(?i)\\s*[+-]?\\s*PEEKED_BINDS");
+    
+    @Autowired
+    @Qualifier("adminJdbcTemplate")
+    private JdbcTemplate adminJdbcTemplate;
+    
+    @Autowired
+    @Qualifier("appJdbcTemplate")
+    private JdbcTemplate appJdbcTemplate;
+    
+    @Value("${app.slow-query.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.slow-query.threshold-ms:1000}")
+    private long thresholdMillis;
+    
+    @Value("${app.slow-query.capacity:200}")
+    private int capacity;
+    
+    // false với profile standin: H2 không có V$SQL / DBMS_XPLAN
+    @Value("${app.slow-query.capture-plan:true}")
+    private boolean capturePlan;
+    
+    // Không có +PEEKED_BINDS: plan sẽ in lại giá trị bind
+    @Value("${app.slow-query.plan-format:TYPICAL}")
+    private String planFormat;
+    
+    @Value("${app.slow-query.plan-refresh-minutes:10}")
+    private long planRefreshMinutes;
+    
+    private final AtomicLong ids = new AtomicLong();
+    
+    // Mới nhất ở đầu; truy cập trong synchronized (entries)
+    private final LinkedList<SlowQuery> entries = new LinkedList<>();
+    
+    // SQL -> lần lấy plan gần nhất, để không gọi DISPLAY_CURSOR lặp lại cho cùng một câu lệnh chậm
+    private final Map<String, SlowQuery> lastPlanBySql = new ConcurrentHashMap<>();
+    
+    private ThreadPoolExecutor planCapturer;
+    
+    // JdbcTemplate thường (không phải OracleJdbcTemplate): query lấy plan không tự vào slow query log
+    private JdbcTemplate planJdbcTemplate;
+    
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        
+        // Queue đầy (Oracle rất chậm) thì bỏ lượt lấy plan, entry vẫn được giữ với planStatus PENDING -> SKIPPED
+        planCapturer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity), r -> {
+            Thread thread = new Thread(r, "slow-query-plan");
+            thread.setDaemon(true);
+            return thread;
+        }, (task, executor) -> replace(((PlanCapture) task).entry.toBuilder().planStatus("SKIPPED").build()));
+        planJdbcTemplate = new JdbcTemplate(adminJdbcTemplate.getDataSource());
+        planJdbcTemplate.setQueryTimeout(10);
+        
+        listen(adminJdbcTemplate, "AdminPool");
+        listen(appJdbcTemplate, "AppPool");
+    }
+    
+    private void listen(JdbcTemplate jdbcTemplate, String pool) {
+        if (jdbcTemplate instanceof OracleJdbcTemplate oracleJdbcTemplate) {
+            oracleJdbcTemplate.setSlowStatementListener(thresholdMillis,
+                (sql, binds, elapsedNanos, rows, succeeded, user) ->
+                    record(pool, sql, binds, elapsedNanos, rows, succeeded, user));
+        }
+    }
+    
+    private void record(String pool, String sql, Object[] binds, long elapsedNanos, long rows, boolean succeeded,
+                        String user) {
+        boolean credential = CREDENTIAL_SQL.matcher(sql).find();
+        SlowQuery.SlowQueryBuilder builder = SlowQuery.builder()
+            .id(ids.incrementAndGet())
+            .capturedAt(LocalDateTime.now())
+            .pool(pool)
+            .sql(OracleJdbcTemplate.maskPasswords(sql))
+            .binds(credential && binds != null && binds.length > 0 ? REDACTED_BINDS : formatBinds(binds))
+            .durationMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+            .rows(rows)
+            .succeeded(succeeded)
+            .user(user)
+            .sqlId(sqlId(jdbcText(sql)));
+        
+        boolean capture = false;
+        SlowQuery previous = lastPlanBySql.get(sql);
+        if (!capturePlan || !PLAN_SQL_CLASSES.contains(OracleJdbcTemplate.sqlClass(sql))) {
+            builder.planStatus("NOT_CAPTURED");
+        } else if (previous != null && "CAPTURED".equals(previous.getPlanStatus())
+                && previous.getCapturedAt().isAfter(LocalDateTime.now().minusMinutes(planRefreshMinutes))) {
+            builder.childNumber(previous.getChildNumber())
+                .sqlId(previous.getSqlId())
+                .plan(previous.getPlan())
+                .planStatus("CAPTURED");
+        } else {
+            builder.planStatus("PENDING");
+            capture = true;
+        }
+        
+        // Entry chỉ được công bố khi đã đầy đủ; từ đây chỉ được thay bằng bản mới
+        SlowQuery entry = builder.build();
+        synchronized (entries) {
+            entries.addFirst(entry);
+            while (entries.size() > capacity) {
+                entries.removeLast();
+            }
+        }
+        log.warn("Slow SQL ({} ms, {}, sql_id {}): {}", entry.getDurationMillis(), pool, entry.getSqlId(),
+            entry.getSql().strip().replaceAll("\\s+", " "));
+        
+        if (capture) {
+            planCapturer.execute(new PlanCapture(entry, sql, credential ? withoutPeekedBinds(planFormat) : planFormat));
+        }
+    }
+    
+    /**
+     * Thay entry cùng id bằng bản mới (plan vừa lấy xong). Entry đã bị đẩy khỏi danh sách thì bỏ qua.
+     */
+    private void replace(SlowQuery updated) {
+        synchronized (entries) {
+            ListIterator<SlowQuery> iterator = entries.listIterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().getId() == updated.getId()) {
+                    iterator.set(updated);
+                    return;
+                }
+            }
+        }
+    }
+    
+    static String withoutPeekedBinds(String format) {
+        String result = PEEKED_BINDS.matcher(format).replaceAll("").strip();
+        return result.isEmpty() ? "TYPICAL" : result;
+    }
+    
+    /**
+     * Entry mới nhất trước.
+     */
+    public List<SlowQuery> recent() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+    
+    public SlowQuery find(long id) {
+        synchronized (entries) {
+            for (SlowQuery entry : entries) {
+                if (entry.getId() == id) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+    
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        lastPlanBySql.clear();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public long getThresholdMillis() {
+        return thresholdMillis;
+    }
+    
+    private final class PlanCapture implements Runnable {
+        
+        private final SlowQuery entry;
+        private final String sql;
+        private final String format;
+        
+        PlanCapture(SlowQuery entry, String sql, String format) {
+            this.entry = entry;
+            this.sql = sql;
+            this.format = format;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                String jdbcText = jdbcText(sql);
+                List<Object[]> cursors = planJdbcTemplate.query("""
+                    SELECT SQL_ID, CHILD_NUMBER
+                    FROM V$SQL
+                    WHERE SQL_ID = ?
+                    ORDER BY LAST_ACTIVE_TIME DESC
+                    FETCH FIRST 1 ROWS ONLY
+                    """, (rs, rowNum) -> new Object[] {rs.getString(1), rs.getInt(2)}, entry.getSqlId());
+                if (cursors.isEmpty()) {
+                    String prefix = jdbcText.strip();
+                    prefix = prefix.substring(0, Math.min(TEXT_MATCH_PREFIX, prefix.length()));
+                    cursors = planJdbcTemplate.query("""
+                        SELECT SQL_ID, CHILD_NUMBER
+                        FROM V$SQL
+                        WHERE SQL_TEXT LIKE ? ESCAPE '\\'
+                        ORDER BY LAST_ACTIVE_TIME DESC
+                        FETCH FIRST 1 ROWS ONLY
+                        """, (rs, rowNum) -> new Object[] {rs.getString(1), rs.getInt(2)},
+                        "%" + prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+                }
+                if (cursors.isEmpty()) {
+                    replace(entry.toBuilder()
+                        .plan("Cursor không còn trong V$SQL (đã bị đẩy khỏi shared pool)")
+                        .planStatus("UNAVAILABLE")
+                        .build());
+                    return;
+                }
+                
+                String sqlId = (String) cursors.get(0)[0];
+                int childNumber = (Integer) cursors.get(0)[1];
+                List<String> lines = planJdbcTemplate.queryForList(
+                    "SELECT PLAN_TABLE_OUTPUT FROM TABLE(DBMS_XPLAN.DISPLAY_CURSOR(?, ?, ?))",
+                    String.class, sqlId, childNumber, format);
+                SlowQuery captured = entry.toBuilder()
+                    .sqlId(sqlId)
+                    .childNumber(childNumber)
+                    .plan(String.join("\n", lines))
+                    .planStatus("CAPTURED")
+                    .build();
+                replace(captured);
+                lastPlanBySql.put(sql, captured);
+            } catch (Exception e) {
+                replace(entry.toBuilder()
+                    .plan("Không lấy được plan: " + e.getMessage())
+                    .planStatus("UNAVAILABLE")
+                    .build());
+                log.warn("Cannot capture plan for sql_id {}: {}", entry.getSqlId(), e.getMessage());
+            }
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        if (planCapturer != null) {
+            planCapturer.shutdownNow();
+        }
+    }
+    
+    private static String formatBinds(Object[] binds) {
+        if (binds == null || binds.length == 0) {
+            return null;
+        }
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < binds.length; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            String value = String.valueOf(binds[i]);
+            if (value.length() > MAX_BIND_LENGTH) {
+                value = value.substring(0, MAX_BIND_LENGTH) + "...";
+            }
+            result.append(':').append(i + 1).append('=').append(binds[i] instanceof String ? "'" + value + "'" : value);
+        }
+        return result.toString();
+    }
+    
+    /**
+     * Text mà Oracle JDBC gửi cho server: placeholder '?' (ngoài chuỗi / comment) đổi thành :1, :2...
+     */
+    static String jdbcText(String sql) {
+        StringBuilder result = new StringBuilder(sql.length() + 16);
+        int bind = 0;
+        boolean inString = false;
+        boolean inIdentifier = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'' && !inIdentifier) {
+                inString = !inString;
+            } else if (c == '"' && !inString) {
+                inIdentifier = !inIdentifier;
+            } else if (c == '?' && !inString && !inIdentifier) {
+                result.append(':').append(++bind);
+                continue;
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+    
+    /**
+     * SQL_ID như V$SQL.SQL_ID: 64 bit cuối của MD5(text + '\0'), mã hóa base32 của Oracle (13 ký tự).
+     */
+    static String sqlId(String text) {
+        byte[] md5;
+        try {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            digest.update(bytes);
+            digest.update((byte) 0);
+            md5 = digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        long msb = littleEndianInt(md5, 8);
+        long lsb = littleEndianInt(md5, 12);
+        long value = (msb << 32) | lsb;
+        
+        char[] id = new char[13];
+        for (int i = id.length - 1; i >= 0; i--) {
+            id[i] = SQL_ID_ALPHABET.charAt((int) (value & 31));
+            value >>>= 5;
+        }
+        return new String(id);
+    }
+    
+    private static long littleEndianInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFFL)
+            | (bytes[offset + 1] & 0xFFL) << 8
+            | (bytes[offset + 2] & 0xFFL) << 16
+            | (bytes[offset + 3] & 0xFFL) << 24;
+    }
+}
+
@@ -0,0 +1,207 @@
+package com.example.demo.service;
+
+import com.example.demo.config.OracleJdbcTemplate;
+import com.example.demo.model.StorageUsage;
+import com.example.demo.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Báo cáo dung lượng đã dùng so với quota của từng user / tablespace, được job nền tính lại định kỳ
+ * (UserRepository.getStorageUsage: DBA_TS_QUOTAS + DBA_SEGMENTS gom nhóm). Request chỉ đọc snapshot trong bộ nhớ,
+ * đã sắp xếp sẵn theo từng tiêu chí, nên xem top-N không bao giờ chạy aggregation trên DBA_SEGMENTS.
+ *
+ * Không lazy kể cả với profile faststart, để @Scheduled được đăng ký ngay.
+ */
+@Service
+@Lazy(false)
+public class StorageReport {
+    
+    private static final Logger log = LoggerFactory.getLogger(StorageReport.class);
+    
+    public enum Sort {
+        USED(Comparator.comparingLong(StorageUsage::getUsedBytes).reversed()),
+        // Quota không giới hạn / không có quota xếp cuối
+        PERCENT(Comparator.comparing(StorageUsage::getPercentUsed, Comparator.nullsFirst(Comparator.<Double>naturalOrder())).reversed()),
+        SEGMENTS(Comparator.comparingInt(StorageUsage::getSegments).reversed());
+        
+        private final Comparator<StorageUsage> order;
+        
+        Sort(Comparator<StorageUsage> order) {
+            this.order = order.thenComparing(StorageUsage::getUsername).thenComparing(StorageUsage::getTablespaceName);
+        }
+        
+        public static Sort parse(String value) {
+            if (value == null || value.isBlank()) {
+                return USED;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return USED;
+            }
+        }
+    }
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Value("${app.storage-report.enabled:true}")
+    private boolean enabled;
+    
+    // DBA_SEGMENTS có thể chạy lâu trên database lớn; job nền nên timeout rộng hơn app.dictionary.query-timeout-seconds
+    @Value("${app.storage-report.query-timeout-seconds:300}")
+    private int queryTimeoutSeconds;
+    
+    // Aggregation trên DBA_SEGMENTS có thể chạy tới query-timeout-seconds; chạy trên thread riêng để không giữ
+    // thread của scheduler (dùng chung với audit tail, archive flush...)
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "storage-report");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    
+    /**
+     * Chỉ đẩy việc tính lại sang thread storage-report; bỏ qua nếu lần trước chưa xong.
+     */
+    @Scheduled(fixedDelayString = "${app.storage-report.refresh-interval-ms:900000}",
+               initialDelayString = "${app.storage-report.initial-delay-ms:30000}")
+    public void scheduleRefresh() {
+        if (!enabled || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    refresh();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Đang shutdown
+            refreshing.set(false);
+        }
+    }
+    
+    void refresh() {
+        long start = System.nanoTime();
+        try {
+            List<StorageUsage> rows = OracleJdbcTemplate.withQueryTimeout(queryTimeoutSeconds, userRepository::getStorageUsage);
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            snapshot = Snapshot.of(rows, LocalDateTime.now(), durationMillis);
+            log.info("Storage report refreshed: {} user/tablespace rows in {} ms", rows.size(), durationMillis);
+        } catch (Exception e) {
+            // Giữ snapshot cũ, trang báo cáo hiện lỗi cùng thời điểm tính gần nhất
+            snapshot = snapshot.failed(e.getMessage(), LocalDateTime.now());
+            log.warn("Storage report refresh failed: {}", e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+    
+    /**
+     * limit dòng đầu theo sort, tablespace = null là mọi tablespace.
+     */
+    public List<StorageUsage> top(Sort sort, String tablespace, int limit) {
+        List<StorageUsage> sorted = snapshot.sorted().get(sort);
+        if (tablespace == null || tablespace.isBlank()) {
+            return sorted.subList(0, Math.min(Math.max(limit, 0), sorted.size()));
+        }
+        
+        List<StorageUsage> result = new ArrayList<>();
+        for (StorageUsage row : sorted) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (row.getTablespaceName().equalsIgnoreCase(tablespace.trim())) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Các tablespace của một user trong snapshot gần nhất (rỗng nếu user chưa có gì hoặc báo cáo chưa chạy).
+     */
+    public List<StorageUsage> forUser(String username) {
+        return snapshot.byUser().getOrDefault(username.toUpperCase(), List.of());
+    }
+    
+    public int size() {
+        return snapshot.rows().size();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public LocalDateTime getComputedAt() {
+        return snapshot.computedAt();
+    }
+    
+    public long getDurationMillis() {
+        return snapshot.durationMillis();
+    }
+    
+    public String getLastError() {
+        return snapshot.lastError();
+    }
+    
+    public LocalDateTime getLastErrorAt() {
+        return snapshot.lastErrorAt();
+    }
+    
+    private record Snapshot(List<StorageUsage> rows, Map<Sort, List<StorageUsage>> sorted,
+                            Map<String, List<StorageUsage>> byUser, LocalDateTime computedAt, long durationMillis,
+                            String lastError, LocalDateTime lastErrorAt) {
+        
+        static final Snapshot EMPTY = of(List.of(), null, 0);
+        
+        static Snapshot of(List<StorageUsage> rows, LocalDateTime computedAt, long durationMillis) {
+            Map<Sort, List<StorageUsage>> sorted = new EnumMap<>(Sort.class);
+            for (Sort sort : Sort.values()) {
+                List<StorageUsage> copy = new ArrayList<>(rows);
+                copy.sort(sort.order);
+                sorted.put(sort, List.copyOf(copy));
+            }
+            
+            Map<String, List<StorageUsage>> byUser = new HashMap<>();
+            for (StorageUsage row : sorted.get(Sort.USED)) {
+                byUser.computeIfAbsent(row.getUsername(), u -> new ArrayList<>()).add(row);
+            }
+            return new Snapshot(List.copyOf(rows), sorted, byUser, computedAt, durationMillis, null, null);
+        }
+        
+        Snapshot failed(String error, LocalDateTime at) {
+            return new Snapshot(rows, sorted, byUser, computedAt, durationMillis, error, at);
+        }
+    }
+}
+
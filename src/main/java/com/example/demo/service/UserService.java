@@ -2,21 +2,32 @@ package com.example.demo.service;
 
 import com.example.demo.model.AppLoginUser;
 import com.example.demo.model.PrivilegeInfo;
+import com.example.demo.model.PrivilegeTable;
 import com.example.demo.model.User;
 import com.example.demo.model.UserProfile;
 import com.example.demo.repository.AppLoginUserRepository;
 import com.example.demo.repository.PrivilegeRepository;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.service.AuthenticationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 @Service
 public class UserService {
     
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -29,6 +40,16 @@ public class UserService {
     @Autowired
     private AuthenticationService authenticationService;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * Các phần chi tiết của User cần query riêng (mỗi phần là thêm query cho từng user).
+     */
+    public enum Detail {
+        QUOTA, ROLES, PRIVILEGES, APP_PROFILE
+    }
+    
     /**
      * Get all users visible to current user.
      * Oracle decides what users are visible based on privileges:
@@ -37,37 +58,131 @@ public class UserService {
      * Oracle enforces security - no hardcoded checks.
      */
     public List<User> getAllUsers(String currentUser) {
+        List<User> users = getVisibleUsers(currentUser);
+        populateDetails(users, EnumSet.allOf(Detail.class));
+        return users;
+    }
+    
+    /**
+     * Danh sách user mà currentUser được thấy, chỉ gồm các cột của DBA_USERS (một query).
+     * Chi tiết (quota, roles, privileges, APP_USER_PROFILE) load sau bằng populateDetails,
+     * nên API có thể phân trang trước và chỉ load phần chi tiết được yêu cầu.
+     */
+    public List<User> getVisibleUsers(String currentUser) {
         List<User> users = new ArrayList<>();
         
         try {
             // Try to get all users - Oracle will return only what user has permission to see
             users = userRepository.getAllUsers();
-            System.out.println("User " + currentUser + " - Retrieved " + users.size() + " users (Oracle enforced)");
+            log.debug("User {} - Retrieved {} users (Oracle enforced)", currentUser, users.size());
         } catch (Exception e) {
             // If user doesn't have permission to see all users, try to get own info
-            System.err.println("Cannot get all users (Oracle permission denied), trying own info: " + e.getMessage());
+            log.warn("Cannot get all users (Oracle permission denied), trying own info: {}", e.getMessage());
             try {
                 User user = userRepository.getUserInfo(currentUser);
                 if (user != null) {
                     users.add(user);
-                    System.out.println("User " + currentUser + " - Retrieved own info only");
+                    log.debug("User {} - Retrieved own info only", currentUser);
                 }
             } catch (Exception e2) {
-                System.err.println("Error getting own user info: " + e2.getMessage());
+                log.warn("Error getting own user info: {}", e2.getMessage());
             }
         }
         
+        return users;
+    }
+    
+    /**
+     * Các user trong usernames mà currentUser được thấy, kèm đủ chi tiết - live update của trang danh sách
+     * chỉ render lại các dòng đã đổi, nên chi tiết chỉ được load cho các user này.
+     */
+    public List<User> getVisibleUsers(String currentUser, Collection<String> usernames) {
+        List<User> users = new ArrayList<>();
+        for (User user : getVisibleUsers(currentUser)) {
+            if (usernames.contains(user.getUsername())) {
+                users.add(user);
+            }
+        }
+        populateDetails(users, EnumSet.allOf(Detail.class));
+        return users;
+    }
+    
+    /**
+     * Load chi tiết cho cả danh sách: mỗi loại chi tiết là một (privileges: hai) query cho mọi user,
+     * không phải một query mỗi user, nên số câu lệnh của trang danh sách không tăng theo số user.
+     */
+    public void populateDetails(List<User> users, Set<Detail> details) {
+        List<User> present = new ArrayList<>();
+        List<String> usernames = new ArrayList<>();
         for (User user : users) {
             if (user != null) {
-                try {
-                    populateUserDetails(user);
-                } catch (Exception e) {
-                    System.err.println("Error populating details for user " + user.getUsername() + ": " + e.getMessage());
+                present.add(user);
+                usernames.add(user.getUsername());
+            }
+        }
+        if (details.isEmpty() || present.isEmpty()) {
+            return;
+        }
+        
+        if (details.contains(Detail.QUOTA)) {
+            Map<String, String> quotas;
+            try {
+                quotas = userRepository.getUserQuotas(present);
+            } catch (Exception e) {
+                log.warn("Error getting quotas: {}", e.getMessage());
+                quotas = Map.of();
+            }
+            for (User user : present) {
+                if (user.getDefaultTablespace() != null) {
+                    user.setQuota(quotas.getOrDefault(user.getUsername().toUpperCase(), "N/A"));
                 }
             }
         }
         
-        return users;
+        if (details.contains(Detail.ROLES)) {
+            Map<String, List<String>> roles;
+            try {
+                roles = userRepository.getUserRoles(usernames);
+            } catch (Exception e) {
+                log.warn("Error getting roles: {}", e.getMessage());
+                roles = Map.of();
+            }
+            for (User user : present) {
+                user.setRoles(new ArrayList<>(roles.getOrDefault(user.getUsername().toUpperCase(), List.of())));
+            }
+        }
+        
+        if (details.contains(Detail.PRIVILEGES)) {
+            Map<String, PrivilegeTable> privileges;
+            try {
+                privileges = userRepository.getUserPrivileges(usernames);
+            } catch (Exception e) {
+                log.warn("Error getting privileges: {}", e.getMessage());
+                privileges = Map.of();
+            }
+            for (User user : present) {
+                user.setPrivileges(privileges.getOrDefault(user.getUsername().toUpperCase(), PrivilegeTable.EMPTY));
+            }
+        }
+        
+        if (details.contains(Detail.APP_PROFILE)) {
+            Map<String, UserProfile> profiles;
+            try {
+                profiles = userRepository.getUserProfiles(usernames);
+            } catch (Exception e) {
+                // Profile có thể không tồn tại / không được thấy - không phải lỗi
+                profiles = Map.of();
+            }
+            for (User user : present) {
+                UserProfile profile = profiles.get(user.getUsername().toUpperCase());
+                if (profile != null) {
+                    user.setFullName(profile.getFullName());
+                    user.setEmail(profile.getEmail());
+                    user.setPhone(profile.getPhone());
+                    user.setAddress(profile.getAddress());
+                }
+            }
+        }
     }
     
     /**
@@ -78,18 +193,18 @@ public class UserService {
         User user = userRepository.getUserInfo(username);
         
         if (user == null) {
-            throw new RuntimeException("User not found: " + username);
+            throw new NoSuchElementException("User not found: " + username);
         }
         
         // Oracle has already enforced visibility - if we got here, user has permission
-        populateUserDetails(user);
+        populateUserDetails(user, EnumSet.allOf(Detail.class));
         return user;
     }
     
-    private void populateUserDetails(User user) {
+    private void populateUserDetails(User user, Set<Detail> details) {
         try {
             // Lấy quota
-            if (user.getDefaultTablespace() != null) {
+            if (details.contains(Detail.QUOTA) && user.getDefaultTablespace() != null) {
                 try {
                     String quota = userRepository.getUserQuota(user.getUsername(), user.getDefaultTablespace());
                     user.setQuota(quota);
@@ -99,36 +214,42 @@ public class UserService {
             }
             
             // Lấy roles
-            try {
-                List<String> roles = userRepository.getUserRoles(user.getUsername());
-                user.setRoles(roles);
-            } catch (Exception e) {
-                user.setRoles(new ArrayList<>());
+            if (details.contains(Detail.ROLES)) {
+                try {
+                    List<String> roles = userRepository.getUserRoles(user.getUsername());
+                    user.setRoles(roles);
+                } catch (Exception e) {
+                    user.setRoles(new ArrayList<>());
+                }
             }
             
             // Lấy privileges
-            try {
-                List<PrivilegeInfo> privileges = userRepository.getUserPrivileges(user.getUsername());
-                user.setPrivileges(privileges);
-            } catch (Exception e) {
-                user.setPrivileges(new ArrayList<>());
+            if (details.contains(Detail.PRIVILEGES)) {
+                try {
+                    List<PrivilegeInfo> privileges = userRepository.getUserPrivileges(user.getUsername());
+                    user.setPrivileges(privileges);
+                } catch (Exception e) {
+                    user.setPrivileges(new ArrayList<>());
+                }
             }
             
             // Lấy thông tin profile
-            try {
-                UserProfile profile = userRepository.getUserProfile(user.getUsername());
-                if (profile != null) {
-                    user.setFullName(profile.getFullName());
-                    user.setEmail(profile.getEmail());
-                    user.setPhone(profile.getPhone());
-                    user.setAddress(profile.getAddress());
+            if (details.contains(Detail.APP_PROFILE)) {
+                try {
+                    UserProfile profile = userRepository.getUserProfile(user.getUsername());
+                    if (profile != null) {
+                        user.setFullName(profile.getFullName());
+                        user.setEmail(profile.getEmail());
+                        user.setPhone(profile.getPhone());
+                        user.setAddress(profile.getAddress());
+                    }
+                } catch (Exception e) {
+                    // Ignore - profile có thể không tồn tại
                 }
-            } catch (Exception e) {
-                // Ignore - profile có thể không tồn tại
             }
         } catch (Exception e) {
             // Log error nhưng không throw để không làm crash ứng dụng
-            System.err.println("Error populating user details for " + user.getUsername() + ": " + e.getMessage());
+            log.warn("Error populating user details for {}: {}", user.getUsername(), e.getMessage());
         }
     }
     
@@ -167,29 +288,33 @@ public class UserService {
             // User doesn't exist - insert new
             AppLoginUser appLoginUser = new AppLoginUser(usernameUpper, passwordHash);
             appLoginUserRepository.save(appLoginUser);
-            System.out.println("Added " + usernameUpper + " to APP_LOGIN_USER");
+            log.info("Added {} to APP_LOGIN_USER", usernameUpper);
         } else {
             // User already exists - update password
             appLoginUserRepository.updatePassword(usernameUpper, passwordHash);
-            System.out.println("Updated password for " + usernameUpper + " in APP_LOGIN_USER (already existed)");
+            log.info("Updated password for {} in APP_LOGIN_USER (already existed)", usernameUpper);
         }
         
         // Create Oracle user using PL/SQL package (uses original password)
         // Oracle enforces CREATE USER privilege - no Spring code checks
         userRepository.createUser(username, password, defaultTablespace, temporaryTablespace, quota);
+        eventPublisher.publishEvent(CatalogChangedEvent.of("USER", "CREATE", username));
     }
     
     public void updateUser(String username, String password, String defaultTablespace,
                           String temporaryTablespace, String quota, String profile) {
         userRepository.alterUser(username, password, defaultTablespace, temporaryTablespace, quota, profile);
+        eventPublisher.publishEvent(CatalogChangedEvent.of("USER", "UPDATE", username));
     }
     
     public void lockUser(String username) {
         userRepository.lockUser(username);
+        eventPublisher.publishEvent(CatalogChangedEvent.of("USER", "LOCK", username));
     }
     
     public void unlockUser(String username) {
         userRepository.unlockUser(username);
+        eventPublisher.publishEvent(CatalogChangedEvent.of("USER", "UNLOCK", username));
     }
     
     /**
@@ -201,18 +326,19 @@ public class UserService {
         try {
             appLoginUserRepository.delete(username);
         } catch (Exception e) {
-            System.err.println("Error deleting from APP_LOGIN_USER: " + e.getMessage());
+            log.warn("Error deleting from APP_LOGIN_USER: {}", e.getMessage());
         }
         
         // Drop Oracle user - Oracle enforces privilege
         userRepository.dropUser(username);
+        eventPublisher.publishEvent(CatalogChangedEvent.of("USER", "DROP", username));
     }
     
     public List<String> getUserRoles(String username) {
         try {
             return userRepository.getUserRoles(username);
         } catch (Exception e) {
-            System.err.println("Error getting roles for user " + username + ": " + e.getMessage());
+            log.warn("Error getting roles for user {}: {}", username, e.getMessage());
             return new ArrayList<>();
         }
     }
@@ -0,0 +1,234 @@
+package com.example.demo.standin;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Profile "standin": tạo data dictionary giả trên H2 (MODE=Oracle) với cùng tên bảng / cột như các view
+ * DBA_* mà repository đọc, rồi sinh dữ liệu theo quy mô production (app.standin.*) để đo repository,
+ * controller và load test trên máy cá nhân / CI không có Oracle.
+ *
+ * Dữ liệu được sinh bằng INSERT ... SELECT trên SYSTEM_RANGE (không đi qua JDBC từng dòng) và xác định:
+ * cùng cấu hình luôn cho cùng dữ liệu, nên kết quả benchmark giữa các lần chạy so sánh được.
+ */
+@Component
+@Profile("standin")
+public class StandInDictionary {
+    
+    private static final Logger log = LoggerFactory.getLogger(StandInDictionary.class);
+    
+    @Autowired
+    @Qualifier("adminJdbcTemplate")
+    private JdbcTemplate adminJdbcTemplate;
+    
+    @Value("${spring.datasource.app.username}")
+    private String appUsername;
+    
+    @Value("${spring.datasource.app.password}")
+    private String appPassword;
+    
+    @Value("${app.standin.users:100000}")
+    private int users;
+    
+    @Value("${app.standin.roles:5000}")
+    private int roles;
+    
+    @Value("${app.standin.role-chain-depth:5}")
+    private int roleChainDepth;
+    
+    @Value("${app.standin.roles-per-user:3}")
+    private int rolesPerUser;
+    
+    @Value("${app.standin.sys-privs-per-role:4}")
+    private int sysPrivsPerRole;
+    
+    @Value("${app.standin.object-grants:1000000}")
+    private int objectGrants;
+    
+    @Value("${app.standin.tables:2000}")
+    private int tables;
+    
+    @Value("${app.standin.profiles:50}")
+    private int profiles;
+    
+    @Value("${app.standin.tablespaces:8}")
+    private int tablespaces;
+    
+    @Value("${app.standin.regenerate:true}")
+    private boolean regenerate;
+    
+    @PostConstruct
+    public void generate() {
+        // Connection đầu tiên tạo database với SEC_ADMIN là admin; pool của APP_OWNER connect sau (fail-timeout -1)
+        adminJdbcTemplate.execute("CREATE USER IF NOT EXISTS " + appUsername + " PASSWORD '"
+            + appPassword.replace("'", "''") + "' ADMIN");
+        
+        if (!regenerate && alreadyGenerated()) {
+            log.info("Stand-in dictionary: reusing existing data ({} users)",
+                adminJdbcTemplate.queryForObject("SELECT COUNT(*) FROM DBA_USERS", Integer.class));
+            return;
+        }
+        
+        long start = System.nanoTime();
+        runScript("standin/dictionary-schema.sql");
+        runScript("standin/dictionary-fixed.sql");
+        
+        String user = "'U_' || LPAD(%s, " + width(users) + ", '0')";
+        String role = "'R_' || LPAD(%s, " + width(roles) + ", '0')";
+        String profile = "'P_' || LPAD(%s, " + width(profiles) + ", '0')";
+        
+        step("tablespaces", """
+            INSERT INTO DBA_TABLESPACES (TABLESPACE_NAME, STATUS, CONTENTS)
+            SELECT 'TS_DATA_' || X, 'ONLINE', 'PERMANENT' FROM SYSTEM_RANGE(0, %d)
+            """.formatted(tablespaces - 1));
+        
+        step("profiles", """
+            INSERT INTO DBA_PROFILES (PROFILE, RESOURCE_NAME, RESOURCE_TYPE, LIMIT)
+            SELECT %s, R.NAME, R.TYPE,
+                   CASE
+                       WHEN MOD(P.X, 7) = 0 THEN 'UNLIMITED'
+                       WHEN R.NAME = 'SESSIONS_PER_USER' THEN CAST(MOD(P.X, 10) + 1 AS VARCHAR)
+                       WHEN R.NAME = 'CONNECT_TIME' THEN CAST(60 * (MOD(P.X, 12) + 1) AS VARCHAR)
+                       WHEN R.NAME = 'IDLE_TIME' THEN CAST(5 * (MOD(P.X, 12) + 1) AS VARCHAR)
+                       ELSE 'DEFAULT'
+                   END
+            FROM SYSTEM_RANGE(1, %d) P,
+                 (VALUES ('SESSIONS_PER_USER', 'KERNEL'), ('CONNECT_TIME', 'KERNEL'), ('IDLE_TIME', 'KERNEL'),
+                         ('FAILED_LOGIN_ATTEMPTS', 'PASSWORD'), ('PASSWORD_LIFE_TIME', 'PASSWORD')) R(NAME, TYPE)
+            """.formatted(profile.formatted("P.X"), profiles));
+        
+        // Cứ 50 user có một LOCKED, 97 user có một EXPIRED; 13 user có một chưa đăng nhập lần nào,
+        // còn lại đăng nhập lần cuối trong vòng 400 ngày (cho AccountHygieneScanner)
+        step("users", """
+            INSERT INTO DBA_USERS (USERNAME, USER_ID, ACCOUNT_STATUS, LOCK_DATE, EXPIRY_DATE, DEFAULT_TABLESPACE,
+                                   TEMPORARY_TABLESPACE, CREATED, PROFILE, LAST_LOGIN)
+            SELECT %s, 1000 + X,
+                   CASE WHEN MOD(X, 50) = 0 THEN 'LOCKED' WHEN MOD(X, 97) = 0 THEN 'EXPIRED' ELSE 'OPEN' END,
+                   CASE WHEN MOD(X, 50) = 0 THEN DATEADD('HOUR', X, TIMESTAMP '2024-01-01 00:00:00') END,
+                   CASE WHEN MOD(X, 97) = 0 THEN DATEADD('DAY', MOD(X, 365), TIMESTAMP '2024-01-01 00:00:00') END,
+                   'TS_DATA_' || MOD(X, %d), 'TEMP',
+                   DATEADD('MINUTE', X, TIMESTAMP '2020-01-01 00:00:00'),
+                   %s,
+                   CASE WHEN MOD(X, 13) <> 0 THEN DATEADD('DAY', -MOD(X * 17, 400), LOCALTIMESTAMP) END
+            FROM SYSTEM_RANGE(1, %d)
+            """.formatted(user.formatted("X"), tablespaces, profile.formatted("MOD(X, " + profiles + ") + 1"), users));
+        
+        step("quotas", """
+            INSERT INTO DBA_TS_QUOTAS (TABLESPACE_NAME, USERNAME, BYTES, MAX_BYTES, BLOCKS, MAX_BLOCKS)
+            SELECT DEFAULT_TABLESPACE, USERNAME, MOD(USER_ID * 37, 50) * 1048576,
+                   CASE WHEN MOD(USER_ID, 10) = 0 THEN -1 ELSE (MOD(USER_ID, 20) + 1) * 104857600 END,
+                   MOD(USER_ID * 37, 50) * 128,
+                   CASE WHEN MOD(USER_ID, 10) = 0 THEN -1 ELSE (MOD(USER_ID, 20) + 1) * 12800 END
+            FROM DBA_USERS
+            WHERE USER_ID >= 1000
+            """);
+        
+        // Segment khớp BYTES của quota (cùng công thức); cứ 10 user (quota UNLIMITED) có thêm một index trên TS_APP_INDEX không có quota
+        step("segments", """
+            INSERT INTO DBA_SEGMENTS (OWNER, SEGMENT_NAME, SEGMENT_TYPE, TABLESPACE_NAME, BYTES, BLOCKS)
+            SELECT USERNAME, 'T_DATA', 'TABLE', DEFAULT_TABLESPACE, MOD(USER_ID * 37, 50) * 1048576, MOD(USER_ID * 37, 50) * 128
+            FROM DBA_USERS
+            WHERE USER_ID >= 1000 AND MOD(USER_ID * 37, 50) > 0
+            UNION ALL
+            SELECT USERNAME, 'T_DATA_PK', 'INDEX', 'TS_APP_INDEX', MOD(USER_ID, 8) * 65536 + 65536, MOD(USER_ID, 8) * 8 + 8
+            FROM DBA_USERS
+            WHERE USER_ID >= 1000 AND MOD(USER_ID, 10) = 0
+            """);
+        
+        step("roles", """
+            INSERT INTO DBA_ROLES (ROLE, ROLE_ID, PASSWORD_REQUIRED, AUTHENTICATION_TYPE)
+            SELECT %s, 1000 + X,
+                   CASE WHEN MOD(X, 10) = 0 THEN 'YES' ELSE 'NO' END,
+                   CASE WHEN MOD(X, 10) = 0 THEN 'PASSWORD' ELSE 'NONE' END
+            FROM SYSTEM_RANGE(1, %d)
+            """.formatted(role.formatted("X"), roles));
+        
+        // Chuỗi role lồng nhau: trong mỗi nhóm role-chain-depth role liên tiếp, role X + 1 được grant role X
+        step("role chains", """
+            INSERT INTO DBA_ROLE_PRIVS (GRANTEE, GRANTED_ROLE, ADMIN_OPTION, DEFAULT_ROLE)
+            SELECT %s, %s, 'NO', 'YES'
+            FROM SYSTEM_RANGE(1, %d)
+            WHERE MOD(X, %d) <> 0
+            """.formatted(role.formatted("X + 1"), role.formatted("X"), roles - 1, Math.max(1, roleChainDepth)));
+        
+        // Bước nhảy roles / rolesPerUser: các role của cùng một user không trùng nhau
+        int grantedRoles = Math.min(rolesPerUser, roles);
+        int roleStride = Math.max(1, roles / Math.max(1, grantedRoles));
+        step("user roles", """
+            INSERT INTO DBA_ROLE_PRIVS (GRANTEE, GRANTED_ROLE, ADMIN_OPTION, DEFAULT_ROLE)
+            SELECT %s, %s, 'NO', 'YES'
+            FROM SYSTEM_RANGE(1, %d) U, SYSTEM_RANGE(0, %d) J
+            """.formatted(user.formatted("U.X"), role.formatted("MOD(U.X * 7 + J.X * " + roleStride + ", " + roles + ") + 1"),
+                users, grantedRoles - 1));
+        
+        int privilegeNames = adminJdbcTemplate.queryForObject("SELECT COUNT(*) FROM STANDIN_SYSTEM_PRIVILEGE", Integer.class);
+        step("role system privileges", """
+            INSERT INTO DBA_SYS_PRIVS (GRANTEE, PRIVILEGE, ADMIN_OPTION)
+            SELECT %s, P.NAME, CASE WHEN MOD(R.X, 25) = 0 THEN 'YES' ELSE 'NO' END
+            FROM SYSTEM_RANGE(1, %d) R, SYSTEM_RANGE(0, %d) J, STANDIN_SYSTEM_PRIVILEGE P
+            WHERE P.ID = MOD(R.X * 3 + J.X, %d) + 1
+            """.formatted(role.formatted("R.X"), roles, Math.min(sysPrivsPerRole, privilegeNames) - 1, privilegeNames));
+        
+        step("user system privileges", """
+            INSERT INTO DBA_SYS_PRIVS (GRANTEE, PRIVILEGE, ADMIN_OPTION)
+            SELECT %s, 'CREATE SESSION', 'NO' FROM SYSTEM_RANGE(1, %d)
+            """.formatted(user.formatted("X"), users));
+        
+        // Nửa grant cho user, nửa cho role; 1/20 grant có GRANT OPTION
+        step("object grants", """
+            INSERT INTO DBA_TAB_PRIVS (GRANTEE, OWNER, TABLE_NAME, GRANTOR, PRIVILEGE, GRANTABLE, HIERARCHY, TYPE)
+            SELECT CASE WHEN MOD(X, 2) = 0 THEN %s ELSE %s END,
+                   'APP_OWNER', 'T_' || LPAD(MOD(X, %d) + 1, %d, '0'), 'APP_OWNER',
+                   CASE MOD(X / %d, 4) WHEN 0 THEN 'SELECT' WHEN 1 THEN 'INSERT' WHEN 2 THEN 'UPDATE' ELSE 'DELETE' END,
+                   CASE WHEN MOD(X, 20) = 0 THEN 'YES' ELSE 'NO' END, 'NO', 'TABLE'
+            FROM SYSTEM_RANGE(1, %d)
+            """.formatted(user.formatted("MOD(X * 7919, " + users + ") + 1"), role.formatted("MOD(X * 104729, " + roles + ") + 1"),
+                tables, width(tables), tables, objectGrants));
+        
+        step("app user profiles", """
+            INSERT INTO APP_OWNER.APP_USER_PROFILE (USERNAME, FULL_NAME, EMAIL, PHONE, ADDRESS)
+            SELECT USERNAME, 'User ' || USER_ID, LOWER(USERNAME) || '@company.com', '09' || LPAD(USER_ID, 8, '0'),
+                   'Address ' || MOD(USER_ID, 1000)
+            FROM DBA_USERS
+            WHERE USER_ID >= 1000
+            """);
+        
+        runScript("standin/dictionary-indexes.sql");
+        adminJdbcTemplate.execute("ANALYZE");
+        
+        log.info("Stand-in dictionary generated in {} ms: {} users, {} roles, {} object grants",
+            (System.nanoTime() - start) / 1_000_000, users, roles, objectGrants);
+    }
+    
+    private boolean alreadyGenerated() {
+        Integer tables = adminJdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'DBA_USERS'", Integer.class);
+        return tables != null && tables > 0
+            && adminJdbcTemplate.queryForObject("SELECT COUNT(*) FROM DBA_USERS", Integer.class) > 0;
+    }
+    
+    private void runScript(String path) {
+        new ResourceDatabasePopulator(new ClassPathResource(path)).execute(adminJdbcTemplate.getDataSource());
+    }
+    
+    private void step(String name, String sql) {
+        long start = System.nanoTime();
+        int rows = adminJdbcTemplate.update(sql);
+        log.info("Stand-in dictionary: {} {} ({} ms)", rows, name, (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    // Độ rộng số trong tên (U_000001) để sắp xếp theo tên cũng là theo thứ tự sinh
+    private static int width(int count) {
+        return Math.max(3, String.valueOf(count).length());
+    }
+}
+
@@ -0,0 +1,62 @@
+-- =====================================================
+-- STAND-IN: ĐỐI TƯỢNG CỐ ĐỊNH (giống SETUP_COMPLETE.sql)
+-- =====================================================
+-- Account hệ thống / demo, role và profile demo; phần sinh theo quy mô nằm trong StandInDictionary.
+
+INSERT INTO DBA_TABLESPACES (TABLESPACE_NAME, STATUS, CONTENTS) VALUES
+('SYSTEM', 'ONLINE', 'PERMANENT'), ('SYSAUX', 'ONLINE', 'PERMANENT'), ('UNDOTBS1', 'ONLINE', 'UNDO'),
+('TEMP', 'ONLINE', 'TEMPORARY'), ('TS_APP_DATA', 'ONLINE', 'PERMANENT'), ('TS_APP_INDEX', 'ONLINE', 'PERMANENT');
+
+INSERT INTO DBA_USERS (USERNAME, USER_ID, ACCOUNT_STATUS, LOCK_DATE, EXPIRY_DATE, DEFAULT_TABLESPACE,
+                       TEMPORARY_TABLESPACE, CREATED, PROFILE) VALUES
+('SYS', 0, 'OPEN', NULL, NULL, 'SYSTEM', 'TEMP', TIMESTAMP '2019-01-01 00:00:00', 'DEFAULT'),
+('SYSTEM', 9, 'OPEN', NULL, NULL, 'SYSTEM', 'TEMP', TIMESTAMP '2019-01-01 00:00:00', 'DEFAULT'),
+('SEC_ADMIN', 100, 'OPEN', NULL, NULL, 'TS_APP_DATA', 'TEMP', TIMESTAMP '2019-06-01 00:00:00', 'DEFAULT'),
+('APP_OWNER', 101, 'OPEN', NULL, NULL, 'TS_APP_DATA', 'TEMP', TIMESTAMP '2019-06-01 00:00:00', 'DEFAULT'),
+('U_USER01', 102, 'OPEN', NULL, NULL, 'TS_APP_DATA', 'TEMP', TIMESTAMP '2019-06-01 00:00:00', 'P_STANDARD');
+
+INSERT INTO DBA_TS_QUOTAS (TABLESPACE_NAME, USERNAME, BYTES, MAX_BYTES, BLOCKS, MAX_BLOCKS) VALUES
+('TS_APP_DATA', 'SEC_ADMIN', 0, -1, 0, -1),
+('TS_APP_DATA', 'APP_OWNER', 10485760, -1, 1280, -1),
+('TS_APP_DATA', 'U_USER01', 0, 10485760, 0, 1280);
+
+-- APP_OWNER: 10M trên TS_APP_DATA (khớp BYTES của quota), index trên TS_APP_INDEX nhờ UNLIMITED TABLESPACE (không có quota)
+INSERT INTO DBA_SEGMENTS (OWNER, SEGMENT_NAME, SEGMENT_TYPE, TABLESPACE_NAME, BYTES, BLOCKS) VALUES
+('APP_OWNER', 'APP_LOGIN_USER', 'TABLE', 'TS_APP_DATA', 2097152, 256),
+('APP_OWNER', 'APP_USER_PROFILE', 'TABLE', 'TS_APP_DATA', 2097152, 256),
+('APP_OWNER', 'APP_AUDIT_LOG', 'TABLE', 'TS_APP_DATA', 6291456, 768),
+('APP_OWNER', 'SYS_C0012345', 'INDEX', 'TS_APP_INDEX', 1048576, 128),
+('SYS', 'OBJ$', 'TABLE', 'SYSTEM', 16777216, 2048);
+
+INSERT INTO DBA_ROLES (ROLE, ROLE_ID, PASSWORD_REQUIRED, AUTHENTICATION_TYPE) VALUES
+('CONNECT', 1, 'NO', 'NONE'), ('RESOURCE', 2, 'NO', 'NONE'), ('DBA', 3, 'NO', 'NONE'),
+('SELECT_CATALOG_ROLE', 4, 'NO', 'NONE'),
+('R_EMPLOYEE', 100, 'NO', 'NONE'), ('R_MANAGER', 101, 'NO', 'NONE'), ('R_ADMIN', 102, 'NO', 'NONE');
+
+INSERT INTO DBA_ROLE_PRIVS (GRANTEE, GRANTED_ROLE, ADMIN_OPTION, DEFAULT_ROLE) VALUES
+('SYS', 'DBA', 'YES', 'YES'), ('SYSTEM', 'DBA', 'YES', 'YES'),
+('R_MANAGER', 'R_EMPLOYEE', 'NO', 'YES'), ('R_ADMIN', 'R_MANAGER', 'NO', 'YES'),
+('U_USER01', 'R_EMPLOYEE', 'NO', 'YES');
+
+INSERT INTO DBA_SYS_PRIVS (GRANTEE, PRIVILEGE, ADMIN_OPTION) VALUES
+('CONNECT', 'CREATE SESSION', 'NO'), ('RESOURCE', 'CREATE TABLE', 'NO'), ('DBA', 'CREATE USER', 'YES'),
+('R_EMPLOYEE', 'CREATE SESSION', 'NO'), ('R_MANAGER', 'SELECT ANY TABLE', 'NO'), ('R_ADMIN', 'CREATE USER', 'NO'),
+('SEC_ADMIN', 'CREATE SESSION', 'NO'), ('SEC_ADMIN', 'CREATE USER', 'YES'), ('SEC_ADMIN', 'ALTER USER', 'YES'),
+('SEC_ADMIN', 'DROP USER', 'YES'), ('SEC_ADMIN', 'CREATE ROLE', 'YES'), ('SEC_ADMIN', 'ALTER ANY ROLE', 'YES'),
+('SEC_ADMIN', 'DROP ANY ROLE', 'YES'), ('SEC_ADMIN', 'GRANT ANY ROLE', 'YES'), ('SEC_ADMIN', 'GRANT ANY PRIVILEGE', 'YES'),
+('SEC_ADMIN', 'CREATE PROFILE', 'YES'), ('SEC_ADMIN', 'ALTER PROFILE', 'YES'), ('SEC_ADMIN', 'DROP PROFILE', 'YES'),
+('SEC_ADMIN', 'SELECT ANY DICTIONARY', 'NO'),
+('APP_OWNER', 'CREATE SESSION', 'NO'), ('APP_OWNER', 'CREATE TABLE', 'NO'), ('APP_OWNER', 'CREATE PROCEDURE', 'NO'),
+('U_USER01', 'CREATE SESSION', 'NO');
+
+INSERT INTO DBA_PROFILES (PROFILE, RESOURCE_NAME, RESOURCE_TYPE, LIMIT) VALUES
+('DEFAULT', 'SESSIONS_PER_USER', 'KERNEL', 'UNLIMITED'), ('DEFAULT', 'CONNECT_TIME', 'KERNEL', 'UNLIMITED'),
+('DEFAULT', 'IDLE_TIME', 'KERNEL', 'UNLIMITED'), ('DEFAULT', 'FAILED_LOGIN_ATTEMPTS', 'PASSWORD', '10'),
+('P_STANDARD', 'SESSIONS_PER_USER', 'KERNEL', '3'), ('P_STANDARD', 'CONNECT_TIME', 'KERNEL', '480'),
+('P_STANDARD', 'IDLE_TIME', 'KERNEL', '30'), ('P_STANDARD', 'FAILED_LOGIN_ATTEMPTS', 'PASSWORD', 'DEFAULT'),
+('P_UNLIMITED', 'SESSIONS_PER_USER', 'KERNEL', 'UNLIMITED'), ('P_UNLIMITED', 'CONNECT_TIME', 'KERNEL', 'UNLIMITED'),
+('P_UNLIMITED', 'IDLE_TIME', 'KERNEL', 'UNLIMITED'), ('P_UNLIMITED', 'FAILED_LOGIN_ATTEMPTS', 'PASSWORD', 'DEFAULT');
+
+INSERT INTO APP_OWNER.APP_USER_PROFILE (USERNAME, FULL_NAME, EMAIL, PHONE, ADDRESS) VALUES
+('U_USER01', 'Nguyen Van A', 'nguyenvana@example.com', '0901234567', '123 Nguyen Hue, Ho Chi Minh'),
+('SEC_ADMIN', 'Security Administrator', 'admin@company.com', '0900000000', 'Head Office');
@@ -0,0 +1,10 @@
+-- Index theo các điều kiện WHERE của repository (Oracle có index tương ứng trên bảng SYS bên dưới các view)
+CREATE UNIQUE INDEX IDX_DBA_USERS_NAME ON DBA_USERS(USERNAME);
+CREATE INDEX IDX_DBA_USERS_PROFILE ON DBA_USERS(PROFILE);
+CREATE UNIQUE INDEX IDX_DBA_ROLES_ROLE ON DBA_ROLES(ROLE);
+CREATE INDEX IDX_DBA_ROLE_PRIVS_GRANTEE ON DBA_ROLE_PRIVS(GRANTEE);
+CREATE INDEX IDX_DBA_ROLE_PRIVS_ROLE ON DBA_ROLE_PRIVS(GRANTED_ROLE);
+CREATE INDEX IDX_DBA_SYS_PRIVS_GRANTEE ON DBA_SYS_PRIVS(GRANTEE, PRIVILEGE);
+CREATE INDEX IDX_DBA_TAB_PRIVS_GRANTEE ON DBA_TAB_PRIVS(GRANTEE);
+CREATE INDEX IDX_DBA_PROFILES_PROFILE ON DBA_PROFILES(PROFILE);
+CREATE INDEX IDX_DBA_TS_QUOTAS_USER ON DBA_TS_QUOTAS(USERNAME, TABLESPACE_NAME);
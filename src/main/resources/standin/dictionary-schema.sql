@@ -0,0 +1,146 @@
+-- =====================================================
+-- STAND-IN: DATA DICTIONARY TRÊN H2 (MODE=Oracle)
+-- =====================================================
+-- Cùng tên bảng / tên cột với các view mà repository đọc (tập con cột của Oracle).
+-- StandInDictionary chạy file này rồi sinh dữ liệu; index được tạo sau khi load (dictionary-indexes.sql).
+-- =====================================================
+
+DROP TABLE IF EXISTS DBA_USERS;
+DROP TABLE IF EXISTS DBA_ROLES;
+DROP TABLE IF EXISTS DBA_ROLE_PRIVS;
+DROP TABLE IF EXISTS DBA_SYS_PRIVS;
+DROP TABLE IF EXISTS DBA_TAB_PRIVS;
+DROP TABLE IF EXISTS DBA_PROFILES;
+DROP TABLE IF EXISTS DBA_TS_QUOTAS;
+DROP TABLE IF EXISTS DBA_TABLESPACES;
+DROP TABLE IF EXISTS DBA_SEGMENTS;
+DROP TABLE IF EXISTS STANDIN_SYSTEM_PRIVILEGE;
+
+CREATE TABLE DBA_USERS (
+    USERNAME VARCHAR2(128) NOT NULL,
+    USER_ID NUMBER NOT NULL,
+    ACCOUNT_STATUS VARCHAR2(32) NOT NULL,
+    LOCK_DATE TIMESTAMP,
+    EXPIRY_DATE TIMESTAMP,
+    DEFAULT_TABLESPACE VARCHAR2(30) NOT NULL,
+    TEMPORARY_TABLESPACE VARCHAR2(30) NOT NULL,
+    CREATED TIMESTAMP NOT NULL,
+    PROFILE VARCHAR2(128) NOT NULL,
+    LAST_LOGIN TIMESTAMP
+);
+
+CREATE TABLE DBA_ROLES (
+    ROLE VARCHAR2(128) NOT NULL,
+    ROLE_ID NUMBER NOT NULL,
+    PASSWORD_REQUIRED VARCHAR2(8),
+    AUTHENTICATION_TYPE VARCHAR2(11)
+);
+
+CREATE TABLE DBA_ROLE_PRIVS (
+    GRANTEE VARCHAR2(128),
+    GRANTED_ROLE VARCHAR2(128) NOT NULL,
+    ADMIN_OPTION VARCHAR2(3),
+    DEFAULT_ROLE VARCHAR2(3)
+);
+
+CREATE TABLE DBA_SYS_PRIVS (
+    GRANTEE VARCHAR2(128),
+    PRIVILEGE VARCHAR2(40),
+    ADMIN_OPTION VARCHAR2(3)
+);
+
+CREATE TABLE DBA_TAB_PRIVS (
+    GRANTEE VARCHAR2(128),
+    OWNER VARCHAR2(128),
+    TABLE_NAME VARCHAR2(128),
+    GRANTOR VARCHAR2(128),
+    PRIVILEGE VARCHAR2(40),
+    GRANTABLE VARCHAR2(3),
+    HIERARCHY VARCHAR2(3),
+    TYPE VARCHAR2(24)
+);
+
+CREATE TABLE DBA_PROFILES (
+    PROFILE VARCHAR2(128) NOT NULL,
+    RESOURCE_NAME VARCHAR2(32) NOT NULL,
+    RESOURCE_TYPE VARCHAR2(8),
+    LIMIT VARCHAR2(128)
+);
+
+CREATE TABLE DBA_TS_QUOTAS (
+    TABLESPACE_NAME VARCHAR2(30) NOT NULL,
+    USERNAME VARCHAR2(128) NOT NULL,
+    BYTES NUMBER,
+    MAX_BYTES NUMBER,
+    BLOCKS NUMBER,
+    MAX_BLOCKS NUMBER
+);
+
+CREATE TABLE DBA_TABLESPACES (
+    TABLESPACE_NAME VARCHAR2(30) NOT NULL,
+    STATUS VARCHAR2(9),
+    CONTENTS VARCHAR2(21)
+);
+
+CREATE TABLE DBA_SEGMENTS (
+    OWNER VARCHAR2(128),
+    SEGMENT_NAME VARCHAR2(128),
+    SEGMENT_TYPE VARCHAR2(18),
+    TABLESPACE_NAME VARCHAR2(30),
+    BYTES NUMBER,
+    BLOCKS NUMBER
+);
+
+-- Danh sách system privilege để sinh DBA_SYS_PRIVS (không phải bảng của Oracle)
+CREATE TABLE STANDIN_SYSTEM_PRIVILEGE (
+    ID NUMBER PRIMARY KEY,
+    NAME VARCHAR2(40) NOT NULL
+);
+
+INSERT INTO STANDIN_SYSTEM_PRIVILEGE VALUES
+(1, 'CREATE SESSION'), (2, 'CREATE TABLE'), (3, 'CREATE VIEW'), (4, 'CREATE SEQUENCE'),
+(5, 'CREATE PROCEDURE'), (6, 'CREATE TRIGGER'), (7, 'CREATE SYNONYM'), (8, 'SELECT ANY TABLE'),
+(9, 'INSERT ANY TABLE'), (10, 'UPDATE ANY TABLE'), (11, 'DELETE ANY TABLE'), (12, 'EXECUTE ANY PROCEDURE'),
+(13, 'ALTER SESSION'), (14, 'UNLIMITED TABLESPACE'), (15, 'SELECT ANY DICTIONARY'), (16, 'CREATE ANY INDEX');
+
+-- =====================================================
+-- APP_OWNER: bảng của ứng dụng (login, profile, audit log)
+-- =====================================================
+CREATE SCHEMA IF NOT EXISTS APP_OWNER;
+
+CREATE TABLE IF NOT EXISTS APP_OWNER.APP_LOGIN_USER (
+    USERNAME VARCHAR2(30) PRIMARY KEY,
+    PASSWORD_HASH VARCHAR2(100) NOT NULL,
+    CREATED_AT TIMESTAMP DEFAULT SYSTIMESTAMP
+);
+
+DROP TABLE IF EXISTS APP_OWNER.APP_USER_PROFILE;
+
+CREATE TABLE APP_OWNER.APP_USER_PROFILE (
+    USERNAME VARCHAR2(30) PRIMARY KEY,
+    FULL_NAME VARCHAR2(100),
+    EMAIL VARCHAR2(100),
+    PHONE VARCHAR2(20),
+    ADDRESS VARCHAR2(200),
+    CREATED_AT TIMESTAMP DEFAULT SYSTIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS APP_OWNER.AUDIT_WATERMARK (
+    SOURCE VARCHAR2(30) PRIMARY KEY,
+    LAST_EVENT_TS TIMESTAMP(6) NOT NULL,
+    LAST_SESSION_ID NUMBER NOT NULL,
+    LAST_ENTRY_ID NUMBER NOT NULL,
+    UPDATED_AT TIMESTAMP DEFAULT SYSTIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS APP_OWNER.APP_AUDIT_LOG (
+    ID NUMBER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    EVENT_TIME TIMESTAMP(6) NOT NULL,
+    ACTOR VARCHAR2(128),
+    ACTION VARCHAR2(128) NOT NULL,
+    TARGET VARCHAR2(1000),
+    OUTCOME VARCHAR2(10) NOT NULL,
+    DETAIL VARCHAR2(1000),
+    DURATION_US NUMBER,
+    CLIENT_IP VARCHAR2(64)
+);
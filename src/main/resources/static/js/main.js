@@ -1,8 +1,8 @@
 // Main JavaScript for Oracle User Management System
 
 document.addEventListener('DOMContentLoaded', function() {
-    // Auto-dismiss alerts after 5 seconds
-    const alerts = document.querySelectorAll('.alert');
+    // Auto-dismiss alerts after 5 seconds (trừ banner cần hiển thị suốt trang, vd. dữ liệu cũ)
+    const alerts = document.querySelectorAll('.alert:not(.alert-persistent)');
     alerts.forEach(function(alert) {
         setTimeout(function() {
             const bsAlert = new bootstrap.Alert(alert);
@@ -31,5 +31,196 @@ document.addEventListener('DOMContentLoaded', function() {
             form.classList.add('was-validated');
         }, false);
     });
+    
+    // Live update cho trang danh sách: catalog event (SSE) báo bảng nào đổi, trang của bảng đó tải lại các dòng đã đổi
+    const liveBody = document.querySelector('tbody[data-live]');
+    if (liveBody && window.EventSource) {
+        const source = new EventSource('/events/catalog');
+        source.addEventListener('catalog', function(e) {
+            applyCatalogEvent(liveBody, JSON.parse(e.data));
+        });
+    }
+    
+    // Trang audit: chế độ follow lấy các dòng mới hơn dòng đầu tiên mỗi 5 giây
+    const auditBody = document.querySelector('tbody[data-audit-follow="true"]');
+    const followSwitch = document.getElementById('auditFollow');
+    if (auditBody && followSwitch) {
+        setInterval(function() {
+            if (followSwitch.checked) {
+                followAudit(auditBody);
+            }
+        }, 5000);
+    }
 });
 
+function followAudit(tbody) {
+    const params = new URLSearchParams(window.location.search);
+    params.delete('before');
+    params.delete('hours');
+    if (tbody.dataset.newest) {
+        params.set('after', tbody.dataset.newest);
+    }
+    
+    fetchRows('/audit/tail?' + params.toString()).then(function(rows) {
+        if (rows.length === 0) {
+            return;
+        }
+        tbody.querySelectorAll('tr:not([data-cursor])').forEach(function(placeholder) {
+            placeholder.remove();
+        });
+        // rows: mới nhất trước
+        rows.slice().reverse().forEach(function(row) {
+            tbody.insertBefore(row, tbody.firstChild);
+            highlight(row);
+        });
+        tbody.dataset.newest = rows[0].dataset.cursor;
+        
+        const all = tbody.querySelectorAll('tr[data-cursor]');
+        for (let i = 500; i < all.length; i++) {
+            all[i].remove();
+        }
+    }).catch(function(err) {
+        console.warn('Audit follow failed:', err);
+    });
+}
+
+function applyCatalogEvent(tbody, event) {
+    // Event của bảng khác (vd. tạo profile khi đang xem trang roles): không cần hỏi server
+    if (event.tables.indexOf(tbody.dataset.live) < 0) {
+        return;
+    }
+    if (tbody.dataset.version && Number(event.version) <= Number(tbody.dataset.version)) {
+        return;
+    }
+    
+    // Nhiều DDL liên tiếp (vd. grant hàng loạt) chỉ tải lại một lần
+    clearTimeout(tbody.refreshTimer);
+    tbody.refreshTimer = setTimeout(function() {
+        reloadRows(tbody);
+    }, 300);
+}
+
+// Hỏi các dòng đã đổi từ version trang đang có; server trả cả bảng nếu không xác định được (không có X-Catalog-Changed)
+function reloadRows(tbody) {
+    let url = '/' + tbody.dataset.live + '/rows';
+    if (tbody.dataset.version) {
+        url += '?since=' + encodeURIComponent(tbody.dataset.version);
+    }
+    fetchRowsWithHeaders(url).then(function(result) {
+        const version = result.headers.get('X-Catalog-Version');
+        if (version) {
+            tbody.dataset.version = version;
+        }
+        const changed = result.headers.get('X-Catalog-Changed');
+        if (changed === null) {
+            replaceAllRows(tbody, result.rows);
+        } else {
+            replaceChangedRows(tbody, changed === '' ? [] : changed.split(',').map(decodeURIComponent), result.rows);
+        }
+    }).catch(function(err) {
+        console.warn('Live update failed:', err);
+    });
+}
+
+function replaceAllRows(tbody, rows) {
+    const before = new Set(Array.from(tbody.querySelectorAll('tr')).map(rowSignature));
+    if (rows.length === 0) {
+        // Giữ dòng "không có dữ liệu" của template nếu có
+        tbody.querySelectorAll('tr[data-key]').forEach(function(row) {
+            row.remove();
+        });
+        return;
+    }
+    tbody.replaceChildren.apply(tbody, rows);
+    rows.forEach(function(row) {
+        if (!before.has(rowSignature(row))) {
+            highlight(row);
+        }
+    });
+}
+
+// Thay các dòng có khóa đã đổi (một khóa có thể có nhiều dòng, vd. privileges của một grantee) tại chỗ;
+// khóa không còn dòng nào trong kết quả là đã bị xóa, khóa mới được thêm lên đầu bảng
+function replaceChangedRows(tbody, keys, rows) {
+    const changed = new Set(keys);
+    const incoming = new Map();
+    rows.forEach(function(row) {
+        if (!incoming.has(row.dataset.key)) {
+            incoming.set(row.dataset.key, []);
+        }
+        incoming.get(row.dataset.key).push(row);
+    });
+    
+    const existing = Array.from(tbody.querySelectorAll('tr[data-key]')).filter(function(row) {
+        return changed.has(row.dataset.key);
+    });
+    const before = new Set(existing.map(rowSignature));
+    
+    const placed = new Set();
+    existing.forEach(function(row) {
+        const key = row.dataset.key;
+        if (!placed.has(key) && incoming.has(key)) {
+            incoming.get(key).forEach(function(replacement) {
+                tbody.insertBefore(replacement, row);
+            });
+            placed.add(key);
+        }
+        row.remove();
+    });
+    incoming.forEach(function(newRows, key) {
+        if (!placed.has(key)) {
+            newRows.slice().reverse().forEach(function(row) {
+                tbody.insertBefore(row, tbody.firstChild);
+            });
+        }
+    });
+    rows.forEach(function(row) {
+        if (!before.has(rowSignature(row))) {
+            highlight(row);
+        }
+    });
+    
+    if (tbody.querySelector('tr[data-key]')) {
+        tbody.querySelectorAll('tr:not([data-key])').forEach(function(placeholder) {
+            placeholder.remove();
+        });
+    }
+}
+
+function rowSignature(row) {
+    const copy = row.cloneNode(true);
+    copy.classList.remove('table-info');
+    return copy.outerHTML;
+}
+
+// Lấy fragment HTML (các thẻ <tr>) từ server
+function fetchRows(url) {
+    return fetchRowsWithHeaders(url).then(function(result) {
+        return result.rows;
+    });
+}
+
+function fetchRowsWithHeaders(url) {
+    return fetch(url, { credentials: 'same-origin' })
+        .then(function(response) {
+            if (!response.ok) {
+                throw new Error('HTTP ' + response.status + ' for ' + url);
+            }
+            return response.text().then(function(html) {
+                const template = document.createElement('template');
+                template.innerHTML = html;
+                return {
+                    headers: response.headers,
+                    rows: Array.from(template.content.querySelectorAll('tr'))
+                };
+            });
+        });
+}
+
+function highlight(row) {
+    row.classList.add('table-info');
+    setTimeout(function() {
+        row.classList.remove('table-info');
+    }, 2000);
+}
+
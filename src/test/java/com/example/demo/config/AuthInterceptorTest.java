@@ -0,0 +1,92 @@
+package com.example.demo.config;
+
+import com.example.demo.controller.UserApiController;
+import com.example.demo.controller.UserController;
+import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.PrivilegeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthInterceptorTest {
+
+	private final AuthenticationService authenticationService = mock(AuthenticationService.class);
+
+	private final PrivilegeService privilegeService = mock(PrivilegeService.class);
+
+	private AuthInterceptor interceptor;
+
+	@BeforeEach
+	void setUp() {
+		interceptor = new AuthInterceptor();
+		ReflectionTestUtils.setField(interceptor, "authenticationService", authenticationService);
+		ReflectionTestUtils.setField(interceptor, "privilegeService", privilegeService);
+		when(authenticationService.isLoggedIn(any())).thenReturn(true);
+		when(authenticationService.getCurrentUser(any())).thenReturn("HR_ADMIN");
+	}
+
+	@Test
+	void deleteWithoutDropUserRedirectsToItsOwnError() throws Exception {
+		when(privilegeService.grantedPrivileges(eq("HR_ADMIN"), anyCollection())).thenReturn(Set.of("CREATE USER"));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertFalse(interceptor.preHandle(new MockHttpServletRequest("POST", "/users/SCOTT/delete"), response,
+			htmlDeleteHandler()));
+		assertEquals("/users?error=no_privilege", response.getRedirectedUrl());
+		// CREATE USER và DROP USER được hỏi cùng một lần
+		verify(privilegeService, times(1)).grantedPrivileges(eq("HR_ADMIN"), anyCollection());
+	}
+
+	@Test
+	void deleteWithoutCreateUserUsesTheFirstRedirect() throws Exception {
+		when(privilegeService.grantedPrivileges(eq("HR_ADMIN"), anyCollection())).thenReturn(Set.of("DROP USER"));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertFalse(interceptor.preHandle(new MockHttpServletRequest("POST", "/users/SCOTT/delete"), response,
+			htmlDeleteHandler()));
+		assertEquals("/users?error=access_denied", response.getRedirectedUrl());
+	}
+
+	@Test
+	void deleteWithBothPrivilegesPasses() throws Exception {
+		when(privilegeService.grantedPrivileges(eq("HR_ADMIN"), anyCollection()))
+			.thenReturn(Set.of("CREATE USER", "DROP USER"));
+
+		assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/users/SCOTT/delete"),
+			new MockHttpServletResponse(), htmlDeleteHandler()));
+	}
+
+	@Test
+	void apiDeleteWithoutDropUserIsForbidden() throws Exception {
+		when(privilegeService.grantedPrivileges(eq("HR_ADMIN"), anyCollection())).thenReturn(Set.of("CREATE USER"));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HandlerMethod handler = new HandlerMethod(new UserApiController(), "deleteUser", String.class);
+
+		assertFalse(interceptor.preHandle(new MockHttpServletRequest("DELETE", "/api/v1/users/SCOTT"), response,
+			handler));
+		assertEquals(403, response.getStatus());
+		verify(privilegeService, times(1)).grantedPrivileges(eq("HR_ADMIN"), anyCollection());
+	}
+
+	private static HandlerMethod htmlDeleteHandler() throws NoSuchMethodException {
+		return new HandlerMethod(new UserController(), "deleteUser", String.class, RedirectAttributes.class);
+	}
+
+}
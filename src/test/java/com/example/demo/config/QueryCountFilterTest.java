@@ -0,0 +1,189 @@
+package com.example.demo.config;
+
+import com.example.demo.controller.UserController;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.CatalogVersion;
+import com.example.demo.service.PrivilegeService;
+import com.example.demo.service.UserService;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.mockito.stubbing.Answer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class QueryCountFilterTest {
+
+	private final BudgetedController controller = new BudgetedController();
+
+	private QueryCountFilter filter;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		filter = new QueryCountFilter();
+		ReflectionTestUtils.setField(filter, "enabled", true);
+		ReflectionTestUtils.setField(filter, "logMinStatements", 1);
+		ReflectionTestUtils.setField(filter, "failOnBudgetExceeded", true);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).addFilters(filter).build();
+	}
+
+	@Test
+	void overBudgetRequestFails() {
+		assertBudgetExceeded(() -> mockMvc.perform(get("/over-budget")));
+	}
+
+	@Test
+	void withinBudgetRequestSucceedsWithCountHeader() throws Exception {
+		mockMvc.perform(get("/within-budget"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(QueryCountFilter.COUNT_HEADER, "2"))
+			.andExpect(content().string("ok"));
+	}
+
+	@Test
+	void overBudgetFailsBeforeResponseIsCommitted() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/over-budget");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+			new HandlerMethod(controller, "overBudget"));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain chain = (req, res) -> {
+			runStatements(3);
+			res.getWriter().write("ok");
+			res.flushBuffer();
+		};
+
+		assertThrows(QueryBudgetExceededException.class, () -> filter.doFilter(request, response, chain));
+		assertFalse(response.isCommitted());
+		assertEquals("", response.getContentAsString());
+	}
+
+	@Test
+	void userListStaysWithinBudgetForManyUsers() throws Exception {
+		UserRepository userRepository = stubbedUserRepository(50);
+		when(userRepository.getUserRoles(anyCollection())).thenAnswer(statements(1, Map.of()));
+
+		userListMvc(userRepository).perform(get("/users"))
+			.andExpect(status().isOk())
+			// admin check + users + quota + roles + privileges (2) + APP_USER_PROFILE, không phụ thuộc số user
+			.andExpect(header().string(QueryCountFilter.COUNT_HEADER, "7"));
+	}
+
+	@Test
+	void userListFailsWhenDetailsAreLoadedPerUser() {
+		UserRepository userRepository = stubbedUserRepository(50);
+		// Một query roles cho mỗi user: N+1 mà @QueryBudget của /users phải bắt được
+		when(userRepository.getUserRoles(anyCollection())).thenAnswer(invocation -> {
+			runStatements(invocation.<Collection<?>>getArgument(0).size());
+			return Map.of();
+		});
+
+		assertBudgetExceeded(() -> userListMvc(userRepository).perform(get("/users")));
+	}
+
+	private MockMvc userListMvc(UserRepository userRepository) {
+		UserService userService = new UserService();
+		ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+
+		AuthenticationService authenticationService = mock(AuthenticationService.class);
+		when(authenticationService.getCurrentUser(any())).thenReturn("ADMIN");
+		when(authenticationService.hasAdminCapabilities(any(), any())).thenAnswer(statements(1, true));
+
+		UserController userController = new UserController();
+		ReflectionTestUtils.setField(userController, "userService", userService);
+		ReflectionTestUtils.setField(userController, "authenticationService", authenticationService);
+		ReflectionTestUtils.setField(userController, "privilegeService", mock(PrivilegeService.class));
+		ReflectionTestUtils.setField(userController, "catalogVersion", new CatalogVersion());
+		return MockMvcBuilders.standaloneSetup(userController).addFilters(filter).build();
+	}
+
+	// Mỗi method của repository chạy số câu lệnh như bản thật (getUserPrivileges: hai query)
+	private static UserRepository stubbedUserRepository(int users) {
+		List<User> all = new ArrayList<>();
+		for (int i = 0; i < users; i++) {
+			User user = new User();
+			user.setUsername("U_USER" + i);
+			user.setDefaultTablespace("USERS");
+			all.add(user);
+		}
+		UserRepository userRepository = mock(UserRepository.class);
+		when(userRepository.getAllUsers()).thenAnswer(statements(1, all));
+		when(userRepository.getUserQuotas(anyList())).thenAnswer(statements(1, Map.of()));
+		when(userRepository.getUserPrivileges(anyCollection())).thenAnswer(statements(2, Map.of()));
+		when(userRepository.getUserProfiles(anyCollection())).thenAnswer(statements(1, Map.of()));
+		return userRepository;
+	}
+
+	private static <T> Answer<T> statements(int count, T result) {
+		return invocation -> {
+			runStatements(count);
+			return result;
+		};
+	}
+
+	// Vượt budget trong handler thì exception đến qua DispatcherServlet (bọc trong ServletException),
+	// sau handler thì đến thẳng từ filter
+	private static void assertBudgetExceeded(Executable request) {
+		Throwable failure = assertThrows(Exception.class, request);
+		while (!(failure instanceof QueryBudgetExceededException) && failure.getCause() != null) {
+			failure = failure.getCause();
+		}
+		assertInstanceOf(QueryBudgetExceededException.class, failure);
+	}
+
+	private static void runStatements(int count) {
+		for (int i = 0; i < count; i++) {
+			QueryCounter.record("SELECT 1 FROM DUAL", 1_000L);
+		}
+	}
+
+	@RestController
+	static class BudgetedController {
+
+		@GetMapping("/over-budget")
+		@QueryBudget(2)
+		public String overBudget() {
+			runStatements(3);
+			return "ok";
+		}
+
+		@GetMapping("/within-budget")
+		@QueryBudget(2)
+		public String withinBudget() {
+			runStatements(2);
+			return "ok";
+		}
+
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.AuthenticationService;
+import com.example.demo.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ApiExceptionHandlerTest {
+
+	private final UserService userService = mock(UserService.class);
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		UserApiController controller = new UserApiController();
+		ReflectionTestUtils.setField(controller, "userService", userService);
+		ReflectionTestUtils.setField(controller, "authenticationService", mock(AuthenticationService.class));
+		ReflectionTestUtils.setField(controller, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(controller, "defaultPageSize", 50);
+		ReflectionTestUtils.setField(controller, "maxPageSize", 500);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).setControllerAdvice(new ApiExceptionHandler()).build();
+	}
+
+	@Test
+	void malformedBodyIsBadRequest() throws Exception {
+		mockMvc.perform(post("/api/v1/users").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"username\": \"HR\", \"password\": \"secret"))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").value("Malformed request body"));
+	}
+
+	@Test
+	void parameterOfTheWrongTypeIsBadRequest() throws Exception {
+		mockMvc.perform(get("/api/v1/users").param("page", "first"))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").value("Invalid value for parameter 'page'"));
+	}
+
+	@Test
+	void unsupportedContentTypeIsNotAServerError() throws Exception {
+		mockMvc.perform(post("/api/v1/users").contentType(MediaType.TEXT_PLAIN).content("HR"))
+			.andExpect(status().isUnsupportedMediaType())
+			.andExpect(jsonPath("$.status").value(415));
+	}
+
+	@Test
+	void oracleFailureIsStillMappedByErrorCode() throws Exception {
+		doThrow(new RuntimeException("ORA-01918: user 'NOBODY' does not exist"))
+			.when(userService).lockUser("NOBODY");
+
+		mockMvc.perform(post("/api/v1/users/NOBODY/lock"))
+			.andExpect(status().isNotFound())
+			.andExpect(jsonPath("$.error").value("Oracle error ORA-01918"));
+	}
+
+	@Test
+	void unknownRuntimeFailureIsServerError() throws Exception {
+		when(userService.getVisibleUsers(any())).thenThrow(new IllegalStateException("pool closed"));
+
+		mockMvc.perform(get("/api/v1/users"))
+			.andExpect(status().isInternalServerError())
+			.andExpect(jsonPath("$.error").value("Internal server error"));
+	}
+
+}
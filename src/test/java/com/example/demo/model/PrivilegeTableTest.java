@@ -0,0 +1,99 @@
+package com.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrivilegeTableTest {
+
+	@Test
+	void builderKeepsEveryColumnOfEveryRow() {
+		PrivilegeTable table = PrivilegeTable.builder()
+			.add("CREATE SESSION", "HR", null, true, "DIRECT", null, null)
+			.add("SELECT", "HR", "APP_OWNER", false, "OBJECT", null, "EMPLOYEES")
+			.build();
+
+		assertEquals(2, table.size());
+		assertEquals("CREATE SESSION", table.getPrivilege(0));
+		assertEquals("HR", table.getGrantee(0));
+		assertNull(table.getGrantor(0));
+		assertTrue(table.isAdminOption(0));
+		assertEquals("DIRECT", table.getType(0));
+		assertNull(table.getObjectName(0));
+		assertEquals("APP_OWNER", table.getGrantor(1));
+		assertFalse(table.isAdminOption(1));
+		assertEquals("OBJECT", table.getType(1));
+		assertNull(table.getRoleName(1));
+		assertEquals("EMPLOYEES", table.getObjectName(1));
+		assertThrows(IndexOutOfBoundsException.class, () -> table.getPrivilege(2));
+	}
+
+	@Test
+	void getAndIterationMatchThePrivilegeInfoOfEachRow() {
+		PrivilegeTable table = PrivilegeTable.builder()
+			.add("CREATE SESSION", "HR", null, true, "DIRECT", null, null)
+			.add("SELECT", "HR", "APP_OWNER", false, "OBJECT", null, "EMPLOYEES")
+			.build();
+		List<PrivilegeInfo> expected = List.of(
+			new PrivilegeInfo("CREATE SESSION", "HR", null, true, "DIRECT", null, null),
+			new PrivilegeInfo("SELECT", "HR", "APP_OWNER", false, "OBJECT", null, "EMPLOYEES"));
+
+		assertEquals(expected.get(1), table.get(1));
+		assertEquals(expected, new ArrayList<>(table));
+		assertEquals(expected, table);
+	}
+
+	@Test
+	void getReturnsATransientCopyThatCannotChangeTheTable() {
+		PrivilegeTable table = PrivilegeTable.builder()
+			.add("CREATE SESSION", "HR", null, false, "DIRECT", null, null)
+			.build();
+
+		PrivilegeInfo first = table.get(0);
+		assertNotSame(first, table.get(0));
+		first.setGrantee("SCOTT");
+		assertEquals("HR", table.getGrantee(0));
+	}
+
+	@Test
+	void repeatedValuesAreStoredOnce() {
+		PrivilegeTable.Builder builder = PrivilegeTable.builder();
+		for (int i = 0; i < 100; i++) {
+			// new String: cùng giá trị nhưng object khác, như mỗi dòng ResultSet
+			builder.add(new String("SELECT"), new String("HR"), new String("APP_OWNER"), false,
+				new String("OBJECT"), null, "TABLE_" + (i % 10));
+		}
+		PrivilegeTable table = builder.build();
+
+		// SELECT, HR, APP_OWNER, OBJECT + 10 tên table
+		assertEquals(14, table.symbolCount());
+		assertSame(table.getGrantee(0), table.getGrantee(99));
+		assertSame(table.getObjectName(3), table.getObjectName(13));
+		assertSame(table.get(0).getPrivilege(), table.get(50).getPrivilege());
+	}
+
+	@Test
+	void addAllCopiesRowsFromAnotherTable() {
+		PrivilegeTable first = PrivilegeTable.builder()
+			.add("CREATE SESSION", "HR", null, false, "DIRECT", null, null)
+			.build();
+		PrivilegeTable second = PrivilegeTable.builder()
+			.add("CREATE TABLE", "SCOTT", null, true, "DIRECT", null, null)
+			.build();
+
+		PrivilegeTable merged = PrivilegeTable.builder().addAll(first).addAll(second).build();
+
+		assertEquals(List.of(first.get(0), second.get(0)), merged);
+		assertEquals(0, PrivilegeTable.EMPTY.size());
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.example.demo.repository;
+
+import com.example.demo.config.RequestDeadlineExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DictionaryQueryGuardTest {
+
+	private static final String QUERY = "UserRepository.getAllUsers";
+
+	private DictionaryQueryGuard guard;
+
+	@BeforeEach
+	void setUp() {
+		guard = new DictionaryQueryGuard();
+		ReflectionTestUtils.setField(guard, "environment", new MockEnvironment());
+		ReflectionTestUtils.setField(guard, "defaultTimeoutSeconds", 5);
+		ReflectionTestUtils.setField(guard, "slowCallMillis", 2000L);
+		// Một lỗi là mở breaker, và HALF_OPEN ngay sau đó
+		ReflectionTestUtils.setField(guard, "windowSize", 1);
+		ReflectionTestUtils.setField(guard, "minimumCalls", 1);
+		ReflectionTestUtils.setField(guard, "failureRateThreshold", 0.5);
+		ReflectionTestUtils.setField(guard, "slowCallRateThreshold", 1.0);
+		ReflectionTestUtils.setField(guard, "openSeconds", 0L);
+		ReflectionTestUtils.setField(guard, "staleCacheSize", 10);
+		ReflectionTestUtils.setField(guard, "requestMemoEnabled", false);
+	}
+
+	@Test
+	void probeThatHitsRequestDeadlineDoesNotWedgeTheBreaker() {
+		assertThrows(IllegalStateException.class, () -> guard.read(QUERY, () -> {
+			throw new IllegalStateException("ORA-03113");
+		}));
+
+		// Lời gọi thử của HALF_OPEN hết deadline của request
+		assertThrows(RequestDeadlineExceededException.class, () -> guard.read(QUERY, () -> {
+			throw new RequestDeadlineExceededException("GET /users", "deadline exceeded", null);
+		}));
+
+		// Lượt thử đã được trả lại: request sau được chạy query và đóng breaker
+		AtomicInteger calls = new AtomicInteger();
+		assertEquals("ok", guard.read(QUERY, () -> {
+			calls.incrementAndGet();
+			return "ok";
+		}));
+		assertEquals("ok", guard.read(QUERY, () -> {
+			calls.incrementAndGet();
+			return "ok";
+		}));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void openBreakerDoesNotRunTheQuery() {
+		ReflectionTestUtils.setField(guard, "openSeconds", 60L);
+		assertThrows(IllegalStateException.class, () -> guard.read(QUERY, () -> {
+			throw new IllegalStateException("ORA-03113");
+		}));
+
+		// Breaker mở, chưa có kết quả cũ: không chạy query
+		AtomicInteger calls = new AtomicInteger();
+		assertThrows(DictionaryUnavailableException.class, () -> guard.read(QUERY, () -> {
+			calls.incrementAndGet();
+			return "ok";
+		}));
+		assertEquals(0, calls.get());
+	}
+
+}
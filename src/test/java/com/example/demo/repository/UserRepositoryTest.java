@@ -0,0 +1,80 @@
+package com.example.demo.repository;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UserRepositoryTest {
+
+	private static final String SQL = "SELECT GRANTEE, GRANTED_ROLE FROM DBA_ROLE_PRIVS WHERE %s";
+
+	@Test
+	void longNameListIsSplitIntoInListsOfAtMostOneThousand() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		List<String> names = names(2500);
+
+		UserRepository.queryIn(jdbcTemplate, SQL, "GRANTEE", names, rs -> { });
+
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		ArgumentCaptor<Object[]> binds = ArgumentCaptor.forClass(Object[].class);
+		verify(jdbcTemplate, times(3)).query(sql.capture(), any(RowCallbackHandler.class), binds.capture());
+
+		List<Object> bound = new ArrayList<>();
+		for (Object[] chunk : binds.getAllValues()) {
+			assertTrue(chunk.length <= UserRepository.MAX_IN_LIST);
+			bound.addAll(List.of(chunk));
+		}
+		assertEquals(names, bound);
+		assertEquals(500, binds.getAllValues().get(2).length);
+		for (String statement : sql.getAllValues()) {
+			assertTrue(statement.contains("GRANTEE IN (?"));
+			assertFalse(statement.contains("1 = 1"));
+		}
+	}
+
+	@Test
+	void shortNameListIsOneStatementAndEmptyListIsNone() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+		UserRepository.queryIn(jdbcTemplate, SQL, "GRANTEE", names(1000), rs -> { });
+		UserRepository.queryIn(jdbcTemplate, SQL, "GRANTEE", List.of(), rs -> { });
+
+		verify(jdbcTemplate, times(1)).query(any(String.class), any(RowCallbackHandler.class), any(Object[].class));
+	}
+
+	@Test
+	void cacheKeyIsShortAndDependsOnEveryName() {
+		List<String> names = names(5000);
+		List<String> changed = new ArrayList<>(names);
+		changed.set(4999, "OTHER");
+
+		String key = UserRepository.cacheKey("UserRepository.getUserRoles[]", names);
+		assertTrue(key.length() < 128);
+		assertEquals(key, UserRepository.cacheKey("UserRepository.getUserRoles[]", names(5000)));
+		assertNotEquals(key, UserRepository.cacheKey("UserRepository.getUserRoles[]", changed));
+		// Ranh giới giữa các tên là một phần của key
+		assertNotEquals(UserRepository.cacheKey("q", List.of("AB", "C")), UserRepository.cacheKey("q", List.of("A", "BC")));
+	}
+
+	private static List<String> names(int count) {
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			names.add("USER" + i);
+		}
+		return names;
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.example.demo.service;
+
+import com.example.demo.archive.AuditArchive;
+import com.example.demo.model.AuditCursor;
+import com.example.demo.model.AuditRecord;
+import com.example.demo.repository.AuditRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditTailServiceTest {
+
+	private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 19, 8, 0, 0);
+
+	private final AuditRepository auditRepository = mock(AuditRepository.class);
+
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+	private AuditTailService tailService;
+
+	@BeforeEach
+	void setUp() {
+		AuditArchive auditArchive = mock(AuditArchive.class);
+		when(auditArchive.durableWatermark(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+
+		tailService = new AuditTailService();
+		ReflectionTestUtils.setField(tailService, "auditRepository", auditRepository);
+		ReflectionTestUtils.setField(tailService, "eventPublisher", eventPublisher);
+		ReflectionTestUtils.setField(tailService, "auditArchive", auditArchive);
+		ReflectionTestUtils.setField(tailService, "enabled", true);
+		ReflectionTestUtils.setField(tailService, "sources", List.of(AuditRepository.UNIFIED));
+		ReflectionTestUtils.setField(tailService, "batchSize", 100);
+		ReflectionTestUtils.setField(tailService, "maxBatchesPerPoll", 5);
+		ReflectionTestUtils.setField(tailService, "initialLookbackHours", 24L);
+		ReflectionTestUtils.setField(tailService, "recentBufferSize", 100);
+		ReflectionTestUtils.setField(tailService, "overlapSeconds", 5L);
+	}
+
+	@Test
+	void lateRecordInsideTheOverlapIsPublishedOnce() {
+		AuditRecord first = record(T0, 1);
+		AuditRecord second = record(T0.plusSeconds(3), 2);
+		// Ghi trễ: thời điểm trước second nhưng chỉ xuất hiện ở lần poll sau
+		AuditRecord late = record(T0.plusSeconds(1), 3);
+		AuditCursor start = new AuditCursor(T0.minusSeconds(1), -1, -1);
+		AuditCursor overlap = new AuditCursor(T0.minusSeconds(2), -1, -1);
+		when(auditRepository.loadWatermark(AuditRepository.UNIFIED)).thenReturn(start);
+		when(auditRepository.fetchAfter(eq(AuditRepository.UNIFIED), eq(start), anyInt()))
+			.thenReturn(List.of(first, second));
+		when(auditRepository.fetchAfter(eq(AuditRepository.UNIFIED), eq(overlap), anyInt()))
+			.thenReturn(List.of(first, late, second));
+
+		tailService.poll();
+		tailService.poll();
+		tailService.poll();
+
+		ArgumentCaptor<AuditRecordsEvent> events = ArgumentCaptor.forClass(AuditRecordsEvent.class);
+		verify(eventPublisher, times(2)).publishEvent(events.capture());
+		assertEquals(List.of(first, second), events.getAllValues().get(0).records());
+		assertEquals(List.of(late), events.getAllValues().get(1).records());
+		assertEquals(new AuditCursor(T0.plusSeconds(3), 2, 2), tailService.getWatermark(AuditRepository.UNIFIED));
+	}
+
+	@Test
+	void firstPollAfterRestartStartsAtTheSavedWatermark() {
+		AuditCursor saved = new AuditCursor(T0, 1, 1);
+		when(auditRepository.loadWatermark(AuditRepository.UNIFIED)).thenReturn(saved);
+		when(auditRepository.fetchAfter(any(), any(), anyInt())).thenReturn(List.of());
+
+		tailService.poll();
+
+		verify(auditRepository).fetchAfter(AuditRepository.UNIFIED, saved, 100);
+	}
+
+	private static AuditRecord record(LocalDateTime eventTimeUtc, long id) {
+		AuditRecord record = new AuditRecord();
+		record.setSource(AuditRepository.UNIFIED);
+		record.setEventTimeUtc(eventTimeUtc);
+		record.setEventTime(eventTimeUtc);
+		record.setSessionId(id);
+		record.setEntryId(id);
+		record.setPolicyName("HR_POLICY");
+		return record;
+	}
+
+}
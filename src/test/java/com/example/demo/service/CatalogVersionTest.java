@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogVersionTest {
+
+	private CatalogVersion catalogVersion;
+
+	@BeforeEach
+	void setUp() {
+		catalogVersion = new CatalogVersion();
+		ReflectionTestUtils.setField(catalogVersion, "changeLogSize", 3);
+		ReflectionTestUtils.setField(catalogVersion, "maxChangedRows", 50);
+	}
+
+	@Test
+	void onlyRowsChangedSinceTheGivenVersionAreReported() {
+		catalogVersion.onCatalogChanged(CatalogChangedEvent.of("USER", "LOCK", "scott"));
+		long since = catalogVersion.current();
+		catalogVersion.onCatalogChanged(CatalogChangedEvent.of("USER", "UPDATE", "hr"));
+		catalogVersion.onCatalogChanged(CatalogChangedEvent.privilege("GRANT", "CREATE SESSION", "app_user", null));
+
+		assertEquals(Set.of("HR", "APP_USER"), catalogVersion.changedKeys("users", since));
+		assertEquals(Set.of("APP_USER"), catalogVersion.changedKeys("privileges", since));
+		assertTrue(catalogVersion.changedKeys("users", catalogVersion.current()).isEmpty());
+	}
+
+	@Test
+	void unrelatedTablesAreNotAffected() {
+		CatalogChangedEvent createProfile = CatalogChangedEvent.of("PROFILE", "CREATE", "app_profile");
+
+		assertEquals(List.of("profiles"), CatalogVersion.tablesAffectedBy(createProfile));
+		long since = catalogVersion.current();
+		catalogVersion.onCatalogChanged(createProfile);
+		assertTrue(catalogVersion.changedKeys("roles", since).isEmpty());
+	}
+
+	@Test
+	void changesWithUnknownRowsRequireAFullReload() {
+		long since = catalogVersion.current();
+		// DROP ROLE đổi cột Roles của các user không biết trước
+		catalogVersion.onCatalogChanged(CatalogChangedEvent.of("ROLE", "DROP", "app_role"));
+
+		assertNull(catalogVersion.changedKeys("users", since));
+		assertEquals(Set.of("APP_ROLE"), catalogVersion.changedKeys("roles", since));
+	}
+
+	@Test
+	void versionOlderThanTheLogRequiresAFullReload() {
+		long since = catalogVersion.current();
+		for (int i = 0; i < 4; i++) {
+			catalogVersion.onCatalogChanged(CatalogChangedEvent.of("USER", "UPDATE", "user" + i));
+		}
+
+		assertNull(catalogVersion.changedKeys("users", since));
+		assertEquals(Set.of("USER3"), catalogVersion.changedKeys("users", catalogVersion.current() - 1));
+		// since của lần khởi động trước, hoặc chưa tới
+		assertNull(catalogVersion.changedKeys("users", 42L));
+		assertNull(catalogVersion.changedKeys("users", catalogVersion.current() + 1));
+	}
+
+}